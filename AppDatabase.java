@@ -7,6 +7,8 @@ import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.example.qqq3xstrategy.data.models.MarketData;
 import com.example.qqq3xstrategy.data.models.SignalHistory;
@@ -24,7 +26,7 @@ import com.example.qqq3xstrategy.util.AppExecutors;
         SignalHistory.class,
         UserSettings.class
     },
-    version = 1,
+    version = 3,
     exportSchema = false
 )
 @TypeConverters({DateConverter.class})
@@ -33,6 +35,70 @@ public abstract class AppDatabase extends RoomDatabase {
     private static final String DATABASE_NAME = "qqq3x_strategy.db";
     private static volatile AppDatabase INSTANCE;
     
+    // julianday() of 1970-01-01, for converting ISO date strings to epoch days in SQL
+    private static final String EPOCH_DAY_SQL = "CAST(julianday(date) - 2440587.5 AS INTEGER)";
+    
+    /**
+     * Version 1 stored dates as ISO strings; version 2 stores them as INTEGER epoch days.
+     * SQLite cannot change a column type in place, so each table is rebuilt and copied.
+     * Also maps SignalHistory.positionChanged to the position_changed column its DAO queries.
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `market_data_new` (`date` INTEGER NOT NULL, " +
+                    "`qqqOpen` REAL NOT NULL, `qqqClose` REAL NOT NULL, `qqqHigh` REAL NOT NULL, " +
+                    "`qqqLow` REAL NOT NULL, `qqqVolume` REAL NOT NULL, " +
+                    "`vixOpen` REAL NOT NULL, `vixClose` REAL NOT NULL, `vixHigh` REAL NOT NULL, `vixLow` REAL NOT NULL, " +
+                    "`gldOpen` REAL NOT NULL, `gldClose` REAL NOT NULL, " +
+                    "`shyOpen` REAL NOT NULL, `shyClose` REAL NOT NULL, PRIMARY KEY(`date`))");
+            db.execSQL("INSERT INTO `market_data_new` SELECT " + EPOCH_DAY_SQL + ", " +
+                    "qqqOpen, qqqClose, qqqHigh, qqqLow, qqqVolume, vixOpen, vixClose, vixHigh, vixLow, " +
+                    "gldOpen, gldClose, shyOpen, shyClose FROM `market_data`");
+            
+            db.execSQL("CREATE TABLE IF NOT EXISTS `technical_indicators_new` (`date` INTEGER NOT NULL, " +
+                    "`qqqSmaYear` REAL NOT NULL, `qqqSmaLong` REAL NOT NULL, `qqqSmaShort` REAL NOT NULL, " +
+                    "`gldSma` REAL NOT NULL, `vixSmaShort` REAL NOT NULL, `vixSmaLong` REAL NOT NULL, " +
+                    "`vixSmaShort3` REAL NOT NULL, `vixSmaLong3` REAL NOT NULL, " +
+                    "`vixC` REAL NOT NULL, `vixOpenClose` REAL NOT NULL, PRIMARY KEY(`date`), " +
+                    "FOREIGN KEY(`date`) REFERENCES `market_data`(`date`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("INSERT INTO `technical_indicators_new` SELECT " + EPOCH_DAY_SQL + ", " +
+                    "qqqSmaYear, qqqSmaLong, qqqSmaShort, gldSma, vixSmaShort, vixSmaLong, " +
+                    "vixSmaShort3, vixSmaLong3, vixC, vixOpenClose FROM `technical_indicators`");
+            
+            db.execSQL("CREATE TABLE IF NOT EXISTS `signal_history_new` (`date` INTEGER NOT NULL, " +
+                    "`rawSignal` INTEGER, `signal` INTEGER NOT NULL, `position_changed` INTEGER NOT NULL, " +
+                    "`safeAsset` TEXT NOT NULL, PRIMARY KEY(`date`), " +
+                    "FOREIGN KEY(`date`) REFERENCES `market_data`(`date`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("INSERT INTO `signal_history_new` SELECT " + EPOCH_DAY_SQL + ", " +
+                    "rawSignal, signal, positionChanged, safeAsset FROM `signal_history`");
+            
+            // Children first, so no foreign key ever points at a dropped table
+            db.execSQL("DROP TABLE `signal_history`");
+            db.execSQL("DROP TABLE `technical_indicators`");
+            db.execSQL("DROP TABLE `market_data`");
+            db.execSQL("ALTER TABLE `market_data_new` RENAME TO `market_data`");
+            db.execSQL("ALTER TABLE `technical_indicators_new` RENAME TO `technical_indicators`");
+            db.execSQL("ALTER TABLE `signal_history_new` RENAME TO `signal_history`");
+        }
+    };
+    
+    /**
+     * Version 3 records the condition mask and SMAs behind each signal. Existing rows keep
+     * null until the signal history is recomputed.
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `signal_history` ADD COLUMN `condition_mask` INTEGER");
+            db.execSQL("ALTER TABLE `signal_history` ADD COLUMN `qqqSmaYear` REAL");
+            db.execSQL("ALTER TABLE `signal_history` ADD COLUMN `qqqSmaLong` REAL");
+            db.execSQL("ALTER TABLE `signal_history` ADD COLUMN `qqqSmaShort` REAL");
+            db.execSQL("ALTER TABLE `signal_history` ADD COLUMN `vixSmaShort` REAL");
+            db.execSQL("ALTER TABLE `signal_history` ADD COLUMN `vixSmaLong` REAL");
+        }
+    };
+    
     // DAOs
     public abstract MarketDataDao marketDataDao();
     public abstract TechnicalIndicatorDao technicalIndicatorDao();
@@ -52,7 +118,7 @@ public abstract class AppDatabase extends RoomDatabase {
                         AppDatabase.class,
                         DATABASE_NAME
                     )
-                    .fallbackToDestructiveMigration()
+                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3)
                     .build();
                     
                     // Initialize default settings if needed
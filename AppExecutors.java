@@ -2,26 +2,45 @@ package com.example.qqq3xstrategy.util;
 
 import android.os.Handler;
 import android.os.Looper;
+import android.util.Log;
+
+import com.example.qqq3xstrategy.util.PriorityExecutor.Overflow;
+import com.example.qqq3xstrategy.util.PriorityExecutor.Priority;
 
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * Global executor pools for the whole application.
  * <p>
  * Grouping tasks like this avoids the effects of task starvation (e.g. disk reads don't wait behind
- * webservice requests).
+ * webservice requests). Each pool has a {@link Priority#USER} lane for work the user is waiting on
+ * and a {@link Priority#BACKGROUND} lane for syncs and backfills, and user tasks always start
+ * first. Background disk tasks run one at a time in submission order, as on a single thread, while
+ * the second disk thread stays free for user reads, so they never wait behind a bulk insert.
+ * CPU-bound work such as backtests runs on its own compute pool so it holds neither disk thread.
  */
 public class AppExecutors {
+    private static final String TAG = "AppExecutors";
     private static final Object LOCK = new Object();
     private static AppExecutors sInstance;
-    private final Executor diskIO;
-    private final Executor networkIO;
+
+    private static final int DISK_THREADS = 2;
+    private static final int NETWORK_THREADS = 3;
+    private static final int COMPUTE_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    // User lanes reject rather than block the main thread; background producers are slowed down
+    private static final int USER_QUEUE_CAPACITY = 32;
+    private static final int BACKGROUND_QUEUE_CAPACITY = 256;
+
+    private final PriorityExecutor diskIO;
+    private final PriorityExecutor networkIO;
+    private final PriorityExecutor compute;
     private final Executor mainThread;
 
-    private AppExecutors(Executor diskIO, Executor networkIO, Executor mainThread) {
+    private AppExecutors(PriorityExecutor diskIO, PriorityExecutor networkIO, PriorityExecutor compute,
+                         Executor mainThread) {
         this.diskIO = diskIO;
         this.networkIO = networkIO;
+        this.compute = compute;
         this.mainThread = mainThread;
     }
 
@@ -30,8 +49,18 @@ public class AppExecutors {
             synchronized (LOCK) {
                 if (sInstance == null) {
                     sInstance = new AppExecutors(
-                            Executors.newSingleThreadExecutor(),
-                            Executors.newFixedThreadPool(3),
+                            new PriorityExecutor.Builder("disk-io", DISK_THREADS)
+                                    .lane(Priority.USER, USER_QUEUE_CAPACITY, DISK_THREADS, Overflow.REJECT)
+                                    .lane(Priority.BACKGROUND, BACKGROUND_QUEUE_CAPACITY, 1, Overflow.BLOCK)
+                                    .build(),
+                            new PriorityExecutor.Builder("network-io", NETWORK_THREADS)
+                                    .lane(Priority.USER, USER_QUEUE_CAPACITY, NETWORK_THREADS, Overflow.REJECT)
+                                    .lane(Priority.BACKGROUND, BACKGROUND_QUEUE_CAPACITY, NETWORK_THREADS - 1, Overflow.BLOCK)
+                                    .build(),
+                            new PriorityExecutor.Builder("compute", COMPUTE_THREADS)
+                                    .lane(Priority.USER, USER_QUEUE_CAPACITY, COMPUTE_THREADS, Overflow.REJECT)
+                                    .lane(Priority.BACKGROUND, BACKGROUND_QUEUE_CAPACITY, COMPUTE_THREADS, Overflow.BLOCK)
+                                    .build(),
                             new MainThreadExecutor());
                 }
             }
@@ -39,18 +68,84 @@ public class AppExecutors {
         return sInstance;
     }
 
+    /**
+     * Executors that run every task immediately on the calling thread, so tests are deterministic
+     */
+    public static AppExecutors createDirect() {
+        return new AppExecutors(
+                new PriorityExecutor.Builder("disk-io", 0).build(),
+                new PriorityExecutor.Builder("network-io", 0).build(),
+                new PriorityExecutor.Builder("compute", 0).build(),
+                Runnable::run);
+    }
+
+    /**
+     * Replace the shared instance, e.g. with {@link #createDirect()}
+     */
+    public static void setInstance(AppExecutors instance) {
+        synchronized (LOCK) {
+            sInstance = instance;
+        }
+    }
+
+    /**
+     * Background disk lane. Tasks run one at a time in submission order.
+     */
     public Executor diskIO() {
-        return diskIO;
+        return diskIO.lane(Priority.BACKGROUND);
+    }
+
+    public Executor diskIO(Priority priority) {
+        return diskIO.lane(priority);
     }
 
+    /**
+     * Background network lane
+     */
     public Executor networkIO() {
-        return networkIO;
+        return networkIO.lane(Priority.BACKGROUND);
+    }
+
+    public Executor networkIO(Priority priority) {
+        return networkIO.lane(priority);
+    }
+
+    /**
+     * Background compute lane, for CPU-bound work
+     */
+    public Executor compute() {
+        return compute.lane(Priority.BACKGROUND);
+    }
+
+    public Executor compute(Priority priority) {
+        return compute.lane(priority);
     }
 
     public Executor mainThread() {
         return mainThread;
     }
 
+    public PriorityExecutor getDiskExecutor() {
+        return diskIO;
+    }
+
+    public PriorityExecutor getNetworkExecutor() {
+        return networkIO;
+    }
+
+    public PriorityExecutor getComputeExecutor() {
+        return compute;
+    }
+
+    /**
+     * Log the queue depth, wait and run times of every lane
+     */
+    public void logStats() {
+        Log.i(TAG, diskIO.toString());
+        Log.i(TAG, networkIO.toString());
+        Log.i(TAG, compute.toString());
+    }
+
     private static class MainThreadExecutor implements Executor {
         private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
 
@@ -59,4 +154,4 @@ public class AppExecutors {
             mainThreadHandler.post(command);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,133 @@
+package com.example.qqq3xstrategy.strategy;
+
+import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+
+import java.util.List;
+
+/**
+ * Immutable daily price columns prepared for backtesting.
+ * <p>
+ * Prefix sums of every column that feeds an SMA are computed once, so any SMA period can be
+ * looked up in O(1). One instance can be shared by any number of concurrent backtests, which
+ * is what makes parameter sweeps cheap.
+ */
+public class BacktestData {
+    final double[] qqqOpen;
+    final double[] qqqClose;
+    final double[] vixOpen;
+    final double[] vixClose;
+    final double[] gldClose;
+    final double[] shyClose;
+
+    // prefix[i] is the sum of the first i values
+    private final double[] qqqPrefix;
+    private final double[] vixPrefix;
+    private final double[] gldPrefix;
+
+    /**
+     * Constructor with daily price columns of equal length
+     */
+    public BacktestData(double[] qqqOpen, double[] qqqClose,
+                        double[] vixOpen, double[] vixClose,
+                        double[] gldClose, double[] shyClose) {
+        int n = qqqClose.length;
+        if (qqqOpen.length != n || vixOpen.length != n || vixClose.length != n
+                || gldClose.length != n || shyClose.length != n) {
+            throw new IllegalArgumentException("All price columns must have the same length");
+        }
+
+        this.qqqOpen = qqqOpen;
+        this.qqqClose = qqqClose;
+        this.vixOpen = vixOpen;
+        this.vixClose = vixClose;
+        this.gldClose = gldClose;
+        this.shyClose = shyClose;
+        this.qqqPrefix = prefixSums(qqqClose);
+        this.vixPrefix = prefixSums(vixClose);
+        this.gldPrefix = prefixSums(gldClose);
+    }
+
+    /**
+     * Create backtest data from chronologically ordered market data
+     */
+    public static BacktestData fromMarketData(List<MarketData> data) {
+        int n = data.size();
+        double[] qqqOpen = new double[n];
+        double[] qqqClose = new double[n];
+        double[] vixOpen = new double[n];
+        double[] vixClose = new double[n];
+        double[] gldClose = new double[n];
+        double[] shyClose = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            MarketData bar = data.get(i);
+            qqqOpen[i] = bar.getQqqOpen();
+            qqqClose[i] = bar.getQqqClose();
+            vixOpen[i] = bar.getVixOpen();
+            vixClose[i] = bar.getVixClose();
+            gldClose[i] = bar.getGldClose();
+            shyClose[i] = bar.getShyClose();
+        }
+
+        return new BacktestData(qqqOpen, qqqClose, vixOpen, vixClose, gldClose, shyClose);
+    }
+
+    /**
+     * Create backtest data from a columnar series
+     */
+    public static BacktestData fromSeries(MarketSeries series) {
+        return new BacktestData(
+                series.toArray(MarketSeries.Field.QQQ_OPEN), series.toArray(MarketSeries.Field.QQQ_CLOSE),
+                series.toArray(MarketSeries.Field.VIX_OPEN), series.toArray(MarketSeries.Field.VIX_CLOSE),
+                series.toArray(MarketSeries.Field.GLD_CLOSE), series.toArray(MarketSeries.Field.SHY_CLOSE));
+    }
+
+    /**
+     * Number of days
+     */
+    public int size() {
+        return qqqClose.length;
+    }
+
+    /**
+     * QQQ close SMA ending at day i, or NaN until the window is full
+     */
+    double qqqSma(int i, int period) {
+        return sma(qqqPrefix, i, period);
+    }
+
+    /**
+     * VIX close SMA ending at day i, or NaN until the window is full
+     */
+    double vixSma(int i, int period) {
+        return sma(vixPrefix, i, period);
+    }
+
+    /**
+     * GLD close mean over at most {@code period} days ending at day i (min_periods=1)
+     */
+    double gldMean(int i, int period) {
+        int count = Math.min(i + 1, period);
+        return (gldPrefix[i + 1] - gldPrefix[i + 1 - count]) / count;
+    }
+
+    private static double sma(double[] prefix, int i, int period) {
+        return i + 1 < period ? Double.NaN : (prefix[i + 1] - prefix[i + 1 - period]) / period;
+    }
+
+    private static double[] prefixSums(double[] values) {
+        double[] prefix = new double[values.length + 1];
+        double sum = 0;
+        double compensation = 0;
+        for (int i = 0; i < values.length; i++) {
+            // Kahan summation keeps differences of large prefixes accurate
+            double y = values[i] - compensation;
+            double t = sum + y;
+            compensation = (t - sum) - y;
+            sum = t;
+            prefix[i + 1] = sum;
+        }
+        return prefix;
+    }
+}
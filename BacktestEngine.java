@@ -0,0 +1,326 @@
+package com.example.qqq3xstrategy.strategy;
+
+import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+import com.example.qqq3xstrategy.data.models.UserSettings;
+
+import java.util.List;
+
+/**
+ * Full-history backtest of the QQQ3X strategy, mirroring backtest_strategy in qqq3x_strategy.py.
+ * <p>
+ * Raw signals, the forward-filled signal, daily strategy returns, the equity curve and the
+ * summary statistics are all produced in a single pass over primitive column arrays. SMAs are
+ * O(1) lookups into the prefix sums of {@link BacktestData}.
+ */
+public class BacktestEngine {
+    // Defaults from qqq3x_strategy.py
+    public static final double DEFAULT_COMMISSION = 0.008; // Per trade, including slippage
+    public static final double DEFAULT_MANAGEMENT_FEE = 0.0095; // Yearly, TQQQ expense ratio
+    public static final double INITIAL_CAPITAL = 10000;
+    static final int TRADING_DAYS_PER_YEAR = 252;
+    static final double SAFE_SWITCH_BONUS = 0.0001;
+
+    private final int smaShort;
+    private final int smaLong;
+    private final int smaShort2;
+    private final int smaLong2;
+    private final int smaShort3;
+    private final int smaLong3;
+    private final int smaYear;
+    private final double targetLeverage;
+    private final double safeRatio;
+    private final double commission;
+    private final double dailyFee;
+
+    /**
+     * Constructor with user settings and the default trading costs
+     */
+    public BacktestEngine(UserSettings settings) {
+        this(settings, DEFAULT_COMMISSION, DEFAULT_MANAGEMENT_FEE);
+    }
+
+    /**
+     * Constructor with user settings and explicit trading costs
+     *
+     * @param commission Cost of one trade as a fraction of the traded amount
+     * @param managementFee Yearly management fee of the leveraged fund
+     */
+    public BacktestEngine(UserSettings settings, double commission, double managementFee) {
+        this.smaShort = settings.getSmaShort();
+        this.smaLong = settings.getSmaLong();
+        this.smaShort2 = settings.getSmaShort2();
+        this.smaLong2 = settings.getSmaLong2();
+        this.smaShort3 = settings.getSmaShort3();
+        this.smaLong3 = settings.getSmaLong3();
+        this.smaYear = settings.getSmaYear();
+        this.targetLeverage = settings.getTargetLeverage();
+        this.safeRatio = settings.getSafeRatio();
+        this.commission = commission;
+        this.dailyFee = managementFee / TRADING_DAYS_PER_YEAR;
+    }
+
+    /**
+     * Run the backtest over chronologically ordered market data
+     */
+    public BacktestResult run(List<MarketData> data) {
+        return run(BacktestData.fromMarketData(data));
+    }
+
+    /**
+     * Run the backtest over a columnar series
+     */
+    public BacktestResult run(MarketSeries series) {
+        return run(BacktestData.fromSeries(series));
+    }
+
+    /**
+     * Run the backtest over daily price columns of equal length
+     */
+    public BacktestResult run(double[] qqqOpen, double[] qqqClose,
+                              double[] vixOpen, double[] vixClose,
+                              double[] gldClose, double[] shyClose) {
+        return run(new BacktestData(qqqOpen, qqqClose, vixOpen, vixClose, gldClose, shyClose));
+    }
+
+    /**
+     * Run the backtest and keep the daily signals, returns and equity curve
+     */
+    public BacktestResult run(BacktestData data) {
+        int n = data.size();
+        int[] rawSignals = new int[n];
+        int[] signals = new int[n];
+        double[] returns = new double[n];
+        double[] equity = new double[n];
+
+        BacktestMetrics metrics = simulate(data, 0, n, getStartIndex(n), 0, new PerformanceAccumulator(),
+                rawSignals, signals, returns, equity);
+        return new BacktestResult(rawSignals, signals, returns, equity, getStartIndex(n), metrics);
+    }
+
+    /**
+     * Run the backtest and only compute its summary statistics.
+     * Nothing is allocated per day, so this is the path for parameter sweeps.
+     */
+    public BacktestMetrics evaluate(BacktestData data) {
+        return evaluate(data, 0, data.size());
+    }
+
+    /**
+     * Summary statistics of trading only the days from {@code from} to {@code to} (exclusive).
+     * The strategy starts in the safe asset on day {@code from}, while the SMAs still look back
+     * into the days before it. Days whose year SMA is still warming up are not reported.
+     */
+    public BacktestMetrics evaluate(BacktestData data, int from, int to) {
+        checkRange(data, from, to);
+        return simulate(data, from, to, Math.max(from, getStartIndex(to)), to, new PerformanceAccumulator(),
+                null, null, null, null);
+    }
+
+    /**
+     * Run the backtest and feed the daily returns of the reported days into
+     * {@code performance}, which gives the full set of analysis.py statistics without
+     * keeping any daily arrays
+     */
+    public BacktestMetrics evaluate(BacktestData data, PerformanceAccumulator performance) {
+        int n = data.size();
+        return simulate(data, 0, n, getStartIndex(n), n, performance, null, null, null, null);
+    }
+
+    /**
+     * Trade from {@code from} and report the days from {@code reportFrom} on, writing the
+     * daily outputs of the reported days into arrays indexed like the input columns. Used by
+     * {@link WalkForwardOptimizer} so a test window inherits the position its parameters
+     * built up over the training window.
+     */
+    BacktestMetrics simulateRange(BacktestData data, int from, int reportFrom, int to,
+                                  int[] rawSignals, int[] signals, double[] returns, double[] equity) {
+        checkRange(data, from, to);
+        return simulate(data, from, to, Math.max(reportFrom, getStartIndex(to)), reportFrom,
+                new PerformanceAccumulator(), rawSignals, signals, returns, equity);
+    }
+
+    private int getStartIndex(int n) {
+        return Math.min(smaYear, n);
+    }
+
+    private static void checkRange(BacktestData data, int from, int to) {
+        if (from < 0 || to > data.size() || from > to) {
+            throw new IndexOutOfBoundsException("Range " + from + ".." + to + " of " + data.size() + " days");
+        }
+    }
+
+    /**
+     * Single pass over the days from {@code from} to {@code to}. The output arrays are optional
+     * and only written from {@code outputFrom} on.
+     * <p>
+     * The signal of day i is decided from day i's closes and day i+1's opens and is held
+     * from day i+1 on, exactly like the shift(-1)/shift(1) pairs of the Python version.
+     *
+     * @param start First day added to {@code performance}
+     */
+    private BacktestMetrics simulate(BacktestData data, int from, int to, int start, int outputFrom,
+                                     PerformanceAccumulator performance,
+                                     int[] rawSignals, int[] signals, double[] returns, double[] equity) {
+        Day day = new Day();
+        double nav = INITIAL_CAPITAL;
+
+        for (int i = from; i < to; i++) {
+            step(data, from, i, day);
+            double dailyReturn = day.positionReturn + day.safeExposure * day.trendReturn;
+            nav *= 1 + dailyReturn;
+
+            if (i >= start) {
+                performance.add(dailyReturn);
+            }
+
+            if (equity != null && i >= outputFrom) {
+                rawSignals[i] = day.rawSignal;
+                signals[i] = day.signal;
+                returns[i] = dailyReturn;
+                equity[i] = nav;
+            }
+        }
+        return performance.toMetrics();
+    }
+
+    /**
+     * Run the backtest once per safe asset in a single pass over the data. The signals and
+     * the leveraged side of every day are computed once; only the safe sleeve's return
+     * differs between the variants, so each one adds a multiply-add per day.
+     */
+    public SafeAssetComparison compareSafeAssets(BacktestData data, List<SafeAsset> safeAssets) {
+        final int n = data.size();
+        final int m = safeAssets.size();
+        final SafeAsset[] assets = safeAssets.toArray(new SafeAsset[0]);
+        final int start = getStartIndex(n);
+
+        int[] rawSignals = new int[n];
+        int[] signals = new int[n];
+        double[][] returns = new double[m][n];
+        double[][] equity = new double[m][n];
+        double[] nav = new double[m];
+        PerformanceAccumulator[] performance = new PerformanceAccumulator[m];
+        for (int v = 0; v < m; v++) {
+            nav[v] = INITIAL_CAPITAL;
+            performance[v] = new PerformanceAccumulator();
+        }
+
+        Day day = new Day();
+        for (int i = 0; i < n; i++) {
+            step(data, 0, i, day);
+            for (int v = 0; v < m; v++) {
+                double dailyReturn = day.positionReturn + day.safeExposure
+                        * assets[v].getDailyReturn(day.gldReturn, day.shyReturn, day.trendReturn);
+                nav[v] *= 1 + dailyReturn;
+                if (i >= start) {
+                    performance[v].add(dailyReturn);
+                }
+                returns[v][i] = dailyReturn;
+                equity[v][i] = nav[v];
+            }
+            rawSignals[i] = day.rawSignal;
+            signals[i] = day.signal;
+        }
+
+        BacktestResult[] results = new BacktestResult[m];
+        for (int v = 0; v < m; v++) {
+            results[v] = new BacktestResult(rawSignals, signals, returns[v], equity[v], start,
+                    performance[v].toMetrics());
+        }
+        return new SafeAssetComparison(safeAssets, results);
+    }
+
+    /**
+     * State of a pass carried from one day to the next, and the parts of the latest day's
+     * return. One instance is reused for the whole pass.
+     */
+    private static final class Day {
+        // Forward-filled signal, defaulting to the safe asset, and the one held the day before
+        int signal = QQQ3XStrategy.SIGNAL_SAFE;
+        int previousSignal = QQQ3XStrategy.SIGNAL_SAFE;
+        int rawSignal;
+        double positionReturn;
+        double safeExposure;
+        double gldReturn;
+        double shyReturn;
+        // Return of GLD while it closes above its mean, SHY otherwise
+        double trendReturn;
+    }
+
+    /**
+     * Advance a pass that started on day {@code from} by day i. The return of day i is driven
+     * by the signal decided at the end of day i-1; the first day earns nothing. Day i's raw
+     * signal is then forward filled into {@code day.signal}.
+     */
+    private void step(BacktestData data, int from, int i, Day day) {
+        final double[] gldClose = data.gldClose;
+
+        day.rawSignal = evaluateRawSignal(data, i);
+        if (i > from) {
+            boolean tradeDay = i > from + 1 && day.signal != day.previousSignal;
+            day.positionReturn = getPositionReturn(data, i, day.signal, tradeDay);
+            day.safeExposure = getSafeExposure(day.signal, tradeDay);
+            day.gldReturn = gldClose[i] / gldClose[i - 1] - 1;
+            day.shyReturn = data.shyClose[i] / data.shyClose[i - 1] - 1;
+            day.trendReturn = gldClose[i] > data.gldMean(i, RollingIndicators.GLD_SMA_PERIOD)
+                    ? day.gldReturn : day.shyReturn;
+        } else {
+            day.positionReturn = 0;
+            day.safeExposure = 0;
+            day.gldReturn = 0;
+            day.shyReturn = 0;
+            day.trendReturn = 0;
+        }
+
+        day.previousSignal = day.signal;
+        if (day.rawSignal != QQQ3XStrategy.SIGNAL_NONE) {
+            day.signal = day.rawSignal;
+        }
+    }
+
+    /**
+     * Raw signal decided from day i's closes and day i+1's opens, which are unknown on the
+     * last day
+     */
+    private int evaluateRawSignal(BacktestData data, int i) {
+        boolean hasNext = i + 1 < data.size();
+        return QQQ3XStrategy.evaluateRawSignal(data.qqqClose[i], data.vixOpen[i], data.vixClose[i],
+                data.qqqSma(i, smaYear), data.qqqSma(i, smaLong), data.qqqSma(i, smaShort),
+                data.vixSma(i, smaShort2), data.vixSma(i, smaLong2),
+                data.vixSma(i, smaShort3), data.vixSma(i, smaLong3),
+                hasNext ? data.vixOpen[i + 1] : Double.NaN, hasNext ? data.qqqOpen[i + 1] : Double.NaN);
+    }
+
+    /**
+     * Part of day i's return that does not depend on the safe asset: the leveraged position,
+     * the open-to-close return on the day the strategy switches to safety, and commissions
+     */
+    private double getPositionReturn(BacktestData data, int i, int signal, boolean tradeDay) {
+        final double port = 1 - safeRatio;
+        final double[] qqqOpen = data.qqqOpen;
+        final double[] qqqClose = data.qqqClose;
+        double dailyReturn;
+        if (signal == QQQ3XStrategy.SIGNAL_LEVERAGED) {
+            dailyReturn = tradeDay
+                    ? ((qqqClose[i] / qqqOpen[i] - 1) * targetLeverage - dailyFee) * port
+                    : (targetLeverage * (qqqClose[i] / qqqClose[i - 1] - 1) - dailyFee) * port;
+        } else {
+            dailyReturn = tradeDay
+                    ? ((qqqOpen[i] / qqqClose[i - 1] - 1) * targetLeverage - dailyFee + SAFE_SWITCH_BONUS) * port
+                    : 0;
+        }
+        if (tradeDay) {
+            dailyReturn -= commission * 2 * port;
+        }
+        return dailyReturn;
+    }
+
+    /**
+     * Fraction of the portfolio earning the safe asset's return on day i: the safe ratio,
+     * plus the rest while the strategy holds the safe asset
+     */
+    private double getSafeExposure(int signal, boolean tradeDay) {
+        return signal == QQQ3XStrategy.SIGNAL_LEVERAGED || tradeDay ? safeRatio : 1;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.qqq3xstrategy.strategy;
+
+/**
+ * Summary statistics of a backtest, computed like analysis.py over the days after the
+ * indicator warm-up period
+ */
+public class BacktestMetrics {
+    static final double RISK_FREE_RATE = 0.04;
+
+    private final double totalReturn;
+    private final double cagr;
+    private final double sharpe;
+    private final double maxDrawdown;
+    private final int tradingDays;
+
+    public BacktestMetrics(double totalReturn, double cagr, double sharpe, double maxDrawdown, int tradingDays) {
+        this.totalReturn = totalReturn;
+        this.cagr = cagr;
+        this.sharpe = sharpe;
+        this.maxDrawdown = maxDrawdown;
+        this.tradingDays = tradingDays;
+    }
+
+    public double getTotalReturn() {
+        return totalReturn;
+    }
+
+    /**
+     * Compound annual growth rate, with years measured as trading days / 252
+     */
+    public double getCagr() {
+        return cagr;
+    }
+
+    /**
+     * Annualized Sharpe ratio of daily returns in excess of a 4% risk-free rate
+     */
+    public double getSharpe() {
+        return sharpe;
+    }
+
+    /**
+     * Maximum drawdown as a negative fraction (e.g. -0.44 for -44%)
+     */
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    public int getTradingDays() {
+        return tradingDays;
+    }
+
+    @Override
+    public String toString() {
+        return "BacktestMetrics{" +
+                "totalReturn=" + totalReturn +
+                ", cagr=" + cagr +
+                ", sharpe=" + sharpe +
+                ", maxDrawdown=" + maxDrawdown +
+                ", tradingDays=" + tradingDays +
+                '}';
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.qqq3xstrategy.strategy;
+
+import com.example.qqq3xstrategy.util.ChartLevels;
+
+/**
+ * Output of a {@link BacktestEngine} run.
+ * <p>
+ * All arrays are indexed like the input columns. Values before {@link #getStartIndex()} belong to
+ * the indicator warm-up period that qqq3x_strategy.py drops before reporting.
+ */
+public class BacktestResult {
+    private final int[] rawSignals;
+    private final int[] signals;
+    private final double[] returns;
+    private final double[] equity;
+    private final int startIndex;
+    private final BacktestMetrics metrics;
+    private volatile ChartLevels equityLevels;
+
+    public BacktestResult(int[] rawSignals, int[] signals, double[] returns, double[] equity,
+                          int startIndex, BacktestMetrics metrics) {
+        this.rawSignals = rawSignals;
+        this.signals = signals;
+        this.returns = returns;
+        this.equity = equity;
+        this.startIndex = startIndex;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Raw signal per day (-1, 1 or 0 when no condition fired)
+     */
+    public int[] getRawSignals() {
+        return rawSignals;
+    }
+
+    /**
+     * Forward-filled signal per day, held from the next day on
+     */
+    public int[] getSignals() {
+        return signals;
+    }
+
+    /**
+     * Daily strategy returns
+     */
+    public double[] getReturns() {
+        return returns;
+    }
+
+    /**
+     * Strategy net asset value per day, starting from {@link BacktestEngine#INITIAL_CAPITAL}
+     */
+    public double[] getEquity() {
+        return equity;
+    }
+
+    /**
+     * Level-of-detail pyramid of the equity curve for drawing. Built on first use, so make
+     * the first call off the main thread.
+     */
+    public ChartLevels getEquityLevels() {
+        ChartLevels levels = equityLevels;
+        if (levels == null) {
+            // Building twice in a race is harmless, the result is the same
+            levels = new ChartLevels(equity);
+            equityLevels = levels;
+        }
+        return levels;
+    }
+
+    /**
+     * First index after the indicator warm-up period
+     */
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    /**
+     * Summary statistics over the days from {@link #getStartIndex()} on
+     */
+    public BacktestMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Number of days in the backtest
+     */
+    public int size() {
+        return equity.length;
+    }
+
+    /**
+     * Net asset value on the last day
+     */
+    public double getFinalEquity() {
+        return equity.length == 0 ? BacktestEngine.INITIAL_CAPITAL : equity[equity.length - 1];
+    }
+}
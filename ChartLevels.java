@@ -0,0 +1,183 @@
+package com.example.qqq3xstrategy.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Level-of-detail pyramid of one chart series, so a chart draws about as many points as it
+ * has pixels however far it is zoomed out.
+ * <p>
+ * Each level splits the rows into buckets of a fixed width, twice as wide as on the level
+ * below, and keeps the rows holding the minimum and maximum of each bucket. Peaks such as VIX
+ * spikes and drawdown troughs therefore survive on every level, where averaging or taking
+ * every nth row would flatten them. Buckets are aligned to the first row rather than to the
+ * visible range, so points do not jump while panning. Each level is reduced from the one
+ * below, and the pyramid is immutable once built: build it off the main thread and read it
+ * from any thread.
+ */
+public final class ChartLevels {
+    // Narrower buckets would keep nearly every row
+    private static final int MIN_BUCKET = 4;
+
+    private final int size;
+    // Rows kept on each level in ascending order; level k has buckets of MIN_BUCKET << k rows
+    private final int[][] levels;
+
+    /**
+     * Build the pyramid of a column of values
+     */
+    public ChartLevels(double[] values) {
+        this(values.length, row -> values[row]);
+    }
+
+    /**
+     * Build the pyramid of {@code size} rows without copying them into an array
+     *
+     * @param values Value of each row; NaN rows are never kept
+     */
+    public ChartLevels(int size, IntToDoubleFunction values) {
+        this.size = size;
+        List<int[]> built = new ArrayList<>();
+        int width = MIN_BUCKET;
+        int[] rows = reduce(values, null, size, width);
+        built.add(rows);
+        while (width < size) {
+            width <<= 1;
+            rows = reduce(values, rows, rows.length, width);
+            built.add(rows);
+        }
+        this.levels = built.toArray(new int[0][]);
+    }
+
+    /**
+     * Keep the minimum and maximum row of each bucket
+     *
+     * @param source Rows of the level below, or null for every row
+     * @param count Number of source rows
+     */
+    private static int[] reduce(IntToDoubleFunction values, int[] source, int count, int width) {
+        int[] kept = new int[count];
+        int n = 0;
+        int i = 0;
+        while (i < count) {
+            int bucket = (source == null ? i : source[i]) / width;
+            int minRow = -1;
+            int maxRow = -1;
+            double min = 0;
+            double max = 0;
+            for (; i < count; i++) {
+                int row = source == null ? i : source[i];
+                if (row / width != bucket) {
+                    break;
+                }
+                double value = values.applyAsDouble(row);
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                if (minRow < 0 || value < min) {
+                    min = value;
+                    minRow = row;
+                }
+                if (maxRow < 0 || value > max) {
+                    max = value;
+                    maxRow = row;
+                }
+            }
+            if (minRow < 0) {
+                continue;
+            }
+            if (minRow == maxRow) {
+                kept[n++] = minRow;
+            } else {
+                kept[n++] = Math.min(minRow, maxRow);
+                kept[n++] = Math.max(minRow, maxRow);
+            }
+        }
+        return Arrays.copyOf(kept, n);
+    }
+
+    /**
+     * Rows to draw for the visible rows from {@code from} (inclusive) to {@code to} (exclusive)
+     *
+     * @param maxPoints Most rows to return, e.g. twice the chart width in pixels
+     * @return Row indices in ascending order. The first and last visible rows are always
+     * included so the line reaches both edges of the chart.
+     */
+    public int[] getRows(int from, int to, int maxPoints) {
+        from = Math.max(0, from);
+        to = Math.min(size, to);
+        if (to <= from) {
+            return new int[0];
+        }
+        int count = to - from;
+        if (count <= maxPoints) {
+            int[] rows = new int[count];
+            for (int i = 0; i < count; i++) {
+                rows[i] = from + i;
+            }
+            return rows;
+        }
+
+        // Each bucket overlapping the range keeps up to two rows, plus the two edge rows
+        int level = 0;
+        while (level < levels.length - 1 && 2 * (count / getBucketWidth(level) + 2) + 2 > maxPoints) {
+            level++;
+        }
+        int[] kept = levels[level];
+        int start = lowerBound(kept, from);
+        int end = lowerBound(kept, to);
+
+        int[] rows = new int[end - start + 2];
+        int n = 0;
+        if (start == end || kept[start] != from) {
+            rows[n++] = from;
+        }
+        System.arraycopy(kept, start, rows, n, end - start);
+        n += end - start;
+        if (rows[n - 1] != to - 1) {
+            rows[n++] = to - 1;
+        }
+        return n == rows.length ? rows : Arrays.copyOf(rows, n);
+    }
+
+    /**
+     * Number of rows the pyramid was built from
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    /**
+     * Rows per bucket on a level
+     */
+    public int getBucketWidth(int level) {
+        return MIN_BUCKET << level;
+    }
+
+    /**
+     * Number of rows kept on a level
+     */
+    public int getLevelSize(int level) {
+        return levels[level].length;
+    }
+
+    private static int lowerBound(int[] rows, int row) {
+        int low = 0;
+        int high = rows.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (rows[middle] < row) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
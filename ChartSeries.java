@@ -0,0 +1,80 @@
+package com.example.qqq3xstrategy.data.network.models;
+
+/**
+ * Yahoo Finance chart response decoded into primitive columns.
+ * <p>
+ * Produced by {@link com.example.qqq3xstrategy.data.network.ChartSeriesDecoder} instead of
+ * {@link ChartResponse}, so a long history costs a handful of arrays rather than a boxed
+ * object per value. Missing prices are {@code Double.NaN}.
+ */
+public class ChartSeries {
+    private final String symbol;
+    private final String error;
+    private final long[] timestamps;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] volume;
+
+    public ChartSeries(String symbol, String error, long[] timestamps,
+                       double[] open, double[] high, double[] low, double[] close, double[] volume) {
+        this.symbol = symbol;
+        this.error = error;
+        this.timestamps = timestamps;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    /**
+     * Number of bars
+     */
+    public int size() {
+        return timestamps.length;
+    }
+
+    public boolean isEmpty() {
+        return timestamps.length == 0;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Error description reported by Yahoo, or null
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Bar start times in epoch seconds
+     */
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public double[] getOpen() {
+        return open;
+    }
+
+    public double[] getHigh() {
+        return high;
+    }
+
+    public double[] getLow() {
+        return low;
+    }
+
+    public double[] getClose() {
+        return close;
+    }
+
+    public double[] getVolume() {
+        return volume;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.qqq3xstrategy.data.network;
+
+import com.example.qqq3xstrategy.data.network.models.ChartSeries;
+import com.google.gson.stream.JsonReader;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Retrofit converter that streams chart responses through {@link ChartSeriesDecoder}.
+ * Must be registered before the Gson converter, which would otherwise claim every type.
+ */
+public class ChartSeriesConverterFactory extends Converter.Factory {
+
+    public static ChartSeriesConverterFactory create() {
+        return new ChartSeriesConverterFactory();
+    }
+
+    private ChartSeriesConverterFactory() {
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        if (type != ChartSeries.class) {
+            return null;
+        }
+        return (Converter<ResponseBody, ChartSeries>) body -> {
+            try (JsonReader reader = new JsonReader(body.charStream())) {
+                return ChartSeriesDecoder.decode(reader);
+            } finally {
+                body.close();
+            }
+        };
+    }
+}
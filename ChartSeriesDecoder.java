@@ -0,0 +1,236 @@
+package com.example.qqq3xstrategy.data.network;
+
+import com.example.qqq3xstrategy.data.network.models.ChartSeries;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Streaming decoder for the Yahoo Finance chart API.
+ * <p>
+ * Reads {@code chart.result[0]} token by token straight into primitive arrays. Values are
+ * never boxed, and JSON nulls (days without a trade) become {@code Double.NaN}. Unknown
+ * fields are skipped, so the decoder tolerates additions to the response format.
+ */
+public final class ChartSeriesDecoder {
+    private static final long[] NO_TIMESTAMPS = new long[0];
+    private static final double[] NO_VALUES = new double[0];
+
+    private String symbol;
+    private String error;
+    private long[] timestamps = NO_TIMESTAMPS;
+    private double[] open = NO_VALUES;
+    private double[] high = NO_VALUES;
+    private double[] low = NO_VALUES;
+    private double[] close = NO_VALUES;
+    private double[] volume = NO_VALUES;
+
+    private ChartSeriesDecoder() {
+    }
+
+    /**
+     * Decode a complete chart response
+     */
+    public static ChartSeries decode(JsonReader reader) throws IOException {
+        ChartSeriesDecoder decoder = new ChartSeriesDecoder();
+        decoder.readRoot(reader);
+        return decoder.build();
+    }
+
+    private ChartSeries build() {
+        int n = timestamps.length;
+        return new ChartSeries(symbol, error, timestamps,
+                fit(open, n), fit(high, n), fit(low, n), fit(close, n), fit(volume, n));
+    }
+
+    private void readRoot(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("chart".equals(reader.nextName())) {
+                readChart(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readChart(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("result".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                if (reader.hasNext()) {
+                    readResult(reader);
+                }
+                // Only one symbol is requested per call
+                while (reader.hasNext()) {
+                    reader.skipValue();
+                }
+                reader.endArray();
+            } else if ("error".equals(name)) {
+                readError(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readError(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING) {
+            error = reader.nextString();
+        } else if (token == JsonToken.BEGIN_OBJECT) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (("description".equals(name) || ("code".equals(name) && error == null))
+                        && reader.peek() == JsonToken.STRING) {
+                    error = reader.nextString();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } else {
+            reader.skipValue();
+        }
+    }
+
+    private void readResult(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("meta".equals(name)) {
+                readMeta(reader);
+            } else if ("timestamp".equals(name)) {
+                timestamps = readLongs(reader);
+            } else if ("indicators".equals(name)) {
+                readIndicators(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readMeta(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("symbol".equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                symbol = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readIndicators(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("quote".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                if (reader.hasNext()) {
+                    readQuote(reader);
+                }
+                while (reader.hasNext()) {
+                    reader.skipValue();
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readQuote(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "open":
+                    open = readDoubles(reader);
+                    break;
+                case "high":
+                    high = readDoubles(reader);
+                    break;
+                case "low":
+                    low = readDoubles(reader);
+                    break;
+                case "close":
+                    close = readDoubles(reader);
+                    break;
+                case "volume":
+                    volume = readDoubles(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Read a JSON array of numbers, mapping nulls to NaN
+     */
+    private double[] readDoubles(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return NO_VALUES;
+        }
+        // Columns normally follow the timestamp array, whose length is the best size guess
+        double[] values = new double[Math.max(timestamps.length, 16)];
+        int count = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count + (count >> 1));
+            }
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                values[count++] = Double.NaN;
+            } else {
+                values[count++] = reader.nextDouble();
+            }
+        }
+        reader.endArray();
+        return count == values.length ? values : Arrays.copyOf(values, count);
+    }
+
+    private static long[] readLongs(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return NO_TIMESTAMPS;
+        }
+        long[] values = new long[256];
+        int count = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count + (count >> 1));
+            }
+            values[count++] = reader.nextLong();
+        }
+        reader.endArray();
+        return Arrays.copyOf(values, count);
+    }
+
+    /**
+     * Pad a column with NaN (or trim it) to the number of timestamps
+     */
+    private static double[] fit(double[] values, int length) {
+        if (values.length == length) {
+            return values;
+        }
+        double[] fitted = Arrays.copyOf(values, length);
+        Arrays.fill(fitted, Math.min(values.length, length), length, Double.NaN);
+        return fitted;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.qqq3xstrategy.strategy;
+
+/**
+ * Reusable holder for the outcome of one strategy evaluation: the raw signal, every named
+ * condition of qqq3x_strategy.py as one bit of an int mask, and the SMAs the conditions
+ * compared against.
+ * <p>
+ * An evaluation only overwrites primitive fields, so a single instance can be reused across
+ * a whole backtest or sweep without producing garbage. Not thread-safe; use one per thread.
+ */
+public final class ConditionVector {
+
+    /**
+     * Strategy conditions, named after the variables in qqq3x_strategy.py.
+     * The ordinal is the bit position in the mask.
+     */
+    public enum Condition {
+        QQQ_OPEN_CLOSE_B("qqq_open_close_b"),
+        QQQ_OPEN_CLOSE_L("qqq_open_close_l"),
+        VIX_UP_MUCH("vix_up_much"),
+        VIX_SELL("vix_sell"),
+        VIX_DOWN_TODAY("vix_down_today"),
+        VIX_DOWN_TODAY2("vix_down_today2"),
+        VIX_DOWN_SMOOTH("vix_down_smooth"),
+        VIX_DOWN_SMOOTH2("vix_down_smooth2"),
+        VIX_NO_NEED_SAFE("vix_no_need_safe"),
+        QQQ_UP_TREND("qqq_up_trend"),
+        QQQ_DOWN_TREND("qqq_down_trend"),
+        QQQ_YEAR_UP("qqq_year_up"),
+        QQQ_YEAR_DOWN("qqq_year_down"),
+        VIX_B_66("VIX_b_66"),
+        VIX_L_60("VIX_l_60"),
+        VIX_L_21("VIX_l_21"),
+        VIX_B_23("VIX_b_23"),
+        VIX_B_32("VIX_b_32"),
+        COND_UP("cond_up"),
+        COND_DOWN("cond_down"),
+        LEV_COND("lev_cond"),
+        SAFE_COND("safe_cond");
+
+        private final String label;
+
+        Condition(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Variable name in qqq3x_strategy.py
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Bit of this condition in a mask
+         */
+        public int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    // Values() copies the array on every call
+    private static final Condition[] CONDITIONS = Condition.values();
+
+    private int mask;
+    private int rawSignal = QQQ3XStrategy.SIGNAL_NONE;
+    private double qqqSmaYear = Double.NaN;
+    private double qqqSmaLong = Double.NaN;
+    private double qqqSmaShort = Double.NaN;
+    private double vixSmaShort = Double.NaN;
+    private double vixSmaLong = Double.NaN;
+
+    /**
+     * Store the outcome of an evaluation, replacing the previous one
+     */
+    void set(int mask, int rawSignal,
+             double qqqSmaYear, double qqqSmaLong, double qqqSmaShort,
+             double vixSmaShort, double vixSmaLong) {
+        this.mask = mask;
+        this.rawSignal = rawSignal;
+        this.qqqSmaYear = qqqSmaYear;
+        this.qqqSmaLong = qqqSmaLong;
+        this.qqqSmaShort = qqqSmaShort;
+        this.vixSmaShort = vixSmaShort;
+        this.vixSmaLong = vixSmaLong;
+    }
+
+    /**
+     * Forget the last evaluation. The SMAs read as NaN until the next one.
+     */
+    public void clear() {
+        set(0, QQQ3XStrategy.SIGNAL_NONE, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Conditions that held, one bit per {@link Condition}
+     */
+    public int getMask() {
+        return mask;
+    }
+
+    public boolean get(Condition condition) {
+        return isSet(mask, condition);
+    }
+
+    /**
+     * Raw signal, {@link QQQ3XStrategy#SIGNAL_NONE} if no condition fired
+     */
+    public int getRawSignal() {
+        return rawSignal;
+    }
+
+    /**
+     * Signal defaulting to the safe asset when no condition fired
+     */
+    public int getSignal() {
+        return rawSignal == QQQ3XStrategy.SIGNAL_NONE ? QQQ3XStrategy.SIGNAL_SAFE : rawSignal;
+    }
+
+    /**
+     * QQQ close SMA over smaYear days up to yesterday
+     */
+    public double getQqqSmaYear() {
+        return qqqSmaYear;
+    }
+
+    public double getQqqSmaLong() {
+        return qqqSmaLong;
+    }
+
+    public double getQqqSmaShort() {
+        return qqqSmaShort;
+    }
+
+    /**
+     * VIX close SMA over smaShort2 days up to yesterday
+     */
+    public double getVixSmaShort() {
+        return vixSmaShort;
+    }
+
+    /**
+     * VIX close SMA over smaLong2 days up to yesterday
+     */
+    public double getVixSmaLong() {
+        return vixSmaLong;
+    }
+
+    public static boolean isSet(int mask, Condition condition) {
+        return (mask & condition.bit()) != 0;
+    }
+
+    /**
+     * Labels of the conditions that held in a mask, e.g. for logging
+     */
+    public static String describe(int mask) {
+        StringBuilder builder = new StringBuilder("[");
+        for (Condition condition : CONDITIONS) {
+            if (isSet(mask, condition)) {
+                builder.append(builder.length() > 1 ? ", " : "").append(condition.getLabel());
+            }
+        }
+        return builder.append(']').toString();
+    }
+
+    @Override
+    public String toString() {
+        return "ConditionVector{" +
+                "rawSignal=" + rawSignal +
+                ", conditions=" + describe(mask) +
+                '}';
+    }
+}
@@ -10,13 +10,21 @@ import androidx.preference.PreferenceManager;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 
+import com.example.qqq3xstrategy.data.database.AppDatabase;
+import com.example.qqq3xstrategy.data.database.MarketSeriesFile;
 import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.UserSettings;
+import com.example.qqq3xstrategy.data.repository.HistorySnapshotImporter;
+import com.example.qqq3xstrategy.data.repository.IndicatorPipeline;
+import com.example.qqq3xstrategy.data.repository.SignalHistoryRebuilder;
 import com.example.qqq3xstrategy.data.repository.YahooFinanceRepository;
 import com.example.qqq3xstrategy.services.StrategyCalculationService;
+import com.example.qqq3xstrategy.util.AppExecutors;
 import com.example.qqq3xstrategy.util.QQQ3XStrategyApp;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -54,20 +62,56 @@ public class DataFetchWorker extends Worker {
                 needsHistoricalUpdate = !lastUpdate.equals(today);
             }
             
+            AppDatabase database = AppDatabase.getInstance(getApplicationContext());
+            int imported = 0;
             if (needsHistoricalUpdate) {
+                // Load the bundled snapshot first, so the sync only downloads the days after it
+                imported = CompletableFuture.supplyAsync(
+                        () -> new HistorySnapshotImporter(getApplicationContext(), database).importMissingHistory(),
+                        AppExecutors.getInstance().diskIO()).get(60, TimeUnit.SECONDS);
+                
                 Log.d(TAG, "Updating historical data");
-                repository.fetchAllHistoricalData(twoYearsAgo, today).get(60, TimeUnit.SECONDS);
+                int written = repository.syncHistoricalData(twoYearsAgo, today).get(60, TimeUnit.SECONDS);
+                Log.d(TAG, "Historical sync wrote " + written + " rows");
                 
                 // Update last update timestamp
                 prefs.edit().putString("last_historical_update", today.toString()).apply();
             }
             
+            // Bring the stored indicators up to date. The repository saves on the serial
+            // background disk lane, so queuing behind it sees the rows fetched above. Imported
+            // rows predate the stored indicators and signals, and changed SMA periods or safe
+            // asset invalidate them, so both are then computed again, as are the signals when
+            // days are missing.
+            boolean imports = imported > 0;
+            CompletableFuture.runAsync(() -> {
+                UserSettings stored = database.userSettingsDao().getSettings();
+                UserSettings settings = stored != null ? stored : new UserSettings();
+                String fingerprint = settings.getHistoryFingerprint();
+                boolean rebuildAll = imports || !fingerprint.equals(prefs.getString("history_settings", ""));
+                
+                IndicatorPipeline pipeline = new IndicatorPipeline(database);
+                if (rebuildAll) {
+                    pipeline.rebuild(settings);
+                } else {
+                    pipeline.update(settings);
+                }
+                
+                SignalHistoryRebuilder signals = new SignalHistoryRebuilder(database,
+                        MarketSeriesFile.getInstance(getApplicationContext()));
+                if (rebuildAll || signals.isStale(today, settings)) {
+                    signals.rebuild(settings);
+                }
+                prefs.edit().putString("history_settings", fingerprint).apply();
+            }, AppExecutors.getInstance().diskIO()).get(60, TimeUnit.SECONDS);
+            
             // Trigger strategy calculation
             Intent intent = new Intent(getApplicationContext(), StrategyCalculationService.class);
             intent.putExtra("vix_open", marketData.getVixOpen());
             intent.putExtra("qqq_open", marketData.getQqqOpen());
             getApplicationContext().startService(intent);
             
+            AppExecutors.getInstance().logStats();
             Log.d(TAG, "Data fetch completed successfully");
             return Result.success();
         } catch (Exception e) {
@@ -5,16 +5,18 @@ import androidx.room.TypeConverter;
 import java.time.LocalDate;
 
 /**
- * Type converter for Room to handle LocalDate objects
+ * Type converter for Room to handle LocalDate objects.
+ * Dates are stored as INTEGER epoch days, so keys compare and range-scan as integers
+ * and converting a row needs no parsing.
  */
 public class DateConverter {
     @TypeConverter
-    public static LocalDate fromString(String value) {
-        return value == null ? null : LocalDate.parse(value);
+    public static LocalDate fromEpochDay(Long value) {
+        return value == null ? null : LocalDate.ofEpochDay(value);
     }
     
     @TypeConverter
-    public static String dateToString(LocalDate date) {
-        return date == null ? null : date.toString();
+    public static Long dateToEpochDay(LocalDate date) {
+        return date == null ? null : date.toEpochDay();
     }
-}
\ No newline at end of file
+}
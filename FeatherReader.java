@@ -0,0 +1,406 @@
+package com.example.qqq3xstrategy.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Minimal reader for Feather v2 (Arrow IPC file) tables of primitive columns, as written by
+ * pandas {@code DataFrame.to_feather}.
+ * <p>
+ * The file is read in place from a {@link ByteBuffer}, typically memory-mapped: only the
+ * footer and record batch headers are parsed up front, and each column is decoded on request
+ * straight into a primitive array. Uncompressed and LZ4 frame compressed buffers are supported.
+ * Nulls become {@code Double.NaN}.
+ */
+public final class FeatherReader {
+    private static final byte[] MAGIC = "ARROW1".getBytes(StandardCharsets.US_ASCII);
+
+    // Arrow type ids (Schema.fbs)
+    private static final int TYPE_INT = 2;
+    private static final int TYPE_FLOATING_POINT = 3;
+    private static final int TYPE_BINARY = 4;
+    private static final int TYPE_UTF8 = 5;
+    private static final int TYPE_BOOL = 6;
+    private static final int TYPE_DATE = 8;
+    private static final int TYPE_TIMESTAMP = 10;
+
+    private static final int PRECISION_DOUBLE = 2;
+    private static final int MESSAGE_RECORD_BATCH = 3;
+    private static final int CODEC_LZ4_FRAME = 0;
+
+    private static final int UNIT_MILLISECOND = 1;
+    // Indexed by Arrow TimeUnit: seconds to nanoseconds
+    private static final long[] UNITS_PER_DAY = {86_400L, 86_400_000L, 86_400_000_000L, 86_400_000_000_000L};
+
+    private static final class Column {
+        final String name;
+        final int type;
+        // Bit width for Int, precision for FloatingPoint, unit for Date and Timestamp
+        final int detail;
+        final int firstBuffer;
+
+        Column(String name, int type, int detail, int firstBuffer) {
+            this.name = name;
+            this.type = type;
+            this.detail = detail;
+            this.firstBuffer = firstBuffer;
+        }
+    }
+
+    private static final class Batch {
+        final int rows;
+        final int body;
+        final int buffers;
+        final boolean compressed;
+
+        Batch(int rows, int body, int buffers, boolean compressed) {
+            this.rows = rows;
+            this.body = body;
+            this.buffers = buffers;
+            this.compressed = compressed;
+        }
+    }
+
+    private final ByteBuffer data;
+    private final List<Column> columns = new ArrayList<>();
+    private final List<Batch> batches = new ArrayList<>();
+    private int rowCount;
+
+    /**
+     * Parse the footer and batch headers of a Feather file
+     */
+    public FeatherReader(ByteBuffer data) throws IOException {
+        this.data = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            readFooter();
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt feather file", e);
+        }
+    }
+
+    /**
+     * Total number of rows over all record batches
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public List<String> getColumnNames() {
+        List<String> names = new ArrayList<>(columns.size());
+        for (Column column : columns) {
+            names.add(column.name);
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    public boolean hasColumn(String name) {
+        return find(name) != null;
+    }
+
+    /**
+     * Read a numeric column (floating point or integer) as doubles, with nulls as NaN
+     */
+    public double[] readDoubles(String name) throws IOException {
+        Column column = require(name);
+        if (column.type != TYPE_FLOATING_POINT && column.type != TYPE_INT) {
+            throw new IOException("Column " + name + " is not numeric");
+        }
+        if (column.type == TYPE_FLOATING_POINT && column.detail != PRECISION_DOUBLE) {
+            throw new IOException("Column " + name + " is not double precision");
+        }
+        if (column.type == TYPE_INT && column.detail != 64) {
+            throw new IOException("Column " + name + " is not a 64-bit integer");
+        }
+
+        double[] values = new double[rowCount];
+        int row = 0;
+        for (Batch batch : batches) {
+            ByteBuffer buffer = buffer(batch, column.firstBuffer + 1, batch.rows * 8L);
+            if (column.type == TYPE_FLOATING_POINT) {
+                buffer.asDoubleBuffer().get(values, row, batch.rows);
+            } else {
+                for (int i = 0; i < batch.rows; i++) {
+                    values[row + i] = buffer.getLong(i * 8);
+                }
+            }
+            byte[] validity = validity(batch, column.firstBuffer);
+            if (validity != null) {
+                for (int i = 0; i < batch.rows; i++) {
+                    if ((validity[i >>> 3] & (1 << (i & 7))) == 0) {
+                        values[row + i] = Double.NaN;
+                    }
+                }
+            }
+            row += batch.rows;
+        }
+        return values;
+    }
+
+    /**
+     * Read a timestamp or date column as days since 1970-01-01, ignoring any time zone
+     */
+    public int[] readEpochDays(String name) throws IOException {
+        Column column = require(name);
+        if (column.type != TYPE_TIMESTAMP && column.type != TYPE_DATE) {
+            throw new IOException("Column " + name + " is not a date");
+        }
+
+        int[] days = new int[rowCount];
+        int row = 0;
+        for (Batch batch : batches) {
+            byte[] validity = validity(batch, column.firstBuffer);
+            for (int i = 0; validity != null && i < batch.rows; i++) {
+                if ((validity[i >>> 3] & (1 << (i & 7))) == 0) {
+                    throw new IOException("Column " + name + " contains null dates");
+                }
+            }
+            if (column.type == TYPE_DATE && column.detail != UNIT_MILLISECOND) {
+                ByteBuffer buffer = buffer(batch, column.firstBuffer + 1, batch.rows * 4L);
+                buffer.asIntBuffer().get(days, row, batch.rows);
+            } else {
+                // Date in milliseconds, or a timestamp in seconds to nanoseconds
+                long perDay = UNITS_PER_DAY[column.type == TYPE_DATE ? UNIT_MILLISECOND : column.detail];
+                ByteBuffer buffer = buffer(batch, column.firstBuffer + 1, batch.rows * 8L);
+                for (int i = 0; i < batch.rows; i++) {
+                    days[row + i] = (int) Math.floorDiv(buffer.getLong(i * 8), perDay);
+                }
+            }
+            row += batch.rows;
+        }
+        return days;
+    }
+
+    private Column find(String name) {
+        for (Column column : columns) {
+            if (column.name.equals(name)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    private Column require(String name) throws IOException {
+        Column column = find(name);
+        if (column == null) {
+            throw new IOException("Missing column " + name);
+        }
+        return column;
+    }
+
+    private void readFooter() throws IOException {
+        int size = data.limit();
+        if (size < 12 || !hasMagic(0) || !hasMagic(size - MAGIC.length)) {
+            throw new IOException("Not a feather file");
+        }
+        int footerLength = data.getInt(size - MAGIC.length - 4);
+        int footer = root(size - MAGIC.length - 4 - footerLength);
+
+        int schema = table(footer, 1);
+        if (schema == 0) {
+            throw new IOException("Feather file has no schema");
+        }
+        if (scalarShort(schema, 0, 0) != 0) {
+            throw new IOException("Big-endian feather files are not supported");
+        }
+        readFields(schema);
+
+        int blocks = vector(footer, 3);
+        int blockCount = blocks == 0 ? 0 : data.getInt(blocks);
+        for (int i = 0; i < blockCount; i++) {
+            // Block struct: offset, metadata length, padding, body length
+            int block = blocks + 4 + i * 24;
+            readBatch((int) data.getLong(block), data.getInt(block + 8));
+        }
+    }
+
+    private void readFields(int schema) throws IOException {
+        int fields = vector(schema, 1);
+        int count = fields == 0 ? 0 : data.getInt(fields);
+        int buffer = 0;
+        for (int i = 0; i < count; i++) {
+            int field = indirect(fields + 4 + i * 4);
+            String name = string(field, 0);
+            int type = scalarByte(field, 2);
+            int typeTable = table(field, 3);
+            if (vector(field, 5) != 0 && data.getInt(vector(field, 5)) > 0) {
+                throw new IOException("Nested column " + name + " is not supported");
+            }
+
+            int detail = 0;
+            int buffers;
+            switch (type) {
+                case TYPE_INT:
+                    detail = scalarInt(typeTable, 0);
+                    buffers = 2;
+                    break;
+                case TYPE_FLOATING_POINT:
+                case TYPE_TIMESTAMP:
+                    detail = scalarShort(typeTable, 0, 0);
+                    buffers = 2;
+                    break;
+                case TYPE_DATE:
+                    detail = scalarShort(typeTable, 0, UNIT_MILLISECOND);
+                    buffers = 2;
+                    break;
+                case TYPE_BOOL:
+                    buffers = 2;
+                    break;
+                case TYPE_BINARY:
+                case TYPE_UTF8:
+                    buffers = 3;
+                    break;
+                default:
+                    throw new IOException("Column " + name + " has unsupported type " + type);
+            }
+            columns.add(new Column(name, type, detail, buffer));
+            buffer += buffers;
+        }
+    }
+
+    private void readBatch(int offset, int metadataLength) throws IOException {
+        // Encapsulated message: continuation marker (since format 0.15), length, flatbuffer
+        int message = data.getInt(offset) == -1 ? offset + 8 : offset + 4;
+        message = root(message);
+        if (scalarByte(message, 1) != MESSAGE_RECORD_BATCH) {
+            throw new IOException("Expected a record batch at " + offset);
+        }
+        int batch = table(message, 2);
+        int lengthField = field(batch, 0);
+        long rows = lengthField == 0 ? 0 : data.getLong(lengthField);
+        if (rows < 0 || rowCount + rows > Integer.MAX_VALUE) {
+            throw new IOException("Unsupported record batch length " + rows);
+        }
+
+        int compression = table(batch, 3);
+        boolean compressed = false;
+        if (compression != 0) {
+            if (scalarByte(compression, 0) != CODEC_LZ4_FRAME) {
+                throw new IOException("Only LZ4 compressed feather files are supported");
+            }
+            compressed = true;
+        }
+        batches.add(new Batch((int) rows, offset + metadataLength, vector(batch, 2), compressed));
+        rowCount += (int) rows;
+    }
+
+    /**
+     * Little-endian view of one decoded buffer of a batch
+     */
+    private ByteBuffer buffer(Batch batch, int index, long expectedLength) throws IOException {
+        // Buffer struct: offset, length, both relative to the message body
+        int descriptor = batch.buffers + 4 + index * 16;
+        int start = batch.body + (int) data.getLong(descriptor);
+        int length = (int) data.getLong(descriptor + 8);
+
+        ByteBuffer buffer;
+        if (!batch.compressed) {
+            buffer = slice(start, length);
+        } else {
+            // Uncompressed length prefix, -1 if the buffer was stored as is
+            long decodedLength = data.getLong(start);
+            if (decodedLength == -1) {
+                buffer = slice(start + 8, length - 8);
+            } else {
+                byte[] decoded = new byte[(int) decodedLength];
+                Lz4FrameDecoder.decode(data, start + 8, length - 8, decoded);
+                buffer = ByteBuffer.wrap(decoded);
+            }
+        }
+        if (buffer.remaining() < expectedLength) {
+            throw new IOException("Column buffer is shorter than its record batch");
+        }
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Validity bitmap of a column in a batch, or null if every value is present
+     */
+    private byte[] validity(Batch batch, int index) throws IOException {
+        int descriptor = batch.buffers + 4 + index * 16;
+        if (data.getLong(descriptor + 8) == 0) {
+            return null;
+        }
+        ByteBuffer buffer = buffer(batch, index, (batch.rows + 7) / 8);
+        byte[] bits = new byte[(batch.rows + 7) / 8];
+        buffer.get(bits);
+        return bits;
+    }
+
+    private ByteBuffer slice(int start, int length) {
+        ByteBuffer duplicate = data.duplicate();
+        duplicate.position(start);
+        duplicate.limit(start + length);
+        return duplicate.slice();
+    }
+
+    private boolean hasMagic(int position) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data.get(position + i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Flatbuffer access: tables start with an offset back to their vtable, whose entries
+    // are the offsets of each field within the table (0 if absent)
+
+    private int root(int position) {
+        return position + data.getInt(position);
+    }
+
+    private int indirect(int position) {
+        return position + data.getInt(position);
+    }
+
+    private int field(int table, int index) {
+        int vtable = table - data.getInt(table);
+        int entry = 4 + index * 2;
+        if (entry >= (data.getShort(vtable) & 0xFFFF)) {
+            return 0;
+        }
+        int offset = data.getShort(vtable + entry) & 0xFFFF;
+        return offset == 0 ? 0 : table + offset;
+    }
+
+    private int table(int table, int index) {
+        int position = field(table, index);
+        return position == 0 ? 0 : indirect(position);
+    }
+
+    private int vector(int table, int index) {
+        return table(table, index);
+    }
+
+    private int scalarByte(int table, int index) {
+        int position = field(table, index);
+        return position == 0 ? 0 : data.get(position) & 0xFF;
+    }
+
+    private int scalarShort(int table, int index, int defaultValue) {
+        int position = field(table, index);
+        return position == 0 ? defaultValue : data.getShort(position);
+    }
+
+    private int scalarInt(int table, int index) {
+        int position = field(table, index);
+        return position == 0 ? 0 : data.getInt(position);
+    }
+
+    private String string(int table, int index) {
+        int position = table(table, index);
+        if (position == 0) {
+            return "";
+        }
+        byte[] bytes = new byte[data.getInt(position)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = data.get(position + 4 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.qqq3xstrategy.data.repository;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import com.example.qqq3xstrategy.data.database.AppDatabase;
+import com.example.qqq3xstrategy.data.database.MarketDataDao;
+import com.example.qqq3xstrategy.data.database.MarketSeriesFile;
+import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+import com.example.qqq3xstrategy.util.FeatherReader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
+
+/**
+ * Loads the market history bundled with the app, the {@code financial_data.feather} snapshot
+ * written by download.py, into market_data.
+ * <p>
+ * Only dates before the earliest stored QQQ close are imported. On first launch that is the
+ * whole snapshot, and the Yahoo sync then only needs the days after it; rows that were already
+ * downloaded are never replaced by snapshot values. The asset is memory-mapped and decoded one
+ * column at a time, and rows are written in batches of their own transaction. Prices the
+ * snapshot does not have are stored as 0, the missing-value marker of {@link MarketData}.
+ * Must be called off the main thread.
+ */
+public class HistorySnapshotImporter {
+    private static final String TAG = "HistorySnapshotImporter";
+    static final String ASSET_NAME = "financial_data.feather";
+    private static final int BATCH_SIZE = 250;
+
+    // Column names written by download.py
+    private static final String DATE = "Date";
+    private static final String QQQ_OPEN = "QQQ_OPEN";
+    private static final String QQQ_CLOSE = "QQQ";
+    private static final String QQQ_HIGH = "QQQ_high";
+    private static final String QQQ_LOW = "QQQ_low";
+    private static final String QQQ_VOLUME = "QQQ_Volume";
+    private static final String VIX_OPEN = "VIX_OPEN";
+    private static final String VIX_CLOSE = "^VIX";
+    private static final String GLD_CLOSE = "GLD";
+    private static final String SHY_CLOSE = "SHY";
+
+    private final Context context;
+    private final MarketDataDao marketDataDao;
+
+    /**
+     * Constructor
+     */
+    public HistorySnapshotImporter(Context context, AppDatabase database) {
+        this.context = context.getApplicationContext();
+        this.marketDataDao = database.marketDataDao();
+    }
+
+    /**
+     * Import the snapshot rows older than any stored history
+     *
+     * @return Number of rows imported
+     */
+    public int importMissingHistory() {
+        long start = System.nanoTime();
+        LocalDate earliest = marketDataDao.getEarliestQqqDate();
+        int before = earliest != null ? (int) earliest.toEpochDay() : Integer.MAX_VALUE;
+
+        MarketSeries series;
+        try {
+            series = read(new FeatherReader(mapAsset()), before);
+        } catch (IOException e) {
+            Log.e(TAG, "Could not read " + ASSET_NAME, e);
+            return 0;
+        }
+
+        for (int from = 0; from < series.size(); from += BATCH_SIZE) {
+            marketDataDao.insertSeries(series.slice(from, Math.min(series.size(), from + BATCH_SIZE)));
+        }
+        if (!series.isEmpty()) {
+            // The imported days predate the binary snapshot, so the next sync rebuilds it
+            MarketSeriesFile.getInstance(context).invalidate();
+            Log.i(TAG, "Imported " + series.size() + " rows from " + series.getDate(0) + " to " +
+                    series.getDate(series.size() - 1) + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        return series.size();
+    }
+
+    /**
+     * Decode the snapshot rows dated before {@code beforeEpochDay}. Rows missing a close for
+     * any symbol are skipped. The snapshot has no VIX high and low or GLD and SHY opens, so
+     * those are stored as 0, which {@link MarketData#isKnown(double)} reports as missing.
+     */
+    static MarketSeries read(FeatherReader reader, int beforeEpochDay) throws IOException {
+        int[] days = reader.readEpochDays(DATE);
+        int count = 0;
+        while (count < days.length && days[count] < beforeEpochDay) {
+            count++;
+        }
+        MarketSeries series = new MarketSeries(Math.max(count, 1));
+        if (count == 0) {
+            // Nothing to import, so leave the price columns undecoded
+            return series;
+        }
+
+        double[] qqqOpen = reader.readDoubles(QQQ_OPEN);
+        double[] qqqClose = reader.readDoubles(QQQ_CLOSE);
+        double[] qqqHigh = reader.readDoubles(QQQ_HIGH);
+        double[] qqqLow = reader.readDoubles(QQQ_LOW);
+        double[] qqqVolume = reader.readDoubles(QQQ_VOLUME);
+        double[] vixOpen = reader.readDoubles(VIX_OPEN);
+        double[] vixClose = reader.readDoubles(VIX_CLOSE);
+        double[] gldClose = reader.readDoubles(GLD_CLOSE);
+        double[] shyClose = reader.readDoubles(SHY_CLOSE);
+
+        for (int i = 0; i < count; i++) {
+            if (Double.isNaN(qqqClose[i]) || Double.isNaN(vixClose[i])
+                    || Double.isNaN(gldClose[i]) || Double.isNaN(shyClose[i])) {
+                continue;
+            }
+            if (!series.isEmpty() && days[i] <= series.getEpochDay(series.size() - 1)) {
+                Log.w(TAG, "Skipping out of order snapshot row " + LocalDate.ofEpochDay(days[i]));
+                continue;
+            }
+            int row = series.appendRow(days[i]);
+            series.setQqq(row, MarketDataMerger.valueOrZero(qqqOpen[i]), MarketDataMerger.valueOrZero(qqqHigh[i]),
+                    MarketDataMerger.valueOrZero(qqqLow[i]), qqqClose[i], MarketDataMerger.valueOrZero(qqqVolume[i]));
+            series.setVix(row, MarketDataMerger.valueOrZero(vixOpen[i]), 0, 0, vixClose[i]);
+            series.setGld(row, 0, gldClose[i]);
+            series.setShy(row, 0, shyClose[i]);
+        }
+        return series;
+    }
+
+    /**
+     * Map the asset into memory. That needs it stored uncompressed in the APK, which the
+     * build requests; otherwise it is read onto the heap instead.
+     */
+    private ByteBuffer mapAsset() throws IOException {
+        try (AssetFileDescriptor descriptor = context.getAssets().openFd(ASSET_NAME);
+             FileInputStream stream = descriptor.createInputStream()) {
+            return stream.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                    descriptor.getStartOffset(), descriptor.getLength());
+        } catch (FileNotFoundException e) {
+            try (InputStream stream = context.getAssets().open(ASSET_NAME)) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] chunk = new byte[16384];
+                int read;
+                while ((read = stream.read(chunk)) != -1) {
+                    bytes.write(chunk, 0, read);
+                }
+                return ByteBuffer.wrap(bytes.toByteArray());
+            }
+        }
+    }
+}
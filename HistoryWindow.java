@@ -0,0 +1,174 @@
+package com.example.qqq3xstrategy.data.models;
+
+import com.example.qqq3xstrategy.util.ChartLevels;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * One loaded window of market history for a chart: the market data and the held signal for
+ * every day between two dates.
+ * <p>
+ * A window covers more than the visible range, so scrolling within the prefetch margin needs
+ * no query. When new rows arrive, {@link #mergeTail} builds the next window from the old one
+ * and the changed rows at its end, and {@link #getFirstChangedRow()} tells the chart which
+ * entries to redraw. {@link #getLevels} gives the rows to draw at each zoom level.
+ */
+public class HistoryWindow {
+    private final LocalDate from;
+    private final LocalDate to;
+    private final MarketSeries series;
+    private final int[] signals;
+    private final boolean latest;
+    private final int firstChangedRow;
+    // Guarded by this, built on first use
+    private final EnumMap<MarketSeries.Field, ChartLevels> levels = new EnumMap<>(MarketSeries.Field.class);
+
+    /**
+     * Constructor
+     *
+     * @param from First date that was queried
+     * @param to Last date that was queried
+     * @param series Market data between the two dates
+     * @param signals Held signal for each row, 0 where none is stored
+     * @param latest Whether the window ends at the latest stored day
+     * @param firstChangedRow Rows before this index are the same as in the previous window
+     */
+    public HistoryWindow(LocalDate from, LocalDate to, MarketSeries series, int[] signals,
+                         boolean latest, int firstChangedRow) {
+        if (signals.length != series.size()) {
+            throw new IllegalArgumentException("Expected one signal per row");
+        }
+        this.from = from;
+        this.to = to;
+        this.series = series;
+        this.signals = signals;
+        this.latest = latest;
+        this.firstChangedRow = firstChangedRow;
+    }
+
+    /**
+     * Create a fully changed window from the rows and stored signals of a date range
+     */
+    public static HistoryWindow of(LocalDate from, LocalDate to, MarketSeries series,
+                                   List<SignalHistory> signals, boolean latest) {
+        return new HistoryWindow(from, to, series, alignSignals(series, signals), latest, 0);
+    }
+
+    /**
+     * Signal held on each row of {@code series}, 0 for rows without a stored signal
+     *
+     * @param signals Stored signals in date order
+     */
+    public static int[] alignSignals(MarketSeries series, List<SignalHistory> signals) {
+        int[] aligned = new int[series.size()];
+        for (SignalHistory signal : signals) {
+            int epochDay = (int) signal.getDate().toEpochDay();
+            int row = series.lowerBound(epochDay);
+            if (row < series.size() && series.getEpochDay(row) == epochDay) {
+                aligned[row] = signal.getSignal();
+            }
+        }
+        return aligned;
+    }
+
+    /**
+     * Build the next window from this one and the rows stored on or after its last day
+     *
+     * @param tail Market data from this window's last day onwards
+     * @param tailSignals Stored signals from this window's last day onwards
+     * @return The updated window, or null if the tail does not continue this window and the
+     * whole window has to be reloaded
+     */
+    public HistoryWindow mergeTail(MarketSeries tail, List<SignalHistory> tailSignals) {
+        int keep = series.size() - 1;
+        if (keep < 0 || tail.isEmpty() || tail.getEpochDay(0) != series.getEpochDay(keep)) {
+            return null;
+        }
+
+        MarketSeries merged = new MarketSeries(keep + tail.size());
+        merged.appendAll(series.slice(0, keep));
+        merged.appendAll(tail);
+
+        int[] mergedSignals = new int[merged.size()];
+        System.arraycopy(signals, 0, mergedSignals, 0, keep);
+        System.arraycopy(alignSignals(tail, tailSignals), 0, mergedSignals, keep, tail.size());
+
+        // New rows always need drawing, the old last row only if it was rewritten
+        int firstChanged = sameRow(tail, 0, mergedSignals[keep]) ? series.size() : keep;
+        LocalDate end = merged.getDate(merged.size() - 1);
+        return new HistoryWindow(from, end.isAfter(to) ? end : to, merged, mergedSignals, true, firstChanged);
+    }
+
+    /**
+     * Whether every day from {@code visibleFrom} to {@code visibleTo} is already loaded.
+     * Days after the latest stored day count as loaded for a window that reaches it.
+     */
+    public boolean covers(LocalDate visibleFrom, LocalDate visibleTo) {
+        return !visibleFrom.isBefore(from) && (latest || !visibleTo.isAfter(to));
+    }
+
+    private boolean sameRow(MarketSeries other, int otherRow, int otherSignal) {
+        int row = series.size() - 1;
+        if (signals[row] != otherSignal) {
+            return false;
+        }
+        for (MarketSeries.Field field : MarketSeries.Field.values()) {
+            if (Double.compare(series.get(field, row), other.get(field, otherRow)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Level-of-detail pyramid of one column. Built on first use, which
+     * HistoryWindowLiveData does off the main thread for the charted columns.
+     */
+    public synchronized ChartLevels getLevels(MarketSeries.Field field) {
+        ChartLevels fieldLevels = levels.get(field);
+        if (fieldLevels == null) {
+            fieldLevels = new ChartLevels(series.size(), row -> series.get(field, row));
+            levels.put(field, fieldLevels);
+        }
+        return fieldLevels;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public MarketSeries getSeries() {
+        return series;
+    }
+
+    /**
+     * Held signal of a row, 0 if none is stored
+     */
+    public int getSignal(int row) {
+        return signals[row];
+    }
+
+    public int size() {
+        return series.size();
+    }
+
+    /**
+     * Whether the window ends at the latest stored day and follows new rows
+     */
+    public boolean isLatest() {
+        return latest;
+    }
+
+    /**
+     * Rows before this index are unchanged since the previous window; the rest need redrawing
+     */
+    public int getFirstChangedRow() {
+        return firstChangedRow;
+    }
+}
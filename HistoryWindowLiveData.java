@@ -0,0 +1,231 @@
+package com.example.qqq3xstrategy.data.repository;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
+
+import com.example.qqq3xstrategy.data.database.AppDatabase;
+import com.example.qqq3xstrategy.data.database.MarketDataDao;
+import com.example.qqq3xstrategy.data.database.SignalHistoryDao;
+import com.example.qqq3xstrategy.data.models.HistoryWindow;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+import com.example.qqq3xstrategy.util.AppExecutors;
+import com.example.qqq3xstrategy.util.PriorityExecutor.Priority;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Market history for a chart, loaded one window at a time.
+ * <p>
+ * The chart reports the range it shows through {@link #setVisibleRange}. The window loaded
+ * for it adds one visible span of prefetch on each side, so memory follows the zoom level
+ * rather than the length of the stored history, and scrolling within the margin runs no query.
+ * While the window reaches the latest day, a change to market_data or signal_history only
+ * pages in the rows from the window's last day on, and the emitted window marks the first row
+ * that changed. Windows further back are not requeried by daily inserts; call
+ * {@link #refresh()} after rewriting history.
+ */
+public class HistoryWindowLiveData extends LiveData<HistoryWindow> {
+    private static final String TAG = "HistoryWindowLiveData";
+    private static final int PAGE_SIZE = 250;
+    // Days loaded on each side of the visible range, as a multiple of its length
+    private static final double PREFETCH = 1.0;
+    // Columns the charts draw, downsampled before a window is posted
+    private static final MarketSeries.Field[] CHARTED = {MarketSeries.Field.QQQ_CLOSE, MarketSeries.Field.VIX_CLOSE};
+
+    private final AppDatabase database;
+    private final MarketDataDao marketDataDao;
+    private final SignalHistoryDao signalDao;
+    private final Executor executor;
+    private final InvalidationTracker.Observer observer =
+            new InvalidationTracker.Observer("market_data", "signal_history") {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    tryExecute(HistoryWindowLiveData.this::updateTail);
+                }
+            };
+
+    // Guarded by this
+    private HistoryWindow window;
+    private LocalDate requestedFrom;
+    private LocalDate requestedTo;
+    private int generation;
+
+    /**
+     * Constructor. Queries run on the user disk lane, ahead of background syncs.
+     */
+    public HistoryWindowLiveData(AppDatabase database) {
+        this.database = database;
+        this.marketDataDao = database.marketDataDao();
+        this.signalDao = database.signalHistoryDao();
+        this.executor = AppExecutors.getInstance().diskIO(Priority.USER);
+    }
+
+    /**
+     * Show the days from {@code from} to {@code to}, loading a new window unless the current
+     * or pending one already covers them
+     */
+    public void setVisibleRange(LocalDate from, LocalDate to) {
+        LocalDate loadFrom;
+        LocalDate loadTo;
+        LocalDate previousFrom;
+        LocalDate previousTo;
+        int requested;
+        synchronized (this) {
+            if (window != null && window.covers(from, to)) {
+                return;
+            }
+            if (requestedFrom != null && !from.isBefore(requestedFrom) && !to.isAfter(requestedTo)) {
+                return;
+            }
+            long margin = (long) Math.ceil((ChronoUnit.DAYS.between(from, to) + 1) * PREFETCH);
+            previousFrom = requestedFrom;
+            previousTo = requestedTo;
+            requestedFrom = loadFrom = from.minusDays(margin);
+            requestedTo = loadTo = to.plusDays(margin);
+            requested = ++generation;
+        }
+        submitLoad(requested, loadFrom, loadTo, previousFrom, previousTo);
+    }
+
+    /**
+     * Reload the whole current window
+     */
+    public void refresh() {
+        LocalDate loadFrom;
+        LocalDate loadTo;
+        int requested;
+        synchronized (this) {
+            if (requestedFrom == null) {
+                return;
+            }
+            loadFrom = requestedFrom;
+            loadTo = requestedTo;
+            requested = ++generation;
+        }
+        submitLoad(requested, loadFrom, loadTo, loadFrom, loadTo);
+    }
+
+    @Override
+    protected void onActive() {
+        // Room wants observers added and removed off the main thread
+        tryExecute(() -> {
+            database.getInvalidationTracker().addObserver(observer);
+            // Catch up on rows stored while nobody was observing
+            updateTail();
+        });
+    }
+
+    @Override
+    protected void onInactive() {
+        tryExecute(() -> database.getInvalidationTracker().removeObserver(observer));
+    }
+
+    /**
+     * Queue a window load. The user lane rejects when full; the request is then rolled back, so
+     * a later call loads the range again instead of waiting for a load that never runs.
+     */
+    private void submitLoad(int requested, LocalDate from, LocalDate to,
+                            LocalDate previousFrom, LocalDate previousTo) {
+        try {
+            executor.execute(() -> load(requested, from, to));
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Window load rejected: " + e.getMessage());
+            synchronized (this) {
+                if (generation == requested) {
+                    // Let the load that was pending before this request publish again
+                    generation--;
+                    requestedFrom = previousFrom;
+                    requestedTo = previousTo;
+                }
+            }
+        }
+    }
+
+    /**
+     * Queue a task, most of them from the main thread, logging rather than throwing if the
+     * lane is full
+     */
+    private void tryExecute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Task rejected: " + e.getMessage());
+        }
+    }
+
+    private void load(int requested, LocalDate from, LocalDate to) {
+        HistoryWindow loaded = database.runInTransaction(() -> {
+            LocalDate latestDate = marketDataDao.getLatestDate();
+            return HistoryWindow.of(from, to,
+                    marketDataDao.getMarketSeriesBetweenDates(from, to),
+                    signalDao.getSignalsBetweenDates(from, to),
+                    latestDate == null || !latestDate.isAfter(to));
+        });
+        publish(requested, loaded);
+    }
+
+    /**
+     * Page in the rows from the last day of a window that follows the latest day
+     */
+    private void updateTail() {
+        HistoryWindow current;
+        int requested;
+        synchronized (this) {
+            current = window;
+            requested = generation;
+        }
+        if (current == null || !current.isLatest()) {
+            return;
+        }
+        if (current.size() == 0) {
+            LocalDate latestDate = marketDataDao.getLatestDate();
+            if (latestDate != null) {
+                load(requested, current.getFrom(), latestDate.isAfter(current.getTo()) ? latestDate : current.getTo());
+            }
+            return;
+        }
+
+        LocalDate last = current.getSeries().getDate(current.size() - 1);
+        HistoryWindow updated = database.runInTransaction(() -> {
+            MarketSeries tail = new MarketSeries(PAGE_SIZE);
+            LocalDate after = last.minusDays(1);
+            MarketSeries page;
+            do {
+                page = marketDataDao.getMarketSeriesAfter(after, PAGE_SIZE);
+                tail.appendAll(page);
+                if (!page.isEmpty()) {
+                    after = page.getDate(page.size() - 1);
+                }
+            } while (page.size() == PAGE_SIZE);
+            return current.mergeTail(tail, signalDao.getSignalsBetweenDates(last, LocalDate.MAX));
+        });
+
+        if (updated == null) {
+            // The last loaded day was removed, so the window no longer lines up
+            load(requested, current.getFrom(), current.getTo());
+        } else if (updated.getFirstChangedRow() < updated.size()) {
+            publish(requested, updated);
+        }
+    }
+
+    private void publish(int requested, HistoryWindow loaded) {
+        for (MarketSeries.Field field : CHARTED) {
+            loaded.getLevels(field);
+        }
+        synchronized (this) {
+            // A newer range was requested while this one loaded
+            if (requested != generation) {
+                return;
+            }
+            window = loaded;
+        }
+        postValue(loaded);
+    }
+}
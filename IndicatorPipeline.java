@@ -0,0 +1,113 @@
+package com.example.qqq3xstrategy.data.repository;
+
+import android.util.Log;
+
+import com.example.qqq3xstrategy.data.database.AppDatabase;
+import com.example.qqq3xstrategy.data.database.TechnicalIndicatorDao;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+import com.example.qqq3xstrategy.data.models.TechnicalIndicator;
+import com.example.qqq3xstrategy.data.models.UserSettings;
+import com.example.qqq3xstrategy.strategy.RollingIndicators;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the technical_indicators table in step with market_data.
+ * <p>
+ * Each update only computes dates from the last persisted indicator onwards. The rolling
+ * windows are seeded from the market data just before that date, so the cost of an update
+ * is proportional to the number of new days rather than the length of the history.
+ * Must be called off the main thread.
+ */
+public class IndicatorPipeline {
+    private static final String TAG = "IndicatorPipeline";
+
+    private final AppDatabase database;
+    private final TechnicalIndicatorDao indicatorDao;
+
+    /**
+     * Constructor
+     */
+    public IndicatorPipeline(AppDatabase database) {
+        this.database = database;
+        this.indicatorDao = database.technicalIndicatorDao();
+    }
+
+    /**
+     * Compute and store indicators for every market data date not yet covered.
+     * The last persisted date is recomputed too, since its market data may have been
+     * an intraday snapshot when it was first stored.
+     *
+     * @return Number of indicator rows written
+     */
+    public int update(UserSettings settings) {
+        RollingIndicators indicators = new RollingIndicators(settings);
+        TechnicalIndicator latest = indicatorDao.getLatestIndicator();
+        LocalDate from = latest != null ? latest.getDate() : LocalDate.MIN;
+
+        // One extra row so the first new day also has the previous VIX open and close
+        MarketSeries series = database.marketDataDao()
+                .getMarketSeriesFrom(from, indicators.getRequiredHistory() + 1);
+        int start = latest != null ? series.lowerBound((int) from.toEpochDay()) : 0;
+
+        List<TechnicalIndicator> rows = compute(series, start, indicators);
+        if (!rows.isEmpty()) {
+            // Room runs a list insert in a single transaction
+            indicatorDao.insertAll(rows);
+        }
+
+        Log.d(TAG, "Stored " + rows.size() + " technical indicators from " +
+                (rows.isEmpty() ? "-" : rows.get(0).getDate().toString()));
+        return rows.size();
+    }
+
+    /**
+     * Discard all stored indicators and compute them again, e.g. after the SMA periods changed
+     *
+     * @return Number of indicator rows written
+     */
+    public int rebuild(UserSettings settings) {
+        final int[] count = new int[1];
+        database.runInTransaction(() -> {
+            indicatorDao.deleteAll();
+            count[0] = update(settings);
+        });
+        return count[0];
+    }
+
+    /**
+     * Compute indicator rows for series rows {@code start} onwards.
+     * Rows before {@code start} only seed the rolling windows.
+     */
+    public static List<TechnicalIndicator> compute(MarketSeries series, int start, RollingIndicators indicators) {
+        indicators.appendAll(series.slice(0, start));
+
+        List<TechnicalIndicator> rows = new ArrayList<>(series.size() - start);
+        for (int i = start; i < series.size(); i++) {
+            double vixOpen = series.getVixOpen(i);
+            indicators.append(series.getQqqClose(i), vixOpen, series.getVixClose(i), series.getGldClose(i));
+
+            // VIX_C = VIX_OPEN.pct_change(), VIX_OPEN_CLOSE = VIX_OPEN / prior ^VIX close - 1
+            double vixC = 0;
+            double vixOpenClose = 0;
+            if (i > 0) {
+                vixC = ratio(vixOpen, series.getVixOpen(i - 1));
+                vixOpenClose = ratio(vixOpen, series.getVixClose(i - 1));
+            }
+
+            rows.add(new TechnicalIndicator(series.getDate(i),
+                    indicators.getQqqSmaYear(), indicators.getQqqSmaLong(), indicators.getQqqSmaShort(),
+                    indicators.getGldSma(),
+                    indicators.getVixSmaShort(), indicators.getVixSmaLong(),
+                    indicators.getVixSmaShort3(), indicators.getVixSmaLong3(),
+                    vixC, vixOpenClose));
+        }
+        return rows;
+    }
+
+    private static double ratio(double value, double previous) {
+        return previous == 0 ? 0 : value / previous - 1;
+    }
+}
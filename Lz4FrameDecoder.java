@@ -0,0 +1,136 @@
+package com.example.qqq3xstrategy.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Decoder for the LZ4 frame format, as used by Arrow IPC buffers written with
+ * {@code compression="lz4"}. Checksums are skipped rather than verified.
+ */
+final class Lz4FrameDecoder {
+    private static final int MAGIC = 0x184D2204;
+
+    private Lz4FrameDecoder() {
+    }
+
+    /**
+     * Decode one frame into {@code dest}, which must be exactly the uncompressed size
+     *
+     * @param src Buffer holding the frame, read with absolute gets in any byte order
+     * @param position Start of the frame in {@code src}
+     * @param length Length of the frame
+     */
+    static void decode(ByteBuffer src, int position, int length, byte[] dest) throws IOException {
+        int in = position;
+        int end = position + length;
+        if (length < 7 || intLE(src, in) != MAGIC) {
+            throw new IOException("Not an LZ4 frame");
+        }
+        in += 4;
+        int flags = src.get(in) & 0xFF;
+        if ((flags >>> 6) != 1) {
+            throw new IOException("Unsupported LZ4 frame version");
+        }
+        boolean blockChecksum = (flags & 0x10) != 0;
+        boolean contentSize = (flags & 0x08) != 0;
+        boolean contentChecksum = (flags & 0x04) != 0;
+        boolean dictionary = (flags & 0x01) != 0;
+        if (dictionary) {
+            throw new IOException("LZ4 frames with a dictionary are not supported");
+        }
+        // FLG, BD, optional content size and dictionary id, header checksum
+        in += 2 + (contentSize ? 8 : 0) + 1;
+
+        int out = 0;
+        while (true) {
+            if (in + 4 > end) {
+                throw new IOException("Truncated LZ4 frame");
+            }
+            int blockSize = intLE(src, in);
+            in += 4;
+            if (blockSize == 0) {
+                break;
+            }
+            boolean stored = blockSize < 0;
+            blockSize &= 0x7FFFFFFF;
+            if (in + blockSize > end) {
+                throw new IOException("Truncated LZ4 block");
+            }
+            if (stored) {
+                if (out + blockSize > dest.length) {
+                    throw new IOException("LZ4 frame is larger than expected");
+                }
+                for (int i = 0; i < blockSize; i++) {
+                    dest[out++] = src.get(in + i);
+                }
+            } else {
+                out = decodeBlock(src, in, in + blockSize, dest, out);
+            }
+            in += blockSize + (blockChecksum ? 4 : 0);
+        }
+        if (contentChecksum) {
+            in += 4;
+        }
+        if (out != dest.length || in > end) {
+            throw new IOException("LZ4 frame decoded to " + out + " bytes, expected " + dest.length);
+        }
+    }
+
+    /**
+     * Decode one compressed block. Matches may reach back into earlier blocks of the frame,
+     * which are already in {@code dest}.
+     *
+     * @return Output position after the block
+     */
+    private static int decodeBlock(ByteBuffer src, int in, int end, byte[] dest, int out) throws IOException {
+        try {
+            while (in < end) {
+                int token = src.get(in++) & 0xFF;
+
+                int literals = token >>> 4;
+                if (literals == 15) {
+                    int b;
+                    do {
+                        b = src.get(in++) & 0xFF;
+                        literals += b;
+                    } while (b == 255);
+                }
+                for (int i = 0; i < literals; i++) {
+                    dest[out++] = src.get(in++);
+                }
+                // The last sequence of a block has literals only
+                if (in >= end) {
+                    break;
+                }
+
+                int offset = (src.get(in) & 0xFF) | (src.get(in + 1) & 0xFF) << 8;
+                in += 2;
+                if (offset == 0 || offset > out) {
+                    throw new IOException("Invalid LZ4 match offset");
+                }
+                int matchLength = token & 0x0F;
+                if (matchLength == 15) {
+                    int b;
+                    do {
+                        b = src.get(in++) & 0xFF;
+                        matchLength += b;
+                    } while (b == 255);
+                }
+                matchLength += 4;
+                // Byte by byte, because a match may overlap its own output
+                int from = out - offset;
+                for (int i = 0; i < matchLength; i++) {
+                    dest[out++] = dest[from + i];
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt LZ4 block", e);
+        }
+        return out;
+    }
+
+    private static int intLE(ByteBuffer src, int position) {
+        return (src.get(position) & 0xFF) | (src.get(position + 1) & 0xFF) << 8
+                | (src.get(position + 2) & 0xFF) << 16 | (src.get(position + 3) & 0xFF) << 24;
+    }
+}
@@ -3,6 +3,7 @@ package com.example.qqq3xstrategy.ui;
 import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
+import android.graphics.Typeface;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
@@ -26,6 +27,9 @@ import androidx.lifecycle.ViewModelProvider;
 import com.example.qqq3xstrategy.R;
 import com.example.qqq3xstrategy.data.models.MarketData;
 import com.example.qqq3xstrategy.data.models.SignalHistory;
+import com.example.qqq3xstrategy.strategy.BacktestMetrics;
+import com.example.qqq3xstrategy.strategy.BacktestResult;
+import com.example.qqq3xstrategy.strategy.SafeAssetComparison;
 import com.example.qqq3xstrategy.viewmodels.MainViewModel;
 
 import java.text.SimpleDateFormat;
@@ -38,6 +42,7 @@ import java.util.Locale;
 public class MainActivity extends AppCompatActivity {
     private static final String TAG = "MainActivity";
     private static final int NOTIFICATION_PERMISSION_REQUEST_CODE = 123;
+    private static final double CASH_RATE = 0.04; // Yearly interest of the cash variant
     
     private MainViewModel viewModel;
     private TextView tvCurrentPosition;
@@ -113,6 +118,10 @@ public class MainActivity extends AppCompatActivity {
         } else if (id == R.id.action_settings) {
             startActivity(new Intent(this, SettingsActivity.class));
             return true;
+        } else if (id == R.id.action_compare_safe_assets) {
+            viewModel.compareSafeAssets(CASH_RATE);
+            Toast.makeText(this, "Comparing safe assets...", Toast.LENGTH_SHORT).show();
+            return true;
         }
         
         return super.onOptionsItemSelected(item);
@@ -124,6 +133,9 @@ public class MainActivity extends AppCompatActivity {
         
         // Observe latest signal
         viewModel.getLatestSignal().observe(this, this::updateSignal);
+        
+        // Observe the safe asset comparison started from the menu
+        viewModel.getSafeAssetComparison().observe(this, this::showSafeAssetComparison);
     }
     
     private void setupClickListeners() {
@@ -165,6 +177,35 @@ public class MainActivity extends AppCompatActivity {
         tvSignalStrength.setText(signal.getPositionChanged() ? "STRONG" : "STABLE");
     }
     
+    /**
+     * Show the backtest of every safe asset side by side: growth, drawdown, Sharpe ratio and
+     * the end of each equity curve
+     */
+    private void showSafeAssetComparison(SafeAssetComparison comparison) {
+        if (comparison == null) return;
+        
+        StringBuilder table = new StringBuilder(String.format(Locale.US, "%-8s %7s %7s %6s %10s%n",
+                "Asset", "CAGR", "Max DD", "Sharpe", "Final"));
+        for (int i = 0; i < comparison.size(); i++) {
+            BacktestResult result = comparison.getResult(i);
+            BacktestMetrics metrics = result.getMetrics();
+            table.append(String.format(Locale.US, "%-8s %6.1f%% %6.1f%% %6.2f %,10.0f%n",
+                    comparison.getSafeAssets().get(i).getName(), metrics.getCagr() * 100,
+                    metrics.getMaxDrawdown() * 100, metrics.getSharpe(), result.getFinalEquity()));
+        }
+        
+        TextView tvTable = new TextView(this);
+        tvTable.setTypeface(Typeface.MONOSPACE);
+        tvTable.setPadding(48, 24, 48, 0);
+        tvTable.setText(table);
+        new AlertDialog.Builder(this)
+            .setTitle("Safe Asset Comparison")
+            .setView(tvTable)
+            .setPositiveButton("OK", null)
+            .show();
+        viewModel.onSafeAssetComparisonShown();
+    }
+    
     private void checkNotificationPermission() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
             if (ContextCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS) 
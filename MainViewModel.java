@@ -9,12 +9,25 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.example.qqq3xstrategy.data.database.AppDatabase;
+import com.example.qqq3xstrategy.data.database.MarketSeriesFile;
+import com.example.qqq3xstrategy.data.models.HistoryWindow;
 import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
 import com.example.qqq3xstrategy.data.models.SignalHistory;
+import com.example.qqq3xstrategy.data.models.UserSettings;
+import com.example.qqq3xstrategy.data.repository.HistoryWindowLiveData;
 import com.example.qqq3xstrategy.data.repository.YahooFinanceRepository;
+import com.example.qqq3xstrategy.strategy.BacktestData;
+import com.example.qqq3xstrategy.strategy.BacktestEngine;
+import com.example.qqq3xstrategy.strategy.SafeAsset;
+import com.example.qqq3xstrategy.strategy.SafeAssetComparison;
 import com.example.qqq3xstrategy.util.AppExecutors;
+import com.example.qqq3xstrategy.util.PriorityExecutor.Priority;
 
+import java.time.LocalDate;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * ViewModel for the main screen
@@ -28,6 +41,8 @@ public class MainViewModel extends AndroidViewModel {
     
     private final LiveData<MarketData> latestMarketData;
     private final LiveData<SignalHistory> latestSignal;
+    private final HistoryWindowLiveData historyWindow;
+    private final MutableLiveData<SafeAssetComparison> safeAssetComparison = new MutableLiveData<>();
     
     /**
      * Constructor
@@ -41,6 +56,7 @@ public class MainViewModel extends AndroidViewModel {
         
         latestMarketData = database.marketDataDao().getLatestMarketDataLive();
         latestSignal = database.signalHistoryDao().getLatestSignalLive();
+        historyWindow = new HistoryWindowLiveData(database);
         
         Log.d(TAG, "MainViewModel initialized");
     }
@@ -59,11 +75,66 @@ public class MainViewModel extends AndroidViewModel {
         return latestSignal;
     }
     
+    /**
+     * Get the loaded window of market data and signals for the chart
+     */
+    public LiveData<HistoryWindow> getHistoryWindow() {
+        return historyWindow;
+    }
+    
+    /**
+     * Set the date range the chart shows, loading more history if it is outside the window
+     */
+    public void setChartRange(LocalDate from, LocalDate to) {
+        historyWindow.setVisibleRange(from, to);
+    }
+    
+    /**
+     * Get the backtests of the stored history with each safe asset, for showing them side by
+     * side. Empty until {@link #compareSafeAssets(double)} is called, and null again once
+     * {@link #onSafeAssetComparisonShown()} was.
+     */
+    public LiveData<SafeAssetComparison> getSafeAssetComparison() {
+        return safeAssetComparison;
+    }
+    
+    /**
+     * Forget the shown comparison, so a recreated screen does not show it again
+     */
+    public void onSafeAssetComparisonShown() {
+        safeAssetComparison.setValue(null);
+    }
+    
+    /**
+     * Backtest the stored history with every {@link SafeAsset#defaults(double) safe asset}
+     * in one pass and post the result. Runs on the compute pool, so the disk threads stay free
+     * for chart queries; does nothing if too many tasks are already queued.
+     *
+     * @param cashRate Yearly interest earned by the cash variant
+     */
+    public void compareSafeAssets(double cashRate) {
+        submit(executors.compute(Priority.USER), "compare safe assets", () -> {
+            UserSettings settings = database.userSettingsDao().getSettings();
+            if (settings == null) {
+                settings = new UserSettings();
+            }
+            MarketSeries series = MarketSeriesFile.getInstance(getApplication())
+                    .read(database.marketDataDao(), LocalDate.MIN, LocalDate.MAX);
+            
+            long start = System.nanoTime();
+            SafeAssetComparison comparison = new BacktestEngine(settings)
+                    .compareSafeAssets(BacktestData.fromSeries(series), SafeAsset.defaults(cashRate));
+            Log.d(TAG, "Compared " + comparison.size() + " safe assets over " + series.size() + " days in " +
+                    (System.nanoTime() - start) / 1_000_000 + " ms");
+            safeAssetComparison.postValue(comparison);
+        });
+    }
+    
     /**
      * Refresh market data
      */
     public void refreshData() {
-        executors.networkIO().execute(() -> {
+        submit(executors.networkIO(Priority.USER), "refresh data", () -> {
             try {
                 MarketData data = repository.fetchCurrentMarketData().get();
                 Log.d(TAG, "Data refreshed: " + data);
@@ -72,4 +143,16 @@ public class MainViewModel extends AndroidViewModel {
             }
         });
     }
+
+    /**
+     * Hand a task from the main thread to a user lane. A full lane rejects rather than blocks,
+     * which must not crash the UI; the user can simply try again.
+     */
+    private static void submit(Executor executor, String name, Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Could not " + name + ": " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -8,6 +8,11 @@ import java.time.LocalDate;
 
 /**
  * Entity class representing market data for a specific date
+ * <p>
+ * Prices are never 0, so a stored 0 means the value is not known; the columns are NOT NULL
+ * and cannot hold NaN. Rows imported from the bundled history snapshot always lack the VIX
+ * high and low and the GLD and SHY opens, and Yahoo bars without an open, high or low are
+ * stored the same way. Check optional fields with {@link #isKnown(double)}.
  */
 @Entity(tableName = "market_data")
 public class MarketData {
@@ -36,6 +41,13 @@ public class MarketData {
     private double shyOpen;
     private double shyClose;
     
+    /**
+     * Whether a stored price is known, see the class comment
+     */
+    public static boolean isKnown(double price) {
+        return price > 0;
+    }
+    
     // Default constructor required by Room
     public MarketData() {
     }
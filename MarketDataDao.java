@@ -1,12 +1,15 @@
 package com.example.qqq3xstrategy.data.database;
 
+import android.database.Cursor;
+
 import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
-import androidx.room.Insert;
-import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Upsert;
 
 import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -16,10 +19,18 @@ import java.util.List;
  */
 @Dao
 public interface MarketDataDao {
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    /**
+     * Insert a row, or update the stored row for its date in place. REPLACE would delete
+     * the old row first, and with it that date's indicators and signal through their
+     * ON DELETE CASCADE foreign keys.
+     */
+    @Upsert
     void insert(MarketData marketData);
     
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    /**
+     * Insert or update rows in place, see {@link #insert(MarketData)}
+     */
+    @Upsert
     void insertAll(List<MarketData> marketDataList);
     
     @Query("SELECT * FROM market_data WHERE date = :date")
@@ -34,15 +45,101 @@ public interface MarketDataDao {
     @Query("SELECT * FROM market_data ORDER BY date DESC LIMIT 1")
     LiveData<MarketData> getLatestMarketDataLive();
     
+    @Query("SELECT MIN(date) FROM market_data WHERE qqqClose > 0")
+    LocalDate getEarliestQqqDate();
+    
+    @Query("SELECT MAX(date) FROM market_data WHERE qqqClose > 0 AND date < :before")
+    LocalDate getLatestQqqDateBefore(LocalDate before);
+    
+    @Query("SELECT MAX(date) FROM market_data WHERE vixClose > 0 AND date < :before")
+    LocalDate getLatestVixDateBefore(LocalDate before);
+    
+    @Query("SELECT MAX(date) FROM market_data WHERE gldClose > 0 AND date < :before")
+    LocalDate getLatestGldDateBefore(LocalDate before);
+    
+    @Query("SELECT MAX(date) FROM market_data WHERE shyClose > 0 AND date < :before")
+    LocalDate getLatestShyDateBefore(LocalDate before);
+    
+    /**
+     * Latest date before {@code before} that has a close for the given symbol, or null if none
+     */
+    default LocalDate getLatestDateBefore(String symbol, LocalDate before) {
+        switch (symbol) {
+            case "QQQ":
+                return getLatestQqqDateBefore(before);
+            case "^VIX":
+                return getLatestVixDateBefore(before);
+            case "GLD":
+                return getLatestGldDateBefore(before);
+            case "SHY":
+                return getLatestShyDateBefore(before);
+            default:
+                throw new IllegalArgumentException("Unknown symbol: " + symbol);
+        }
+    }
+    
     @Query("SELECT * FROM market_data WHERE date BETWEEN :startDate AND :endDate ORDER BY date")
     List<MarketData> getMarketDataBetweenDates(LocalDate startDate, LocalDate endDate);
     
+    /**
+     * Emits the whole range again on every change to market_data. Charts should follow a
+     * window of it through HistoryWindowLiveData instead.
+     */
     @Query("SELECT * FROM market_data WHERE date BETWEEN :startDate AND :endDate ORDER BY date")
     LiveData<List<MarketData>> getMarketDataBetweenDatesLive(LocalDate startDate, LocalDate endDate);
     
+    @Query("SELECT * FROM market_data WHERE date BETWEEN :startDate AND :endDate ORDER BY date")
+    Cursor getMarketDataCursorBetweenDates(LocalDate startDate, LocalDate endDate);
+    
+    @Query("SELECT * FROM market_data WHERE date >= " +
+           "(SELECT COALESCE(MIN(date), :date) FROM " +
+           "(SELECT date FROM market_data WHERE date < :date ORDER BY date DESC LIMIT :lookback)) " +
+           "ORDER BY date")
+    Cursor getMarketDataCursorFrom(LocalDate date, int lookback);
+    
+    @Query("SELECT * FROM market_data WHERE date > :after ORDER BY date LIMIT :limit")
+    Cursor getMarketDataCursorAfter(LocalDate after, int limit);
+    
+    @Query("SELECT MAX(date) FROM market_data")
+    LocalDate getLatestDate();
+    
+    /**
+     * Load a date range as a columnar series without building an entity per row
+     */
+    default MarketSeries getMarketSeriesBetweenDates(LocalDate startDate, LocalDate endDate) {
+        return MarketSeriesReader.read(getMarketDataCursorBetweenDates(startDate, endDate));
+    }
+    
+    /**
+     * Load every row on or after a date, preceded by up to {@code lookback} earlier rows
+     * for seeding rolling windows
+     */
+    default MarketSeries getMarketSeriesFrom(LocalDate date, int lookback) {
+        return MarketSeriesReader.read(getMarketDataCursorFrom(date, lookback));
+    }
+    
+    /**
+     * Load the next page of up to {@code limit} rows after a date. Keyset paging on the
+     * primary key, so every page costs the same however deep it is.
+     */
+    default MarketSeries getMarketSeriesAfter(LocalDate after, int limit) {
+        return MarketSeriesReader.read(getMarketDataCursorAfter(after, limit));
+    }
+    
+    /**
+     * Insert or update every row of a columnar series
+     */
+    @Transaction
+    default void insertSeries(MarketSeries series) {
+        insertAll(series.toMarketDataList());
+    }
+    
     @Query("SELECT COUNT(*) FROM market_data")
     int getCount();
     
+    @Query("SELECT COUNT(*) FROM market_data WHERE date < :date")
+    int getCountBefore(LocalDate date);
+    
     @Query("DELETE FROM market_data WHERE date < :date")
     void deleteOlderThan(LocalDate date);
 }
\ No newline at end of file
@@ -0,0 +1,259 @@
+package com.example.qqq3xstrategy.data.repository;
+
+import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+import com.example.qqq3xstrategy.data.network.models.ChartSeries;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Combines per-symbol historical rows into one row per date.
+ * Pure Java so that it can be unit tested and benchmarked off device.
+ */
+public final class MarketDataMerger {
+    private static final String[] SYMBOLS = {"QQQ", "^VIX", "GLD", "SHY"};
+    private static final int ALL_SYMBOLS = (1 << SYMBOLS.length) - 1;
+    
+    private MarketDataMerger() {
+    }
+    
+    /**
+     * Outcome of {@link #join}: the aligned rows plus the dates that had to be dropped
+     */
+    public static final class JoinResult {
+        private final MarketSeries series;
+        private final int[] droppedDays;
+        private final int[] droppedMasks;
+        private final int droppedCount;
+        
+        JoinResult(MarketSeries series, int[] droppedDays, int[] droppedMasks, int droppedCount) {
+            this.series = series;
+            this.droppedDays = droppedDays;
+            this.droppedMasks = droppedMasks;
+            this.droppedCount = droppedCount;
+        }
+        
+        /**
+         * Rows for the dates every symbol traded on
+         */
+        public MarketSeries getSeries() {
+            return series;
+        }
+        
+        /**
+         * True if all symbols traded on exactly the same dates
+         */
+        public boolean isAligned() {
+            return droppedCount == 0;
+        }
+        
+        /**
+         * Number of dates some but not all symbols traded on
+         */
+        public int getDroppedCount() {
+            return droppedCount;
+        }
+        
+        public LocalDate getDroppedDate(int index) {
+            return LocalDate.ofEpochDay(droppedDays[index]);
+        }
+        
+        /**
+         * Symbols without a bar on a dropped date
+         */
+        public List<String> getMissingSymbols(int index) {
+            List<String> missing = new ArrayList<>();
+            for (int s = 0; s < SYMBOLS.length; s++) {
+                if ((droppedMasks[index] & (1 << s)) == 0) {
+                    missing.add(SYMBOLS[s]);
+                }
+            }
+            return missing;
+        }
+        
+        /**
+         * Number of dropped dates on which a symbol had no bar
+         */
+        public int getMissingCount(String symbol) {
+            int s = Arrays.asList(SYMBOLS).indexOf(symbol);
+            if (s < 0) {
+                return 0;
+            }
+            int count = 0;
+            for (int i = 0; i < droppedCount; i++) {
+                if ((droppedMasks[i] & (1 << s)) == 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        
+        /**
+         * One line per symbol that was missing somewhere, e.g. {@code GLD missing on 2 dates (first 2024-03-29)}
+         */
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder()
+                    .append(series.size()).append(" aligned rows, ")
+                    .append(droppedCount).append(" dates dropped");
+            for (int s = 0; s < SYMBOLS.length; s++) {
+                for (int i = 0; i < droppedCount; i++) {
+                    if ((droppedMasks[i] & (1 << s)) == 0) {
+                        report.append("; ").append(SYMBOLS[s]).append(" missing on ")
+                                .append(getMissingCount(SYMBOLS[s])).append(" dates (first ")
+                                .append(getDroppedDate(i)).append(')');
+                        break;
+                    }
+                }
+            }
+            return report.toString();
+        }
+    }
+    
+    /**
+     * Read position in one symbol's chart, moving over bars that have a close
+     */
+    private static final class Cursor {
+        final long[] timestamps;
+        final double[] close;
+        final ZoneRules rules;
+        int index = -1;
+        int day;
+        
+        // The zone offset holds from validFrom until the next transition
+        long validFrom = Long.MAX_VALUE;
+        long validUntil = Long.MIN_VALUE;
+        int offsetSeconds;
+        
+        Cursor(ChartSeries series, ZoneRules rules) {
+            this.timestamps = series.getTimestamps();
+            this.close = series.getClose();
+            this.rules = rules;
+            advance();
+        }
+        
+        /**
+         * Move to the next bar with a close, or past the end
+         */
+        void advance() {
+            int previous = index < 0 ? Integer.MIN_VALUE : day;
+            while (++index < timestamps.length) {
+                if (!Double.isNaN(close[index])) {
+                    day = epochDay(timestamps[index]);
+                    if (day < previous) {
+                        throw new IllegalArgumentException("Chart timestamps are not in ascending order at " +
+                                LocalDate.ofEpochDay(day));
+                    }
+                    return;
+                }
+            }
+            day = Integer.MAX_VALUE;
+        }
+        
+        private int epochDay(long second) {
+            if (second < validFrom || second >= validUntil) {
+                Instant instant = Instant.ofEpochSecond(second);
+                ZoneOffsetTransition next = rules.nextTransition(instant);
+                offsetSeconds = rules.getOffset(instant).getTotalSeconds();
+                validFrom = second;
+                validUntil = next == null ? Long.MAX_VALUE : next.toEpochSecond();
+            }
+            return (int) Math.floorDiv(second + offsetSeconds, 86400L);
+        }
+    }
+    
+    /**
+     * Merge-join the four symbols' charts on their trading dates in a single pass.
+     * <p>
+     * Each chart is already in time order, so the join walks one cursor per symbol and
+     * always takes the earliest date among them, without hashing, sorting or boxing. Bars
+     * without a close are ignored, and if a chart repeats a date the last bar wins. Only
+     * dates every symbol traded on become rows, matching the inner join of the research
+     * script; the other dates are listed in the result so callers can report them.
+     *
+     * @param zone Time zone used to turn bar timestamps into dates
+     * @throws IllegalArgumentException If a chart is not in ascending time order
+     */
+    public static JoinResult join(ChartSeries qqq, ChartSeries vix, ChartSeries gld, ChartSeries shy, ZoneId zone) {
+        ZoneRules rules = zone.getRules();
+        Cursor[] cursors = {
+                new Cursor(qqq, rules), new Cursor(vix, rules), new Cursor(gld, rules), new Cursor(shy, rules)
+        };
+        int[] rows = new int[cursors.length];
+        
+        int capacity = Math.min(Math.min(qqq.size(), vix.size()), Math.min(gld.size(), shy.size()));
+        MarketSeries series = new MarketSeries(Math.max(capacity, 1));
+        int[] droppedDays = new int[16];
+        int[] droppedMasks = new int[16];
+        int droppedCount = 0;
+        
+        while (true) {
+            int day = Integer.MAX_VALUE;
+            for (Cursor cursor : cursors) {
+                day = Math.min(day, cursor.day);
+            }
+            if (day == Integer.MAX_VALUE) {
+                break;
+            }
+            
+            int mask = 0;
+            for (int s = 0; s < cursors.length; s++) {
+                Cursor cursor = cursors[s];
+                if (cursor.day == day) {
+                    mask |= 1 << s;
+                    do {
+                        rows[s] = cursor.index;
+                        cursor.advance();
+                    } while (cursor.day == day);
+                }
+            }
+            
+            if (mask != ALL_SYMBOLS) {
+                if (droppedCount == droppedDays.length) {
+                    droppedDays = Arrays.copyOf(droppedDays, droppedCount * 2);
+                    droppedMasks = Arrays.copyOf(droppedMasks, droppedCount * 2);
+                }
+                droppedDays[droppedCount] = day;
+                droppedMasks[droppedCount++] = mask;
+                continue;
+            }
+            
+            int row = series.appendRow(day);
+            int i = rows[0];
+            series.setQqq(row, valueOrZero(qqq.getOpen()[i]), valueOrZero(qqq.getHigh()[i]),
+                    valueOrZero(qqq.getLow()[i]), qqq.getClose()[i], valueOrZero(qqq.getVolume()[i]));
+            i = rows[1];
+            series.setVix(row, valueOrZero(vix.getOpen()[i]), valueOrZero(vix.getHigh()[i]),
+                    valueOrZero(vix.getLow()[i]), vix.getClose()[i]);
+            i = rows[2];
+            series.setGld(row, valueOrZero(gld.getOpen()[i]), gld.getClose()[i]);
+            i = rows[3];
+            series.setShy(row, valueOrZero(shy.getOpen()[i]), shy.getClose()[i]);
+        }
+        return new JoinResult(series, droppedDays, droppedMasks, droppedCount);
+    }
+    
+    /**
+     * SQLite stores NaN as NULL, which the NOT NULL price columns reject
+     */
+    static double valueOrZero(double value) {
+        return Double.isNaN(value) ? 0 : value;
+    }
+    
+    static boolean sameValues(MarketData a, MarketData b) {
+        return a.getQqqOpen() == b.getQqqOpen() && a.getQqqClose() == b.getQqqClose()
+                && a.getQqqHigh() == b.getQqqHigh() && a.getQqqLow() == b.getQqqLow()
+                && a.getQqqVolume() == b.getQqqVolume()
+                && a.getVixOpen() == b.getVixOpen() && a.getVixClose() == b.getVixClose()
+                && a.getVixHigh() == b.getVixHigh() && a.getVixLow() == b.getVixLow()
+                && a.getGldOpen() == b.getGldOpen() && a.getGldClose() == b.getGldClose()
+                && a.getShyOpen() == b.getShyOpen() && a.getShyClose() == b.getShyClose();
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.qqq3xstrategy.data.models;
+
+import androidx.annotation.NonNull;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar daily market history: one primitive array per {@link MarketData} field plus an
+ * epoch-day date column.
+ * <p>
+ * The series grows in place like an {@code ArrayList}. {@link #slice(int, int)} returns a
+ * read-only view that shares the column arrays, so taking the last N days of a long history
+ * copies nothing. Writing to a row through the base series is visible in views covering it.
+ */
+public class MarketSeries {
+    private static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Price columns, in {@link MarketData} field order
+     */
+    public enum Field {
+        QQQ_OPEN,
+        QQQ_CLOSE,
+        QQQ_HIGH,
+        QQQ_LOW,
+        QQQ_VOLUME,
+        VIX_OPEN,
+        VIX_CLOSE,
+        VIX_HIGH,
+        VIX_LOW,
+        GLD_OPEN,
+        GLD_CLOSE,
+        SHY_OPEN,
+        SHY_CLOSE
+    }
+
+    private static final Field[] FIELDS = Field.values();
+
+    private int[] epochDays;
+    private double[][] columns;
+    private final int offset;
+    private int size;
+    private final boolean view;
+
+    /**
+     * Create an empty series
+     */
+    public MarketSeries() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create an empty series with room for {@code capacity} days
+     */
+    public MarketSeries(int capacity) {
+        this.epochDays = new int[capacity];
+        this.columns = new double[FIELDS.length][capacity];
+        this.offset = 0;
+        this.size = 0;
+        this.view = false;
+    }
+
+    private MarketSeries(int[] epochDays, double[][] columns, int offset, int size) {
+        this.epochDays = epochDays;
+        this.columns = columns;
+        this.offset = offset;
+        this.size = size;
+        this.view = true;
+    }
+
+    /**
+     * Create a series from chronologically ordered market data
+     */
+    public static MarketSeries fromMarketData(List<MarketData> data) {
+        MarketSeries series = new MarketSeries(Math.max(data.size(), 1));
+        for (MarketData bar : data) {
+            series.append(bar);
+        }
+        return series;
+    }
+
+    /**
+     * Number of days
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Append an empty row for a date and return its index.
+     * Dates must be appended in ascending order.
+     */
+    public int appendRow(int epochDay) {
+        if (view) {
+            throw new UnsupportedOperationException("Cannot append to a slice");
+        }
+        if (size > 0 && epochDay <= epochDays[size - 1]) {
+            throw new IllegalArgumentException("Dates must be appended in ascending order: " +
+                    LocalDate.ofEpochDay(epochDay) + " after " + LocalDate.ofEpochDay(epochDays[size - 1]));
+        }
+        ensureCapacity(size + 1);
+        epochDays[size] = epochDay;
+        return size++;
+    }
+
+    /**
+     * Append one market data row
+     */
+    public void append(@NonNull MarketData bar) {
+        int row = appendRow((int) bar.getDate().toEpochDay());
+        setQqq(row, bar.getQqqOpen(), bar.getQqqHigh(), bar.getQqqLow(), bar.getQqqClose(), bar.getQqqVolume());
+        setVix(row, bar.getVixOpen(), bar.getVixHigh(), bar.getVixLow(), bar.getVixClose());
+        setGld(row, bar.getGldOpen(), bar.getGldClose());
+        setShy(row, bar.getShyOpen(), bar.getShyClose());
+    }
+
+    /**
+     * Append every row of another series, whose dates must all follow this one's
+     */
+    public void appendAll(@NonNull MarketSeries other) {
+        if (view) {
+            throw new UnsupportedOperationException("Cannot append to a slice");
+        }
+        if (other.size == 0) {
+            return;
+        }
+        if (size > 0 && other.getEpochDay(0) <= epochDays[size - 1]) {
+            throw new IllegalArgumentException("Dates must be appended in ascending order: " +
+                    other.getDate(0) + " after " + LocalDate.ofEpochDay(epochDays[size - 1]));
+        }
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.epochDays, other.offset, epochDays, size, other.size);
+        for (int f = 0; f < columns.length; f++) {
+            System.arraycopy(other.columns[f], other.offset, columns[f], size, other.size);
+        }
+        size += other.size;
+    }
+
+    /**
+     * Make sure at least {@code capacity} rows fit without reallocating
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= epochDays.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, epochDays.length + (epochDays.length >> 1));
+        epochDays = Arrays.copyOf(epochDays, newCapacity);
+        for (int f = 0; f < columns.length; f++) {
+            columns[f] = Arrays.copyOf(columns[f], newCapacity);
+        }
+    }
+
+    /**
+     * Zero-copy read-only view of rows {@code from} (inclusive) to {@code to} (exclusive)
+     */
+    public MarketSeries slice(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Slice " + from + ".." + to + " of " + size);
+        }
+        return new MarketSeries(epochDays, columns, offset + from, to - from);
+    }
+
+    /**
+     * Zero-copy view of the last {@code count} rows (or all rows if there are fewer)
+     */
+    public MarketSeries tail(int count) {
+        return slice(Math.max(0, size - count), size);
+    }
+
+    /**
+     * Index of the first row on or after the given date, or {@link #size()} if there is none
+     */
+    public int lowerBound(int epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (epochDays[offset + middle] < epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public int getEpochDay(int row) {
+        return epochDays[index(row)];
+    }
+
+    public LocalDate getDate(int row) {
+        return LocalDate.ofEpochDay(getEpochDay(row));
+    }
+
+    public double get(Field field, int row) {
+        return columns[field.ordinal()][index(row)];
+    }
+
+    public void set(Field field, int row, double value) {
+        columns[field.ordinal()][index(row)] = value;
+    }
+
+    public void setQqq(int row, double open, double high, double low, double close, double volume) {
+        int i = index(row);
+        columns[Field.QQQ_OPEN.ordinal()][i] = open;
+        columns[Field.QQQ_HIGH.ordinal()][i] = high;
+        columns[Field.QQQ_LOW.ordinal()][i] = low;
+        columns[Field.QQQ_CLOSE.ordinal()][i] = close;
+        columns[Field.QQQ_VOLUME.ordinal()][i] = volume;
+    }
+
+    public void setVix(int row, double open, double high, double low, double close) {
+        int i = index(row);
+        columns[Field.VIX_OPEN.ordinal()][i] = open;
+        columns[Field.VIX_HIGH.ordinal()][i] = high;
+        columns[Field.VIX_LOW.ordinal()][i] = low;
+        columns[Field.VIX_CLOSE.ordinal()][i] = close;
+    }
+
+    public void setGld(int row, double open, double close) {
+        int i = index(row);
+        columns[Field.GLD_OPEN.ordinal()][i] = open;
+        columns[Field.GLD_CLOSE.ordinal()][i] = close;
+    }
+
+    public void setShy(int row, double open, double close) {
+        int i = index(row);
+        columns[Field.SHY_OPEN.ordinal()][i] = open;
+        columns[Field.SHY_CLOSE.ordinal()][i] = close;
+    }
+
+    public double getQqqOpen(int row) {
+        return columns[Field.QQQ_OPEN.ordinal()][index(row)];
+    }
+
+    public double getQqqClose(int row) {
+        return columns[Field.QQQ_CLOSE.ordinal()][index(row)];
+    }
+
+    public double getVixOpen(int row) {
+        return columns[Field.VIX_OPEN.ordinal()][index(row)];
+    }
+
+    public double getVixClose(int row) {
+        return columns[Field.VIX_CLOSE.ordinal()][index(row)];
+    }
+
+    public double getGldClose(int row) {
+        return columns[Field.GLD_CLOSE.ordinal()][index(row)];
+    }
+
+    public double getShyClose(int row) {
+        return columns[Field.SHY_CLOSE.ordinal()][index(row)];
+    }
+
+    /**
+     * Copy of one column, trimmed to this series
+     */
+    public double[] toArray(Field field) {
+        return Arrays.copyOfRange(columns[field.ordinal()], offset, offset + size);
+    }
+
+    /**
+     * Copy of the epoch-day column, trimmed to this series
+     */
+    public int[] toEpochDayArray() {
+        return Arrays.copyOfRange(epochDays, offset, offset + size);
+    }
+
+    /**
+     * Materialize one row as an entity
+     */
+    public MarketData toMarketData(int row) {
+        return new MarketData(getDate(row),
+                get(Field.QQQ_OPEN, row), get(Field.QQQ_CLOSE, row),
+                get(Field.QQQ_HIGH, row), get(Field.QQQ_LOW, row), get(Field.QQQ_VOLUME, row),
+                get(Field.VIX_OPEN, row), get(Field.VIX_CLOSE, row),
+                get(Field.VIX_HIGH, row), get(Field.VIX_LOW, row),
+                get(Field.GLD_OPEN, row), get(Field.GLD_CLOSE, row),
+                get(Field.SHY_OPEN, row), get(Field.SHY_CLOSE, row));
+    }
+
+    /**
+     * Materialize every row as entities, e.g. for a Room insert
+     */
+    public List<MarketData> toMarketDataList() {
+        List<MarketData> list = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            list.add(toMarketData(row));
+        }
+        return list;
+    }
+
+    private int index(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+        return offset + row;
+    }
+}
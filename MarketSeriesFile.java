@@ -0,0 +1,328 @@
+package com.example.qqq3xstrategy.data.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the completed days in {@code market_data}, kept next to the database so
+ * the strategy can load its history without a query.
+ * <p>
+ * The file is a 32-byte header followed by fixed-width records in date order: the epoch day,
+ * 4 bytes of padding and one double per {@link MarketSeries.Field}. The header holds the
+ * record count and a CRC32 of the records. Reads go through a {@link MappedByteBuffer} and
+ * write straight into {@link MarketSeries} columns without building objects.
+ * <p>
+ * The database stays the source of truth: a file that is missing, truncated or fails its
+ * checksum reads as {@code null}, and callers fall back to the database and rebuild it.
+ */
+public class MarketSeriesFile {
+    private static final String TAG = "MarketSeriesFile";
+    private static final String FILE_NAME = "market_history.bin";
+
+    private static final int MAGIC = 0x51515153; // "QQQS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final MarketSeries.Field[] FIELDS = MarketSeries.Field.values();
+    private static final int RECORD_SIZE = 8 + FIELDS.length * 8;
+
+    private static volatile MarketSeriesFile INSTANCE;
+
+    private final File file;
+    // Guarded by this. Null until mapped, or when the file is missing or invalid.
+    private MappedByteBuffer records;
+    private int count;
+    private boolean loaded;
+
+    MarketSeriesFile(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Get the snapshot in the app's files directory
+     */
+    public static MarketSeriesFile getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (MarketSeriesFile.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new MarketSeriesFile(new File(context.getApplicationContext().getFilesDir(), FILE_NAME));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Read the stored days from {@code startDate} to {@code endDate}, both inclusive
+     *
+     * @return The rows in range, or null if there is no valid snapshot
+     */
+    public synchronized MarketSeries read(LocalDate startDate, LocalDate endDate) {
+        if (!load()) {
+            return null;
+        }
+        int from = lowerBound(clampToInt(startDate.toEpochDay()));
+        int to = lowerBound(clampToInt(endDate.toEpochDay() + 1));
+
+        MarketSeries series = new MarketSeries(Math.max(to - from, 1));
+        for (int i = from; i < to; i++) {
+            int position = i * RECORD_SIZE;
+            int row = series.appendRow(records.getInt(position));
+            for (int f = 0; f < FIELDS.length; f++) {
+                series.set(FIELDS[f], row, records.getDouble(position + 8 + f * 8));
+            }
+        }
+        return series;
+    }
+
+    /**
+     * Read the days from {@code startDate} to {@code endDate}, both inclusive, from the snapshot
+     * when it is valid and from the database after its last date. Without a valid snapshot the
+     * whole range comes from the database.
+     */
+    public MarketSeries read(MarketDataDao dao, LocalDate startDate, LocalDate endDate) {
+        MarketSeries series = read(startDate, endDate);
+        if (series == null) {
+            return dao.getMarketSeriesBetweenDates(startDate, endDate);
+        }
+        LocalDate next = series.isEmpty() ? startDate : series.getDate(series.size() - 1).plusDays(1);
+        series.appendAll(dao.getMarketSeriesBetweenDates(next, endDate));
+        return series;
+    }
+
+    /**
+     * Last stored date, or null if there is no valid snapshot or it is empty
+     */
+    public synchronized LocalDate getLastDate() {
+        if (!load() || count == 0) {
+            return null;
+        }
+        return LocalDate.ofEpochDay(records.getInt((count - 1) * RECORD_SIZE));
+    }
+
+    /**
+     * Apply changed rows in place: rows for stored dates are overwritten and rows after the
+     * last stored date are appended.
+     *
+     * @return False if the snapshot is invalid or a row falls between stored dates, in which
+     * case nothing was written and it has to be rebuilt
+     */
+    public synchronized boolean write(MarketSeries changes) {
+        if (!load()) {
+            return false;
+        }
+        if (changes.isEmpty()) {
+            return true;
+        }
+        int last = count == 0 ? Integer.MIN_VALUE : records.getInt((count - 1) * RECORD_SIZE);
+        int[] targets = new int[changes.size()];
+        int appended = count;
+        for (int row = 0; row < changes.size(); row++) {
+            int day = changes.getEpochDay(row);
+            if (day > last) {
+                targets[row] = appended++;
+                continue;
+            }
+            int index = lowerBound(day);
+            if (index == count || records.getInt(index * RECORD_SIZE) != day) {
+                return false;
+            }
+            targets[row] = index;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            FileChannel channel = raf.getChannel();
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            for (int row = 0; row < changes.size(); row++) {
+                encode(changes, row, record);
+                channel.write(record, HEADER_SIZE + (long) targets[row] * RECORD_SIZE);
+            }
+            writeHeader(channel, appended);
+            channel.force(false);
+        } catch (IOException e) {
+            Log.e(TAG, "Could not update " + file, e);
+            invalidate();
+            return false;
+        }
+        loaded = false;
+        return true;
+    }
+
+    /**
+     * Bring the snapshot up to date with the database: overwrite the stored days that were
+     * revised, then append every day the database has after the last stored date. Appending
+     * only the revised rows could skip a stored day that was not rewritten, and
+     * {@link #read(MarketDataDao, LocalDate, LocalDate)} would then never see it.
+     *
+     * @param revised Rows rewritten in the database, in date order. Rows after the last
+     * stored date are ignored, since {@code loadAfter} returns them too.
+     * @param loadAfter Loads the completed days stored after a date, in date order
+     * @return False if the snapshot is invalid or a revised row falls between stored dates, in
+     * which case it has to be rebuilt
+     */
+    public synchronized boolean update(MarketSeries revised, Function<LocalDate, MarketSeries> loadAfter) {
+        if (!load()) {
+            return false;
+        }
+        int last = count == 0 ? Integer.MIN_VALUE : records.getInt((count - 1) * RECORD_SIZE);
+        MarketSeries changes = new MarketSeries();
+        changes.appendAll(revised.slice(0, revised.lowerBound(last + 1)));
+        changes.appendAll(loadAfter.apply(count == 0 ? LocalDate.MIN : LocalDate.ofEpochDay(last)));
+        return write(changes);
+    }
+
+    /**
+     * Replace the snapshot with {@code series}, writing a new file and renaming it over the
+     * old one so readers never see a partial file
+     */
+    public synchronized void rebuild(MarketSeries series) {
+        File temp = new File(file.getPath() + ".tmp");
+        try (RandomAccessFile raf = new RandomAccessFile(temp, "rw")) {
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+            ByteBuffer body = ByteBuffer.allocate(series.size() * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            for (int row = 0; row < series.size(); row++) {
+                encode(series, row, record);
+                body.put(record);
+            }
+            body.flip();
+            channel.write(body, HEADER_SIZE);
+            writeHeader(channel, series.size());
+            channel.force(false);
+        } catch (IOException e) {
+            Log.e(TAG, "Could not write " + temp, e);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            Log.e(TAG, "Could not replace " + file);
+            temp.delete();
+        }
+        loaded = false;
+    }
+
+    /**
+     * Delete the snapshot, e.g. after rows were written to the database behind its back
+     */
+    public synchronized void invalidate() {
+        records = null;
+        count = 0;
+        loaded = true;
+        if (file.exists() && !file.delete()) {
+            Log.w(TAG, "Could not delete " + file);
+        }
+    }
+
+    private static void encode(MarketSeries series, int row, ByteBuffer record) {
+        record.clear();
+        record.putInt(series.getEpochDay(row));
+        record.putInt(0);
+        for (MarketSeries.Field field : FIELDS) {
+            record.putDouble(series.get(field, row));
+        }
+        record.flip();
+    }
+
+    /**
+     * Write the header for {@code recordCount} records, with the checksum of what is on disk
+     */
+    private static void writeHeader(FileChannel channel, int recordCount) throws IOException {
+        long length = HEADER_SIZE + (long) recordCount * RECORD_SIZE;
+        channel.truncate(length);
+        CRC32 crc = new CRC32();
+        if (recordCount > 0) {
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, length - HEADER_SIZE));
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(recordCount).putLong(crc.getValue());
+        header.rewind();
+        channel.write(header, 0);
+    }
+
+    /**
+     * Map and validate the file once after each change
+     *
+     * @return True if a valid snapshot is mapped
+     */
+    private boolean load() {
+        if (loaded) {
+            return records != null;
+        }
+        loaded = true;
+        records = null;
+        count = 0;
+        if (!file.exists()) {
+            return false;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            long length = channel.size();
+            if (length < HEADER_SIZE) {
+                throw new IOException("Truncated header");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            int magic = header.getInt();
+            int version = header.getInt();
+            int recordSize = header.getInt();
+            int recordCount = header.getInt();
+            long checksum = header.getLong();
+            if (magic != MAGIC || version != VERSION || recordSize != RECORD_SIZE || recordCount < 0
+                    || length != HEADER_SIZE + (long) recordCount * RECORD_SIZE) {
+                throw new IOException("Unexpected header");
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, length - HEADER_SIZE);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            CRC32 crc = new CRC32();
+            crc.update(mapped.duplicate());
+            if (crc.getValue() != checksum) {
+                throw new IOException("Checksum mismatch");
+            }
+            records = mapped;
+            count = recordCount;
+            return true;
+        } catch (IOException e) {
+            Log.w(TAG, "Ignoring invalid snapshot " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // LocalDate.MIN and MAX are outside the int range of stored epoch days
+    private static int clampToInt(long epochDay) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, epochDay));
+    }
+
+    /**
+     * Index of the first record on or after the given date, or the record count if none
+     */
+    private int lowerBound(int epochDay) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (records.getInt(middle * RECORD_SIZE) < epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.qqq3xstrategy.data.database;
+
+import android.database.Cursor;
+
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+
+/**
+ * Reads {@code market_data} rows straight from a cursor into a {@link MarketSeries},
+ * without building a {@code MarketData} object per row
+ */
+public final class MarketSeriesReader {
+    // Column names of the market_data table, in MarketSeries.Field order
+    private static final String[] FIELD_COLUMNS = {
+        "qqqOpen", "qqqClose", "qqqHigh", "qqqLow", "qqqVolume",
+        "vixOpen", "vixClose", "vixHigh", "vixLow",
+        "gldOpen", "gldClose",
+        "shyOpen", "shyClose"
+    };
+    
+    private static final MarketSeries.Field[] FIELDS = MarketSeries.Field.values();
+    
+    private MarketSeriesReader() {
+    }
+    
+    /**
+     * Read every remaining row of a {@code SELECT * FROM market_data ... ORDER BY date} cursor
+     * and close it
+     */
+    public static MarketSeries read(Cursor cursor) {
+        try {
+            int dateIndex = cursor.getColumnIndexOrThrow("date");
+            int[] fieldIndexes = new int[FIELD_COLUMNS.length];
+            for (int f = 0; f < FIELD_COLUMNS.length; f++) {
+                fieldIndexes[f] = cursor.getColumnIndexOrThrow(FIELD_COLUMNS[f]);
+            }
+            
+            MarketSeries series = new MarketSeries(Math.max(cursor.getCount(), 1));
+            while (cursor.moveToNext()) {
+                int row = series.appendRow((int) cursor.getLong(dateIndex));
+                for (int f = 0; f < fieldIndexes.length; f++) {
+                    series.set(FIELDS[f], row, cursor.getDouble(fieldIndexes[f]));
+                }
+            }
+            return series;
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.qqq3xstrategy.strategy;
+
+import android.util.Log;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Distributions of drawdown, CAGR and recovery time by block bootstrap of daily strategy
+ * returns.
+ * <p>
+ * A backtest is a single path, so its maximum drawdown and CAGR are one draw of what the
+ * strategy could have done. Each synthetic path here is built from blocks of consecutive daily
+ * returns starting on random days, wrapping around at the end of the history, which keeps
+ * volatility clusters and streaks shorter than a block. Paths are never stored: each one is
+ * compounded as its blocks are drawn and only its statistics are written to primitive arrays,
+ * which are sorted once for the percentiles.
+ * <p>
+ * Paths are split across a fork-join pool, and the random generator is split along with the
+ * work. Every task has its own stream, so a seed gives the same result on any number of threads.
+ */
+public class MonteCarloBootstrap {
+    private static final String TAG = "MonteCarloBootstrap";
+    private static final int PATHS_PER_TASK = 64;
+
+    // One plus each daily return, so compounding is a single multiplication
+    private final double[] growth;
+    private final ForkJoinPool pool;
+
+    /**
+     * Resample the reported days of a backtest, using the common fork-join pool
+     */
+    public MonteCarloBootstrap(BacktestResult result) {
+        this(result.getReturns(), result.getStartIndex(), result.size(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Resample the daily returns from {@code from} to {@code to} (exclusive)
+     */
+    public MonteCarloBootstrap(double[] returns, int from, int to, ForkJoinPool pool) {
+        if (from < 0 || to > returns.length || to <= from) {
+            throw new IllegalArgumentException("No returns in range " + from + ".." + to);
+        }
+        this.growth = new double[to - from];
+        for (int i = 0; i < growth.length; i++) {
+            growth[i] = 1 + returns[from + i];
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Simulate {@code paths} synthetic histories
+     *
+     * @param days Length of each path in trading days
+     * @param blockLength Consecutive days per block, at most the length of the history.
+     * Around 20 keeps a month of autocorrelation.
+     * @param seed The same seed always gives the same distributions
+     */
+    public MonteCarloResult run(int paths, int days, int blockLength, long seed) {
+        if (paths < 1 || days < 1 || blockLength < 1) {
+            throw new IllegalArgumentException("Paths, days and block length must be positive");
+        }
+        long startTime = System.nanoTime();
+        int block = Math.min(blockLength, growth.length);
+
+        double[] maxDrawdowns = new double[paths];
+        double[] cagrs = new double[paths];
+        double[] recoveryDays = new double[paths];
+        pool.invoke(new PathTask(new SplittableRandom(seed), 0, paths, days, block,
+                maxDrawdowns, cagrs, recoveryDays));
+
+        MonteCarloResult result = new MonteCarloResult(paths, days, block,
+                new MonteCarloResult.Distribution(maxDrawdowns),
+                new MonteCarloResult.Distribution(cagrs),
+                new MonteCarloResult.Distribution(recoveryDays));
+        Log.d(TAG, "Simulated " + paths + " paths of " + days + " days in " +
+                (System.nanoTime() - startTime) / 1000000 + "ms");
+        return result;
+    }
+
+    /**
+     * Splits the path range, handing each half its own random stream, until it is small
+     * enough to simulate sequentially
+     */
+    private class PathTask extends RecursiveAction {
+        private final SplittableRandom random;
+        private final int from;
+        private final int to;
+        private final int days;
+        private final int blockLength;
+        private final double[] maxDrawdowns;
+        private final double[] cagrs;
+        private final double[] recoveryDays;
+
+        PathTask(SplittableRandom random, int from, int to, int days, int blockLength,
+                 double[] maxDrawdowns, double[] cagrs, double[] recoveryDays) {
+            this.random = random;
+            this.from = from;
+            this.to = to;
+            this.days = days;
+            this.blockLength = blockLength;
+            this.maxDrawdowns = maxDrawdowns;
+            this.cagrs = cagrs;
+            this.recoveryDays = recoveryDays;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PATHS_PER_TASK) {
+                for (int path = from; path < to; path++) {
+                    simulate(path);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            // Split before forking so the streams do not depend on scheduling
+            SplittableRandom right = random.split();
+            invokeAll(new PathTask(random, from, middle, days, blockLength, maxDrawdowns, cagrs, recoveryDays),
+                    new PathTask(right, middle, to, days, blockLength, maxDrawdowns, cagrs, recoveryDays));
+        }
+
+        /**
+         * Compound one path block by block, tracking its drawdown and the longest stretch
+         * of days spent below a previous high
+         */
+        private void simulate(int path) {
+            final double[] growth = MonteCarloBootstrap.this.growth;
+            final int n = growth.length;
+            double value = 1;
+            double peak = 1;
+            double maxDrawdown = 0;
+            int peakDay = -1;
+            int longestUnderwater = 0;
+
+            int day = 0;
+            while (day < days) {
+                int i = random.nextInt(n);
+                int end = Math.min(day + blockLength, days);
+                for (; day < end; day++) {
+                    value *= growth[i];
+                    if (++i == n) {
+                        i = 0;
+                    }
+                    if (value >= peak) {
+                        longestUnderwater = Math.max(longestUnderwater, day - peakDay - 1);
+                        peak = value;
+                        peakDay = day;
+                    } else {
+                        maxDrawdown = Math.min(maxDrawdown, value / peak - 1);
+                    }
+                }
+            }
+            // A drawdown still open at the end counts up to the last day
+            longestUnderwater = Math.max(longestUnderwater, days - 1 - peakDay);
+
+            maxDrawdowns[path] = maxDrawdown;
+            cagrs[path] = Math.pow(value, BacktestEngine.TRADING_DAYS_PER_YEAR / (double) days) - 1;
+            recoveryDays[path] = longestUnderwater;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.qqq3xstrategy.strategy;
+
+import java.util.Arrays;
+
+/**
+ * Output of a {@link MonteCarloBootstrap} run
+ */
+public class MonteCarloResult {
+
+    /**
+     * Values of one statistic over all paths, sorted for percentile lookups
+     */
+    public static class Distribution {
+        private final double[] sorted;
+        private final double mean;
+
+        /**
+         * Constructor. Sorts {@code values} in place and keeps it.
+         */
+        public Distribution(double[] values) {
+            if (values.length == 0) {
+                throw new IllegalArgumentException("A distribution needs at least one value");
+            }
+            Arrays.sort(values);
+            this.sorted = values;
+            double sum = 0;
+            for (double value : values) {
+                sum += value;
+            }
+            this.mean = sum / values.length;
+        }
+
+        /**
+         * Value below which {@code percent} percent of the paths fall, interpolated linearly
+         * between neighbouring paths like numpy.percentile
+         */
+        public double percentile(double percent) {
+            if (percent < 0 || percent > 100) {
+                throw new IllegalArgumentException("Percentile out of range: " + percent);
+            }
+            double position = percent / 100 * (sorted.length - 1);
+            int lower = (int) Math.floor(position);
+            int upper = Math.min(lower + 1, sorted.length - 1);
+            return sorted[lower] + (position - lower) * (sorted[upper] - sorted[lower]);
+        }
+
+        public double getMedian() {
+            return percentile(50);
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getMin() {
+            return sorted[0];
+        }
+
+        public double getMax() {
+            return sorted[sorted.length - 1];
+        }
+
+        public int size() {
+            return sorted.length;
+        }
+
+        @Override
+        public String toString() {
+            return "{p5=" + percentile(5) +
+                    ", p25=" + percentile(25) +
+                    ", p50=" + percentile(50) +
+                    ", p75=" + percentile(75) +
+                    ", p95=" + percentile(95) +
+                    '}';
+        }
+    }
+
+    private final int paths;
+    private final int days;
+    private final int blockLength;
+    private final Distribution maxDrawdown;
+    private final Distribution cagr;
+    private final Distribution recoveryDays;
+
+    public MonteCarloResult(int paths, int days, int blockLength,
+                            Distribution maxDrawdown, Distribution cagr, Distribution recoveryDays) {
+        this.paths = paths;
+        this.days = days;
+        this.blockLength = blockLength;
+        this.maxDrawdown = maxDrawdown;
+        this.cagr = cagr;
+        this.recoveryDays = recoveryDays;
+    }
+
+    public int getPaths() {
+        return paths;
+    }
+
+    /**
+     * Length of each path in trading days
+     */
+    public int getDays() {
+        return days;
+    }
+
+    public int getBlockLength() {
+        return blockLength;
+    }
+
+    /**
+     * Maximum drawdown of each path as a negative fraction
+     */
+    public Distribution getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    /**
+     * Compound annual growth rate of each path, with years measured as trading days / 252
+     */
+    public Distribution getCagr() {
+        return cagr;
+    }
+
+    /**
+     * Longest stretch of each path spent below a previous high, in trading days. A drawdown
+     * that has not recovered by the end of the path counts up to its last day.
+     */
+    public Distribution getRecoveryDays() {
+        return recoveryDays;
+    }
+
+    @Override
+    public String toString() {
+        return "MonteCarloResult{" +
+                "paths=" + paths +
+                ", days=" + days +
+                ", blockLength=" + blockLength +
+                ", maxDrawdown=" + maxDrawdown +
+                ", cagr=" + cagr +
+                ", recoveryDays=" + recoveryDays +
+                '}';
+    }
+}
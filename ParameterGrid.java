@@ -0,0 +1,108 @@
+package com.example.qqq3xstrategy.strategy;
+
+import com.example.qqq3xstrategy.data.models.UserSettings;
+
+import java.util.SplittableRandom;
+
+/**
+ * Grid of candidate values for the seven SMA periods of {@link UserSettings}.
+ * <p>
+ * Candidates are addressed by index in mixed radix, so a sweep can walk or sample the grid
+ * without ever materializing every combination.
+ */
+public class ParameterGrid {
+    private static final int PARAMETER_COUNT = 7;
+
+    // Order: smaShort, smaLong, smaShort2, smaLong2, smaShort3, smaLong3, smaYear
+    private final int[][] values;
+    private final long size;
+
+    /**
+     * Constructor with the candidate values of each SMA period
+     */
+    public ParameterGrid(int[] smaShort, int[] smaLong,
+                         int[] smaShort2, int[] smaLong2,
+                         int[] smaShort3, int[] smaLong3,
+                         int[] smaYear) {
+        this.values = new int[][] {smaShort, smaLong, smaShort2, smaLong2, smaShort3, smaLong3, smaYear};
+
+        long product = 1;
+        for (int[] candidates : values) {
+            if (candidates.length == 0) {
+                throw new IllegalArgumentException("Every SMA period needs at least one candidate value");
+            }
+            for (int period : candidates) {
+                if (period <= 0) {
+                    throw new IllegalArgumentException("SMA periods must be positive: " + period);
+                }
+            }
+            product *= candidates.length;
+        }
+        this.size = product;
+    }
+
+    /**
+     * Candidate values from {@code from} to {@code to} inclusive
+     */
+    public static int[] range(int from, int to, int step) {
+        if (step <= 0 || to < from) {
+            throw new IllegalArgumentException("Invalid range " + from + ".." + to + " step " + step);
+        }
+        int[] range = new int[(to - from) / step + 1];
+        for (int i = 0; i < range.length; i++) {
+            range[i] = from + i * step;
+        }
+        return range;
+    }
+
+    /**
+     * Number of combinations in the grid
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Settings for the combination at {@code index}. Everything except the SMA periods is
+     * copied from {@code base}.
+     */
+    public UserSettings get(long index, UserSettings base) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Grid index " + index + " of " + size);
+        }
+        int[] periods = new int[PARAMETER_COUNT];
+        for (int p = PARAMETER_COUNT - 1; p >= 0; p--) {
+            int radix = values[p].length;
+            periods[p] = values[p][(int) (index % radix)];
+            index /= radix;
+        }
+        return create(base, periods);
+    }
+
+    /**
+     * Settings for a uniformly sampled combination
+     */
+    public UserSettings sample(SplittableRandom random, UserSettings base) {
+        int[] periods = new int[PARAMETER_COUNT];
+        for (int p = 0; p < PARAMETER_COUNT; p++) {
+            periods[p] = values[p][random.nextInt(values[p].length)];
+        }
+        return create(base, periods);
+    }
+
+    private static UserSettings create(UserSettings base, int[] periods) {
+        UserSettings settings = new UserSettings();
+        settings.setNotificationsEnabled(base.isNotificationsEnabled());
+        settings.setPreferredSafeAsset(base.getPreferredSafeAsset());
+        settings.setTargetLeverage(base.getTargetLeverage());
+        settings.setSafeRatio(base.getSafeRatio());
+        settings.setSmaShort(periods[0]);
+        settings.setSmaLong(periods[1]);
+        settings.setSmaShort2(periods[2]);
+        settings.setSmaLong2(periods[3]);
+        settings.setSmaShort3(periods[4]);
+        settings.setSmaLong3(periods[5]);
+        settings.setSmaYear(periods[6]);
+        return settings;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.qqq3xstrategy.strategy;
+
+import android.util.Log;
+
+import com.example.qqq3xstrategy.data.models.UserSettings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel grid and random search over the SMA periods of {@link UserSettings}.
+ * <p>
+ * Every candidate is backtested against the same {@link BacktestData}, whose prefix sums make
+ * each SMA an O(1) lookup, and only summary statistics are kept per candidate.
+ */
+public class ParameterSweep {
+    private static final String TAG = "ParameterSweep";
+    private static final int CANDIDATES_PER_TASK = 8;
+
+    /**
+     * Metric used to rank the candidates, best first
+     */
+    public enum Ranking {
+        CAGR,
+        SHARPE,
+        MAX_DRAWDOWN
+    }
+
+    private final BacktestData data;
+    private final UserSettings base;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor using the common fork-join pool
+     *
+     * @param data Shared price history
+     * @param base Settings providing everything except the SMA periods
+     */
+    public ParameterSweep(BacktestData data, UserSettings base) {
+        this(data, base, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor with an explicit fork-join pool
+     */
+    public ParameterSweep(BacktestData data, UserSettings base, ForkJoinPool pool) {
+        this.data = data;
+        this.base = base;
+        this.pool = pool;
+    }
+
+    /**
+     * Evaluate every combination of the grid
+     */
+    public List<SweepResult> gridSearch(ParameterGrid grid, Ranking ranking) {
+        if (grid.size() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid too large for an exhaustive search: " + grid.size());
+        }
+        int size = (int) grid.size();
+        List<UserSettings> candidates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            candidates.add(grid.get(i, base));
+        }
+        return evaluate(candidates, ranking);
+    }
+
+    /**
+     * Evaluate {@code samples} combinations drawn uniformly from the grid.
+     * The same seed always yields the same candidates.
+     */
+    public List<SweepResult> randomSearch(ParameterGrid grid, int samples, long seed, Ranking ranking) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<UserSettings> candidates = new ArrayList<>(samples);
+        for (int i = 0; i < samples; i++) {
+            candidates.add(grid.sample(random, base));
+        }
+        return evaluate(candidates, ranking);
+    }
+
+    /**
+     * Backtest the candidates in parallel and rank them
+     */
+    public List<SweepResult> evaluate(List<UserSettings> candidates, Ranking ranking) {
+        long startTime = System.nanoTime();
+
+        SweepResult[] results = new SweepResult[candidates.size()];
+        pool.invoke(new EvaluateTask(candidates, results, 0, results.length));
+        Arrays.sort(results, comparator(ranking));
+
+        Log.d(TAG, "Evaluated " + results.length + " candidates in " +
+                (System.nanoTime() - startTime) / 1000000 + "ms");
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Comparator ordering results best first for the given metric
+     */
+    public static Comparator<SweepResult> comparator(Ranking ranking) {
+        switch (ranking) {
+            case SHARPE:
+                return (a, b) -> Double.compare(b.getMetrics().getSharpe(), a.getMetrics().getSharpe());
+            case MAX_DRAWDOWN:
+                // Drawdowns are negative, so the largest value is the shallowest drawdown
+                return (a, b) -> Double.compare(b.getMetrics().getMaxDrawdown(), a.getMetrics().getMaxDrawdown());
+            case CAGR:
+            default:
+                return (a, b) -> Double.compare(b.getMetrics().getCagr(), a.getMetrics().getCagr());
+        }
+    }
+
+    /**
+     * Splits the candidate range until it is small enough to backtest sequentially
+     */
+    private class EvaluateTask extends RecursiveAction {
+        private final List<UserSettings> candidates;
+        private final SweepResult[] results;
+        private final int from;
+        private final int to;
+
+        EvaluateTask(List<UserSettings> candidates, SweepResult[] results, int from, int to) {
+            this.candidates = candidates;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CANDIDATES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    UserSettings settings = candidates.get(i);
+                    results[i] = new SweepResult(settings, new BacktestEngine(settings).evaluate(data));
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new EvaluateTask(candidates, results, from, middle),
+                    new EvaluateTask(candidates, results, middle, to));
+        }
+    }
+}
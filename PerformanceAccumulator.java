@@ -0,0 +1,470 @@
+package com.example.qqq3xstrategy.strategy;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Streaming port of the performance statistics of analysis.py.
+ * <p>
+ * Daily returns are added one at a time and every statistic is kept as a running value:
+ * Welford mean and variance of the excess returns, the running peak and the deepest drawdown
+ * below it, the downside deviation for Sortino, the win count and, when market returns are
+ * added as well, the co-moments behind the CAPM regression. Memory is O(1) however many days
+ * are added, so it runs inline with {@link BacktestEngine} or over stored daily returns
+ * without keeping an equity series.
+ * <p>
+ * Like analysis.py, the total return is measured from the NAV after the first day. Years are
+ * calendar days / 365.25 when dates are given, and trading days / 252 otherwise, which is what
+ * the backtester reports.
+ */
+public class PerformanceAccumulator {
+    private final double riskFreeRate;
+    private final double dailyRiskFree;
+
+    private int count;
+    private double meanExcess;
+    private double m2Excess;
+    private double downsideSquares;
+    private int wins;
+
+    private double growth = 1;
+    private double firstGrowth = 1;
+    private double peak;
+    private int peakIndex = -1;
+    private LocalDate peakDate;
+    private double maxDrawdown;
+    private int maxDrawdownStartIndex = -1;
+    private int maxDrawdownEndIndex = -1;
+    private LocalDate maxDrawdownStart;
+    private LocalDate maxDrawdownEnd;
+    private LocalDate firstDate;
+    private LocalDate lastDate;
+
+    // Market excess returns and their co-moment with the strategy, for the CAPM regression
+    private int marketCount;
+    private double meanMarketExcess;
+    private double m2MarketExcess;
+    private double coMoment;
+    private double marketGrowth = 1;
+    private double firstMarketGrowth = 1;
+
+    /**
+     * Constructor with the 4% risk-free rate of analysis.py
+     */
+    public PerformanceAccumulator() {
+        this(BacktestMetrics.RISK_FREE_RATE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param riskFreeRate Yearly risk-free rate
+     */
+    public PerformanceAccumulator(double riskFreeRate) {
+        this.riskFreeRate = riskFreeRate;
+        this.dailyRiskFree = riskFreeRate / BacktestEngine.TRADING_DAYS_PER_YEAR;
+    }
+
+    /**
+     * Add the strategy return of the next day
+     */
+    public void add(double strategyReturn) {
+        addReturn(null, strategyReturn);
+    }
+
+    /**
+     * Add the strategy return of the next day, dating the report and the drawdown
+     */
+    public void add(LocalDate date, double strategyReturn) {
+        addReturn(date, strategyReturn);
+    }
+
+    /**
+     * Add the strategy and market returns of the next day. The CAPM statistics need a market
+     * return on every day.
+     */
+    public void add(LocalDate date, double strategyReturn, double marketReturn) {
+        addReturn(date, strategyReturn);
+
+        marketCount++;
+        double excess = marketReturn - dailyRiskFree;
+        double delta = excess - meanMarketExcess;
+        meanMarketExcess += delta / marketCount;
+        m2MarketExcess += delta * (excess - meanMarketExcess);
+        // meanExcess was already updated by addReturn, which the co-moment update expects
+        coMoment += delta * (strategyReturn - dailyRiskFree - meanExcess);
+
+        marketGrowth *= 1 + marketReturn;
+        if (marketCount == 1) {
+            firstMarketGrowth = marketGrowth;
+        }
+    }
+
+    private void addReturn(LocalDate date, double strategyReturn) {
+        count++;
+        double excess = strategyReturn - dailyRiskFree;
+        double delta = excess - meanExcess;
+        meanExcess += delta / count;
+        m2Excess += delta * (excess - meanExcess);
+        if (excess < 0) {
+            downsideSquares += excess * excess;
+        }
+        if (strategyReturn > 0) {
+            wins++;
+        }
+
+        int index = count - 1;
+        growth *= 1 + strategyReturn;
+        if (count == 1) {
+            firstGrowth = growth;
+            firstDate = date;
+        }
+        lastDate = date;
+        if (growth > peak) {
+            peak = growth;
+            peakIndex = index;
+            peakDate = date;
+        }
+        double drawdown = (growth - peak) / peak;
+        if (drawdown < maxDrawdown) {
+            maxDrawdown = drawdown;
+            maxDrawdownStartIndex = peakIndex;
+            maxDrawdownEndIndex = index;
+            maxDrawdownStart = peakDate;
+            maxDrawdownEnd = date;
+        }
+    }
+
+    /**
+     * Forget every day added so far
+     */
+    public void reset() {
+        count = 0;
+        meanExcess = 0;
+        m2Excess = 0;
+        downsideSquares = 0;
+        wins = 0;
+        growth = 1;
+        firstGrowth = 1;
+        peak = 0;
+        peakIndex = -1;
+        peakDate = null;
+        maxDrawdown = 0;
+        maxDrawdownStartIndex = -1;
+        maxDrawdownEndIndex = -1;
+        maxDrawdownStart = null;
+        maxDrawdownEnd = null;
+        firstDate = null;
+        lastDate = null;
+        marketCount = 0;
+        meanMarketExcess = 0;
+        m2MarketExcess = 0;
+        coMoment = 0;
+        marketGrowth = 1;
+        firstMarketGrowth = 1;
+    }
+
+    /**
+     * Number of days added
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Length of the period in years: calendar days / 365.25 between the first and last
+     * date if dates were given, trading days / 252 otherwise
+     */
+    public double getYears() {
+        if (firstDate != null && lastDate != null) {
+            return ChronoUnit.DAYS.between(firstDate, lastDate) / 365.25;
+        }
+        return (count - 1) / (double) BacktestEngine.TRADING_DAYS_PER_YEAR;
+    }
+
+    public double getTotalReturn() {
+        return growth / firstGrowth - 1;
+    }
+
+    public double getCagr() {
+        return annualize(getTotalReturn());
+    }
+
+    /**
+     * Annualized standard deviation of daily returns
+     */
+    public double getVolatility() {
+        return getDailyStd() * Math.sqrt(BacktestEngine.TRADING_DAYS_PER_YEAR);
+    }
+
+    /**
+     * Annualized Sharpe ratio of daily returns in excess of the risk-free rate
+     */
+    public double getSharpe() {
+        double std = getDailyStd();
+        return std > 0 ? meanExcess / std * Math.sqrt(BacktestEngine.TRADING_DAYS_PER_YEAR) : 0;
+    }
+
+    /**
+     * Annualized Sortino ratio: like Sharpe, but only days below the risk-free rate count as risk
+     */
+    public double getSortino() {
+        double downside = count > 0 ? Math.sqrt(downsideSquares / count) : 0;
+        return downside > 0 ? meanExcess / downside * Math.sqrt(BacktestEngine.TRADING_DAYS_PER_YEAR) : 0;
+    }
+
+    /**
+     * Maximum drawdown as a negative fraction (e.g. -0.44 for -44%)
+     */
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    /**
+     * Date of the peak before the maximum drawdown, or null without a drawdown or dates
+     */
+    public LocalDate getMaxDrawdownStart() {
+        return maxDrawdownStart;
+    }
+
+    /**
+     * Date of the trough of the maximum drawdown, or null without a drawdown or dates
+     */
+    public LocalDate getMaxDrawdownEnd() {
+        return maxDrawdownEnd;
+    }
+
+    /**
+     * Days from the peak to the trough of the maximum drawdown: calendar days if dates were
+     * given, trading days otherwise
+     */
+    public long getMaxDrawdownDuration() {
+        if (maxDrawdownStart != null && maxDrawdownEnd != null) {
+            return ChronoUnit.DAYS.between(maxDrawdownStart, maxDrawdownEnd);
+        }
+        return maxDrawdownEndIndex - maxDrawdownStartIndex;
+    }
+
+    /**
+     * CAGR divided by the depth of the maximum drawdown
+     */
+    public double getCalmar() {
+        return maxDrawdown < 0 ? getCagr() / -maxDrawdown : 0;
+    }
+
+    /**
+     * Fraction of days with a positive return
+     */
+    public double getWinRate() {
+        return count > 0 ? wins / (double) count : 0;
+    }
+
+    /**
+     * Whether every day came with a market return, so the CAPM statistics are available
+     */
+    public boolean hasMarket() {
+        return marketCount == count && count > 2;
+    }
+
+    public double getMarketCagr() {
+        return hasMarket() ? annualize(marketGrowth / firstMarketGrowth - 1) : Double.NaN;
+    }
+
+    /**
+     * Slope of the strategy's excess returns on the market's
+     */
+    public double getBeta() {
+        return hasMarket() && m2MarketExcess > 0 ? coMoment / m2MarketExcess : Double.NaN;
+    }
+
+    /**
+     * Intercept of the CAPM regression, per day
+     */
+    public double getDailyAlpha() {
+        return meanExcess - getBeta() * meanMarketExcess;
+    }
+
+    /**
+     * Two-sided p-value of the daily alpha
+     */
+    public double getAlphaPValue() {
+        double beta = getBeta();
+        if (Double.isNaN(beta)) {
+            return Double.NaN;
+        }
+        double residualVariance = Math.max(0, m2Excess - beta * coMoment) / (count - 2);
+        double standardError = Math.sqrt(residualVariance
+                * (1.0 / count + meanMarketExcess * meanMarketExcess / m2MarketExcess));
+        return 2 * studentTUpperTail(Math.abs(getDailyAlpha() / standardError), count - 2);
+    }
+
+    /**
+     * CAGR in excess of what the beta explains: cagr - (rf + beta * (market cagr - rf))
+     */
+    public double getAnnualAlpha() {
+        return getCagr() - (riskFreeRate + getBeta() * (getMarketCagr() - riskFreeRate));
+    }
+
+    /**
+     * One-sided p-value of the mean daily return being greater than {@code dailyReturn}
+     */
+    public double getReturnPValue(double dailyReturn) {
+        double std = getDailyStd();
+        if (count < 2 || std == 0) {
+            return Double.NaN;
+        }
+        double t = (meanExcess + dailyRiskFree - dailyReturn) / (std / Math.sqrt(count));
+        return studentTUpperTail(t, count - 1);
+    }
+
+    /**
+     * Summary statistics, as reported by {@link BacktestEngine}
+     */
+    public BacktestMetrics toMetrics() {
+        return new BacktestMetrics(getTotalReturn(), getCagr(), getSharpe(), maxDrawdown, count);
+    }
+
+    /**
+     * The report analysis.py writes to strategy_report.txt. The CAPM and significance sections
+     * are only included when market returns were added.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append("Strategy Performance Report\n")
+                .append("===========================\n");
+        if (firstDate != null) {
+            report.append("Period: ").append(firstDate).append(" to ").append(lastDate).append('\n');
+        }
+        report.append(format("Trading Days: %d (%.2f years)\n", count, getYears()))
+                .append('\n')
+                .append("Return Statistics\n")
+                .append("-----------------\n")
+                .append(format("Total Return: %.2f%%\n", getTotalReturn() * 100))
+                .append(format("CAGR: %.2f%%\n", getCagr() * 100))
+                .append(format("Annualized Volatility: %.2f%%\n", getVolatility() * 100))
+                .append(format("Win Rate: %.1f%%\n", getWinRate() * 100))
+                .append('\n')
+                .append("Risk Metrics\n")
+                .append("------------\n")
+                .append(format("Max Drawdown: %.2f%%\n", maxDrawdown * 100))
+                .append(format("MDD Duration: %d days", getMaxDrawdownDuration()));
+        if (maxDrawdownStart != null) {
+            report.append(", FROM ").append(maxDrawdownStart).append("->").append(maxDrawdownEnd);
+        }
+        report.append('\n')
+                .append(format("Sharpe Ratio: %.2f\n", getSharpe()))
+                .append(format("Sortino Ratio: %.2f\n", getSortino()))
+                .append(format("Calmar Ratio: %.2f\n", getCalmar()));
+
+        if (hasMarket()) {
+            double marketDaily = Math.pow(1 + getMarketCagr(), 1.0 / BacktestEngine.TRADING_DAYS_PER_YEAR) - 1;
+            report.append('\n')
+                    .append("CAPM Analysis\n")
+                    .append("-------------\n")
+                    .append(format("Alpha_daily: %.4f (p-value: %.4f)\n", getDailyAlpha(), getAlphaPValue()))
+                    .append(format("Alpha annulize: %.4f)\n", getAnnualAlpha()))
+                    .append(format("Beta: %.2f\n", getBeta()))
+                    .append('\n')
+                    .append("Significance Tests\n")
+                    .append("------------------\n");
+            appendSignificance(report, "risk_free", dailyRiskFree);
+            appendSignificance(report, "mkt_daily return", marketDaily);
+            appendSignificance(report, "mkt_daily 2x return", marketDaily * 2);
+            appendSignificance(report, "mkt_daily 3x return", marketDaily * 3);
+        }
+        return report.toString();
+    }
+
+    private void appendSignificance(StringBuilder report, String benchmark, double dailyReturn) {
+        double pValue = getReturnPValue(dailyReturn);
+        report.append("Strategy Return > ").append(benchmark).append(": ")
+                .append(pValue > 0.05 ? "Rejected" : "Confirmed").append('\n')
+                .append(format("(p-value: %.4f)\n", pValue));
+    }
+
+    private double getDailyStd() {
+        return count > 1 ? Math.sqrt(m2Excess / (count - 1)) : 0;
+    }
+
+    private double annualize(double totalReturn) {
+        double years = getYears();
+        return years > 0 ? Math.pow(1 + totalReturn, 1 / years) - 1 : 0;
+    }
+
+    private static String format(String format, Object... args) {
+        return String.format(Locale.US, format, args);
+    }
+
+    /**
+     * P(T > t) for Student's t distribution with {@code df} degrees of freedom
+     */
+    static double studentTUpperTail(double t, double df) {
+        double tail = 0.5 * regularizedIncompleteBeta(df / (df + t * t), df / 2, 0.5);
+        return t > 0 ? tail : 1 - tail;
+    }
+
+    /**
+     * I_x(a, b) by its continued fraction (modified Lentz), as in Numerical Recipes
+     */
+    private static double regularizedIncompleteBeta(double x, double a, double b) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+        double front = Math.exp(a * Math.log(x) + b * Math.log(1 - x)
+                - logGamma(a) - logGamma(b) + logGamma(a + b));
+        // The fraction converges quickly below the mean, so use the symmetry above it
+        if (x > (a + 1) / (a + b + 2)) {
+            return 1 - front * betaContinuedFraction(1 - x, b, a) / b;
+        }
+        return front * betaContinuedFraction(x, a, b) / a;
+    }
+
+    private static double betaContinuedFraction(double x, double a, double b) {
+        final double tiny = 1e-300;
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        d = 1 / (Math.abs(d) < tiny ? tiny : d);
+        double result = d;
+        for (int m = 1; m <= 300; m++) {
+            int m2 = 2 * m;
+            double even = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+            d = 1 / nonZero(1 + even * d, tiny);
+            c = nonZero(1 + even / c, tiny);
+            result *= d * c;
+
+            double odd = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+            d = 1 / nonZero(1 + odd * d, tiny);
+            c = nonZero(1 + odd / c, tiny);
+            double step = d * c;
+            result *= step;
+            if (Math.abs(step - 1) < 1e-15) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static double nonZero(double value, double tiny) {
+        return Math.abs(value) < tiny ? tiny : value;
+    }
+
+    /**
+     * Lanczos approximation of the log of the gamma function, for x > 0
+     */
+    private static double logGamma(double x) {
+        final double[] coefficients = {76.18009172947146, -86.50532032941677, 24.01409824083091,
+                -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5};
+        double y = x;
+        double tmp = x + 5.5;
+        tmp -= (x + 0.5) * Math.log(tmp);
+        double series = 1.000000000190015;
+        for (double coefficient : coefficients) {
+            series += coefficient / ++y;
+        }
+        return -tmp + Math.log(2.5066282746310005 * series / x);
+    }
+}
@@ -12,6 +12,8 @@ import androidx.core.app.NotificationManagerCompat;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.example.qqq3xstrategy.R;
+import com.example.qqq3xstrategy.data.models.SignalHistory;
+import com.example.qqq3xstrategy.strategy.ConditionVector;
 import com.example.qqq3xstrategy.viewmodels.PositionChangeViewModel;
 
 import java.text.SimpleDateFormat;
@@ -106,13 +108,14 @@ public class PositionChangeDetailsActivity extends AppCompatActivity {
                     (data.getQqqOpen() / data.getQqqClose() - 1) * 100));
         });
         
-        // Observe technical indicators
-        viewModel.getLatestIndicators().observe(this, indicators -> {
-            if (indicators == null) return;
-            
-            tvQqqYearSma.setText(String.format(Locale.US, "$%.2f", indicators.getQqqSmaYear()));
-            tvQqqShortSma.setText(String.format(Locale.US, "$%.2f", indicators.getQqqSmaShort()));
-            tvQqqLongSma.setText(String.format(Locale.US, "$%.2f", indicators.getQqqSmaLong()));
+        // Explain the change from the SMAs and conditions stored with the latest signal, so
+        // nothing is recomputed. Rows stored before they were kept show as unknown.
+        viewModel.getLatestSignal().observe(this, signal -> {
+            tvQqqYearSma.setText(formatSma(signal != null ? signal.getQqqSmaYear() : null));
+            tvQqqShortSma.setText(formatSma(signal != null ? signal.getQqqSmaShort() : null));
+            tvQqqLongSma.setText(formatSma(signal != null ? signal.getQqqSmaLong() : null));
+            tvVixLt21.setText(formatCondition(signal, ConditionVector.Condition.VIX_L_21));
+            tvVixGt66.setText(formatCondition(signal, ConditionVector.Condition.VIX_B_66));
         });
         
         // Observe previous signal
@@ -147,11 +150,21 @@ public class PositionChangeDetailsActivity extends AppCompatActivity {
         // Update recommendation
         tvRecommendation.setText(isLeveraged ? "SWITCH TO: LEVERAGED QQQ (3X)" : "SWITCH TO: SAFE ASSET");
         
-        // Update condition indicators
-        tvVixLt21.setText(isLeveraged ? "YES" : "NO");
-        tvVixGt66.setText(isLeveraged ? "NO" : "YES");
-        
         // Update signal confidence
         tvSignalConfidence.setText("HIGH");
     }
+    
+    private static String formatSma(Double sma) {
+        return sma != null ? String.format(Locale.US, "$%.2f", sma) : "UNKNOWN";
+    }
+    
+    /**
+     * YES or NO from the stored condition mask, UNKNOWN for a signal stored without one
+     */
+    private static String formatCondition(SignalHistory signal, ConditionVector.Condition condition) {
+        if (signal == null || signal.getConditionMask() == null) {
+            return "UNKNOWN";
+        }
+        return signal.hasCondition(condition) ? "YES" : "NO";
+    }
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ public class PositionChangeViewModel extends AndroidViewModel {
     
     private final LiveData<MarketData> latestMarketData;
     private final LiveData<TechnicalIndicator> latestIndicators;
+    private final LiveData<SignalHistory> latestSignal;
     private final LiveData<SignalHistory> previousSignal;
     
     /**
@@ -39,6 +40,9 @@ public class PositionChangeViewModel extends AndroidViewModel {
         latestMarketData = database.marketDataDao().getLatestMarketDataLive();
         latestIndicators = database.technicalIndicatorDao().getLatestIndicatorLive();
         
+        // The latest signal carries the conditions that caused the change
+        latestSignal = database.signalHistoryDao().getLatestSignalLive();
+        
         // Get the second-to-last signal (previous position)
         previousSignal = database.signalHistoryDao().getPreviousSignalLive();
         
@@ -59,6 +63,13 @@ public class PositionChangeViewModel extends AndroidViewModel {
         return latestIndicators;
     }
     
+    /**
+     * Get latest signal with its recorded conditions
+     */
+    public LiveData<SignalHistory> getLatestSignal() {
+        return latestSignal;
+    }
+    
     /**
      * Get previous signal
      */
@@ -0,0 +1,334 @@
+package com.example.qqq3xstrategy.data.models;
+
+import com.example.qqq3xstrategy.strategy.QQQ3XStrategy;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Run-length encoded history of the positions in signal_history.
+ * <p>
+ * Consecutive days with the same signal and safe asset form one run, stored as its first and
+ * last date and its number of trading days in parallel arrays. A history of thousands of days
+ * holds a few hundred runs, so the position on a date is a binary search over run starts and
+ * holding-period statistics only look at runs. Trading days and days in the leveraged position
+ * are also counted per calendar year as days are added, so time in market per year is a
+ * lookup.
+ * <p>
+ * Days are appended in date order as signals are stored; appending the last date again
+ * replaces that day. Not thread-safe: share a {@link #copy()} instead.
+ */
+public class PositionTimeline {
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Holding-period statistics of the runs of one signal
+     */
+    public static class HoldingStats {
+        private final int periods;
+        private final int totalDays;
+        private final int longestDays;
+
+        HoldingStats(int periods, int totalDays, int longestDays) {
+            this.periods = periods;
+            this.totalDays = totalDays;
+            this.longestDays = longestDays;
+        }
+
+        /**
+         * Number of separate runs
+         */
+        public int getPeriods() {
+            return periods;
+        }
+
+        /**
+         * Trading days over all runs
+         */
+        public int getTotalDays() {
+            return totalDays;
+        }
+
+        /**
+         * Trading days of the longest run
+         */
+        public int getLongestDays() {
+            return longestDays;
+        }
+
+        public double getAverageDays() {
+            return periods == 0 ? 0 : totalDays / (double) periods;
+        }
+
+        @Override
+        public String toString() {
+            return "HoldingStats{" +
+                    "periods=" + periods +
+                    ", totalDays=" + totalDays +
+                    ", longestDays=" + longestDays +
+                    ", averageDays=" + getAverageDays() +
+                    '}';
+        }
+    }
+
+    // One entry per run
+    private int[] startDays = new int[INITIAL_CAPACITY];
+    private int[] endDays = new int[INITIAL_CAPACITY];
+    private int[] dayCounts = new int[INITIAL_CAPACITY];
+    private int[] signals = new int[INITIAL_CAPACITY];
+    private String[] safeAssets = new String[INITIAL_CAPACITY];
+    private int runs;
+    // Stored day before the last one, so a replaced last day can be taken off its run
+    private int previousDay = Integer.MIN_VALUE;
+
+    // Trading days and leveraged days per calendar year, indexed from firstYear
+    private int firstYear;
+    private int[] yearDays = new int[0];
+    private int[] yearLeveragedDays = new int[0];
+
+    /**
+     * Add the signal stored for the next day. Appending the last date again replaces it.
+     *
+     * @throws IllegalArgumentException If the date is before the last date; the timeline has
+     * to be rebuilt then
+     */
+    public void append(LocalDate date, int signal, String safeAsset) {
+        int day = (int) date.toEpochDay();
+        if (runs > 0) {
+            int lastDay = endDays[runs - 1];
+            if (day < lastDay) {
+                throw new IllegalArgumentException("Date " + date + " is before the last day " +
+                        LocalDate.ofEpochDay(lastDay));
+            }
+            if (day == lastDay) {
+                removeLastDay();
+            } else {
+                previousDay = lastDay;
+            }
+        }
+
+        if (runs > 0 && signals[runs - 1] == signal && safeAssets[runs - 1].equals(safeAsset)) {
+            endDays[runs - 1] = day;
+            dayCounts[runs - 1]++;
+        } else {
+            ensureCapacity(runs + 1);
+            startDays[runs] = day;
+            endDays[runs] = day;
+            dayCounts[runs] = 1;
+            signals[runs] = signal;
+            safeAssets[runs] = safeAsset;
+            runs++;
+        }
+        countYear(date.getYear(), signal, 1);
+    }
+
+    /**
+     * Add a stored signal row
+     */
+    public void append(SignalHistory signal) {
+        append(signal.getDate(), signal.getSignal(), signal.getSafeAsset());
+    }
+
+    /**
+     * Drop the last day so it can be replaced
+     */
+    private void removeLastDay() {
+        int last = runs - 1;
+        countYear(LocalDate.ofEpochDay(endDays[last]).getYear(), signals[last], -1);
+        if (--dayCounts[last] == 0) {
+            safeAssets[last] = null;
+            runs--;
+        } else {
+            endDays[last] = previousDay;
+        }
+    }
+
+    private void countYear(int year, int signal, int delta) {
+        if (yearDays.length == 0) {
+            firstYear = year;
+        }
+        if (year < firstYear) {
+            int shift = firstYear - year;
+            yearDays = shift(yearDays, shift);
+            yearLeveragedDays = shift(yearLeveragedDays, shift);
+            firstYear = year;
+        }
+        int index = year - firstYear;
+        if (index >= yearDays.length) {
+            yearDays = Arrays.copyOf(yearDays, index + 1);
+            yearLeveragedDays = Arrays.copyOf(yearLeveragedDays, index + 1);
+        }
+        yearDays[index] += delta;
+        if (signal == QQQ3XStrategy.SIGNAL_LEVERAGED) {
+            yearLeveragedDays[index] += delta;
+        }
+    }
+
+    private static int[] shift(int[] counts, int shift) {
+        int[] shifted = new int[counts.length + shift];
+        System.arraycopy(counts, 0, shifted, shift, counts.length);
+        return shifted;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= startDays.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, startDays.length * 2);
+        startDays = Arrays.copyOf(startDays, newCapacity);
+        endDays = Arrays.copyOf(endDays, newCapacity);
+        dayCounts = Arrays.copyOf(dayCounts, newCapacity);
+        signals = Arrays.copyOf(signals, newCapacity);
+        safeAssets = Arrays.copyOf(safeAssets, newCapacity);
+    }
+
+    /**
+     * Independent copy, e.g. to hand to another thread
+     */
+    public PositionTimeline copy() {
+        PositionTimeline copy = new PositionTimeline();
+        int capacity = Math.max(runs, 1);
+        copy.startDays = Arrays.copyOf(startDays, capacity);
+        copy.endDays = Arrays.copyOf(endDays, capacity);
+        copy.dayCounts = Arrays.copyOf(dayCounts, capacity);
+        copy.signals = Arrays.copyOf(signals, capacity);
+        copy.safeAssets = Arrays.copyOf(safeAssets, capacity);
+        copy.runs = runs;
+        copy.previousDay = previousDay;
+        copy.firstYear = firstYear;
+        copy.yearDays = yearDays.clone();
+        copy.yearLeveragedDays = yearLeveragedDays.clone();
+        return copy;
+    }
+
+    /**
+     * Number of runs
+     */
+    public int size() {
+        return runs;
+    }
+
+    public boolean isEmpty() {
+        return runs == 0;
+    }
+
+    /**
+     * Index of the run holding the position on {@code date}: the last run starting on or
+     * before it. Dates after the last stored day belong to the last run.
+     *
+     * @return The run index, or -1 if the date is before the first stored day
+     */
+    public int findRun(LocalDate date) {
+        long day = date.toEpochDay();
+        int low = 0;
+        int high = runs;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (startDays[middle] <= day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * Signal held on {@code date}, or {@link QQQ3XStrategy#SIGNAL_NONE} if the date is before
+     * the first stored day
+     */
+    public int getSignalOn(LocalDate date) {
+        int run = findRun(date);
+        return run < 0 ? QQQ3XStrategy.SIGNAL_NONE : signals[run];
+    }
+
+    public LocalDate getRunStart(int run) {
+        return LocalDate.ofEpochDay(startDays[run]);
+    }
+
+    /**
+     * Last stored day of a run
+     */
+    public LocalDate getRunEnd(int run) {
+        return LocalDate.ofEpochDay(endDays[run]);
+    }
+
+    /**
+     * Number of trading days in a run
+     */
+    public int getRunDays(int run) {
+        return dayCounts[run];
+    }
+
+    public int getRunSignal(int run) {
+        return signals[run];
+    }
+
+    public String getRunSafeAsset(int run) {
+        return safeAssets[run];
+    }
+
+    /**
+     * Holding-period statistics of every run with the given signal
+     */
+    public HoldingStats getHoldingStats(int signal) {
+        return getHoldingStats(signal, 0, runs);
+    }
+
+    /**
+     * Holding-period statistics of the runs with the given signal that start between two
+     * dates, both inclusive
+     */
+    public HoldingStats getHoldingStats(int signal, LocalDate from, LocalDate to) {
+        int first = findRun(from);
+        // A run that started before the range and continues into it is left out
+        if (first < 0 || startDays[first] < from.toEpochDay()) {
+            first++;
+        }
+        return getHoldingStats(signal, first, findRun(to) + 1);
+    }
+
+    private HoldingStats getHoldingStats(int signal, int from, int to) {
+        int periods = 0;
+        int totalDays = 0;
+        int longestDays = 0;
+        for (int run = from; run < to; run++) {
+            if (signals[run] == signal) {
+                periods++;
+                totalDays += dayCounts[run];
+                longestDays = Math.max(longestDays, dayCounts[run]);
+            }
+        }
+        return new HoldingStats(periods, totalDays, longestDays);
+    }
+
+    /**
+     * First calendar year with a stored day, or 0 if none
+     */
+    public int getFirstYear() {
+        return yearDays.length == 0 ? 0 : firstYear;
+    }
+
+    /**
+     * Last calendar year with a stored day, or -1 if none
+     */
+    public int getLastYear() {
+        return yearDays.length == 0 ? -1 : firstYear + yearDays.length - 1;
+    }
+
+    /**
+     * Number of stored trading days in a calendar year
+     */
+    public int getTradingDays(int year) {
+        int index = year - firstYear;
+        return index < 0 || index >= yearDays.length ? 0 : yearDays[index];
+    }
+
+    /**
+     * Fraction of a calendar year's stored trading days spent in the leveraged position
+     */
+    public double getTimeInMarket(int year) {
+        int days = getTradingDays(year);
+        return days == 0 ? 0 : yearLeveragedDays[year - firstYear] / (double) days;
+    }
+}
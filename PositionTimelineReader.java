@@ -0,0 +1,38 @@
+package com.example.qqq3xstrategy.data.database;
+
+import android.database.Cursor;
+
+import com.example.qqq3xstrategy.data.models.PositionTimeline;
+
+import java.time.LocalDate;
+
+/**
+ * Reads {@code signal_history} positions straight from a cursor into a
+ * {@link PositionTimeline}, without building a {@code SignalHistory} object per row
+ */
+public final class PositionTimelineReader {
+    
+    private PositionTimelineReader() {
+    }
+    
+    /**
+     * Read every remaining row of a {@code SELECT date, signal, safeAsset ... ORDER BY date}
+     * cursor and close it
+     */
+    public static PositionTimeline read(Cursor cursor) {
+        try {
+            int dateIndex = cursor.getColumnIndexOrThrow("date");
+            int signalIndex = cursor.getColumnIndexOrThrow("signal");
+            int safeAssetIndex = cursor.getColumnIndexOrThrow("safeAsset");
+            
+            PositionTimeline timeline = new PositionTimeline();
+            while (cursor.moveToNext()) {
+                timeline.append(LocalDate.ofEpochDay(cursor.getLong(dateIndex)),
+                        cursor.getInt(signalIndex), cursor.getString(safeAssetIndex));
+            }
+            return timeline;
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.qqq3xstrategy.data.repository;
+
+import android.util.Log;
+
+import com.example.qqq3xstrategy.data.database.AppDatabase;
+import com.example.qqq3xstrategy.data.database.SignalHistoryDao;
+import com.example.qqq3xstrategy.data.models.PositionTimeline;
+import com.example.qqq3xstrategy.data.models.SignalHistory;
+
+/**
+ * Keeps the {@link PositionTimeline} of signal_history in memory.
+ * <p>
+ * The table is read once, and each signal the strategy stores afterwards is appended to the
+ * runs instead of querying the table again. Bulk rewrites of the table {@link #invalidate()}
+ * it, and the next {@link #get()} reads it again. Must be called off the main thread.
+ */
+public class PositionTimelineRepository {
+    private static final String TAG = "PositionTimelineRepository";
+
+    private static volatile PositionTimelineRepository INSTANCE;
+
+    private final SignalHistoryDao signalDao;
+    // Guarded by this. Null until loaded or after invalidate().
+    private PositionTimeline timeline;
+
+    PositionTimelineRepository(SignalHistoryDao signalDao) {
+        this.signalDao = signalDao;
+    }
+
+    /**
+     * Get the timeline of the app database
+     */
+    public static PositionTimelineRepository getInstance(AppDatabase database) {
+        if (INSTANCE == null) {
+            synchronized (PositionTimelineRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new PositionTimelineRepository(database.signalHistoryDao());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Copy of the current timeline, loading it first if needed
+     */
+    public synchronized PositionTimeline get() {
+        if (timeline == null) {
+            long start = System.nanoTime();
+            timeline = signalDao.getPositionTimeline();
+            Log.d(TAG, "Loaded " + timeline.size() + " position runs in " +
+                    (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        return timeline.copy();
+    }
+
+    /**
+     * Add a signal that was just written to signal_history
+     */
+    public synchronized void onSignalStored(SignalHistory signal) {
+        if (timeline == null) {
+            // Read with the new row on the next get()
+            return;
+        }
+        try {
+            timeline.append(signal);
+        } catch (IllegalArgumentException e) {
+            // An older day was rewritten, which only a full read can take into account
+            Log.w(TAG, "Reloading position timeline: " + e.getMessage());
+            timeline = null;
+        }
+    }
+
+    /**
+     * Drop the timeline after signal_history was rewritten
+     */
+    public synchronized void invalidate() {
+        timeline = null;
+    }
+}
@@ -0,0 +1,456 @@
+package com.example.qqq3xstrategy.util;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread pool with one bounded queue per {@link Priority}.
+ * <p>
+ * Idle workers always take the oldest task of the most urgent lane that is below its
+ * concurrency limit, so user-initiated work never queues behind background work. A lane
+ * limited to one running task executes its tasks one at a time in submission order. What
+ * happens when a lane's queue is full is set per lane by its {@link Overflow} policy, and
+ * every lane keeps counters for queue depth, wait time, run time and overflows.
+ * <p>
+ * With zero threads the executor runs each task immediately on the submitting thread, which
+ * makes tests deterministic while still recording the metrics.
+ */
+public final class PriorityExecutor {
+    private static final String TAG = "PriorityExecutor";
+
+    /**
+     * Lanes in the order they are served
+     */
+    public enum Priority {
+        USER,
+        BACKGROUND
+    }
+
+    /**
+     * What to do with a task submitted to a full lane
+     */
+    public enum Overflow {
+        /** Throw {@link RejectedExecutionException} */
+        REJECT,
+        /** Run the task on the submitting thread */
+        CALLER_RUNS,
+        /** Drop the oldest queued task to make room */
+        DISCARD_OLDEST,
+        /** Wait until there is room, slowing the producer down */
+        BLOCK
+    }
+
+    /**
+     * Point-in-time copy of one lane's counters
+     */
+    public static final class LaneStats {
+        private final Priority priority;
+        private final int queueDepth;
+        private final int running;
+        private final long submitted;
+        private final long completed;
+        private final long rejected;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long totalRunNanos;
+
+        LaneStats(Lane lane) {
+            this.priority = lane.priority;
+            this.queueDepth = lane.queue.size();
+            this.running = lane.running;
+            this.submitted = lane.submitted;
+            this.completed = lane.completed;
+            this.rejected = lane.rejected;
+            this.totalWaitNanos = lane.totalWaitNanos;
+            this.maxWaitNanos = lane.maxWaitNanos;
+            this.totalRunNanos = lane.totalRunNanos;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        /**
+         * Tasks waiting for a thread
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public int getRunning() {
+            return running;
+        }
+
+        /**
+         * Tasks accepted, including those run by the caller
+         */
+        public long getSubmitted() {
+            return submitted;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        /**
+         * Tasks that found the queue full: rejected, discarded or run by the caller
+         */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * Mean time from submission to start, in milliseconds
+         */
+        public double getAverageWaitMillis() {
+            return completed + running == 0 ? 0 : totalWaitNanos / 1e6 / (completed + running);
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitNanos / 1e6;
+        }
+
+        /**
+         * Mean run time of completed tasks, in milliseconds
+         */
+        public double getAverageRunMillis() {
+            return completed == 0 ? 0 : totalRunNanos / 1e6 / completed;
+        }
+
+        @Override
+        public String toString() {
+            return priority +
+                    "{queued=" + queueDepth +
+                    ", running=" + running +
+                    ", submitted=" + submitted +
+                    ", completed=" + completed +
+                    ", rejected=" + rejected +
+                    ", avgWaitMs=" + getAverageWaitMillis() +
+                    ", maxWaitMs=" + getMaxWaitMillis() +
+                    ", avgRunMs=" + getAverageRunMillis() +
+                    '}';
+        }
+    }
+
+    /**
+     * Builder for {@link PriorityExecutor}. Lanes that are not configured are unbounded,
+     * may use every thread and never overflow.
+     */
+    public static final class Builder {
+        private final String name;
+        private final int threads;
+        private final int[] capacities = new int[PRIORITIES.length];
+        private final int[] concurrency = new int[PRIORITIES.length];
+        private final Overflow[] overflows = new Overflow[PRIORITIES.length];
+
+        /**
+         * @param name Prefix for thread names
+         * @param threads Number of worker threads, or 0 to run tasks on the submitting thread
+         */
+        public Builder(String name, int threads) {
+            if (threads < 0) {
+                throw new IllegalArgumentException("Thread count must not be negative");
+            }
+            this.name = name;
+            this.threads = threads;
+            for (int i = 0; i < PRIORITIES.length; i++) {
+                capacities[i] = Integer.MAX_VALUE;
+                concurrency[i] = Integer.MAX_VALUE;
+                overflows[i] = Overflow.REJECT;
+            }
+        }
+
+        /**
+         * Configure one lane
+         *
+         * @param capacity Maximum number of queued tasks
+         * @param maxRunning Maximum number of the lane's tasks running at once
+         * @param overflow Policy when the queue is full
+         */
+        public Builder lane(Priority priority, int capacity, int maxRunning, Overflow overflow) {
+            if (capacity < 1 || maxRunning < 1) {
+                throw new IllegalArgumentException("Capacity and concurrency must be positive");
+            }
+            capacities[priority.ordinal()] = capacity;
+            concurrency[priority.ordinal()] = maxRunning;
+            overflows[priority.ordinal()] = overflow;
+            return this;
+        }
+
+        public PriorityExecutor build() {
+            return new PriorityExecutor(this);
+        }
+    }
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private static final class Task {
+        final Runnable command;
+        final long submittedAt;
+
+        Task(Runnable command, long submittedAt) {
+            this.command = command;
+            this.submittedAt = submittedAt;
+        }
+    }
+
+    private final class Lane implements Executor {
+        final Priority priority;
+        final int capacity;
+        final int maxRunning;
+        final Overflow overflow;
+
+        // Guarded by lock
+        final ArrayDeque<Task> queue = new ArrayDeque<>();
+        int running;
+        long submitted;
+        long completed;
+        long rejected;
+        long totalWaitNanos;
+        long maxWaitNanos;
+        long totalRunNanos;
+
+        Lane(Priority priority, int capacity, int maxRunning, Overflow overflow) {
+            this.priority = priority;
+            this.capacity = capacity;
+            this.maxRunning = maxRunning;
+            this.overflow = overflow;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            submit(this, command);
+        }
+    }
+
+    private final String name;
+    private final Lane[] lanes;
+    private final Thread[] workers;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Condition spaceAvailable = lock.newCondition();
+    private boolean shutdown;
+
+    private PriorityExecutor(Builder builder) {
+        this.name = builder.name;
+        this.lanes = new Lane[PRIORITIES.length];
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            lanes[i] = new Lane(PRIORITIES[i], builder.capacities[i], builder.concurrency[i], builder.overflows[i]);
+        }
+        this.workers = new Thread[builder.threads];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(this::work, name + "-" + (i + 1));
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Executor that submits to one lane
+     */
+    public Executor lane(Priority priority) {
+        return lanes[priority.ordinal()];
+    }
+
+    /**
+     * Current counters of one lane
+     */
+    public LaneStats getStats(Priority priority) {
+        lock.lock();
+        try {
+            return new LaneStats(lanes[priority.ordinal()]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop accepting tasks. Queued tasks still run, then the workers exit.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            workAvailable.signalAll();
+            spaceAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait for queued and running tasks to finish after {@link #shutdown()}
+     *
+     * @return True if every worker exited in time
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread worker : workers) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedJoin(worker, remaining);
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void submit(Lane lane, Runnable command) {
+        if (workers.length == 0) {
+            runOnCaller(lane, command);
+            return;
+        }
+
+        lock.lock();
+        try {
+            while (true) {
+                if (shutdown) {
+                    lane.rejected++;
+                    throw new RejectedExecutionException(name + " is shut down");
+                }
+                if (lane.queue.size() < lane.capacity) {
+                    break;
+                }
+                switch (lane.overflow) {
+                    case REJECT:
+                        lane.rejected++;
+                        throw new RejectedExecutionException(name + " " + lane.priority + " queue is full");
+                    case CALLER_RUNS:
+                        lane.rejected++;
+                        lock.unlock();
+                        try {
+                            runOnCaller(lane, command);
+                        } finally {
+                            lock.lock();
+                        }
+                        return;
+                    case DISCARD_OLDEST:
+                        lane.rejected++;
+                        lane.queue.pollFirst();
+                        Log.w(TAG, name + " " + lane.priority + " queue is full, discarded oldest task");
+                        break;
+                    case BLOCK:
+                        try {
+                            spaceAvailable.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            lane.rejected++;
+                            throw new RejectedExecutionException("Interrupted waiting for " + name, e);
+                        }
+                        break;
+                }
+            }
+            lane.queue.addLast(new Task(command, System.nanoTime()));
+            lane.submitted++;
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runOnCaller(Lane lane, Runnable command) {
+        lock.lock();
+        try {
+            lane.submitted++;
+            lane.running++;
+        } finally {
+            lock.unlock();
+        }
+        long start = System.nanoTime();
+        try {
+            command.run();
+        } finally {
+            finish(lane, start);
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Lane lane;
+            Task task;
+            long start;
+            lock.lock();
+            try {
+                while ((lane = nextLane()) == null) {
+                    if (shutdown && isIdle()) {
+                        return;
+                    }
+                    workAvailable.awaitUninterruptibly();
+                }
+                task = lane.queue.pollFirst();
+                lane.running++;
+                start = System.nanoTime();
+                long wait = start - task.submittedAt;
+                lane.totalWaitNanos += wait;
+                lane.maxWaitNanos = Math.max(lane.maxWaitNanos, wait);
+                spaceAvailable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                task.command.run();
+            } catch (Throwable t) {
+                // Keep the worker alive; the pool has no way to report to the submitter
+                Log.e(TAG, "Uncaught exception in " + name + " " + lane.priority + " task", t);
+            } finally {
+                finish(lane, start);
+            }
+        }
+    }
+
+    private void finish(Lane lane, long start) {
+        long elapsed = System.nanoTime() - start;
+        lock.lock();
+        try {
+            lane.running--;
+            lane.completed++;
+            lane.totalRunNanos += elapsed;
+            // A lane at its concurrency limit may now be served by another worker
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Most urgent lane with a queued task and a free concurrency slot. Caller holds lock.
+     */
+    private Lane nextLane() {
+        for (Lane lane : lanes) {
+            if (!lane.queue.isEmpty() && lane.running < lane.maxRunning) {
+                return lane;
+            }
+        }
+        return null;
+    }
+
+    private boolean isIdle() {
+        for (Lane lane : lanes) {
+            if (!lane.queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(name).append('[');
+        for (Priority priority : PRIORITIES) {
+            builder.append(priority == PRIORITIES[0] ? "" : ", ").append(getStats(priority));
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -3,10 +3,11 @@ package com.example.qqq3xstrategy.strategy;
 import android.util.Log;
 
 import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
 import com.example.qqq3xstrategy.data.models.UserSettings;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Implementation of the QQQ3X strategy
@@ -14,6 +15,11 @@ import java.util.List;
 public class QQQ3XStrategy {
     private static final String TAG = "QQQ3XStrategy";
     
+    // Signal values
+    public static final int SIGNAL_SAFE = -1;
+    public static final int SIGNAL_LEVERAGED = 1;
+    public static final int SIGNAL_NONE = 0; // Raw signal only: keep the previous position
+    
     // Strategy parameters
     private final int smaShort;
     private final int smaLong;
@@ -56,36 +62,191 @@ public class QQQ3XStrategy {
             return -1; // Default to safe asset
         }
         
-        // Create a copy of the data to work with
-        List<MarketData> data = new ArrayList<>(historicalData);
-        
         // Get the last data point (yesterday)
-        MarketData yesterday = data.get(data.size() - 1);
+        MarketData yesterday = historicalData.get(historicalData.size() - 1);
+        
+        // Calculate SMAs straight from the list, without copying it into arrays
+        double qqqSmaYear = calculateSMA(historicalData, MarketData::getQqqClose, smaYear);
+        double qqqSmaLong = calculateSMA(historicalData, MarketData::getQqqClose, smaLong);
+        double qqqSmaShort = calculateSMA(historicalData, MarketData::getQqqClose, smaShort);
+        
+        double vixSmaShort = calculateSMA(historicalData, MarketData::getVixClose, smaShort2);
+        double vixSmaLong = calculateSMA(historicalData, MarketData::getVixClose, smaLong2);
         
-        // Calculate technical indicators
-        double[] qqqPrices = data.stream().mapToDouble(MarketData::getQqqClose).toArray();
-        double[] vixPrices = data.stream().mapToDouble(MarketData::getVixClose).toArray();
-        double[] gldPrices = data.stream().mapToDouble(MarketData::getGldClose).toArray();
+        double vixSmaShort3 = calculateSMA(historicalData, MarketData::getVixClose, smaShort3);
+        double vixSmaLong3 = calculateSMA(historicalData, MarketData::getVixClose, smaLong3);
+        
+        return evaluateSignal(yesterday.getQqqClose(), yesterday.getVixOpen(), yesterday.getVixClose(),
+                qqqSmaYear, qqqSmaLong, qqqSmaShort,
+                vixSmaShort, vixSmaLong, vixSmaShort3, vixSmaLong3,
+                vixOpenToday, qqqOpenToday, null);
+    }
+    
+    /**
+     * Calculate strategy signal based on a columnar history and today's open prices.
+     * SMAs are read straight from the columns, so nothing is copied or boxed.
+     * 
+     * @param history Historical market data, last row is yesterday
+     * @param vixOpenToday VIX opening price today
+     * @param qqqOpenToday QQQ opening price today
+     * @return Signal (-1 for safe asset, 1 for leveraged QQQ)
+     */
+    public int calculateSignal(MarketSeries history, double vixOpenToday, double qqqOpenToday) {
+        return evaluate(history, vixOpenToday, qqqOpenToday, null);
+    }
+    
+    /**
+     * Calculate strategy signal like {@link #calculateSignal(MarketSeries, double, double)}
+     * and record which conditions held. Nothing is allocated.
+     * 
+     * @param conditions Receives the raw signal and condition mask, or null; cleared when
+     * there is not enough data
+     * @return Signal (-1 for safe asset, 1 for leveraged QQQ)
+     */
+    public int evaluate(MarketSeries history, double vixOpenToday, double qqqOpenToday, ConditionVector conditions) {
+        if (conditions != null) {
+            conditions.clear();
+        }
+        if (history == null || history.isEmpty()) {
+            Log.e(TAG, "Historical data is empty");
+            return -1; // Default to safe asset
+        }
         
-        // Calculate SMAs
-        double qqqSmaYear = calculateSMA(qqqPrices, smaYear);
-        double qqqSmaLong = calculateSMA(qqqPrices, smaLong);
-        double qqqSmaShort = calculateSMA(qqqPrices, smaShort);
-        double gldSma = calculateSMA(gldPrices, 100);
+        // Ensure we have enough data for calculations
+        if (history.size() < smaYear + 1) {
+            Log.e(TAG, "Not enough historical data to calculate signal");
+            return -1; // Default to safe asset
+        }
         
-        double vixSmaShort = calculateSMA(vixPrices, smaShort2);
-        double vixSmaLong = calculateSMA(vixPrices, smaLong2);
+        int yesterday = history.size() - 1;
         
-        double vixSmaShort3 = calculateSMA(vixPrices, smaShort3);
-        double vixSmaLong3 = calculateSMA(vixPrices, smaLong3);
+        return evaluateSignal(history.getQqqClose(yesterday), history.getVixOpen(yesterday), history.getVixClose(yesterday),
+                calculateSMA(history, MarketSeries.Field.QQQ_CLOSE, smaYear),
+                calculateSMA(history, MarketSeries.Field.QQQ_CLOSE, smaLong),
+                calculateSMA(history, MarketSeries.Field.QQQ_CLOSE, smaShort),
+                calculateSMA(history, MarketSeries.Field.VIX_CLOSE, smaShort2),
+                calculateSMA(history, MarketSeries.Field.VIX_CLOSE, smaLong2),
+                calculateSMA(history, MarketSeries.Field.VIX_CLOSE, smaShort3),
+                calculateSMA(history, MarketSeries.Field.VIX_CLOSE, smaLong3),
+                vixOpenToday, qqqOpenToday, conditions);
+    }
+    
+    /**
+     * Calculate strategy signal from rolling indicators and today's open prices.
+     * The indicators must have been created with the same SMA periods as this strategy,
+     * e.g. via {@link #createIndicators()}; their last appended bar is treated as yesterday.
+     * 
+     * @param indicators Rolling indicators updated up to yesterday's bar
+     * @param vixOpenToday VIX opening price today
+     * @param qqqOpenToday QQQ opening price today
+     * @return Signal (-1 for safe asset, 1 for leveraged QQQ)
+     */
+    public int calculateSignal(RollingIndicators indicators, double vixOpenToday, double qqqOpenToday) {
+        return evaluate(indicators, vixOpenToday, qqqOpenToday, null);
+    }
+    
+    /**
+     * Calculate strategy signal like {@link #calculateSignal(RollingIndicators, double, double)}
+     * and record which conditions held. Nothing is allocated.
+     * 
+     * @param conditions Receives the raw signal and condition mask, or null; cleared when
+     * there is not enough data
+     * @return Signal (-1 for safe asset, 1 for leveraged QQQ)
+     */
+    public int evaluate(RollingIndicators indicators, double vixOpenToday, double qqqOpenToday, ConditionVector conditions) {
+        if (conditions != null) {
+            conditions.clear();
+        }
+        if (indicators.size() < smaYear + 1) {
+            Log.e(TAG, "Not enough historical data to calculate signal");
+            return -1; // Default to safe asset
+        }
         
+        return evaluateSignal(indicators.getLastQqqClose(), indicators.getLastVixOpen(), indicators.getLastVixClose(),
+                indicators.getQqqSmaYear(), indicators.getQqqSmaLong(), indicators.getQqqSmaShort(),
+                indicators.getVixSmaShort(), indicators.getVixSmaLong(),
+                indicators.getVixSmaShort3(), indicators.getVixSmaLong3(),
+                vixOpenToday, qqqOpenToday, conditions);
+    }
+    
+    /**
+     * Create rolling indicators configured with this strategy's SMA periods
+     */
+    public RollingIndicators createIndicators() {
+        return new RollingIndicators(smaShort, smaLong, smaShort2, smaLong2, smaShort3, smaLong3, smaYear);
+    }
+    
+    /**
+     * Evaluate the strategy for yesterday's close values, indicators and today's opens,
+     * defaulting to the safe asset when no condition fires
+     */
+    private int evaluateSignal(double qqqCloseYesterday, double vixOpenYesterday, double vixCloseYesterday,
+                               double qqqSmaYear, double qqqSmaLong, double qqqSmaShort,
+                               double vixSmaShort, double vixSmaLong,
+                               double vixSmaShort3, double vixSmaLong3,
+                               double vixOpenToday, double qqqOpenToday,
+                               ConditionVector conditions) {
+        int mask = evaluateConditions(qqqCloseYesterday, vixOpenYesterday, vixCloseYesterday,
+                qqqSmaYear, qqqSmaLong, qqqSmaShort,
+                vixSmaShort, vixSmaLong, vixSmaShort3, vixSmaLong3,
+                vixOpenToday, qqqOpenToday);
+        int rawSignal = rawSignal(mask);
+        if (conditions != null) {
+            conditions.set(mask, rawSignal, qqqSmaYear, qqqSmaLong, qqqSmaShort, vixSmaShort, vixSmaLong);
+        }
+        
+        // No change, use previous signal or default to safe asset
+        int signal = rawSignal == SIGNAL_NONE ? SIGNAL_SAFE : rawSignal;
+        
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, "Signal calculation: " + signal + ", conditions: " + ConditionVector.describe(mask));
+        }
+        
+        return signal;
+    }
+    
+    /**
+     * Evaluate the strategy conditions, mirroring Raw_Signal in qqq3x_strategy.py.
+     * Indicators that are not available yet may be passed as NaN, which makes every
+     * comparison involving them false exactly like the pandas implementation.
+     * 
+     * @return {@link #SIGNAL_SAFE}, {@link #SIGNAL_LEVERAGED} or {@link #SIGNAL_NONE} if no condition fires
+     */
+    static int evaluateRawSignal(double qqqCloseYesterday, double vixOpenYesterday, double vixCloseYesterday,
+                               double qqqSmaYear, double qqqSmaLong, double qqqSmaShort,
+                               double vixSmaShort, double vixSmaLong,
+                               double vixSmaShort3, double vixSmaLong3,
+                               double vixOpenToday, double qqqOpenToday) {
+        int mask = evaluateConditions(qqqCloseYesterday, vixOpenYesterday, vixCloseYesterday,
+                qqqSmaYear, qqqSmaLong, qqqSmaShort,
+                vixSmaShort, vixSmaLong, vixSmaShort3, vixSmaLong3,
+                vixOpenToday, qqqOpenToday);
+        
+        // Backtests evaluate this for every bar, so only build the message when it is wanted
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, "Conditions: " + ConditionVector.describe(mask));
+        }
+        
+        return rawSignal(mask);
+    }
+    
+    /**
+     * Evaluate every strategy condition of qqq3x_strategy.py
+     * 
+     * @return One bit per {@link ConditionVector.Condition} that holds
+     */
+    static int evaluateConditions(double qqqCloseYesterday, double vixOpenYesterday, double vixCloseYesterday,
+                                  double qqqSmaYear, double qqqSmaLong, double qqqSmaShort,
+                                  double vixSmaShort, double vixSmaLong,
+                                  double vixSmaShort3, double vixSmaLong3,
+                                  double vixOpenToday, double qqqOpenToday) {
         // Calculate VIX indicators
-        double vixC = (vixOpenToday / yesterday.getVixOpen()) - 1;
-        double vixOpenClose = (vixOpenToday / yesterday.getVixClose()) - 1;
+        double vixC = (vixOpenToday / vixOpenYesterday) - 1;
+        double vixOpenClose = (vixOpenToday / vixCloseYesterday) - 1;
         
         // Calculate conditions
-        boolean qqq_open_close_b = qqqOpenToday > yesterday.getQqqClose() * 1.005;
-        boolean qqq_open_close_l = qqqOpenToday < yesterday.getQqqClose() * 0.96;
+        boolean qqq_open_close_b = qqqOpenToday > qqqCloseYesterday * 1.005;
+        boolean qqq_open_close_l = qqqOpenToday < qqqCloseYesterday * 0.96;
         
         boolean vix_up_much = vixC > 0.2 || vixOpenClose > 0.2;
         boolean vix_sell = vixSmaShort > 1.2 * vixSmaLong || vixOpenToday > 1.2 * vixSmaLong;
@@ -94,23 +255,23 @@ public class QQQ3XStrategy {
         boolean vix_down_today2 = vixOpenClose < 0.05;
         boolean vix_down_smooth = vixSmaShort3 < 0.97 * vixSmaLong3;
         boolean vix_down_smooth2 = vixSmaShort3 < 0.95 * vixSmaLong3 && 
-                (yesterday.getVixClose() > 50 || vixOpenToday > 50);
+                (vixCloseYesterday > 50 || vixOpenToday > 50);
         
         boolean vix_no_need_safe = vix_down_today2 && vix_down_smooth2;
         boolean qqq_up_trend = qqqSmaShort > 0.99 * qqqSmaLong;
         boolean qqq_down_trend = qqqSmaShort < 0.95 * qqqSmaLong;
         
-        boolean qqq_year_up = yesterday.getQqqClose() > 1.03 * qqqSmaYear && 
+        boolean qqq_year_up = qqqCloseYesterday > 1.03 * qqqSmaYear && 
                 qqqOpenToday > 1.03 * qqqSmaYear;
-        boolean qqq_year_down = yesterday.getQqqClose() < 0.99 * qqqSmaYear || 
+        boolean qqq_year_down = qqqCloseYesterday < 0.99 * qqqSmaYear || 
                 qqqOpenToday < 0.99 * qqqSmaYear;
         
-        boolean VIX_b_66 = yesterday.getVixClose() > 66 && vixOpenToday > 66;
-        boolean VIX_l_60 = yesterday.getVixClose() < 60 && vixOpenToday < 60;
+        boolean VIX_b_66 = vixCloseYesterday > 66 && vixOpenToday > 66;
+        boolean VIX_l_60 = vixCloseYesterday < 60 && vixOpenToday < 60;
         
         boolean VIX_l_21 = vixOpenToday < 21 && qqq_open_close_b;
         boolean VIX_b_23 = vixOpenToday > 23 || qqq_open_close_l;
-        boolean VIX_b_32 = vixOpenToday > 32 || yesterday.getVixClose() > 32;
+        boolean VIX_b_32 = vixOpenToday > 32 || vixCloseYesterday > 32;
         
         boolean cond_up = VIX_b_32 && vix_down_today && vix_down_smooth;
         boolean cond_down = VIX_b_32 && (vix_up_much || vix_sell);
@@ -118,23 +279,52 @@ public class QQQ3XStrategy {
         boolean lev_cond = qqq_year_up || (qqq_up_trend && VIX_l_21) || VIX_b_66;
         boolean safe_cond = qqq_year_down && (qqq_down_trend || VIX_b_23) && VIX_l_60;
         
-        // Determine signal
-        int signal;
+        return bit(qqq_open_close_b, ConditionVector.Condition.QQQ_OPEN_CLOSE_B)
+                | bit(qqq_open_close_l, ConditionVector.Condition.QQQ_OPEN_CLOSE_L)
+                | bit(vix_up_much, ConditionVector.Condition.VIX_UP_MUCH)
+                | bit(vix_sell, ConditionVector.Condition.VIX_SELL)
+                | bit(vix_down_today, ConditionVector.Condition.VIX_DOWN_TODAY)
+                | bit(vix_down_today2, ConditionVector.Condition.VIX_DOWN_TODAY2)
+                | bit(vix_down_smooth, ConditionVector.Condition.VIX_DOWN_SMOOTH)
+                | bit(vix_down_smooth2, ConditionVector.Condition.VIX_DOWN_SMOOTH2)
+                | bit(vix_no_need_safe, ConditionVector.Condition.VIX_NO_NEED_SAFE)
+                | bit(qqq_up_trend, ConditionVector.Condition.QQQ_UP_TREND)
+                | bit(qqq_down_trend, ConditionVector.Condition.QQQ_DOWN_TREND)
+                | bit(qqq_year_up, ConditionVector.Condition.QQQ_YEAR_UP)
+                | bit(qqq_year_down, ConditionVector.Condition.QQQ_YEAR_DOWN)
+                | bit(VIX_b_66, ConditionVector.Condition.VIX_B_66)
+                | bit(VIX_l_60, ConditionVector.Condition.VIX_L_60)
+                | bit(VIX_l_21, ConditionVector.Condition.VIX_L_21)
+                | bit(VIX_b_23, ConditionVector.Condition.VIX_B_23)
+                | bit(VIX_b_32, ConditionVector.Condition.VIX_B_32)
+                | bit(cond_up, ConditionVector.Condition.COND_UP)
+                | bit(cond_down, ConditionVector.Condition.COND_DOWN)
+                | bit(lev_cond, ConditionVector.Condition.LEV_COND)
+                | bit(safe_cond, ConditionVector.Condition.SAFE_COND);
+    }
+    
+    /**
+     * Derive the raw signal from a condition mask
+     * 
+     * @return {@link #SIGNAL_SAFE}, {@link #SIGNAL_LEVERAGED} or {@link #SIGNAL_NONE} if no condition fires
+     */
+    static int rawSignal(int mask) {
+        boolean safe_cond = ConditionVector.isSet(mask, ConditionVector.Condition.SAFE_COND);
+        boolean lev_cond = ConditionVector.isSet(mask, ConditionVector.Condition.LEV_COND);
+        boolean cond_up = ConditionVector.isSet(mask, ConditionVector.Condition.COND_UP);
+        boolean cond_down = ConditionVector.isSet(mask, ConditionVector.Condition.COND_DOWN);
+        boolean vix_no_need_safe = ConditionVector.isSet(mask, ConditionVector.Condition.VIX_NO_NEED_SAFE);
+        
         if ((safe_cond && !cond_up && !vix_no_need_safe) || cond_down) {
-            signal = -1; // Safe asset
+            return SIGNAL_SAFE;
         } else if ((lev_cond && !cond_down) || cond_up) {
-            signal = 1; // Leveraged QQQ
-        } else {
-            // No change, use previous signal or default to safe asset
-            signal = -1;
+            return SIGNAL_LEVERAGED;
         }
-        
-        Log.d(TAG, "Signal calculation: " + signal);
-        Log.d(TAG, "Conditions: safe_cond=" + safe_cond + ", cond_up=" + cond_up + 
-                ", vix_no_need_safe=" + vix_no_need_safe + ", cond_down=" + cond_down + 
-                ", lev_cond=" + lev_cond);
-        
-        return signal;
+        return SIGNAL_NONE;
+    }
+    
+    private static int bit(boolean value, ConditionVector.Condition condition) {
+        return value ? condition.bit() : 0;
     }
     
     /**
@@ -151,4 +341,36 @@ public class QQQ3XStrategy {
         }
         return sum / period;
     }
+    
+    /**
+     * Calculate Simple Moving Average over the last elements of a list
+     */
+    private double calculateSMA(List<MarketData> data, ToDoubleFunction<MarketData> field, int period) {
+        int size = data.size();
+        if (size < period) {
+            return 0;
+        }
+        
+        double sum = 0;
+        for (int i = size - period; i < size; i++) {
+            sum += field.applyAsDouble(data.get(i));
+        }
+        return sum / period;
+    }
+    
+    /**
+     * Calculate Simple Moving Average over the last rows of a series column
+     */
+    private double calculateSMA(MarketSeries series, MarketSeries.Field field, int period) {
+        int size = series.size();
+        if (size < period) {
+            return 0;
+        }
+        
+        double sum = 0;
+        for (int i = size - period; i < size; i++) {
+            sum += series.get(field, i);
+        }
+        return sum / period;
+    }
 }
\ No newline at end of file
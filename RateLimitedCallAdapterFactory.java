@@ -0,0 +1,127 @@
+package com.example.qqq3xstrategy.data.network;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * Retrofit call adapter that routes every {@code Call} through a {@link TokenBucketRateLimiter}.
+ * {@code enqueue} hands the call to OkHttp once its permit is due, so no dispatcher thread
+ * waits on the limiter. {@code execute} is already blocking and simply waits for its permit.
+ */
+public class RateLimitedCallAdapterFactory extends CallAdapter.Factory {
+    private final TokenBucketRateLimiter limiter;
+
+    public static RateLimitedCallAdapterFactory create(TokenBucketRateLimiter limiter) {
+        return new RateLimitedCallAdapterFactory(limiter);
+    }
+
+    private RateLimitedCallAdapterFactory(TokenBucketRateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public CallAdapter<?, ?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class) {
+            return null;
+        }
+        // Keep the platform adapter underneath, so callbacks are still delivered where they were
+        @SuppressWarnings("unchecked")
+        final CallAdapter<Object, Call<Object>> next =
+                (CallAdapter<Object, Call<Object>>) retrofit.nextCallAdapter(this, returnType, annotations);
+        return new CallAdapter<Object, Call<?>>() {
+            @Override
+            public Type responseType() {
+                return next.responseType();
+            }
+
+            @Override
+            public Call<?> adapt(Call<Object> call) {
+                return new RateLimitedCall<>(next.adapt(call), limiter);
+            }
+        };
+    }
+
+    static final class RateLimitedCall<T> implements Call<T> {
+        private final Call<T> delegate;
+        private final TokenBucketRateLimiter limiter;
+        private volatile boolean canceled;
+
+        RateLimitedCall(Call<T> delegate, TokenBucketRateLimiter limiter) {
+            this.delegate = delegate;
+            this.limiter = limiter;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            try {
+                limiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for rate limit", e);
+            }
+            return delegate.execute();
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            limiter.execute(() -> {
+                if (canceled) {
+                    callback.onFailure(this, new IOException("Canceled"));
+                } else {
+                    delegate.enqueue(new Callback<T>() {
+                        @Override
+                        public void onResponse(Call<T> call, Response<T> response) {
+                            callback.onResponse(RateLimitedCall.this, response);
+                        }
+
+                        @Override
+                        public void onFailure(Call<T> call, Throwable t) {
+                            callback.onFailure(RateLimitedCall.this, t);
+                        }
+                    });
+                }
+            });
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return delegate.isExecuted();
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled || delegate.isCanceled();
+        }
+
+        @SuppressWarnings("CloneDoesntCallSuperClone")
+        @Override
+        public Call<T> clone() {
+            return new RateLimitedCall<>(delegate.clone(), limiter);
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return delegate.timeout();
+        }
+    }
+}
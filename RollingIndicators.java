@@ -0,0 +1,205 @@
+package com.example.qqq3xstrategy.strategy;
+
+import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+import com.example.qqq3xstrategy.data.models.UserSettings;
+
+import java.util.List;
+
+/**
+ * Stateful rolling-window indicators for the QQQ3X strategy.
+ * <p>
+ * Keeps one {@link RollingSma} per configured period so that appending a daily bar updates
+ * every indicator in O(1) without allocating. The strategy can then be re-evaluated against
+ * new open prices as often as needed without rescanning the history.
+ */
+public class RollingIndicators {
+    static final int GLD_SMA_PERIOD = 100;
+
+    private final RollingSma qqqSmaYear;
+    private final RollingSma qqqSmaLong;
+    private final RollingSma qqqSmaShort;
+    private final RollingSma gldSma;
+    private final RollingSma vixSmaShort;
+    private final RollingSma vixSmaLong;
+    private final RollingSma vixSmaShort3;
+    private final RollingSma vixSmaLong3;
+    private final int requiredHistory;
+
+    // Last appended bar (yesterday, from the strategy's point of view)
+    private int size;
+    private double lastQqqClose;
+    private double lastVixOpen;
+    private double lastVixClose;
+    private double lastGldClose;
+
+    /**
+     * Constructor with user settings
+     */
+    public RollingIndicators(UserSettings settings) {
+        this(settings.getSmaShort(), settings.getSmaLong(),
+                settings.getSmaShort2(), settings.getSmaLong2(),
+                settings.getSmaShort3(), settings.getSmaLong3(),
+                settings.getSmaYear());
+    }
+
+    /**
+     * Constructor with explicit SMA periods
+     */
+    public RollingIndicators(int smaShort, int smaLong, int smaShort2, int smaLong2,
+                             int smaShort3, int smaLong3, int smaYear) {
+        this.qqqSmaYear = new RollingSma(smaYear);
+        this.qqqSmaLong = new RollingSma(smaLong);
+        this.qqqSmaShort = new RollingSma(smaShort);
+        this.gldSma = new RollingSma(GLD_SMA_PERIOD);
+        this.vixSmaShort = new RollingSma(smaShort2);
+        this.vixSmaLong = new RollingSma(smaLong2);
+        this.vixSmaShort3 = new RollingSma(smaShort3);
+        this.vixSmaLong3 = new RollingSma(smaLong3);
+        this.requiredHistory = Math.max(GLD_SMA_PERIOD, Math.max(smaYear,
+                Math.max(Math.max(smaShort, smaLong),
+                        Math.max(Math.max(smaShort2, smaLong2), Math.max(smaShort3, smaLong3)))));
+    }
+
+    /**
+     * Create indicators seeded from historical data.
+     * Only the trailing bars that can still affect an indicator are replayed.
+     */
+    public static RollingIndicators fromHistory(UserSettings settings, List<MarketData> history) {
+        RollingIndicators indicators = new RollingIndicators(settings);
+        indicators.appendAll(history);
+        return indicators;
+    }
+
+    /**
+     * Append one daily bar
+     */
+    public void append(MarketData bar) {
+        append(bar.getQqqClose(), bar.getVixOpen(), bar.getVixClose(), bar.getGldClose());
+    }
+
+    /**
+     * Append one daily bar given its raw values
+     */
+    public void append(double qqqClose, double vixOpen, double vixClose, double gldClose) {
+        qqqSmaYear.add(qqqClose);
+        qqqSmaLong.add(qqqClose);
+        qqqSmaShort.add(qqqClose);
+        gldSma.add(gldClose);
+        vixSmaShort.add(vixClose);
+        vixSmaLong.add(vixClose);
+        vixSmaShort3.add(vixClose);
+        vixSmaLong3.add(vixClose);
+
+        lastQqqClose = qqqClose;
+        lastVixOpen = vixOpen;
+        lastVixClose = vixClose;
+        lastGldClose = gldClose;
+        size++;
+    }
+
+    /**
+     * Append a chronologically ordered list of bars.
+     * Bars older than the longest window are only counted, not replayed.
+     */
+    public void appendAll(List<MarketData> bars) {
+        int skip = Math.max(0, bars.size() - requiredHistory);
+        size += skip;
+        for (int i = skip; i < bars.size(); i++) {
+            append(bars.get(i));
+        }
+    }
+
+    /**
+     * Append every row of a columnar series.
+     * Rows older than the longest window are only counted, not replayed.
+     */
+    public void appendAll(MarketSeries series) {
+        int skip = Math.max(0, series.size() - requiredHistory);
+        size += skip;
+        for (int i = skip; i < series.size(); i++) {
+            append(series.getQqqClose(i), series.getVixOpen(i), series.getVixClose(i), series.getGldClose(i));
+        }
+    }
+
+    /**
+     * Clear all windows
+     */
+    public void reset() {
+        qqqSmaYear.reset();
+        qqqSmaLong.reset();
+        qqqSmaShort.reset();
+        gldSma.reset();
+        vixSmaShort.reset();
+        vixSmaLong.reset();
+        vixSmaShort3.reset();
+        vixSmaLong3.reset();
+        size = 0;
+        lastQqqClose = 0;
+        lastVixOpen = 0;
+        lastVixClose = 0;
+        lastGldClose = 0;
+    }
+
+    /**
+     * Number of bars appended so far
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of trailing bars needed to fill every window
+     */
+    public int getRequiredHistory() {
+        return requiredHistory;
+    }
+
+    public double getQqqSmaYear() {
+        return qqqSmaYear.value();
+    }
+
+    public double getQqqSmaLong() {
+        return qqqSmaLong.value();
+    }
+
+    public double getQqqSmaShort() {
+        return qqqSmaShort.value();
+    }
+
+    public double getGldSma() {
+        return gldSma.value();
+    }
+
+    public double getVixSmaShort() {
+        return vixSmaShort.value();
+    }
+
+    public double getVixSmaLong() {
+        return vixSmaLong.value();
+    }
+
+    public double getVixSmaShort3() {
+        return vixSmaShort3.value();
+    }
+
+    public double getVixSmaLong3() {
+        return vixSmaLong3.value();
+    }
+
+    public double getLastQqqClose() {
+        return lastQqqClose;
+    }
+
+    public double getLastVixOpen() {
+        return lastVixOpen;
+    }
+
+    public double getLastVixClose() {
+        return lastVixClose;
+    }
+
+    public double getLastGldClose() {
+        return lastGldClose;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.qqq3xstrategy.strategy;
+
+/**
+ * Simple moving average over a fixed-size window, updated in O(1) per value.
+ * <p>
+ * The running sum is kept with Kahan compensation and is recomputed from the window
+ * every {@link #RESYNC_INTERVAL} updates, so drift never accumulates over long histories.
+ */
+public class RollingSma {
+    static final int RESYNC_INTERVAL = 1024;
+
+    private final int period;
+    private final double[] window;
+    private int head;
+    private int count;
+    private double sum;
+    private double compensation;
+    private int updatesSinceResync;
+
+    /**
+     * Constructor
+     *
+     * @param period Number of values in the window
+     */
+    public RollingSma(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("SMA period must be positive: " + period);
+        }
+        this.period = period;
+        this.window = new double[period];
+    }
+
+    /**
+     * Add a value to the window, evicting the oldest one once the window is full
+     */
+    public void add(double value) {
+        double evicted = count == period ? window[head] : 0;
+        window[head] = value;
+        head = head + 1 == period ? 0 : head + 1;
+        if (count < period) {
+            count++;
+        }
+
+        if (++updatesSinceResync >= RESYNC_INTERVAL) {
+            resync();
+        } else {
+            accumulate(value - evicted);
+        }
+    }
+
+    /**
+     * Current average, or 0 if fewer than {@code period} values have been added
+     */
+    public double value() {
+        return count < period ? 0 : sum / period;
+    }
+
+    /**
+     * Whether the window holds a full period of values
+     */
+    public boolean isReady() {
+        return count == period;
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+
+    /**
+     * Clear the window
+     */
+    public void reset() {
+        head = 0;
+        count = 0;
+        sum = 0;
+        compensation = 0;
+        updatesSinceResync = 0;
+    }
+
+    /**
+     * Recompute the sum from the values currently in the window
+     */
+    void resync() {
+        sum = 0;
+        compensation = 0;
+        for (int i = 0; i < count; i++) {
+            accumulate(window[i]);
+        }
+        updatesSinceResync = 0;
+    }
+
+    private void accumulate(double delta) {
+        double y = delta - compensation;
+        double t = sum + y;
+        compensation = (t - sum) - y;
+        sum = t;
+    }
+}
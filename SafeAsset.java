@@ -0,0 +1,93 @@
+package com.example.qqq3xstrategy.strategy;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What the safe part of the portfolio is held in during a {@link BacktestEngine} run: a fixed
+ * blend of GLD, SHY, cash and the engine's default of GLD while it trades above its 100-day
+ * mean and SHY otherwise.
+ * <p>
+ * The safe return of a day is a weighted sum of those legs, so any number of variants can be
+ * evaluated from the same daily GLD and SHY returns, see
+ * {@link BacktestEngine#compareSafeAssets}.
+ */
+public final class SafeAsset {
+    private final String name;
+    private final double gldWeight;
+    private final double shyWeight;
+    private final double trendWeight;
+    private final double dailyCashReturn;
+
+    private SafeAsset(String name, double gldWeight, double shyWeight, double trendWeight,
+                      double cashWeight, double cashRate) {
+        this.name = name;
+        this.gldWeight = gldWeight;
+        this.shyWeight = shyWeight;
+        this.trendWeight = trendWeight;
+        this.dailyCashReturn = cashWeight * cashRate / BacktestEngine.TRADING_DAYS_PER_YEAR;
+    }
+
+    /**
+     * GLD while it closes above its 100-day mean, SHY otherwise, like qqq3x_strategy.py
+     */
+    public static SafeAsset trend() {
+        return new SafeAsset("GLD/SHY", 0, 0, 1, 0, 0);
+    }
+
+    public static SafeAsset gld() {
+        return new SafeAsset("GLD", 1, 0, 0, 0, 0);
+    }
+
+    public static SafeAsset shy() {
+        return new SafeAsset("SHY", 0, 1, 0, 0, 0);
+    }
+
+    /**
+     * Cash earning a fixed rate
+     *
+     * @param annualRate Yearly interest, e.g. 0.04, paid evenly over the trading days
+     */
+    public static SafeAsset cash(double annualRate) {
+        return new SafeAsset("CASH", 0, 0, 0, 1, annualRate);
+    }
+
+    /**
+     * GLD and SHY in a fixed split, rebalanced daily
+     *
+     * @param gldWeight Fraction held in GLD, the rest is in SHY
+     */
+    public static SafeAsset mix(double gldWeight) {
+        if (gldWeight < 0 || gldWeight > 1) {
+            throw new IllegalArgumentException("GLD weight must be between 0 and 1");
+        }
+        return new SafeAsset("GLD+SHY", gldWeight, 1 - gldWeight, 0, 0, 0);
+    }
+
+    /**
+     * Every variant the app compares: the trend rule, GLD, SHY, cash and an even GLD/SHY mix
+     *
+     * @param cashRate Yearly interest of the cash variant
+     */
+    public static List<SafeAsset> defaults(double cashRate) {
+        return Arrays.asList(trend(), gld(), shy(), cash(cashRate), mix(0.5));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Return of one day from the returns of its legs
+     *
+     * @param trendReturn Return of whichever of GLD and SHY the trend rule holds that day
+     */
+    double getDailyReturn(double gldReturn, double shyReturn, double trendReturn) {
+        return gldWeight * gldReturn + shyWeight * shyReturn + trendWeight * trendReturn + dailyCashReturn;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
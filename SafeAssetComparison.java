@@ -0,0 +1,57 @@
+package com.example.qqq3xstrategy.strategy;
+
+import java.util.List;
+
+/**
+ * Output of {@link BacktestEngine#compareSafeAssets}: one {@link BacktestResult} per
+ * {@link SafeAsset}, in the order they were given.
+ * <p>
+ * The variants trade on the same signals, so every result shares one raw signal and one
+ * signal array; only the returns, equity curves and metrics are their own.
+ */
+public class SafeAssetComparison {
+    private final List<SafeAsset> safeAssets;
+    private final BacktestResult[] results;
+
+    public SafeAssetComparison(List<SafeAsset> safeAssets, BacktestResult[] results) {
+        if (safeAssets.size() != results.length) {
+            throw new IllegalArgumentException("Expected one result per safe asset");
+        }
+        this.safeAssets = safeAssets;
+        this.results = results;
+    }
+
+    public List<SafeAsset> getSafeAssets() {
+        return safeAssets;
+    }
+
+    /**
+     * Number of variants
+     */
+    public int size() {
+        return results.length;
+    }
+
+    public BacktestResult getResult(int index) {
+        return results[index];
+    }
+
+    /**
+     * Result of the first variant with the given name, or null if there is none
+     */
+    public BacktestResult getResult(String name) {
+        for (int i = 0; i < results.length; i++) {
+            if (safeAssets.get(i).getName().equals(name)) {
+                return results[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Signals per day, the same for every variant
+     */
+    public int[] getSignals() {
+        return results.length == 0 ? new int[0] : results[0].getSignals();
+    }
+}
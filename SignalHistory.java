@@ -1,10 +1,13 @@
 package com.example.qqq3xstrategy.data.models;
 
 import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.ForeignKey;
 import androidx.room.PrimaryKey;
 
+import com.example.qqq3xstrategy.strategy.ConditionVector;
+
 import java.time.LocalDate;
 
 /**
@@ -33,12 +36,25 @@ public class SignalHistory {
     
     // Whether position changed from previous day
     @NonNull
+    @ColumnInfo(name = "position_changed")
     private Boolean positionChanged;
     
     // Which safe asset is recommended ("GLD" or "SHY")
     @NonNull
     private String safeAsset;
     
+    // Conditions that held when the signal was decided, one bit per ConditionVector.Condition.
+    // Null for rows stored before conditions were recorded.
+    @ColumnInfo(name = "condition_mask")
+    private Integer conditionMask;
+    
+    // SMAs up to the previous close that the conditions compared against, null if unknown
+    private Double qqqSmaYear;
+    private Double qqqSmaLong;
+    private Double qqqSmaShort;
+    private Double vixSmaShort;
+    private Double vixSmaLong;
+    
     // Default constructor required by Room
     public SignalHistory() {
         this.signal = -1; // Default to safe asset
@@ -104,6 +120,77 @@ public class SignalHistory {
         this.safeAsset = safeAsset;
     }
     
+    public Integer getConditionMask() {
+        return conditionMask;
+    }
+    
+    public void setConditionMask(Integer conditionMask) {
+        this.conditionMask = conditionMask;
+    }
+    
+    public Double getQqqSmaYear() {
+        return qqqSmaYear;
+    }
+    
+    public void setQqqSmaYear(Double qqqSmaYear) {
+        this.qqqSmaYear = qqqSmaYear;
+    }
+    
+    public Double getQqqSmaLong() {
+        return qqqSmaLong;
+    }
+    
+    public void setQqqSmaLong(Double qqqSmaLong) {
+        this.qqqSmaLong = qqqSmaLong;
+    }
+    
+    public Double getQqqSmaShort() {
+        return qqqSmaShort;
+    }
+    
+    public void setQqqSmaShort(Double qqqSmaShort) {
+        this.qqqSmaShort = qqqSmaShort;
+    }
+    
+    public Double getVixSmaShort() {
+        return vixSmaShort;
+    }
+    
+    public void setVixSmaShort(Double vixSmaShort) {
+        this.vixSmaShort = vixSmaShort;
+    }
+    
+    public Double getVixSmaLong() {
+        return vixSmaLong;
+    }
+    
+    public void setVixSmaLong(Double vixSmaLong) {
+        this.vixSmaLong = vixSmaLong;
+    }
+    
+    /**
+     * Record the conditions and SMAs of the evaluation that produced this signal
+     */
+    public void setConditions(ConditionVector conditions) {
+        this.conditionMask = conditions.getMask();
+        this.qqqSmaYear = valueOrNull(conditions.getQqqSmaYear());
+        this.qqqSmaLong = valueOrNull(conditions.getQqqSmaLong());
+        this.qqqSmaShort = valueOrNull(conditions.getQqqSmaShort());
+        this.vixSmaShort = valueOrNull(conditions.getVixSmaShort());
+        this.vixSmaLong = valueOrNull(conditions.getVixSmaLong());
+    }
+    
+    /**
+     * Whether a condition held, or null if no conditions were recorded for this row
+     */
+    public Boolean hasCondition(ConditionVector.Condition condition) {
+        return conditionMask == null ? null : ConditionVector.isSet(conditionMask, condition);
+    }
+    
+    private static Double valueOrNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+    
     @Override
     public String toString() {
         return "SignalHistory{" +
@@ -112,6 +199,7 @@ public class SignalHistory {
                 ", signal=" + signal +
                 ", positionChanged=" + positionChanged +
                 ", safeAsset='" + safeAsset + '\'' +
+                ", conditions=" + (conditionMask == null ? "null" : ConditionVector.describe(conditionMask)) +
                 '}';
     }
 }
\ No newline at end of file
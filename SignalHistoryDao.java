@@ -1,5 +1,7 @@
 package com.example.qqq3xstrategy.data.database;
 
+import android.database.Cursor;
+
 import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Insert;
@@ -7,8 +9,10 @@ import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Transaction;
 
+import com.example.qqq3xstrategy.data.models.PositionTimeline;
 import com.example.qqq3xstrategy.data.models.SignalHistory;
 import com.example.qqq3xstrategy.data.models.relations.MarketDataWithSignal;
+import com.example.qqq3xstrategy.strategy.ConditionVector;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -21,6 +25,18 @@ public interface SignalHistoryDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insert(SignalHistory signalHistory);
     
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<SignalHistory> signals);
+    
+    @Query("DELETE FROM signal_history WHERE date < :date")
+    void deleteBefore(LocalDate date);
+    
+    @Query("SELECT COUNT(*) FROM signal_history WHERE date < :date")
+    int getCountBefore(LocalDate date);
+    
+    @Query("SELECT COUNT(*) FROM signal_history WHERE condition_mask IS NULL AND date < :date")
+    int getCountWithoutConditionsBefore(LocalDate date);
+    
     @Query("SELECT * FROM signal_history WHERE date = :date")
     SignalHistory getSignalForDate(LocalDate date);
     
@@ -33,22 +49,70 @@ public interface SignalHistoryDao {
     @Query("SELECT * FROM signal_history ORDER BY date DESC LIMIT 1")
     LiveData<SignalHistory> getLatestSignalLive();
     
+    @Query("SELECT * FROM signal_history WHERE date < :date ORDER BY date DESC LIMIT 1")
+    SignalHistory getLatestSignalBefore(LocalDate date);
+    
+    @Query("SELECT * FROM signal_history ORDER BY date DESC LIMIT 1 OFFSET 1")
+    LiveData<SignalHistory> getPreviousSignalLive();
+    
     @Query("SELECT * FROM signal_history WHERE position_changed = 1 ORDER BY date DESC LIMIT :limit")
     List<SignalHistory> getRecentPositionChanges(int limit);
     
     @Query("SELECT * FROM signal_history WHERE position_changed = 1 ORDER BY date DESC LIMIT :limit")
     LiveData<List<SignalHistory>> getRecentPositionChangesLive(int limit);
     
+    @Query("SELECT date, signal, safeAsset FROM signal_history ORDER BY date")
+    Cursor getPositionCursor();
+    
+    /**
+     * Load every stored position as runs, without building an entity per row. Use
+     * PositionTimelineRepository for a copy kept current as signals are stored.
+     */
+    default PositionTimeline getPositionTimeline() {
+        return PositionTimelineReader.read(getPositionCursor());
+    }
+    
     @Query("SELECT * FROM signal_history WHERE date BETWEEN :startDate AND :endDate ORDER BY date")
     List<SignalHistory> getSignalsBetweenDates(LocalDate startDate, LocalDate endDate);
     
     @Query("SELECT * FROM signal_history WHERE date BETWEEN :startDate AND :endDate ORDER BY date")
     LiveData<List<SignalHistory>> getSignalsBetweenDatesLive(LocalDate startDate, LocalDate endDate);
     
+    @Query("SELECT * FROM signal_history WHERE (condition_mask & :bit) != 0 AND date BETWEEN :startDate AND :endDate ORDER BY date")
+    List<SignalHistory> getSignalsWithCondition(int bit, LocalDate startDate, LocalDate endDate);
+    
+    /**
+     * Days on which a condition held
+     */
+    default List<SignalHistory> getSignalsWithCondition(ConditionVector.Condition condition,
+                                                        LocalDate startDate, LocalDate endDate) {
+        return getSignalsWithCondition(condition.bit(), startDate, endDate);
+    }
+    
+    // SQLite has no XOR, so the bit is compared with the previous stored day's bit
+    @Query("SELECT sh.* FROM signal_history sh JOIN signal_history prev " +
+           "ON prev.date = (SELECT MAX(date) FROM signal_history WHERE date < sh.date) " +
+           "WHERE (sh.condition_mask & :bit) != (prev.condition_mask & :bit) " +
+           "AND sh.date BETWEEN :startDate AND :endDate ORDER BY sh.date")
+    List<SignalHistory> getConditionFlips(int bit, LocalDate startDate, LocalDate endDate);
+    
+    /**
+     * Days on which a condition started or stopped holding, compared with the previous
+     * stored day. Days with no recorded conditions on either side are skipped.
+     */
+    default List<SignalHistory> getConditionFlips(ConditionVector.Condition condition,
+                                                  LocalDate startDate, LocalDate endDate) {
+        return getConditionFlips(condition.bit(), startDate, endDate);
+    }
+    
     @Transaction
     @Query("SELECT * FROM market_data md LEFT JOIN signal_history sh ON md.date = sh.date WHERE md.date BETWEEN :startDate AND :endDate ORDER BY md.date")
     List<MarketDataWithSignal> getMarketDataWithSignals(LocalDate startDate, LocalDate endDate);
     
+    /**
+     * Emits the whole range again on every change to either table. Charts should follow a
+     * window of it through HistoryWindowLiveData instead.
+     */
     @Transaction
     @Query("SELECT * FROM market_data md LEFT JOIN signal_history sh ON md.date = sh.date WHERE md.date BETWEEN :startDate AND :endDate ORDER BY md.date")
     LiveData<List<MarketDataWithSignal>> getMarketDataWithSignalsLive(LocalDate startDate, LocalDate endDate);
@@ -0,0 +1,159 @@
+package com.example.qqq3xstrategy.data.repository;
+
+import android.util.Log;
+
+import com.example.qqq3xstrategy.data.database.AppDatabase;
+import com.example.qqq3xstrategy.data.database.MarketDataDao;
+import com.example.qqq3xstrategy.data.database.MarketSeriesFile;
+import com.example.qqq3xstrategy.data.database.SignalHistoryDao;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+import com.example.qqq3xstrategy.data.models.SignalHistory;
+import com.example.qqq3xstrategy.data.models.UserSettings;
+import com.example.qqq3xstrategy.strategy.ConditionVector;
+import com.example.qqq3xstrategy.strategy.QQQ3XStrategy;
+import com.example.qqq3xstrategy.strategy.RollingIndicators;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recomputes the whole signal_history table from market_data, e.g. after the strategy
+ * settings changed or days were missed while the phone was off.
+ * <p>
+ * Signals come from a single streaming pass over running-sum {@link RollingIndicators} instead
+ * of one strategy calculation per day, and each row keeps the condition mask and SMAs that
+ * explain it. The raw signal is stored as null on days no condition fires, and the signal is
+ * forward-filled from the last day one did, like the Python strategy. A day gets a row once it
+ * has the {@code smaYear + 1} days of history that {@link QQQ3XStrategy#calculateSignal}
+ * requires. Rows are written in chunks of their own transaction. Must be called off the main
+ * thread.
+ */
+public class SignalHistoryRebuilder {
+    private static final String TAG = "SignalHistoryRebuilder";
+    private static final int CHUNK_SIZE = 500;
+
+    private final MarketDataDao marketDataDao;
+    private final SignalHistoryDao signalDao;
+    private final MarketSeriesFile snapshot;
+    private final PositionTimelineRepository timeline;
+
+    /**
+     * Constructor
+     *
+     * @param snapshot Binary snapshot the completed days are read from when it is valid
+     */
+    public SignalHistoryRebuilder(AppDatabase database, MarketSeriesFile snapshot) {
+        this.marketDataDao = database.marketDataDao();
+        this.snapshot = snapshot;
+        this.signalDao = database.signalHistoryDao();
+        this.timeline = PositionTimelineRepository.getInstance(database);
+    }
+
+    /**
+     * Whether a day before {@code today} that should have a signal does not have one, or
+     * has one stored without its conditions. Every signal row has a market_data row, which
+     * its foreign key enforces, so the counts differ when the service missed days, when
+     * imported history reaches further back than the signals, or when the service stored
+     * signals before there were {@code smaYear + 1} days of history.
+     */
+    public boolean isStale(LocalDate today, UserSettings settings) {
+        int expected = Math.max(0, marketDataDao.getCountBefore(today) - (settings.getSmaYear() + 1));
+        return signalDao.getCountBefore(today) != expected
+                || signalDao.getCountWithoutConditionsBefore(today) > 0;
+    }
+
+    /**
+     * Replace every stored signal with one recomputed from the stored market data
+     *
+     * @return Number of signal rows written
+     */
+    public int rebuild(UserSettings settings) {
+        long start = System.nanoTime();
+        MarketSeries series = snapshot.read(marketDataDao, LocalDate.MIN, LocalDate.MAX);
+        List<SignalHistory> rows = compute(series, settings);
+
+        // Days without enough history keep no signal
+        signalDao.deleteBefore(rows.isEmpty() ? LocalDate.MAX : rows.get(0).getDate());
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            // Room runs a list insert in a single transaction
+            signalDao.insertAll(rows.subList(from, Math.min(rows.size(), from + CHUNK_SIZE)));
+        }
+        timeline.invalidate();
+
+        Log.i(TAG, "Recomputed " + rows.size() + " signals in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return rows.size();
+    }
+
+    /**
+     * Compute the signal held on every day of the series that has enough history. The
+     * signal for day i is decided from day i-1's closes and day i's opens, and the row keeps
+     * the conditions and SMAs it was decided on.
+     */
+    public static List<SignalHistory> compute(MarketSeries series, UserSettings settings) {
+        int n = series.size();
+        int first = settings.getSmaYear() + 1;
+        if (n <= first) {
+            return new ArrayList<>();
+        }
+
+        QQQ3XStrategy strategy = new QQQ3XStrategy(settings);
+        RollingIndicators indicators = strategy.createIndicators();
+        indicators.appendAll(series.slice(0, first - 1));
+        ConditionVector conditions = new ConditionVector();
+        String safeAsset = settings.getPreferredSafeAsset();
+
+        List<SignalHistory> rows = new ArrayList<>(n - first);
+        int signal = QQQ3XStrategy.SIGNAL_SAFE;
+        for (int i = first; i < n; i++) {
+            // Yesterday's bar completes the windows the conditions compare against
+            int yesterday = i - 1;
+            indicators.append(series.getQqqClose(yesterday), series.getVixOpen(yesterday),
+                    series.getVixClose(yesterday), series.getGldClose(yesterday));
+            strategy.evaluate(indicators, series.getVixOpen(i), series.getQqqOpen(i), conditions);
+
+            // Forward fill the raw signal, defaulting to the safe asset
+            int previous = signal;
+            int rawSignal = conditions.getRawSignal();
+            if (rawSignal != QQQ3XStrategy.SIGNAL_NONE) {
+                signal = rawSignal;
+            }
+
+            SignalHistory row = new SignalHistory(series.getDate(i),
+                    rawSignal == QQQ3XStrategy.SIGNAL_NONE ? null : rawSignal,
+                    signal, signal != previous, safeAsset);
+            row.setConditions(conditions);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Compute the row {@link #compute} would store for one day, for the daily calculation. The
+     * signal is forward-filled from {@code previous}, defaulting to the safe asset.
+     *
+     * @param history Market data of the days before {@code date}
+     * @param previous Latest stored signal before {@code date}, or null if there is none
+     * @return The row, or null if the history is shorter than {@code smaYear + 1} days, when
+     * {@link #compute} keeps no signal either
+     */
+    public static SignalHistory computeDay(MarketSeries history, LocalDate date, double vixOpen, double qqqOpen,
+                                           SignalHistory previous, UserSettings settings) {
+        if (history.size() < settings.getSmaYear() + 1) {
+            return null;
+        }
+
+        ConditionVector conditions = new ConditionVector();
+        new QQQ3XStrategy(settings).evaluate(history, vixOpen, qqqOpen, conditions);
+
+        int previousSignal = previous != null ? previous.getSignal() : QQQ3XStrategy.SIGNAL_SAFE;
+        int rawSignal = conditions.getRawSignal();
+        int signal = rawSignal != QQQ3XStrategy.SIGNAL_NONE ? rawSignal : previousSignal;
+
+        SignalHistory row = new SignalHistory(date,
+                rawSignal == QQQ3XStrategy.SIGNAL_NONE ? null : rawSignal,
+                signal, signal != previousSignal, settings.getPreferredSafeAsset());
+        row.setConditions(conditions);
+        return row;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.qqq3xstrategy.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent requests for the same key into one in-flight load and keeps successful
+ * results for a short time-to-live.
+ * <p>
+ * Every caller asking for a key while its load is running, or within the TTL after it
+ * succeeded, receives the same {@link CompletableFuture}. Failed loads are dropped as soon as
+ * they complete, so the next caller retries. Results are shared and must not be modified.
+ */
+public class SingleFlightCache<K, V> {
+
+    /**
+     * Source of monotonic time in nanoseconds, replaceable in tests
+     */
+    public interface Clock {
+        long nanoTime();
+    }
+
+    private static final class Entry<V> {
+        final CompletableFuture<V> future;
+        volatile boolean loaded;
+        // Set before loaded becomes true
+        volatile long expiresAt;
+
+        Entry(CompletableFuture<V> future) {
+            this.future = future;
+        }
+    }
+
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final Clock clock;
+
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    public SingleFlightCache(long ttl, TimeUnit unit) {
+        this(ttl, unit, System::nanoTime);
+    }
+
+    public SingleFlightCache(long ttl, TimeUnit unit, Clock clock) {
+        this.ttlNanos = unit.toNanos(ttl);
+        this.clock = clock;
+    }
+
+    /**
+     * Return the in-flight or cached future for a key, or start a new load with {@code loader}
+     */
+    public CompletableFuture<V> get(K key, Supplier<CompletableFuture<V>> loader) {
+        while (true) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (!entry.loaded || clock.nanoTime() - entry.expiresAt < 0) {
+                    shared.incrementAndGet();
+                    return entry.future;
+                }
+                // Expired: only the caller that removes it starts the next load
+                entries.remove(key, entry);
+                continue;
+            }
+
+            CompletableFuture<V> future = new CompletableFuture<>();
+            Entry<V> created = new Entry<>(future);
+            if (entries.putIfAbsent(key, created) != null) {
+                continue;
+            }
+
+            loads.incrementAndGet();
+            load(key, created, loader);
+            return future;
+        }
+    }
+
+    private void load(K key, Entry<V> entry, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> source;
+        try {
+            source = loader.get();
+        } catch (RuntimeException e) {
+            entries.remove(key, entry);
+            entry.future.completeExceptionally(e);
+            return;
+        }
+
+        source.whenComplete((value, error) -> {
+            if (error != null) {
+                entries.remove(key, entry);
+                entry.future.completeExceptionally(error);
+            } else {
+                entry.expiresAt = clock.nanoTime() + ttlNanos;
+                entry.loaded = true;
+                entry.future.complete(value);
+            }
+        });
+    }
+
+    /**
+     * Drop a cached result so the next request loads it again
+     */
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Drop every cached result
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Number of loads started
+     */
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    /**
+     * Number of requests answered by an in-flight or cached load
+     */
+    public long getSharedCount() {
+        return shared.get();
+    }
+}
@@ -8,16 +8,17 @@ import android.util.Log;
 import androidx.annotation.Nullable;
 
 import com.example.qqq3xstrategy.data.database.AppDatabase;
+import com.example.qqq3xstrategy.data.database.MarketSeriesFile;
 import com.example.qqq3xstrategy.data.database.SignalHistoryDao;
-import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
 import com.example.qqq3xstrategy.data.models.SignalHistory;
 import com.example.qqq3xstrategy.data.models.UserSettings;
-import com.example.qqq3xstrategy.strategy.QQQ3XStrategy;
+import com.example.qqq3xstrategy.data.repository.PositionTimelineRepository;
+import com.example.qqq3xstrategy.data.repository.SignalHistoryRebuilder;
 import com.example.qqq3xstrategy.util.AppExecutors;
 import com.example.qqq3xstrategy.util.NotificationHelper;
 
 import java.time.LocalDate;
-import java.util.List;
 
 /**
  * Service for calculating strategy signals
@@ -60,6 +61,14 @@ public class StrategyCalculationService extends Service {
         return null;
     }
     
+    /**
+     * Load market data from startDate to endDate. Completed days come from the binary
+     * snapshot when it is valid, and only the days after it are queried from the database.
+     */
+    private MarketSeries loadHistory(LocalDate startDate, LocalDate endDate) {
+        return MarketSeriesFile.getInstance(this).read(database.marketDataDao(), startDate, endDate);
+    }
+    
     /**
      * Calculate strategy signal and send notification if needed
      */
@@ -71,37 +80,38 @@ public class StrategyCalculationService extends Service {
                 // Get user settings
                 UserSettings settings = database.userSettingsDao().getSettings();
                 
-                // Get historical data (2 years)
+                // Get historical data (2 years). Today's row is already stored by the quote
+                // fetch, but like SignalHistoryRebuilder the signal only sees the days before
+                // it and today's opens.
                 LocalDate today = LocalDate.now();
                 LocalDate twoYearsAgo = today.minusYears(2);
-                List<MarketData> historicalData = database.marketDataDao().getMarketDataBetweenDates(twoYearsAgo, today);
+                MarketSeries historicalData = loadHistory(twoYearsAgo, today.minusDays(1));
                 
                 if (historicalData.isEmpty()) {
                     Log.e(TAG, "No historical data available");
                     return;
                 }
                 
-                // Calculate strategy signal
-                QQQ3XStrategy strategy = new QQQ3XStrategy(settings);
-                int signal = strategy.calculateSignal(historicalData, vixOpen, qqqOpen);
-                
-                // Get previous signal
+                // Get previous signal. A rerun today replaces today's row, so look before it.
                 SignalHistoryDao signalDao = database.signalHistoryDao();
                 SignalHistory previousSignal = signalDao.getLatestSignal();
+                if (previousSignal != null && !previousSignal.getDate().isBefore(today)) {
+                    previousSignal = signalDao.getLatestSignalBefore(today);
+                }
                 
-                // Determine if position changed
-                boolean positionChanged = previousSignal == null || previousSignal.getSignal() != signal;
-                
-                // Create new signal history entry
-                SignalHistory newSignal = new SignalHistory();
-                newSignal.setDate(today);
-                newSignal.setSignal(signal);
-                newSignal.setRawSignal(signal); // In this case, raw signal is the same as final signal
-                newSignal.setPositionChanged(positionChanged);
-                newSignal.setSafeAsset(settings.getPreferredSafeAsset());
+                // Calculate the row SignalHistoryRebuilder would store for today
+                SignalHistory newSignal = SignalHistoryRebuilder.computeDay(historicalData, today,
+                        vixOpen, qqqOpen, previousSignal, settings);
+                if (newSignal == null) {
+                    Log.e(TAG, "Not enough historical data to calculate signal");
+                    return;
+                }
+                int signal = newSignal.getSignal();
+                boolean positionChanged = newSignal.getPositionChanged();
                 
                 // Save to database
                 signalDao.insert(newSignal);
+                PositionTimelineRepository.getInstance(database).onSignalStored(newSignal);
                 
                 Log.d(TAG, "Strategy calculation complete. Signal: " + signal + 
                         ", Position changed: " + positionChanged);
@@ -0,0 +1,35 @@
+package com.example.qqq3xstrategy.strategy;
+
+import com.example.qqq3xstrategy.data.models.UserSettings;
+
+/**
+ * One evaluated candidate of a {@link ParameterSweep}
+ */
+public class SweepResult {
+    private final UserSettings settings;
+    private final BacktestMetrics metrics;
+
+    public SweepResult(UserSettings settings, BacktestMetrics metrics) {
+        this.settings = settings;
+        this.metrics = metrics;
+    }
+
+    public UserSettings getSettings() {
+        return settings;
+    }
+
+    public BacktestMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public String toString() {
+        return "SweepResult{" +
+                "sma=" + settings.getSmaShort() + "/" + settings.getSmaLong() +
+                "/" + settings.getSmaShort2() + "/" + settings.getSmaLong2() +
+                "/" + settings.getSmaShort3() + "/" + settings.getSmaLong3() +
+                "/" + settings.getSmaYear() +
+                ", metrics=" + metrics +
+                '}';
+    }
+}
@@ -24,6 +24,9 @@ public interface TechnicalIndicatorDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertAll(List<TechnicalIndicator> indicators);
     
+    @Query("DELETE FROM technical_indicators")
+    void deleteAll();
+    
     @Query("SELECT * FROM technical_indicators WHERE date = :date")
     TechnicalIndicator getIndicatorForDate(LocalDate date);
     
@@ -0,0 +1,175 @@
+package com.example.qqq3xstrategy.data.network;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe token bucket that schedules work instead of blocking threads.
+ * <p>
+ * The bucket holds up to {@code burst} permits and regains one every refill interval. A task
+ * that finds no permit reserves the next one (the balance may go negative) and is handed to a
+ * scheduler to run exactly when that permit becomes available. Permits are therefore granted
+ * in arrival order and the long-run rate is never exceeded, while no caller thread sleeps.
+ */
+public class TokenBucketRateLimiter {
+
+    /**
+     * Source of monotonic time in nanoseconds, replaceable in tests
+     */
+    public interface Clock {
+        long nanoTime();
+    }
+
+    private final int burst;
+    private final long refillNanos;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+
+    // Guarded by this. Negative when permits have been reserved ahead of time.
+    private double permits;
+    private long lastRefill;
+
+    // Metrics
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong delayed = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param burst Maximum number of permits that can be used back to back
+     * @param refillInterval Time to regain one permit
+     */
+    public TokenBucketRateLimiter(int burst, long refillInterval, TimeUnit unit) {
+        this(burst, refillInterval, unit, System::nanoTime, Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rate-limiter");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Constructor with explicit clock and scheduler
+     */
+    public TokenBucketRateLimiter(int burst, long refillInterval, TimeUnit unit,
+                                  Clock clock, ScheduledExecutorService scheduler) {
+        if (burst < 1 || refillInterval <= 0) {
+            throw new IllegalArgumentException("Burst and refill interval must be positive");
+        }
+        this.burst = burst;
+        this.refillNanos = unit.toNanos(refillInterval);
+        this.clock = clock;
+        this.scheduler = scheduler;
+        this.permits = burst;
+        this.lastRefill = clock.nanoTime();
+    }
+
+    /**
+     * Reserve the next permit.
+     *
+     * @return Nanoseconds until the permit may be used, 0 if it is available now
+     */
+    public long reserve() {
+        long wait;
+        synchronized (this) {
+            long now = clock.nanoTime();
+            permits = Math.min(burst, permits + (double) (now - lastRefill) / refillNanos);
+            lastRefill = now;
+            permits -= 1;
+            wait = permits >= 0 ? 0 : (long) Math.ceil(-permits * refillNanos);
+        }
+
+        acquired.incrementAndGet();
+        if (wait > 0) {
+            delayed.incrementAndGet();
+            totalWaitNanos.addAndGet(wait);
+            long max;
+            do {
+                max = maxWaitNanos.get();
+            } while (wait > max && !maxWaitNanos.compareAndSet(max, wait));
+        }
+        return wait;
+    }
+
+    /**
+     * Run a task as soon as a permit is available, without blocking the caller.
+     * The task runs on the calling thread if a permit is free, otherwise on the scheduler.
+     */
+    public void execute(Runnable task) {
+        long wait = reserve();
+        if (wait == 0) {
+            task.run();
+            return;
+        }
+
+        queueDepth.incrementAndGet();
+        scheduler.schedule(() -> {
+            queueDepth.decrementAndGet();
+            task.run();
+        }, wait, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Block until a permit is available, for callers that are synchronous anyway
+     */
+    public void acquire() throws InterruptedException {
+        long wait = reserve();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Number of tasks waiting for their permit
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Number of permits granted so far
+     */
+    public long getAcquiredCount() {
+        return acquired.get();
+    }
+
+    /**
+     * Number of permits that had to wait
+     */
+    public long getDelayedCount() {
+        return delayed.get();
+    }
+
+    /**
+     * Mean wait over all granted permits, in milliseconds
+     */
+    public double getAverageWaitMillis() {
+        long count = acquired.get();
+        return count == 0 ? 0 : totalWaitNanos.get() / 1e6 / count;
+    }
+
+    /**
+     * Longest wait of any permit, in milliseconds
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenBucketRateLimiter{" +
+                "burst=" + burst +
+                ", refillMs=" + refillNanos / 1e6 +
+                ", queueDepth=" + getQueueDepth() +
+                ", acquired=" + getAcquiredCount() +
+                ", delayed=" + getDelayedCount() +
+                ", avgWaitMs=" + getAverageWaitMillis() +
+                ", maxWaitMs=" + getMaxWaitMillis() +
+                '}';
+    }
+}
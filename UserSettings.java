@@ -128,4 +128,13 @@ public class UserSettings {
     public void setSmaYear(int smaYear) {
         this.smaYear = smaYear;
     }
+    
+    /**
+     * The parameters stored indicators and signals are computed from: the SMA periods and the
+     * safe asset. Stored history built with a different fingerprint has to be computed again.
+     */
+    public String getHistoryFingerprint() {
+        return smaShort + "," + smaLong + "," + smaShort2 + "," + smaLong2 + "," +
+                smaShort3 + "," + smaLong3 + "," + smaYear + "," + preferredSafeAsset;
+    }
 }
\ No newline at end of file
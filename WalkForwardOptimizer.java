@@ -0,0 +1,186 @@
+package com.example.qqq3xstrategy.strategy;
+
+import android.util.Log;
+
+import com.example.qqq3xstrategy.data.models.UserSettings;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Walk-forward optimization of the SMA periods of {@link UserSettings}.
+ * <p>
+ * History is cut into rolling windows. The candidates are ranked on each training window and
+ * the winner trades the test window right after it. Test windows follow each other without
+ * overlapping, so their daily returns join into one out-of-sample equity curve: what picking
+ * parameters on past data only would have earned. Each test window is traded from the start
+ * of its training window, so it begins with the position its parameters had built up.
+ * <p>
+ * Every backtest reads the same {@link BacktestData}, so the prefix sums are computed once for
+ * all windows, and all window and candidate pairs are split across one fork-join pool.
+ */
+public class WalkForwardOptimizer {
+    private static final String TAG = "WalkForwardOptimizer";
+    private static final int BACKTESTS_PER_TASK = 8;
+
+    private final BacktestData data;
+    private final UserSettings base;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor using the common fork-join pool
+     *
+     * @param data Shared price history
+     * @param base Settings providing everything except the SMA periods
+     */
+    public WalkForwardOptimizer(BacktestData data, UserSettings base) {
+        this(data, base, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor with an explicit fork-join pool
+     */
+    public WalkForwardOptimizer(BacktestData data, UserSettings base, ForkJoinPool pool) {
+        this.data = data;
+        this.base = base;
+        this.pool = pool;
+    }
+
+    /**
+     * Optimize over every combination of the grid
+     *
+     * @param trainDays Length of each training window
+     * @param testDays Length of each test window, and the step between windows
+     */
+    public WalkForwardResult run(ParameterGrid grid, int trainDays, int testDays, ParameterSweep.Ranking ranking) {
+        if (grid.size() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid too large for an exhaustive search: " + grid.size());
+        }
+        int size = (int) grid.size();
+        List<UserSettings> candidates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            candidates.add(grid.get(i, base));
+        }
+        return run(candidates, trainDays, testDays, ranking);
+    }
+
+    /**
+     * Optimize over the given candidates
+     *
+     * @param trainDays Length of each training window
+     * @param testDays Length of each test window, and the step between windows
+     */
+    public WalkForwardResult run(List<UserSettings> candidates, int trainDays, int testDays,
+                                 ParameterSweep.Ranking ranking) {
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("No candidates to optimize");
+        }
+        if (trainDays < 1 || testDays < 1) {
+            throw new IllegalArgumentException("Window lengths must be positive: " + trainDays + "/" + testDays);
+        }
+        int n = data.size();
+        if (n <= trainDays) {
+            throw new IllegalArgumentException("History of " + n + " days is too short for a " +
+                    trainDays + " day training window");
+        }
+        long startTime = System.nanoTime();
+        int windowCount = (n - trainDays + testDays - 1) / testDays;
+        int candidateCount = candidates.size();
+
+        BacktestEngine[] engines = new BacktestEngine[candidateCount];
+        for (int c = 0; c < candidateCount; c++) {
+            engines[c] = new BacktestEngine(candidates.get(c));
+        }
+
+        // Every candidate on every training window, in one parallel pass
+        SweepResult[] inSample = new SweepResult[windowCount * candidateCount];
+        pool.invoke(new ForEachTask(0, inSample.length, index -> {
+            int window = index / candidateCount;
+            int candidate = index % candidateCount;
+            int testFrom = trainDays + window * testDays;
+            inSample[index] = new SweepResult(candidates.get(candidate),
+                    engines[candidate].evaluate(data, testFrom - trainDays, testFrom));
+        }));
+
+        Comparator<SweepResult> comparator = ParameterSweep.comparator(ranking);
+        int[] winners = new int[windowCount];
+        for (int window = 0; window < windowCount; window++) {
+            int offset = window * candidateCount;
+            for (int candidate = 1; candidate < candidateCount; candidate++) {
+                if (comparator.compare(inSample[offset + candidate], inSample[offset + winners[window]]) < 0) {
+                    winners[window] = candidate;
+                }
+            }
+        }
+
+        // Each winner trades its test window; the windows write disjoint ranges of the arrays
+        int[] rawSignals = new int[n];
+        int[] signals = new int[n];
+        double[] returns = new double[n];
+        double[] equity = new double[n];
+        BacktestMetrics[] outOfSample = new BacktestMetrics[windowCount];
+        pool.invoke(new ForEachTask(0, windowCount, window -> {
+            int testFrom = trainDays + window * testDays;
+            outOfSample[window] = engines[winners[window]].simulateRange(data, testFrom - trainDays, testFrom,
+                    Math.min(n, testFrom + testDays), rawSignals, signals, returns, equity);
+        }));
+
+        // Compound the joined returns into one curve
+        PerformanceAccumulator performance = new PerformanceAccumulator();
+        double nav = BacktestEngine.INITIAL_CAPITAL;
+        for (int i = 0; i < n; i++) {
+            if (i >= trainDays) {
+                nav *= 1 + returns[i];
+                performance.add(returns[i]);
+            } else {
+                signals[i] = QQQ3XStrategy.SIGNAL_SAFE;
+            }
+            equity[i] = nav;
+        }
+
+        List<WalkForwardResult.Window> windows = new ArrayList<>(windowCount);
+        for (int window = 0; window < windowCount; window++) {
+            int testFrom = trainDays + window * testDays;
+            windows.add(new WalkForwardResult.Window(testFrom - trainDays, testFrom, Math.min(n, testFrom + testDays),
+                    inSample[window * candidateCount + winners[window]], outOfSample[window]));
+        }
+        BacktestResult joined = new BacktestResult(rawSignals, signals, returns, equity, trainDays,
+                performance.toMetrics());
+
+        Log.d(TAG, "Walked " + windowCount + " windows of " + candidateCount + " candidates in " +
+                (System.nanoTime() - startTime) / 1000000 + "ms");
+        return new WalkForwardResult(windows, joined);
+    }
+
+    /**
+     * Splits an index range until it is small enough to run sequentially
+     */
+    private static class ForEachTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        ForEachTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BACKTESTS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ForEachTask(from, middle, action), new ForEachTask(middle, to, action));
+        }
+    }
+}
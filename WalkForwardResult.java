@@ -0,0 +1,95 @@
+package com.example.qqq3xstrategy.strategy;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Output of a {@link WalkForwardOptimizer} run
+ */
+public class WalkForwardResult {
+
+    /**
+     * One training window, the candidate that won it and how that candidate did on the test
+     * window that follows
+     */
+    public static class Window {
+        private final int trainFrom;
+        private final int testFrom;
+        private final int testTo;
+        private final SweepResult best;
+        private final BacktestMetrics outOfSample;
+
+        public Window(int trainFrom, int testFrom, int testTo, SweepResult best, BacktestMetrics outOfSample) {
+            this.trainFrom = trainFrom;
+            this.testFrom = testFrom;
+            this.testTo = testTo;
+            this.best = best;
+            this.outOfSample = outOfSample;
+        }
+
+        /**
+         * First day of the training window. It ends where the test window starts.
+         */
+        public int getTrainFrom() {
+            return trainFrom;
+        }
+
+        public int getTestFrom() {
+            return testFrom;
+        }
+
+        /**
+         * Day after the last day of the test window
+         */
+        public int getTestTo() {
+            return testTo;
+        }
+
+        /**
+         * Winning settings with their in-sample statistics
+         */
+        public SweepResult getBest() {
+            return best;
+        }
+
+        /**
+         * Statistics of the winning settings over the test window
+         */
+        public BacktestMetrics getOutOfSample() {
+            return outOfSample;
+        }
+
+        @Override
+        public String toString() {
+            return "Window{" +
+                    "train=" + trainFrom + ".." + testFrom +
+                    ", test=" + testFrom + ".." + testTo +
+                    ", best=" + best +
+                    ", outOfSample=" + outOfSample +
+                    '}';
+        }
+    }
+
+    private final List<Window> windows;
+    private final BacktestResult outOfSample;
+
+    public WalkForwardResult(List<Window> windows, BacktestResult outOfSample) {
+        this.windows = Collections.unmodifiableList(windows);
+        this.outOfSample = outOfSample;
+    }
+
+    /**
+     * Windows in date order
+     */
+    public List<Window> getWindows() {
+        return windows;
+    }
+
+    /**
+     * The test windows joined into one backtest. Arrays are indexed like the input columns
+     * and {@link BacktestResult#getStartIndex()} is the first day of the first test window.
+     */
+    public BacktestResult getOutOfSample() {
+        return outOfSample;
+    }
+}
@@ -20,10 +20,12 @@ public class YahooFinanceClient {
     private static final String TAG = "YahooFinanceClient";
     private static final String BASE_URL = "https://query1.finance.yahoo.com/";
     private static final int TIMEOUT_SECONDS = 30;
-    private static final int RATE_LIMIT_MS = 2000; // 2 seconds between requests
+    private static final int RATE_LIMIT_BURST = 4; // One request per symbol without waiting
+    private static final int RATE_LIMIT_REFILL_MS = 2000; // Sustained rate of one request per 2 seconds
     
     private static YahooFinanceClient instance;
     private final YahooFinanceService service;
+    private final TokenBucketRateLimiter rateLimiter;
     
     /**
      * Get singleton instance of the client
@@ -39,17 +41,20 @@ public class YahooFinanceClient {
      * Private constructor
      */
     private YahooFinanceClient() {
+        rateLimiter = new TokenBucketRateLimiter(RATE_LIMIT_BURST, RATE_LIMIT_REFILL_MS, TimeUnit.MILLISECONDS);
+        
         OkHttpClient client = new OkHttpClient.Builder()
             .connectTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
             .readTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
             .addInterceptor(new HeaderInterceptor())
-            .addInterceptor(new RateLimitInterceptor())
             .addInterceptor(new HttpLoggingInterceptor().setLevel(HttpLoggingInterceptor.Level.BASIC))
             .build();
         
         Retrofit retrofit = new Retrofit.Builder()
             .baseUrl(BASE_URL)
             .client(client)
+            .addCallAdapterFactory(RateLimitedCallAdapterFactory.create(rateLimiter))
+            .addConverterFactory(ChartSeriesConverterFactory.create())
             .addConverterFactory(GsonConverterFactory.create())
             .build();
         
@@ -64,6 +69,13 @@ public class YahooFinanceClient {
         return service;
     }
     
+    /**
+     * Get the rate limiter shared by all requests, e.g. to read its metrics
+     */
+    public TokenBucketRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+    
     /**
      * Interceptor to add required headers to requests
      */
@@ -82,31 +94,4 @@ public class YahooFinanceClient {
             return chain.proceed(request);
         }
     }
-    
-    /**
-     * Interceptor to implement rate limiting
-     */
-    private static class RateLimitInterceptor implements Interceptor {
-        private static long lastRequestTime = 0;
-        
-        @Override
-        public Response intercept(Chain chain) throws IOException {
-            long currentTime = System.currentTimeMillis();
-            long timeSinceLastRequest = currentTime - lastRequestTime;
-            
-            if (timeSinceLastRequest < RATE_LIMIT_MS) {
-                try {
-                    long sleepTime = RATE_LIMIT_MS - timeSinceLastRequest;
-                    Log.d(TAG, "Rate limiting: sleeping for " + sleepTime + "ms");
-                    Thread.sleep(sleepTime);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    Log.e(TAG, "Rate limiting interrupted", e);
-                }
-            }
-            
-            lastRequestTime = System.currentTimeMillis();
-            return chain.proceed(chain.request());
-        }
-    }
 }
\ No newline at end of file
@@ -10,25 +10,29 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.example.qqq3xstrategy.data.database.AppDatabase;
 import com.example.qqq3xstrategy.data.database.MarketDataDao;
+import com.example.qqq3xstrategy.data.database.MarketSeriesFile;
 import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
 import com.example.qqq3xstrategy.data.network.YahooFinanceClient;
 import com.example.qqq3xstrategy.data.network.YahooFinanceService;
-import com.example.qqq3xstrategy.data.network.models.ChartResponse;
+import com.example.qqq3xstrategy.data.network.models.ChartSeries;
 import com.example.qqq3xstrategy.data.network.models.QuoteResponse;
 import com.example.qqq3xstrategy.util.AppExecutors;
+import com.example.qqq3xstrategy.util.PriorityExecutor.Priority;
+import com.example.qqq3xstrategy.util.SingleFlightCache;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -40,8 +44,21 @@ import retrofit2.Response;
 public class YahooFinanceRepository {
     private static final String TAG = "YahooFinanceRepository";
     
+    private static final String[] SYMBOLS = {"QQQ", "^VIX", "GLD", "SHY"};
+    private static final String QUOTE_SYMBOLS = "QQQ,^VIX,GLD,SHY";
+    
+    // Shared by all repository instances, so the UI, the worker and the service coalesce
+    private static final SingleFlightCache<String, MarketData> QUOTE_REQUESTS =
+            new SingleFlightCache<>(15, TimeUnit.SECONDS);
+    private static final SingleFlightCache<String, ChartSeries> CHART_REQUESTS =
+            new SingleFlightCache<>(60, TimeUnit.SECONDS);
+    
+    // Days re-requested before the latest stored close, to pick up late corrections
+    private static final int SYNC_OVERLAP_DAYS = 5;
+    
     private final YahooFinanceService service;
     private final MarketDataDao marketDataDao;
+    private final MarketSeriesFile snapshot;
     private final AppExecutors executors;
     
     /**
@@ -53,6 +70,7 @@ public class YahooFinanceRepository {
         
         AppDatabase database = AppDatabase.getInstance(context);
         marketDataDao = database.marketDataDao();
+        snapshot = MarketSeriesFile.getInstance(context);
         
         executors = AppExecutors.getInstance();
         
@@ -60,12 +78,18 @@ public class YahooFinanceRepository {
     }
     
     /**
-     * Fetches current market data for QQQ, VIX, GLD, and SHY
+     * Fetches current market data for QQQ, VIX, GLD, and SHY.
+     * Concurrent callers share one request, and the result is reused for a few seconds.
+     * The returned object is shared and must not be modified.
      */
     public CompletableFuture<MarketData> fetchCurrentMarketData() {
+        return QUOTE_REQUESTS.get(QUOTE_SYMBOLS, this::requestCurrentMarketData);
+    }
+    
+    private CompletableFuture<MarketData> requestCurrentMarketData() {
         CompletableFuture<MarketData> future = new CompletableFuture<>();
         
-        service.getQuotes("QQQ,^VIX,GLD,SHY").enqueue(new Callback<QuoteResponse>() {
+        service.getQuotes(QUOTE_SYMBOLS).enqueue(new Callback<QuoteResponse>() {
             @Override
             public void onResponse(Call<QuoteResponse> call, Response<QuoteResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
@@ -134,65 +158,52 @@ public class YahooFinanceRepository {
      * Fetches historical data for a symbol
      */
     public CompletableFuture<List<MarketData>> fetchHistoricalData(String symbol, String interval, String range) {
-        CompletableFuture<List<MarketData>> future = new CompletableFuture<>();
+        return fetchChartSeries(symbol, interval, range).thenApply(series -> toMarketData(symbol, series));
+    }
+    
+    /**
+     * Fetches historical data for a symbol from startDate to endDate (both inclusive)
+     */
+    public CompletableFuture<List<MarketData>> fetchHistoricalData(String symbol, String interval,
+                                                                   LocalDate startDate, LocalDate endDate) {
+        return fetchChartSeries(symbol, interval, startDate, endDate).thenApply(series -> toMarketData(symbol, series));
+    }
+    
+    /**
+     * Fetch chart columns through the shared single-flight cache. Callers share the result
+     * and must not modify it.
+     */
+    private CompletableFuture<ChartSeries> fetchChartSeries(String symbol, String interval,
+                                                            LocalDate startDate, LocalDate endDate) {
+        long period1 = startDate.atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+        long period2 = endDate.plusDays(1).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+        String key = symbol + "|" + interval + "|" + period1 + "-" + period2;
+        return fetchChartSeries(key, () -> service.getChartSeries(symbol, interval, period1, period2));
+    }
+    
+    private CompletableFuture<ChartSeries> fetchChartSeries(String key, Supplier<Call<ChartSeries>> call) {
+        return CHART_REQUESTS.get(key, () -> requestChartSeries(call.get()));
+    }
+    
+    private CompletableFuture<ChartSeries> fetchChartSeries(String symbol, String interval, String range) {
+        String key = symbol + "|" + interval + "|" + range;
+        return fetchChartSeries(key, () -> service.getChartSeries(symbol, interval, range));
+    }
+    
+    private CompletableFuture<ChartSeries> requestChartSeries(Call<ChartSeries> call) {
+        CompletableFuture<ChartSeries> future = new CompletableFuture<>();
         
-        service.getHistoricalData(symbol, interval, range).enqueue(new Callback<ChartResponse>() {
+        call.enqueue(new Callback<ChartSeries>() {
             @Override
-            public void onResponse(Call<ChartResponse> call, Response<ChartResponse> response) {
+            public void onResponse(Call<ChartSeries> call, Response<ChartSeries> response) {
                 if (response.isSuccessful() && response.body() != null) {
-                    ChartResponse chartResponse = response.body();
-                    List<ChartResponse.Result> results = chartResponse.getChart().getResults();
+                    ChartSeries series = response.body();
                     
-                    if (results != null && !results.isEmpty()) {
-                        ChartResponse.Result result = results.get(0);
-                        List<Long> timestamps = result.getTimestamp();
-                        ChartResponse.Quote quote = result.getIndicators().getQuotes().get(0);
-                        
-                        List<MarketData> marketDataList = new ArrayList<>();
-                        
-                        for (int i = 0; i < timestamps.size(); i++) {
-                            // Convert timestamp to LocalDate
-                            LocalDate date = Instant.ofEpochSecond(timestamps.get(i))
-                                    .atZone(ZoneId.systemDefault())
-                                    .toLocalDate();
-                            
-                            // Create or get existing MarketData for this date
-                            MarketData data = new MarketData();
-                            data.setDate(date);
-                            
-                            // Set data based on symbol
-                            if (quote.getOpen() != null && i < quote.getOpen().size() && quote.getOpen().get(i) != null) {
-                                switch (symbol) {
-                                    case "QQQ":
-                                        data.setQqqOpen(quote.getOpen().get(i));
-                                        data.setQqqClose(quote.getClose().get(i));
-                                        data.setQqqHigh(quote.getHigh().get(i));
-                                        data.setQqqLow(quote.getLow().get(i));
-                                        data.setQqqVolume(quote.getVolume().get(i));
-                                        break;
-                                    case "^VIX":
-                                        data.setVixOpen(quote.getOpen().get(i));
-                                        data.setVixClose(quote.getClose().get(i));
-                                        data.setVixHigh(quote.getHigh().get(i));
-                                        data.setVixLow(quote.getLow().get(i));
-                                        break;
-                                    case "GLD":
-                                        data.setGldOpen(quote.getOpen().get(i));
-                                        data.setGldClose(quote.getClose().get(i));
-                                        break;
-                                    case "SHY":
-                                        data.setShyOpen(quote.getOpen().get(i));
-                                        data.setShyClose(quote.getClose().get(i));
-                                        break;
-                                }
-                            }
-                            
-                            marketDataList.add(data);
-                        }
-                        
-                        future.complete(marketDataList);
+                    if (!series.isEmpty()) {
+                        future.complete(series);
                     } else {
-                        future.completeExceptionally(new Exception("No historical data found"));
+                        future.completeExceptionally(new Exception(series.getError() != null ?
+                                "No historical data found: " + series.getError() : "No historical data found"));
                     }
                 } else {
                     String errorMsg = "Failed to fetch historical data: " + 
@@ -203,7 +214,7 @@ public class YahooFinanceRepository {
             }
             
             @Override
-            public void onFailure(Call<ChartResponse> call, Throwable t) {
+            public void onFailure(Call<ChartSeries> call, Throwable t) {
                 Log.e(TAG, "Error fetching historical data", t);
                 future.completeExceptionally(t);
             }
@@ -213,72 +224,150 @@ public class YahooFinanceRepository {
     }
     
     /**
-     * Fetches and merges historical data for all required symbols
+     * Convert one symbol's chart columns to market data rows, skipping days without a close
      */
-    public CompletableFuture<List<MarketData>> fetchAllHistoricalData(LocalDate startDate, LocalDate endDate) {
-        // Calculate range in days
-        long days = ChronoUnit.DAYS.between(startDate, endDate);
-        String range = days <= 30 ? "1mo" : days <= 90 ? "3mo" : days <= 180 ? "6mo" : days <= 365 ? "1y" : "2y";
-        
-        CompletableFuture<List<MarketData>> qqqFuture = fetchHistoricalData("QQQ", "1d", range);
-        CompletableFuture<List<MarketData>> vixFuture = fetchHistoricalData("^VIX", "1d", range);
-        CompletableFuture<List<MarketData>> gldFuture = fetchHistoricalData("GLD", "1d", range);
-        CompletableFuture<List<MarketData>> shyFuture = fetchHistoricalData("SHY", "1d", range);
+    private static List<MarketData> toMarketData(String symbol, ChartSeries series) {
+        long[] timestamps = series.getTimestamps();
+        double[] open = series.getOpen();
+        double[] high = series.getHigh();
+        double[] low = series.getLow();
+        double[] close = series.getClose();
+        double[] volume = series.getVolume();
+        ZoneId zone = ZoneId.systemDefault();
         
-        return CompletableFuture.allOf(qqqFuture, vixFuture, gldFuture, shyFuture)
-            .thenApply(v -> {
-                // Merge all data by date
-                Map<LocalDate, MarketData> mergedData = new HashMap<>();
-                
-                // Process QQQ data
-                for (MarketData data : qqqFuture.join()) {
-                    mergedData.put(data.getDate(), data);
-                }
-                
-                // Process VIX data
-                for (MarketData data : vixFuture.join()) {
-                    LocalDate date = data.getDate();
-                    MarketData existing = mergedData.getOrDefault(date, new MarketData());
-                    existing.setDate(date);
-                    existing.setVixOpen(data.getVixOpen());
-                    existing.setVixClose(data.getVixClose());
-                    existing.setVixHigh(data.getVixHigh());
-                    existing.setVixLow(data.getVixLow());
-                    mergedData.put(date, existing);
-                }
-                
-                // Process GLD data
-                for (MarketData data : gldFuture.join()) {
-                    LocalDate date = data.getDate();
-                    MarketData existing = mergedData.getOrDefault(date, new MarketData());
-                    existing.setDate(date);
-                    existing.setGldOpen(data.getGldOpen());
-                    existing.setGldClose(data.getGldClose());
-                    mergedData.put(date, existing);
-                }
-                
-                // Process SHY data
-                for (MarketData data : shyFuture.join()) {
-                    LocalDate date = data.getDate();
-                    MarketData existing = mergedData.getOrDefault(date, new MarketData());
-                    existing.setDate(date);
-                    existing.setShyOpen(data.getShyOpen());
-                    existing.setShyClose(data.getShyClose());
-                    mergedData.put(date, existing);
-                }
-                
-                // Convert to list and sort by date
-                List<MarketData> result = new ArrayList<>(mergedData.values());
-                result.sort(Comparator.comparing(MarketData::getDate));
-                
-                // Save to database
-                executors.diskIO().execute(() -> {
-                    marketDataDao.insertAll(result);
-                    Log.d(TAG, "Saved " + result.size() + " historical data points to database");
-                });
-                
-                return result;
-            });
+        List<MarketData> marketDataList = new ArrayList<>(timestamps.length);
+        for (int i = 0; i < timestamps.length; i++) {
+            if (Double.isNaN(close[i])) {
+                continue;
+            }
+            
+            MarketData data = new MarketData();
+            data.setDate(Instant.ofEpochSecond(timestamps[i]).atZone(zone).toLocalDate());
+            
+            switch (symbol) {
+                case "QQQ":
+                    data.setQqqOpen(MarketDataMerger.valueOrZero(open[i]));
+                    data.setQqqClose(close[i]);
+                    data.setQqqHigh(MarketDataMerger.valueOrZero(high[i]));
+                    data.setQqqLow(MarketDataMerger.valueOrZero(low[i]));
+                    data.setQqqVolume(MarketDataMerger.valueOrZero(volume[i]));
+                    break;
+                case "^VIX":
+                    data.setVixOpen(MarketDataMerger.valueOrZero(open[i]));
+                    data.setVixClose(close[i]);
+                    data.setVixHigh(MarketDataMerger.valueOrZero(high[i]));
+                    data.setVixLow(MarketDataMerger.valueOrZero(low[i]));
+                    break;
+                case "GLD":
+                    data.setGldOpen(MarketDataMerger.valueOrZero(open[i]));
+                    data.setGldClose(close[i]);
+                    break;
+                case "SHY":
+                    data.setShyOpen(MarketDataMerger.valueOrZero(open[i]));
+                    data.setShyClose(close[i]);
+                    break;
+            }
+            
+            marketDataList.add(data);
+        }
+        return marketDataList;
+    }
+    
+    /**
+     * Fetches only the history missing from the database and stores the rows that are new or
+     * changed. All symbols are requested from {@link #getSyncStart} up to {@code today} and
+     * merge-joined on their dates. Dates not every symbol has a bar for are held back and
+     * logged rather than stored with missing prices; unchanged rows are not rewritten.
+     *
+     * @param earliestDate Where to start if a symbol has no stored history yet
+     * @return Future with the number of rows written
+     */
+    public CompletableFuture<Integer> syncHistoricalData(LocalDate earliestDate, LocalDate today) {
+        return CompletableFuture.supplyAsync(() -> {
+            // Today's row may only hold an intraday quote, so it does not count as synced
+            LocalDate[] latestDates = new LocalDate[SYMBOLS.length];
+            for (int i = 0; i < SYMBOLS.length; i++) {
+                latestDates[i] = marketDataDao.getLatestDateBefore(SYMBOLS[i], today);
+            }
+            return getSyncStart(latestDates, earliestDate);
+        }, executors.diskIO()).thenCompose(syncFrom -> {
+            List<CompletableFuture<ChartSeries>> charts = new ArrayList<>();
+            for (String symbol : SYMBOLS) {
+                charts.add(fetchChartSeries(symbol, "1d", syncFrom, today));
+            }
+            
+            return CompletableFuture.allOf(charts.toArray(new CompletableFuture[0]))
+                .thenApplyAsync(v -> {
+                    MarketDataMerger.JoinResult joined = MarketDataMerger.join(charts.get(0).join(),
+                            charts.get(1).join(), charts.get(2).join(), charts.get(3).join(), ZoneId.systemDefault());
+                    if (!joined.isAligned()) {
+                        // Retried by a later sync once the missing bars are published
+                        Log.w(TAG, "Holding back dates not every symbol traded on: " + joined);
+                    }
+                    MarketSeries fetched = joined.getSeries();
+                    
+                    Map<LocalDate, MarketData> stored = new HashMap<>();
+                    for (MarketData data : marketDataDao.getMarketDataBetweenDates(syncFrom, today)) {
+                        stored.put(data.getDate(), data);
+                    }
+                    
+                    List<MarketData> changed = new ArrayList<>();
+                    for (int row = 0; row < fetched.size(); row++) {
+                        MarketData data = fetched.toMarketData(row);
+                        MarketData existing = stored.get(data.getDate());
+                        if (existing == null || !MarketDataMerger.sameValues(existing, data)) {
+                            changed.add(data);
+                        }
+                    }
+                    
+                    if (!changed.isEmpty()) {
+                        marketDataDao.insertAll(changed);
+                    }
+                    updateSnapshot(changed, today);
+                    Log.d(TAG, "Synced history from " + syncFrom + ": " + fetched.size() + " rows fetched, " +
+                            changed.size() + " written");
+                    return changed.size();
+                }, executors.diskIO());
+        });
+    }
+    
+    /**
+     * Mirror the completed days just written into the binary snapshot, together with every
+     * other stored day after it, rebuilding it from the database if they cannot be applied in
+     * place. Today's row is left out because its quote is still moving.
+     */
+    private void updateSnapshot(List<MarketData> changed, LocalDate today) {
+        List<MarketData> completed = new ArrayList<>(changed.size());
+        for (MarketData data : changed) {
+            if (data.getDate().isBefore(today)) {
+                completed.add(data);
+            }
+        }
+        // Stored days the sync did not rewrite, e.g. a quote row equal to the final bar or a
+        // held-back date, are appended from the database as well
+        if (!snapshot.update(MarketSeries.fromMarketData(completed),
+                last -> marketDataDao.getMarketSeriesBetweenDates(last.plusDays(1), today.minusDays(1)))) {
+            MarketSeries history = marketDataDao.getMarketSeriesBetweenDates(LocalDate.MIN, today.minusDays(1));
+            snapshot.rebuild(history);
+            Log.d(TAG, "Rebuilt market history snapshot with " + history.size() + " rows");
+        }
+    }
+    
+    /**
+     * First date to request: a few days before the earliest of the symbols' latest stored
+     * closes, or {@code earliestDate} for a symbol without any. Stored history is continued
+     * however old it is, e.g. the bundled snapshot on a fresh install, so the days between
+     * it and {@code earliestDate} are never skipped.
+     *
+     * @param latestDates Latest completed day stored per symbol, null if none
+     */
+    static LocalDate getSyncStart(LocalDate[] latestDates, LocalDate earliestDate) {
+        LocalDate from = null;
+        for (LocalDate latest : latestDates) {
+            LocalDate start = latest == null ? earliestDate : latest.minusDays(SYNC_OVERLAP_DAYS);
+            from = from == null || start.isBefore(from) ? start : from;
+        }
+        return from;
     }
     
     /**
@@ -293,7 +382,7 @@ public class YahooFinanceRepository {
                 Log.w(TAG, "Error fetching current data, falling back to cache", error);
                 
                 // Fall back to cached data
-                executors.diskIO().execute(() -> {
+                executors.diskIO(Priority.USER).execute(() -> {
                     MarketData cachedData = marketDataDao.getLatestMarketData();
                     
                     if (cachedData != null) {
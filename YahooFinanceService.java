@@ -1,6 +1,7 @@
 package com.example.qqq3xstrategy.data.network;
 
 import com.example.qqq3xstrategy.data.network.models.ChartResponse;
+import com.example.qqq3xstrategy.data.network.models.ChartSeries;
 import com.example.qqq3xstrategy.data.network.models.QuoteResponse;
 
 import retrofit2.Call;
@@ -33,4 +34,34 @@ public interface YahooFinanceService {
         @Query("interval") String interval,
         @Query("range") String range
     );
+    
+    /**
+     * Get historical data for a symbol, decoded by {@link ChartSeriesDecoder} into primitive columns
+     * @param symbol The ticker symbol (e.g., "QQQ", "^VIX")
+     * @param interval Data interval (e.g., "1d" for daily)
+     * @param range Date range (e.g., "1mo", "3mo", "6mo", "1y", "2y", "max")
+     * @return Chart columns for the symbol
+     */
+    @GET("v8/finance/chart/{symbol}")
+    Call<ChartSeries> getChartSeries(
+        @Path("symbol") String symbol,
+        @Query("interval") String interval,
+        @Query("range") String range
+    );
+    
+    /**
+     * Get historical data for a symbol between two instants, decoded into primitive columns
+     * @param symbol The ticker symbol (e.g., "QQQ", "^VIX")
+     * @param interval Data interval (e.g., "1d" for daily)
+     * @param period1 Start of the range in epoch seconds (inclusive)
+     * @param period2 End of the range in epoch seconds (exclusive)
+     * @return Chart columns for the symbol
+     */
+    @GET("v8/finance/chart/{symbol}")
+    Call<ChartSeries> getChartSeries(
+        @Path("symbol") String symbol,
+        @Query("interval") String interval,
+        @Query("period1") long period1,
+        @Query("period2") long period2
+    );
 }
\ No newline at end of file
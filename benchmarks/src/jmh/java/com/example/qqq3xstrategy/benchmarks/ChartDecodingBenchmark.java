@@ -0,0 +1,76 @@
+package com.example.qqq3xstrategy.benchmarks;
+
+import com.example.qqq3xstrategy.data.network.ChartSeriesDecoder;
+import com.example.qqq3xstrategy.data.network.models.ChartResponse;
+import com.example.qqq3xstrategy.data.network.models.ChartSeries;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding one symbol's chart response with the Gson model against the streaming decoder.
+ * <p>
+ * Uses a generated payload of the requested length, or a recorded response when
+ * {@code -Dchart.payload=/path/to/response.json} is set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChartDecodingBenchmark {
+
+    // 2y, 10y and a max-range download
+    @Param({"504", "2520", "6500"})
+    public int days;
+
+    private final Gson gson = new Gson();
+    private String json;
+
+    @Setup
+    public void setUp() throws IOException {
+        String recorded = System.getProperty("chart.payload");
+        json = recorded != null
+                ? new String(Files.readAllBytes(Paths.get(recorded)), StandardCharsets.UTF_8)
+                : MarketDataFixtures.chartJson("QQQ", MarketDataFixtures.history(days));
+    }
+
+    @Benchmark
+    public ChartResponse gsonModel() {
+        return gson.fromJson(json, ChartResponse.class);
+    }
+
+    /**
+     * Gson model plus the per-value unboxing the repository used to do
+     */
+    @Benchmark
+    public double gsonModelUnboxed() {
+        ChartResponse.Quote quote = gsonModel().getChart().getResults().get(0).getIndicators().getQuotes().get(0);
+        double sum = 0;
+        for (int i = 0; i < quote.getClose().size(); i++) {
+            Double close = quote.getClose().get(i);
+            if (close != null) {
+                sum += close;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public ChartSeries streamingDecoder() throws IOException {
+        return ChartSeriesDecoder.decode(new JsonReader(new StringReader(json)));
+    }
+}
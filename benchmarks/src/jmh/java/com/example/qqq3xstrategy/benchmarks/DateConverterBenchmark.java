@@ -0,0 +1,53 @@
+package com.example.qqq3xstrategy.benchmarks;
+
+import com.example.qqq3xstrategy.data.database.DateConverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Room date conversion for 2y of rows: the epoch-day converter against the ISO strings used
+ * by schema version 1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DateConverterBenchmark {
+    private static final int ROWS = 504;
+
+    private LocalDate[] dates;
+
+    @Setup
+    public void setUp() {
+        dates = new LocalDate[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            dates[i] = MarketDataFixtures.START_DATE.plusDays(i);
+        }
+    }
+
+    @Benchmark
+    public long epochDayRoundTrip() {
+        long total = 0;
+        for (LocalDate date : dates) {
+            total += DateConverter.fromEpochDay(DateConverter.dateToEpochDay(date)).getDayOfMonth();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long isoStringRoundTrip() {
+        long total = 0;
+        for (LocalDate date : dates) {
+            total += LocalDate.parse(date.toString()).getDayOfMonth();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.qqq3xstrategy.benchmarks;
+
+import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.network.models.ChartSeries;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic market history shared by the benchmarks
+ */
+final class MarketDataFixtures {
+    static final LocalDate START_DATE = LocalDate.of(2000, 1, 3);
+
+    private MarketDataFixtures() {
+    }
+
+    /**
+     * Random-walk daily bars for every symbol, one per calendar day
+     */
+    static List<MarketData> history(int days) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<MarketData> data = new ArrayList<>(days);
+        double qqq = 100;
+        double vix = 20;
+        double gld = 80;
+        double shy = 80;
+
+        for (int i = 0; i < days; i++) {
+            double qqqOpen = qqq * (1 + random.nextGaussian() * 0.005);
+            qqq = qqqOpen * (1 + random.nextGaussian() * 0.012);
+            double vixOpen = Math.max(9, vix * (1 + random.nextGaussian() * 0.04));
+            vix = Math.max(9, vixOpen * (1 + random.nextGaussian() * 0.05));
+            double gldOpen = gld;
+            gld = gld * (1 + random.nextGaussian() * 0.008);
+            double shyOpen = shy;
+            shy = shy * (1 + random.nextGaussian() * 0.0005);
+
+            data.add(new MarketData(START_DATE.plusDays(i),
+                    qqqOpen, qqq, Math.max(qqqOpen, qqq) * 1.004, Math.min(qqqOpen, qqq) * 0.996, 4e7,
+                    vixOpen, vix, Math.max(vixOpen, vix) * 1.02, Math.min(vixOpen, vix) * 0.98,
+                    gldOpen, gld,
+                    shyOpen, shy));
+        }
+        return data;
+    }
+
+    /**
+     * Decoded chart for one symbol: 0 QQQ, 1 VIX, 2 GLD, 3 SHY.
+     * Bars are stamped 9:30 New York time like Yahoo's daily bars.
+     */
+    static ChartSeries chartSeries(List<MarketData> history, int symbol) {
+        int n = history.size();
+        long[] timestamps = new long[n];
+        double[] open = new double[n];
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] close = new double[n];
+        double[] volume = new double[n];
+        for (int i = 0; i < n; i++) {
+            MarketData bar = history.get(i);
+            timestamps[i] = bar.getDate().toEpochDay() * 86400 + 48600;
+            switch (symbol) {
+                case 0:
+                    open[i] = bar.getQqqOpen();
+                    high[i] = bar.getQqqHigh();
+                    low[i] = bar.getQqqLow();
+                    close[i] = bar.getQqqClose();
+                    volume[i] = bar.getQqqVolume();
+                    break;
+                case 1:
+                    open[i] = bar.getVixOpen();
+                    high[i] = bar.getVixHigh();
+                    low[i] = bar.getVixLow();
+                    close[i] = bar.getVixClose();
+                    break;
+                case 2:
+                    open[i] = bar.getGldOpen();
+                    close[i] = bar.getGldClose();
+                    break;
+                default:
+                    open[i] = bar.getShyOpen();
+                    close[i] = bar.getShyClose();
+                    break;
+            }
+        }
+        return new ChartSeries(null, null, timestamps, open, high, low, close, volume);
+    }
+
+    /**
+     * Yahoo chart API payload for one symbol, in the shape returned by v8/finance/chart
+     */
+    static String chartJson(String symbol, List<MarketData> history) {
+        StringBuilder timestamps = new StringBuilder();
+        StringBuilder open = new StringBuilder();
+        StringBuilder high = new StringBuilder();
+        StringBuilder low = new StringBuilder();
+        StringBuilder close = new StringBuilder();
+        StringBuilder volume = new StringBuilder();
+
+        for (int i = 0; i < history.size(); i++) {
+            MarketData bar = history.get(i);
+            String separator = i == 0 ? "" : ",";
+            timestamps.append(separator).append(bar.getDate().toEpochDay() * 86400 + 48600);
+            // Yahoo reports holidays and halted sessions as nulls
+            boolean missing = i % 97 == 96;
+            open.append(separator).append(missing ? "null" : Double.toString(bar.getQqqOpen()));
+            high.append(separator).append(missing ? "null" : Double.toString(bar.getQqqHigh()));
+            low.append(separator).append(missing ? "null" : Double.toString(bar.getQqqLow()));
+            close.append(separator).append(missing ? "null" : Double.toString(bar.getQqqClose()));
+            volume.append(separator).append(missing ? "null" : Long.toString((long) bar.getQqqVolume()));
+        }
+
+        return "{\"chart\":{\"result\":[{\"meta\":{\"currency\":\"USD\",\"symbol\":\"" + symbol + "\"," +
+                "\"exchangeName\":\"NMS\",\"instrumentType\":\"ETF\",\"firstTradeDate\":921076200," +
+                "\"regularMarketTime\":1710446400,\"gmtoffset\":-14400,\"timezone\":\"EDT\"," +
+                "\"dataGranularity\":\"1d\",\"range\":\"max\"}," +
+                "\"timestamp\":[" + timestamps + "]," +
+                "\"indicators\":{\"quote\":[{\"open\":[" + open + "],\"high\":[" + high + "]," +
+                "\"low\":[" + low + "],\"close\":[" + close + "],\"volume\":[" + volume + "]}]," +
+                "\"adjclose\":[{\"adjclose\":[" + close + "]}]}}],\"error\":null}}";
+    }
+}
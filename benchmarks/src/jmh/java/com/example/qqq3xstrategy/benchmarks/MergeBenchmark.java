@@ -0,0 +1,133 @@
+package com.example.qqq3xstrategy.benchmarks;
+
+import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.network.models.ChartSeries;
+import com.example.qqq3xstrategy.data.repository.MarketDataMerger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merge of the four per-symbol downloads done by syncHistoricalData
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MergeBenchmark {
+    private static final ZoneId ZONE = ZoneId.of("America/New_York");
+
+    // 2y as fetched every morning, and a multi-decade backfill
+    @Param({"504", "6500"})
+    public int days;
+
+    private List<MarketData> source;
+    private ChartSeries[] charts;
+
+    @Setup(Level.Trial)
+    public void createHistory() {
+        source = MarketDataFixtures.history(days);
+        charts = new ChartSeries[4];
+        for (int s = 0; s < charts.length; s++) {
+            charts[s] = MarketDataFixtures.chartSeries(source, s);
+        }
+    }
+
+    /**
+     * Per-symbol rows for the hash merge, which reuses the QQQ rows and so needs fresh ones
+     * every invocation. Kept in its own state so the copying is not charged to mergeJoin.
+     */
+    @State(Scope.Thread)
+    public static class SymbolRows {
+        List<MarketData> qqq;
+        List<MarketData> vix;
+        List<MarketData> gld;
+        List<MarketData> shy;
+
+        @Setup(Level.Invocation)
+        public void splitBySymbol(MergeBenchmark benchmark) {
+            int days = benchmark.days;
+            qqq = new ArrayList<>(days);
+            vix = new ArrayList<>(days);
+            gld = new ArrayList<>(days);
+            shy = new ArrayList<>(days);
+            for (MarketData bar : benchmark.source) {
+                MarketData q = new MarketData();
+                q.setDate(bar.getDate());
+                q.setQqqOpen(bar.getQqqOpen());
+                q.setQqqClose(bar.getQqqClose());
+                qqq.add(q);
+
+                MarketData v = new MarketData();
+                v.setDate(bar.getDate());
+                v.setVixOpen(bar.getVixOpen());
+                v.setVixClose(bar.getVixClose());
+                vix.add(v);
+
+                MarketData g = new MarketData();
+                g.setDate(bar.getDate());
+                g.setGldClose(bar.getGldClose());
+                gld.add(g);
+
+                MarketData s = new MarketData();
+                s.setDate(bar.getDate());
+                s.setShyClose(bar.getShyClose());
+                shy.add(s);
+            }
+        }
+    }
+
+    /**
+     * HashMap merge previously used by the history download, kept as the baseline.
+     * Its allocation figure includes the per-invocation row copies.
+     */
+    @Benchmark
+    public List<MarketData> hashMerge(SymbolRows rows) {
+        Map<LocalDate, MarketData> merged = new HashMap<>();
+        for (MarketData data : rows.qqq) {
+            merged.put(data.getDate(), data);
+        }
+        for (MarketData data : rows.vix) {
+            MarketData existing = merged.getOrDefault(data.getDate(), new MarketData());
+            existing.setDate(data.getDate());
+            existing.setVixOpen(data.getVixOpen());
+            existing.setVixClose(data.getVixClose());
+            merged.put(data.getDate(), existing);
+        }
+        for (MarketData data : rows.gld) {
+            MarketData existing = merged.getOrDefault(data.getDate(), new MarketData());
+            existing.setDate(data.getDate());
+            existing.setGldClose(data.getGldClose());
+            merged.put(data.getDate(), existing);
+        }
+        for (MarketData data : rows.shy) {
+            MarketData existing = merged.getOrDefault(data.getDate(), new MarketData());
+            existing.setDate(data.getDate());
+            existing.setShyClose(data.getShyClose());
+            merged.put(data.getDate(), existing);
+        }
+        List<MarketData> result = new ArrayList<>(merged.values());
+        result.sort(Comparator.comparing(MarketData::getDate));
+        return result;
+    }
+
+    @Benchmark
+    public MarketDataMerger.JoinResult mergeJoin() {
+        return MarketDataMerger.join(charts[0], charts[1], charts[2], charts[3], ZONE);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.qqq3xstrategy.benchmarks;
+
+import com.example.qqq3xstrategy.data.models.UserSettings;
+import com.example.qqq3xstrategy.strategy.BacktestEngine;
+import com.example.qqq3xstrategy.strategy.BacktestResult;
+import com.example.qqq3xstrategy.strategy.MonteCarloBootstrap;
+import com.example.qqq3xstrategy.strategy.MonteCarloResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Block bootstrap of 5000-day paths from the daily returns of a 5000-day backtest, on the
+ * common fork-join pool
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MonteCarloBenchmark {
+    private static final int DAYS = 5000;
+    private static final int BLOCK_LENGTH = 20;
+
+    @Param({"10000", "100000"})
+    public int paths;
+
+    private MonteCarloBootstrap bootstrap;
+
+    @Setup
+    public void setUp() {
+        BacktestResult backtest = new BacktestEngine(new UserSettings()).run(MarketDataFixtures.history(DAYS));
+        bootstrap = new MonteCarloBootstrap(backtest);
+    }
+
+    @Benchmark
+    public MonteCarloResult blockBootstrap() {
+        return bootstrap.run(paths, DAYS, BLOCK_LENGTH, 42L);
+    }
+}
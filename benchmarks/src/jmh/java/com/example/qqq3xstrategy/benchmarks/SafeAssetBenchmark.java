@@ -0,0 +1,60 @@
+package com.example.qqq3xstrategy.benchmarks;
+
+import com.example.qqq3xstrategy.data.models.UserSettings;
+import com.example.qqq3xstrategy.strategy.BacktestData;
+import com.example.qqq3xstrategy.strategy.BacktestEngine;
+import com.example.qqq3xstrategy.strategy.BacktestResult;
+import com.example.qqq3xstrategy.strategy.SafeAsset;
+import com.example.qqq3xstrategy.strategy.SafeAssetComparison;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A 5000-day backtest with the default safe asset, against all five safe-asset variants in
+ * one pass and in five separate runs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SafeAssetBenchmark {
+    private static final int DAYS = 5000;
+
+    private BacktestEngine engine;
+    private BacktestData data;
+    private List<SafeAsset> safeAssets;
+
+    @Setup
+    public void setUp() {
+        engine = new BacktestEngine(new UserSettings());
+        data = BacktestData.fromMarketData(MarketDataFixtures.history(DAYS));
+        safeAssets = SafeAsset.defaults(0.04);
+    }
+
+    @Benchmark
+    public BacktestResult singleRun() {
+        return engine.run(data);
+    }
+
+    @Benchmark
+    public SafeAssetComparison allVariantsOnePass() {
+        return engine.compareSafeAssets(data, safeAssets);
+    }
+
+    @Benchmark
+    public void allVariantsSeparately(Blackhole blackhole) {
+        for (SafeAsset safeAsset : safeAssets) {
+            blackhole.consume(engine.compareSafeAssets(data, Collections.singletonList(safeAsset)));
+        }
+    }
+}
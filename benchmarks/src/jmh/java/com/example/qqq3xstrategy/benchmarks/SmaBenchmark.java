@@ -0,0 +1,66 @@
+package com.example.qqq3xstrategy.benchmarks;
+
+import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.strategy.RollingSma;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SMA of QQQ closes at every day of a 5000-day history: a window rescan per day, as the list
+ * path does, against the incremental rolling window
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SmaBenchmark {
+    private static final int DAYS = 5000;
+
+    @Param({"5", "155"})
+    public int period;
+
+    private List<MarketData> history;
+    private double[] closes;
+
+    @Setup
+    public void setUp() {
+        history = MarketDataFixtures.history(DAYS);
+        closes = new double[DAYS];
+        for (int i = 0; i < DAYS; i++) {
+            closes[i] = history.get(i).getQqqClose();
+        }
+    }
+
+    @Benchmark
+    public double windowRescan() {
+        double total = 0;
+        for (int end = period; end <= DAYS; end++) {
+            double sum = 0;
+            for (int i = end - period; i < end; i++) {
+                sum += history.get(i).getQqqClose();
+            }
+            total += sum / period;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double rollingWindow() {
+        RollingSma sma = new RollingSma(period);
+        double total = 0;
+        for (int i = 0; i < DAYS; i++) {
+            sma.add(closes[i]);
+            total += sma.value();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.qqq3xstrategy.benchmarks;
+
+import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+import com.example.qqq3xstrategy.data.models.UserSettings;
+import com.example.qqq3xstrategy.strategy.ConditionVector;
+import com.example.qqq3xstrategy.strategy.QQQ3XStrategy;
+import com.example.qqq3xstrategy.strategy.RollingIndicators;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daily signal calculation over histories of increasing length, through each input path
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StrategyBenchmark {
+
+    @Param({"200", "1000", "5000"})
+    public int bars;
+
+    private QQQ3XStrategy strategy;
+    private List<MarketData> history;
+    private MarketSeries series;
+    private RollingIndicators indicators;
+    private final ConditionVector conditions = new ConditionVector();
+    private double vixOpenToday;
+    private double qqqOpenToday;
+
+    @Setup
+    public void setUp() {
+        UserSettings settings = new UserSettings();
+        strategy = new QQQ3XStrategy(settings);
+        List<MarketData> data = MarketDataFixtures.history(bars + 1);
+        history = data.subList(0, bars);
+        series = MarketSeries.fromMarketData(history);
+        indicators = RollingIndicators.fromHistory(settings, history);
+        vixOpenToday = data.get(bars).getVixOpen();
+        qqqOpenToday = data.get(bars).getQqqOpen();
+    }
+
+    @Benchmark
+    public int calculateSignalFromList() {
+        return strategy.calculateSignal(history, vixOpenToday, qqqOpenToday);
+    }
+
+    @Benchmark
+    public int calculateSignalFromSeries() {
+        return strategy.calculateSignal(series, vixOpenToday, qqqOpenToday);
+    }
+
+    @Benchmark
+    public int calculateSignalFromRollingIndicators() {
+        return strategy.calculateSignal(indicators, vixOpenToday, qqqOpenToday);
+    }
+
+    @Benchmark
+    public int evaluateConditionsFromRollingIndicators() {
+        strategy.evaluate(indicators, vixOpenToday, qqqOpenToday, conditions);
+        return conditions.getMask();
+    }
+}
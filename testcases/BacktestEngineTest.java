@@ -0,0 +1,214 @@
+package com.example.qqq3xstrategy.strategy;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.qqq3xstrategy.MarketDataFixtures;
+import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.UserSettings;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for the full-history backtest engine
+ */
+public class BacktestEngineTest {
+
+    private UserSettings settings;
+
+    @Before
+    public void setUp() {
+        settings = new UserSettings();
+    }
+
+    @Test
+    public void testRawSignalsMatchDailyCalculation() {
+        List<MarketData> history = MarketDataFixtures.history(600);
+        BacktestResult result = new BacktestEngine(settings).run(history);
+        QQQ3XStrategy strategy = new QQQ3XStrategy(settings);
+
+        int leveragedDays = 0;
+        for (int i = settings.getSmaYear(); i < history.size() - 1; i++) {
+            MarketData today = history.get(i + 1);
+            int expected = strategy.calculateSignal(history.subList(0, i + 1), today.getVixOpen(), today.getQqqOpen());
+            int raw = result.getRawSignals()[i];
+
+            assertEquals("Raw signal mismatch at " + i,
+                    expected, raw == QQQ3XStrategy.SIGNAL_NONE ? QQQ3XStrategy.SIGNAL_SAFE : raw);
+            if (result.getSignals()[i] == QQQ3XStrategy.SIGNAL_LEVERAGED) {
+                leveragedDays++;
+            }
+        }
+        assertTrue("Test data should exercise the leveraged position", leveragedDays > 0);
+    }
+
+    @Test
+    public void testSignalIsForwardFilled() {
+        BacktestResult result = new BacktestEngine(settings).run(MarketDataFixtures.history(600));
+        int previous = QQQ3XStrategy.SIGNAL_SAFE;
+
+        for (int i = 0; i < result.size(); i++) {
+            int raw = result.getRawSignals()[i];
+            int expected = raw == QQQ3XStrategy.SIGNAL_NONE ? previous : raw;
+            assertEquals("Signal should forward fill at " + i, expected, result.getSignals()[i]);
+            previous = expected;
+        }
+    }
+
+    @Test
+    public void testEquityIsCumulativeProductOfReturns() {
+        BacktestResult result = new BacktestEngine(settings).run(MarketDataFixtures.history(600));
+        double nav = BacktestEngine.INITIAL_CAPITAL;
+
+        for (int i = 0; i < result.size(); i++) {
+            nav *= 1 + result.getReturns()[i];
+            assertEquals(nav, result.getEquity()[i], 1e-6);
+        }
+        assertEquals(settings.getSmaYear(), result.getStartIndex());
+        assertEquals(nav, result.getFinalEquity(), 1e-6);
+    }
+
+    @Test
+    public void testMetricsMatchReturns() {
+        BacktestEngine engine = new BacktestEngine(settings);
+        BacktestData data = MarketDataFixtures.backtestData(800);
+        BacktestResult result = engine.run(data);
+        BacktestMetrics metrics = result.getMetrics();
+
+        // Recompute the statistics the way analysis.py does
+        double[] returns = result.getReturns();
+        int start = result.getStartIndex();
+        int count = returns.length - start;
+        double dailyRiskFree = 0.04 / 252;
+        double nav = 1, firstNav = 0, peak = 0, maxDrawdown = 0, sum = 0;
+        for (int i = start; i < returns.length; i++) {
+            nav *= 1 + returns[i];
+            if (i == start) {
+                firstNav = nav;
+            }
+            peak = Math.max(peak, nav);
+            maxDrawdown = Math.min(maxDrawdown, (nav - peak) / peak);
+            sum += returns[i] - dailyRiskFree;
+        }
+        double mean = sum / count;
+        double squares = 0;
+        for (int i = start; i < returns.length; i++) {
+            squares += Math.pow(returns[i] - dailyRiskFree - mean, 2);
+        }
+        double sharpe = mean / Math.sqrt(squares / (count - 1)) * Math.sqrt(252);
+        double totalReturn = nav / firstNav - 1;
+
+        assertEquals(count, metrics.getTradingDays());
+        assertEquals(totalReturn, metrics.getTotalReturn(), 1e-9);
+        assertEquals(Math.pow(1 + totalReturn, 252.0 / (count - 1)) - 1, metrics.getCagr(), 1e-9);
+        assertEquals(sharpe, metrics.getSharpe(), 1e-9);
+        assertEquals(maxDrawdown, metrics.getMaxDrawdown(), 1e-12);
+        assertTrue(maxDrawdown < 0);
+
+        BacktestMetrics evaluated = engine.evaluate(data);
+        assertEquals(metrics.getCagr(), evaluated.getCagr(), 0.0);
+        assertEquals(metrics.getSharpe(), evaluated.getSharpe(), 0.0);
+        assertEquals(metrics.getMaxDrawdown(), evaluated.getMaxDrawdown(), 0.0);
+    }
+
+    @Test
+    public void testSafeAssetReturnWithFlatMarket() {
+        // With a low VIX and a flat QQQ no condition fires, so the strategy stays in the safe asset
+        List<MarketData> history = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            MarketData bar = new MarketData(LocalDate.of(2020, 1, 1).plusDays(i),
+                    100, 100, 100, 100, 1000,
+                    15, 15, 15, 15,
+                    100, 100,
+                    80, 80 * (1 + 0.0001 * i));
+            history.add(bar);
+        }
+
+        BacktestResult result = new BacktestEngine(settings).run(history);
+
+        for (int i = 1; i < result.size(); i++) {
+            assertEquals(QQQ3XStrategy.SIGNAL_SAFE, result.getSignals()[i - 1]);
+            double shyReturn = (1 + 0.0001 * i) / (1 + 0.0001 * (i - 1)) - 1;
+            assertEquals("SHY return expected at " + i, shyReturn, result.getReturns()[i], 1e-12);
+        }
+    }
+
+    @Test
+    public void testTrendSafeAssetMatchesRun() {
+        BacktestData data = MarketDataFixtures.backtestData(600);
+        BacktestEngine engine = new BacktestEngine(settings);
+        BacktestResult expected = engine.run(data);
+
+        SafeAssetComparison comparison = engine.compareSafeAssets(data, SafeAsset.defaults(0.04));
+        BacktestResult trend = comparison.getResult("GLD/SHY");
+
+        assertEquals(5, comparison.size());
+        assertArrayEquals(expected.getRawSignals(), trend.getRawSignals());
+        assertArrayEquals(expected.getSignals(), comparison.getSignals());
+        assertEquals(expected.getStartIndex(), trend.getStartIndex());
+        for (int i = 0; i < data.size(); i++) {
+            assertEquals("Return mismatch at " + i, expected.getReturns()[i], trend.getReturns()[i], 1e-12);
+        }
+        assertEquals(1, trend.getFinalEquity() / expected.getFinalEquity(), 1e-9);
+        assertEquals(expected.getMetrics().getSharpe(), trend.getMetrics().getSharpe(), 1e-9);
+    }
+
+    @Test
+    public void testSafeAssetVariantsShareSignals() {
+        BacktestData data = MarketDataFixtures.backtestData(600);
+        SafeAssetComparison comparison = new BacktestEngine(settings).compareSafeAssets(data,
+                Arrays.asList(SafeAsset.gld(), SafeAsset.shy(), SafeAsset.mix(0.25)));
+
+        BacktestResult gld = comparison.getResult("GLD");
+        BacktestResult shy = comparison.getResult("SHY");
+        BacktestResult mix = comparison.getResult("GLD+SHY");
+        assertNull(comparison.getResult("CASH"));
+        for (int i = 0; i < data.size(); i++) {
+            // Only the safe sleeve differs, so returns are linear in the safe asset weights
+            assertEquals(0.25 * gld.getReturns()[i] + 0.75 * shy.getReturns()[i], mix.getReturns()[i], 1e-12);
+        }
+        assertTrue(gld.getFinalEquity() != shy.getFinalEquity());
+    }
+
+    @Test
+    public void testCashEarnsItsRateWhileSafe() {
+        // With a low VIX and a flat QQQ no condition fires, so the strategy stays in the safe asset
+        List<MarketData> history = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            history.add(new MarketData(LocalDate.of(2020, 1, 1).plusDays(i),
+                    100, 100, 100, 100, 1000,
+                    15, 15, 15, 15,
+                    100, 100 + i,
+                    80, 80));
+        }
+
+        BacktestResult cash = new BacktestEngine(settings).compareSafeAssets(
+                BacktestData.fromMarketData(history), Arrays.asList(SafeAsset.cash(0.0504))).getResult(0);
+
+        assertEquals(0, cash.getReturns()[0], 0.0);
+        for (int i = 1; i < cash.size(); i++) {
+            assertEquals("Cash return expected at " + i, 0.0504 / 252, cash.getReturns()[i], 1e-15);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMixWeightOutOfRange() {
+        SafeAsset.mix(1.5);
+    }
+
+    @Test
+    public void testEmptyHistory() {
+        BacktestResult result = new BacktestEngine(settings).run(new ArrayList<MarketData>());
+
+        assertEquals(0, result.size());
+        assertEquals(BacktestEngine.INITIAL_CAPITAL, result.getFinalEquity(), 0.0);
+    }
+}
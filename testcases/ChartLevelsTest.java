@@ -0,0 +1,115 @@
+package com.example.qqq3xstrategy.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests for the level-of-detail pyramid of chart series
+ */
+public class ChartLevelsTest {
+
+    @Test
+    public void testReturnsEveryRowWhenTheyFit() {
+        ChartLevels levels = new ChartLevels(createSeries(1000));
+
+        assertArrayEquals(new int[]{10, 11, 12, 13, 14}, levels.getRows(10, 15, 100));
+    }
+
+    @Test
+    public void testLimitsPointsAtEveryZoom() {
+        ChartLevels levels = new ChartLevels(createSeries(5000));
+
+        for (int visible : new int[]{200, 1000, 2500, 5000}) {
+            int[] rows = levels.getRows(5000 - visible, 5000, 160);
+            assertTrue(visible + " visible rows gave " + rows.length + " points", rows.length <= 160);
+            assertTrue(rows.length > 20);
+            assertEquals(5000 - visible, rows[0]);
+            assertEquals(4999, rows[rows.length - 1]);
+            for (int i = 1; i < rows.length; i++) {
+                assertTrue(rows[i] > rows[i - 1]);
+            }
+        }
+    }
+
+    @Test
+    public void testKeepsSpikesAndTroughs() {
+        double[] values = createSeries(5000);
+        values[1234] = 500;
+        values[3777] = -500;
+        ChartLevels levels = new ChartLevels(values);
+
+        int[] rows = levels.getRows(0, 5000, 40);
+
+        assertTrue(Arrays.binarySearch(rows, 1234) >= 0);
+        assertTrue(Arrays.binarySearch(rows, 3777) >= 0);
+    }
+
+    @Test
+    public void testLevelsKeepBucketExtremes() {
+        double[] values = createSeries(3000);
+        ChartLevels levels = new ChartLevels(values);
+
+        for (int level = 0; level < levels.getLevelCount(); level++) {
+            int width = levels.getBucketWidth(level);
+            int[] rows = levels.getRows(0, 3000, 2 * (3000 / width + 2) + 2);
+            for (int bucket = 0; bucket * width < 3000; bucket++) {
+                int max = bucket * width;
+                for (int row = bucket * width; row < Math.min(3000, (bucket + 1) * width); row++) {
+                    if (values[row] > values[max]) {
+                        max = row;
+                    }
+                }
+                assertTrue("level " + level + " lost row " + max, Arrays.binarySearch(rows, max) >= 0);
+            }
+        }
+    }
+
+    @Test
+    public void testPointsDoNotMoveWhilePanning() {
+        ChartLevels levels = new ChartLevels(createSeries(5000));
+
+        int[] before = levels.getRows(1000, 3000, 200);
+        int[] after = levels.getRows(1001, 3001, 200);
+
+        // Apart from the edge rows, both ranges keep the same rows
+        int[] inner = Arrays.copyOfRange(before, 1, before.length - 1);
+        for (int row : inner) {
+            if (row > 1001 && row < 2999) {
+                assertTrue(Arrays.binarySearch(after, row) >= 0);
+            }
+        }
+    }
+
+    @Test
+    public void testSkipsNaNRows() {
+        double[] values = createSeries(400);
+        Arrays.fill(values, 0, 200, Double.NaN);
+        ChartLevels levels = new ChartLevels(values);
+
+        int[] rows = levels.getRows(0, 400, 50);
+
+        assertEquals(0, rows[0]);
+        assertTrue(rows[1] >= 200);
+    }
+
+    @Test
+    public void testEmptyRange() {
+        ChartLevels levels = new ChartLevels(new double[0]);
+
+        assertEquals(0, levels.getRows(0, 10, 100).length);
+        assertEquals(0, new ChartLevels(createSeries(10)).getRows(5, 5, 100).length);
+    }
+
+    private static double[] createSeries(int size) {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = 28 + 18 * Math.sin(i / 13.0) + 5 * Math.sin(i / 3.7);
+        }
+        return values;
+    }
+}
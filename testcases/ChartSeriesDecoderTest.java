@@ -0,0 +1,123 @@
+package com.example.qqq3xstrategy.data.network;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.qqq3xstrategy.data.network.models.ChartResponse;
+import com.example.qqq3xstrategy.data.network.models.ChartSeries;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+/**
+ * Unit tests for the streaming chart decoder
+ */
+public class ChartSeriesDecoderTest {
+
+    private static final String CHART_JSON = "{\"chart\":{\"result\":[{" +
+            "\"meta\":{\"currency\":\"USD\",\"symbol\":\"QQQ\",\"gmtoffset\":-14400," +
+            "\"currentTradingPeriod\":{\"regular\":{\"start\":1}},\"validRanges\":[\"1d\",\"5d\"]}," +
+            "\"timestamp\":[1704205800,1704292200,1704378600,1704465000]," +
+            "\"indicators\":{\"quote\":[{" +
+            "\"volume\":[58026900,null,42397000,41226300]," +
+            "\"open\":[405.5,401.5,null,398.0]," +
+            "\"close\":[402.6,null,399.3,400.1]," +
+            "\"high\":[406.0,402.0,401.0,402.5]," +
+            "\"low\":[400.1,398.7,397.9,396.4]}]," +
+            "\"adjclose\":[{\"adjclose\":[400.0,null,397.0,398.0]}]}}]," +
+            "\"error\":null}}";
+
+    @Test
+    public void testDecodesColumnsWithNullsAsNaN() throws IOException {
+        ChartSeries series = decode(CHART_JSON);
+
+        assertEquals("QQQ", series.getSymbol());
+        assertNull(series.getError());
+        assertEquals(4, series.size());
+        assertArrayEquals(new long[]{1704205800L, 1704292200L, 1704378600L, 1704465000L}, series.getTimestamps());
+        assertArrayEquals(new double[]{405.5, 401.5, Double.NaN, 398.0}, series.getOpen(), 0.0);
+        assertArrayEquals(new double[]{402.6, Double.NaN, 399.3, 400.1}, series.getClose(), 0.0);
+        assertArrayEquals(new double[]{58026900, Double.NaN, 42397000, 41226300}, series.getVolume(), 0.0);
+        assertEquals(396.4, series.getLow()[3], 0.0);
+        assertEquals(406.0, series.getHigh()[0], 0.0);
+    }
+
+    @Test
+    public void testMatchesGsonModel() throws IOException {
+        ChartSeries series = decode(CHART_JSON);
+        ChartResponse.Result result = new Gson().fromJson(CHART_JSON, ChartResponse.class).getChart().getResults().get(0);
+        ChartResponse.Quote quote = result.getIndicators().getQuotes().get(0);
+
+        List<Long> timestamps = result.getTimestamp();
+        for (int i = 0; i < timestamps.size(); i++) {
+            assertEquals(timestamps.get(i).longValue(), series.getTimestamps()[i]);
+            assertBoxed(quote.getOpen().get(i), series.getOpen()[i]);
+            assertBoxed(quote.getClose().get(i), series.getClose()[i]);
+            assertBoxed(quote.getHigh().get(i), series.getHigh()[i]);
+            assertBoxed(quote.getLow().get(i), series.getLow()[i]);
+        }
+    }
+
+    @Test
+    public void testColumnsBeforeTimestampsAndShortColumns() throws IOException {
+        String json = "{\"chart\":{\"result\":[{" +
+                "\"indicators\":{\"quote\":[{\"close\":[1.0,2.0],\"open\":[1.5]}]}," +
+                "\"timestamp\":[10,20,30]}],\"error\":null}}";
+
+        ChartSeries series = decode(json);
+
+        assertEquals(3, series.size());
+        assertArrayEquals(new double[]{1.0, 2.0, Double.NaN}, series.getClose(), 0.0);
+        assertArrayEquals(new double[]{1.5, Double.NaN, Double.NaN}, series.getOpen(), 0.0);
+        assertTrue(Double.isNaN(series.getVolume()[0]));
+    }
+
+    @Test
+    public void testErrorResponse() throws IOException {
+        String json = "{\"chart\":{\"result\":null,\"error\":" +
+                "{\"code\":\"Not Found\",\"description\":\"No data found, symbol may be delisted\"}}}";
+
+        ChartSeries series = decode(json);
+
+        assertTrue(series.isEmpty());
+        assertEquals("No data found, symbol may be delisted", series.getError());
+    }
+
+    @Test
+    public void testLongSeriesGrowsBuffers() throws IOException {
+        int days = 10000;
+        StringBuilder json = new StringBuilder("{\"chart\":{\"result\":[{\"timestamp\":[");
+        StringBuilder closes = new StringBuilder();
+        for (int i = 0; i < days; i++) {
+            json.append(i == 0 ? "" : ",").append(86400L * i);
+            closes.append(i == 0 ? "" : ",").append(i % 100 == 0 ? "null" : Double.toString(i + 0.5));
+        }
+        json.append("],\"indicators\":{\"quote\":[{\"close\":[").append(closes).append("]}]}}]}}");
+
+        ChartSeries series = decode(json.toString());
+
+        assertEquals(days, series.size());
+        assertEquals(86400L * (days - 1), series.getTimestamps()[days - 1]);
+        assertEquals(days - 0.5, series.getClose()[days - 1], 0.0);
+        assertTrue(Double.isNaN(series.getClose()[9900]));
+    }
+
+    private static void assertBoxed(Double expected, double actual) {
+        if (expected == null) {
+            assertTrue(Double.isNaN(actual));
+        } else {
+            assertEquals(expected, actual, 0.0);
+        }
+    }
+
+    private static ChartSeries decode(String json) throws IOException {
+        return ChartSeriesDecoder.decode(new JsonReader(new StringReader(json)));
+    }
+}
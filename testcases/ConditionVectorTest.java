@@ -0,0 +1,139 @@
+package com.example.qqq3xstrategy.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.qqq3xstrategy.MarketDataFixtures;
+import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+import com.example.qqq3xstrategy.data.models.UserSettings;
+import com.example.qqq3xstrategy.strategy.ConditionVector.Condition;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Unit tests for condition mask evaluation through a reusable condition vector
+ */
+public class ConditionVectorTest {
+
+    private UserSettings settings;
+    private QQQ3XStrategy strategy;
+    private MarketSeries series;
+
+    @Before
+    public void setUp() {
+        settings = new UserSettings();
+        strategy = new QQQ3XStrategy(settings);
+        series = MarketDataFixtures.choppySeries(500);
+    }
+
+    @Test
+    public void testMaskHoldsEachCondition() {
+        // Strong QQQ above its yearly SMA, low VIX opening lower than yesterday's close
+        int mask = QQQ3XStrategy.evaluateConditions(100, 20, 20,
+                90, 95, 100,
+                20, 20, 20, 20,
+                19, 101);
+
+        assertTrue(ConditionVector.isSet(mask, Condition.QQQ_OPEN_CLOSE_B));
+        assertTrue(ConditionVector.isSet(mask, Condition.QQQ_YEAR_UP));
+        assertTrue(ConditionVector.isSet(mask, Condition.QQQ_UP_TREND));
+        assertTrue(ConditionVector.isSet(mask, Condition.VIX_DOWN_TODAY));
+        assertTrue(ConditionVector.isSet(mask, Condition.VIX_L_21));
+        assertTrue(ConditionVector.isSet(mask, Condition.VIX_L_60));
+        assertTrue(ConditionVector.isSet(mask, Condition.LEV_COND));
+        assertFalse(ConditionVector.isSet(mask, Condition.VIX_B_32));
+        assertFalse(ConditionVector.isSet(mask, Condition.COND_DOWN));
+        assertFalse(ConditionVector.isSet(mask, Condition.SAFE_COND));
+        assertEquals(QQQ3XStrategy.SIGNAL_LEVERAGED, QQQ3XStrategy.rawSignal(mask));
+    }
+
+    @Test
+    public void testEvaluateMatchesCalculateSignal() {
+        ConditionVector conditions = new ConditionVector();
+        int minimum = settings.getSmaYear() + 1;
+        int fired = 0;
+
+        for (int i = minimum; i < series.size(); i++) {
+            MarketSeries history = series.slice(0, i);
+            double vixOpen = series.getVixOpen(i);
+            double qqqOpen = series.getQqqOpen(i);
+
+            int signal = strategy.evaluate(history, vixOpen, qqqOpen, conditions);
+
+            assertEquals(strategy.calculateSignal(history, vixOpen, qqqOpen), signal);
+            assertEquals(signal, conditions.getSignal());
+            assertEquals(QQQ3XStrategy.rawSignal(conditions.getMask()), conditions.getRawSignal());
+            if (conditions.getRawSignal() != QQQ3XStrategy.SIGNAL_NONE) {
+                fired++;
+            }
+        }
+        assertTrue(fired > 0);
+    }
+
+    @Test
+    public void testRollingIndicatorsPathMatchesSeriesPath() {
+        List<MarketData> bars = series.toMarketDataList();
+        RollingIndicators indicators = strategy.createIndicators();
+        ConditionVector fromSeries = new ConditionVector();
+        ConditionVector fromIndicators = new ConditionVector();
+
+        for (int i = 0; i < series.size() - 1; i++) {
+            indicators.append(bars.get(i));
+            if (i < settings.getSmaYear()) {
+                continue;
+            }
+            double vixOpen = series.getVixOpen(i + 1);
+            double qqqOpen = series.getQqqOpen(i + 1);
+            strategy.evaluate(series.slice(0, i + 1), vixOpen, qqqOpen, fromSeries);
+            strategy.evaluate(indicators, vixOpen, qqqOpen, fromIndicators);
+
+            assertEquals(series.getDate(i).toString(), fromSeries.getMask(), fromIndicators.getMask());
+        }
+    }
+
+    @Test
+    public void testVectorIsClearedWithoutEnoughData() {
+        ConditionVector conditions = new ConditionVector();
+        strategy.evaluate(series, 19, 500, conditions);
+        assertTrue(conditions.getMask() != 0);
+
+        int signal = strategy.evaluate(series.slice(0, 10), 19, 500, conditions);
+
+        assertEquals(QQQ3XStrategy.SIGNAL_SAFE, signal);
+        assertEquals(0, conditions.getMask());
+        assertEquals(QQQ3XStrategy.SIGNAL_NONE, conditions.getRawSignal());
+        assertEquals(QQQ3XStrategy.SIGNAL_SAFE, conditions.getSignal());
+        assertTrue(Double.isNaN(conditions.getQqqSmaYear()));
+    }
+
+    @Test
+    public void testVectorRecordsSmas() {
+        ConditionVector conditions = new ConditionVector();
+        strategy.evaluate(series, 19, 500, conditions);
+
+        int last = series.size() - 1;
+        assertEquals(sma(MarketSeries.Field.QQQ_CLOSE, last, settings.getSmaYear()), conditions.getQqqSmaYear(), 1e-9);
+        assertEquals(sma(MarketSeries.Field.QQQ_CLOSE, last, settings.getSmaShort()), conditions.getQqqSmaShort(), 1e-9);
+        assertEquals(sma(MarketSeries.Field.VIX_CLOSE, last, settings.getSmaLong2()), conditions.getVixSmaLong(), 1e-9);
+    }
+
+    @Test
+    public void testDescribeListsLabels() {
+        assertEquals("[]", ConditionVector.describe(0));
+        assertEquals("[vix_up_much, cond_down]",
+                ConditionVector.describe(Condition.COND_DOWN.bit() | Condition.VIX_UP_MUCH.bit()));
+    }
+
+    private double sma(MarketSeries.Field field, int end, int period) {
+        double sum = 0;
+        for (int i = end - period + 1; i <= end; i++) {
+            sum += series.get(field, i);
+        }
+        return sum / period;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.qqq3xstrategy.data.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+/**
+ * Unit tests for the epoch-day date converter
+ */
+public class DateConverterTest {
+
+    @Test
+    public void testRoundTrip() {
+        LocalDate[] dates = {
+            LocalDate.of(1969, 12, 31),
+            LocalDate.of(1970, 1, 1),
+            LocalDate.of(2020, 2, 29),
+            LocalDate.of(2025, 3, 21)
+        };
+
+        for (LocalDate date : dates) {
+            assertEquals(date, DateConverter.fromEpochDay(DateConverter.dateToEpochDay(date)));
+        }
+        assertEquals(Long.valueOf(18263), DateConverter.dateToEpochDay(LocalDate.of(2020, 1, 2)));
+    }
+
+    @Test
+    public void testNullValues() {
+        assertNull(DateConverter.fromEpochDay(null));
+        assertNull(DateConverter.dateToEpochDay(null));
+    }
+
+    @Test
+    public void testOrderingMatchesDateOrdering() {
+        // Range scans in SQL rely on the stored integers sorting like the dates
+        LocalDate date = LocalDate.of(1999, 12, 25);
+        for (int i = 0; i < 1000; i++) {
+            LocalDate next = date.plusDays(1);
+            assertTrue(DateConverter.dateToEpochDay(date) < DateConverter.dateToEpochDay(next));
+            date = next;
+        }
+    }
+}
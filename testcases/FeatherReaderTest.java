@@ -0,0 +1,118 @@
+package com.example.qqq3xstrategy.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Unit tests for the Feather reader and its LZ4 frame decoder
+ */
+public class FeatherReaderTest {
+
+    // LZ4 frame header: magic, FLG (version 1, independent blocks), BD, header checksum
+    private static final int[] FRAME_HEADER = {0x04, 0x22, 0x4D, 0x18, 0x60, 0x40, 0x82};
+
+    private static ByteBuffer frame(int... blockBytes) {
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_HEADER.length + blockBytes.length + 4);
+        for (int b : FRAME_HEADER) {
+            buffer.put((byte) b);
+        }
+        for (int b : blockBytes) {
+            buffer.put((byte) b);
+        }
+        // End mark
+        buffer.putInt(0);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static String decode(ByteBuffer frame, int length) throws IOException {
+        byte[] out = new byte[length];
+        Lz4FrameDecoder.decode(frame, 0, frame.limit(), out);
+        return new String(out, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * The snapshot bundled with the app, resolved from the project root
+     */
+    private static FeatherReader openSnapshot() throws IOException {
+        File file = new File("financial_data.feather");
+        assumeTrue(file.exists());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return new FeatherReader(raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+        }
+    }
+
+    @Test
+    public void testLz4OverlappingMatch() throws IOException {
+        // Block of 8 bytes: "abc", then a match of 8 at offset 3, then the literal "x"
+        ByteBuffer frame = frame(0x08, 0, 0, 0, 0x34, 'a', 'b', 'c', 0x03, 0x00, 0x10, 'x');
+        assertEquals("abcabcabcabx", decode(frame, 12));
+    }
+
+    @Test
+    public void testLz4LongLiteralRunAndStoredBlock() throws IOException {
+        // Compressed block of 17 literals (15 + 2 in an extra length byte), then a stored block
+        ByteBuffer frame = frame(19, 0, 0, 0, 0xF0, 2,
+                'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k', 'l', 'm', 'n', 'o', 'p', 'q',
+                0x03, 0, 0, 0x80, 'x', 'y', 'z');
+        assertEquals("abcdefghijklmnopqxyz", decode(frame, 20));
+    }
+
+    @Test(expected = IOException.class)
+    public void testLz4RejectsOffsetBeforeOutput() throws IOException {
+        decode(frame(0x04, 0, 0, 0, 0x10, 'a', 0x05, 0x00), 8);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsNonArrowData() throws IOException {
+        new FeatherReader(ByteBuffer.wrap("not a feather file at all".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    public void testReadsBundledSnapshot() throws IOException {
+        FeatherReader reader = openSnapshot();
+
+        assertEquals(501, reader.getRowCount());
+        assertTrue(reader.getColumnNames().contains("QQQ"));
+        assertTrue(reader.hasColumn("^VIX"));
+
+        int[] days = reader.readEpochDays("Date");
+        assertEquals(LocalDate.of(2023, 4, 20), LocalDate.ofEpochDay(days[0]));
+        assertEquals(LocalDate.of(2025, 4, 17), LocalDate.ofEpochDay(days[days.length - 1]));
+
+        double[] vix = reader.readDoubles("^VIX");
+        assertEquals(17.17, vix[0], 1e-4);
+        assertEquals(29.65, vix[vix.length - 1], 1e-4);
+
+        // 64-bit integer column
+        assertEquals(62_462_100, reader.readDoubles("QQQ_Volume")[0], 0.0);
+    }
+
+    @Test
+    public void testNullsBecomeNaN() throws IOException {
+        double[] average = openSnapshot().readDoubles("Volume_MA_20");
+
+        // A 20-day rolling mean has no value for the first 19 rows
+        for (int i = 0; i < 19; i++) {
+            assertTrue(Double.isNaN(average[i]));
+        }
+        assertFalse(Double.isNaN(average[19]));
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingColumn() throws IOException {
+        openSnapshot().readDoubles("TQQQ");
+    }
+}
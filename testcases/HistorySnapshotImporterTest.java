@@ -0,0 +1,76 @@
+package com.example.qqq3xstrategy.data.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+import com.example.qqq3xstrategy.util.FeatherReader;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
+
+/**
+ * Unit tests for decoding the bundled history snapshot into market data rows
+ */
+public class HistorySnapshotImporterTest {
+
+    private FeatherReader reader;
+
+    @Before
+    public void setUp() throws IOException {
+        File file = new File(HistorySnapshotImporter.ASSET_NAME);
+        assumeTrue(file.exists());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            reader = new FeatherReader(raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+        }
+    }
+
+    @Test
+    public void testReadsWholeSnapshotIntoEmptyDatabase() throws IOException {
+        MarketSeries series = HistorySnapshotImporter.read(reader, Integer.MAX_VALUE);
+
+        assertEquals(501, series.size());
+        assertEquals(LocalDate.of(2023, 4, 20), series.getDate(0));
+        assertEquals(LocalDate.of(2025, 4, 17), series.getDate(500));
+
+        assertEquals(17.17, series.getVixClose(0), 1e-4);
+        assertEquals(16.85, series.getVixOpen(0), 1e-4);
+        assertEquals(444.10, series.getQqqClose(500), 1e-4);
+        assertEquals(447.17, series.getQqqOpen(500), 1e-4);
+        assertEquals(62_462_100, series.get(MarketSeries.Field.QQQ_VOLUME, 0), 0.0);
+        assertEquals(306.12, series.getGldClose(500), 1e-4);
+        assertEquals(82.75, series.getShyClose(500), 1e-4);
+
+        // Not in the snapshot
+        assertEquals(0, series.get(MarketSeries.Field.VIX_HIGH, 0), 0.0);
+        assertEquals(0, series.get(MarketSeries.Field.GLD_OPEN, 0), 0.0);
+        assertFalse(MarketData.isKnown(series.toMarketData(0).getVixHigh()));
+        assertFalse(MarketData.isKnown(series.toMarketData(0).getShyOpen()));
+        assertTrue(MarketData.isKnown(series.toMarketData(0).getShyClose()));
+    }
+
+    @Test
+    public void testReadsOnlyRowsBeforeStoredHistory() throws IOException {
+        LocalDate earliestStored = LocalDate.of(2024, 1, 2);
+        MarketSeries series = HistorySnapshotImporter.read(reader, (int) earliestStored.toEpochDay());
+
+        assertTrue(series.size() > 0);
+        assertTrue(series.getDate(series.size() - 1).isBefore(earliestStored));
+        assertEquals(LocalDate.of(2023, 12, 29), series.getDate(series.size() - 1));
+    }
+
+    @Test
+    public void testNothingToImportWhenHistoryIsOlder() throws IOException {
+        MarketSeries series = HistorySnapshotImporter.read(reader, (int) LocalDate.of(2020, 1, 2).toEpochDay());
+        assertTrue(series.isEmpty());
+    }
+}
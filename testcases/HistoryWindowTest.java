@@ -0,0 +1,133 @@
+package com.example.qqq3xstrategy.data.models;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for the chart history window
+ */
+public class HistoryWindowTest {
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @Test
+    public void testAlignSignalsSkipsDaysWithoutRows() {
+        MarketSeries series = createSeries(0, 5, 0);
+        List<SignalHistory> signals = Arrays.asList(
+                signal(1, 1), signal(3, -1), signal(7, 1));
+
+        assertArrayEquals(new int[]{0, 1, 0, -1, 0}, HistoryWindow.alignSignals(series, signals));
+    }
+
+    @Test
+    public void testCoversVisibleRange() {
+        HistoryWindow window = HistoryWindow.of(START, START.plusDays(99),
+                createSeries(0, 100, 0), Collections.emptyList(), false);
+
+        assertTrue(window.covers(START.plusDays(10), START.plusDays(20)));
+        assertFalse(window.covers(START.minusDays(1), START.plusDays(20)));
+        assertFalse(window.covers(START.plusDays(10), START.plusDays(100)));
+    }
+
+    @Test
+    public void testLatestWindowCoversFutureDays() {
+        HistoryWindow window = HistoryWindow.of(START, START.plusDays(99),
+                createSeries(0, 100, 0), Collections.emptyList(), true);
+
+        assertTrue(window.covers(START.plusDays(50), START.plusDays(150)));
+    }
+
+    @Test
+    public void testMergeTailAppendsNewRows() {
+        HistoryWindow window = HistoryWindow.of(START, START.plusDays(9),
+                createSeries(0, 10, 0), Arrays.asList(signal(9, 1)), true);
+
+        HistoryWindow merged = window.mergeTail(createSeries(9, 3, 0),
+                Arrays.asList(signal(9, 1), signal(10, -1), signal(11, -1)));
+
+        assertEquals(12, merged.size());
+        assertEquals(10, merged.getFirstChangedRow());
+        assertEquals(START.plusDays(11), merged.getTo());
+        assertEquals(1, merged.getSignal(9));
+        assertEquals(-1, merged.getSignal(11));
+        assertEquals(START.plusDays(11), merged.getSeries().getDate(11));
+        assertTrue(merged.isLatest());
+    }
+
+    @Test
+    public void testMergeTailMarksRewrittenLastRow() {
+        HistoryWindow window = HistoryWindow.of(START, START.plusDays(9),
+                createSeries(0, 10, 0), Collections.emptyList(), true);
+
+        // Today's bar was updated intraday
+        HistoryWindow merged = window.mergeTail(createSeries(9, 1, 5), Collections.emptyList());
+
+        assertEquals(10, merged.size());
+        assertEquals(9, merged.getFirstChangedRow());
+        assertEquals(window.getSeries().getQqqClose(9) + 5, merged.getSeries().getQqqClose(9), 0.0);
+        assertEquals(window.getSeries().getQqqClose(8), merged.getSeries().getQqqClose(8), 0.0);
+    }
+
+    @Test
+    public void testMergeTailWithoutChangesHasNothingToRedraw() {
+        HistoryWindow window = HistoryWindow.of(START, START.plusDays(9),
+                createSeries(0, 10, 0), Arrays.asList(signal(9, 1)), true);
+
+        HistoryWindow merged = window.mergeTail(createSeries(9, 1, 0), Arrays.asList(signal(9, 1)));
+
+        assertEquals(merged.size(), merged.getFirstChangedRow());
+    }
+
+    @Test
+    public void testMergeTailDetectsChangedSignal() {
+        HistoryWindow window = HistoryWindow.of(START, START.plusDays(9),
+                createSeries(0, 10, 0), Arrays.asList(signal(9, 1)), true);
+
+        HistoryWindow merged = window.mergeTail(createSeries(9, 1, 0), Arrays.asList(signal(9, -1)));
+
+        assertEquals(9, merged.getFirstChangedRow());
+        assertEquals(-1, merged.getSignal(9));
+    }
+
+    @Test
+    public void testMergeTailRejectsTailThatDoesNotContinueWindow() {
+        HistoryWindow window = HistoryWindow.of(START, START.plusDays(9),
+                createSeries(0, 10, 0), Collections.emptyList(), true);
+
+        // The window's last day is gone from the database
+        assertNull(window.mergeTail(createSeries(10, 2, 0), Collections.emptyList()));
+        assertNull(window.mergeTail(new MarketSeries(), Collections.emptyList()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsSignalCountMismatch() {
+        new HistoryWindow(START, START.plusDays(9), createSeries(0, 10, 0), new int[9], true, 0);
+    }
+
+    private static SignalHistory signal(int day, int signal) {
+        return new SignalHistory(START.plusDays(day), signal, signal, false, "GLD");
+    }
+
+    private static MarketSeries createSeries(int firstDay, int days, double offset) {
+        List<MarketData> data = new ArrayList<>();
+        for (int i = firstDay; i < firstDay + days; i++) {
+            double qqq = 300 + i + offset;
+            double vix = 20 + i % 7;
+            data.add(new MarketData(START.plusDays(i),
+                    qqq - 1, qqq, qqq + 2, qqq - 2, 1000 + i,
+                    vix, vix, vix + 1, vix - 1,
+                    180, 180, 80, 80));
+        }
+        return MarketSeries.fromMarketData(data);
+    }
+}
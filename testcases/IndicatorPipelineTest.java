@@ -0,0 +1,89 @@
+package com.example.qqq3xstrategy.data.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.qqq3xstrategy.MarketDataFixtures;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+import com.example.qqq3xstrategy.data.models.TechnicalIndicator;
+import com.example.qqq3xstrategy.data.models.UserSettings;
+import com.example.qqq3xstrategy.strategy.RollingIndicators;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Unit tests for the technical indicator pipeline computation
+ */
+public class IndicatorPipelineTest {
+
+    private UserSettings settings;
+    private MarketSeries series;
+
+    @Before
+    public void setUp() {
+        settings = new UserSettings();
+        series = MarketDataFixtures.series(500);
+    }
+
+    @Test
+    public void testFullComputationMatchesSma() {
+        List<TechnicalIndicator> rows = IndicatorPipeline.compute(series, 0, new RollingIndicators(settings));
+
+        assertEquals(series.size(), rows.size());
+        int i = 300;
+        TechnicalIndicator row = rows.get(i);
+        assertEquals(series.getDate(i), row.getDate());
+        assertEquals(sma(MarketSeries.Field.QQQ_CLOSE, i, settings.getSmaYear()), row.getQqqSmaYear(), 1e-9);
+        assertEquals(sma(MarketSeries.Field.QQQ_CLOSE, i, settings.getSmaShort()), row.getQqqSmaShort(), 1e-9);
+        assertEquals(sma(MarketSeries.Field.VIX_CLOSE, i, settings.getSmaLong3()), row.getVixSmaLong3(), 1e-9);
+        assertEquals(sma(MarketSeries.Field.GLD_CLOSE, i, 100), row.getGldSma(), 1e-9);
+        assertEquals(series.getVixOpen(i) / series.getVixOpen(i - 1) - 1, row.getVixC(), 1e-12);
+        assertEquals(series.getVixOpen(i) / series.getVixClose(i - 1) - 1, row.getVixOpenClose(), 1e-12);
+
+        assertEquals(0, rows.get(0).getVixC(), 0.0);
+        assertEquals(0, rows.get(0).getVixOpenClose(), 0.0);
+    }
+
+    @Test
+    public void testIncrementalComputationMatchesFullComputation() {
+        List<TechnicalIndicator> full = IndicatorPipeline.compute(series, 0, new RollingIndicators(settings));
+
+        // Seed from only the rows the pipeline would load before the last persisted date
+        RollingIndicators indicators = new RollingIndicators(settings);
+        int start = 420;
+        int lookback = indicators.getRequiredHistory() + 1;
+        MarketSeries tail = series.slice(start - lookback, series.size());
+        List<TechnicalIndicator> incremental = IndicatorPipeline.compute(tail, lookback, indicators);
+
+        assertEquals(series.size() - start, incremental.size());
+        for (int i = 0; i < incremental.size(); i++) {
+            TechnicalIndicator expected = full.get(start + i);
+            TechnicalIndicator actual = incremental.get(i);
+            assertEquals(expected.getDate(), actual.getDate());
+            assertEquals(expected.getQqqSmaYear(), actual.getQqqSmaYear(), 1e-9);
+            assertEquals(expected.getQqqSmaLong(), actual.getQqqSmaLong(), 1e-9);
+            assertEquals(expected.getGldSma(), actual.getGldSma(), 1e-9);
+            assertEquals(expected.getVixSmaShort(), actual.getVixSmaShort(), 1e-9);
+            assertEquals(expected.getVixSmaLong(), actual.getVixSmaLong(), 1e-9);
+            assertEquals(expected.getVixC(), actual.getVixC(), 0.0);
+            assertEquals(expected.getVixOpenClose(), actual.getVixOpenClose(), 0.0);
+        }
+    }
+
+    @Test
+    public void testNothingToCompute() {
+        List<TechnicalIndicator> rows = IndicatorPipeline.compute(series, series.size(), new RollingIndicators(settings));
+        assertTrue(rows.isEmpty());
+    }
+
+    private double sma(MarketSeries.Field field, int end, int period) {
+        double sum = 0;
+        for (int i = end - period + 1; i <= end; i++) {
+            sum += series.get(field, i);
+        }
+        return sum / period;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.qqq3xstrategy.data.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import androidx.room.Room;
+
+import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+import com.example.qqq3xstrategy.data.models.SignalHistory;
+import com.example.qqq3xstrategy.data.models.TechnicalIndicator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Tests that rewriting market data keeps the indicator and signal rows that reference it
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class MarketDataDaoTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    private AppDatabase database;
+    private MarketDataDao marketDataDao;
+
+    @Before
+    public void setUp() {
+        // Room enables foreign keys, so a delete of the parent row would cascade
+        database = Room.inMemoryDatabaseBuilder(RuntimeEnvironment.getApplication(), AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        marketDataDao = database.marketDataDao();
+
+        marketDataDao.insert(bar(DAY.minusDays(1), 400));
+        marketDataDao.insert(bar(DAY, 401));
+        database.technicalIndicatorDao().insertAll(Arrays.asList(
+                new TechnicalIndicator(DAY, 380, 395, 399, 190, 16, 17, 16, 17, 0.01, 0.02)));
+        database.signalHistoryDao().insert(new SignalHistory(DAY, 1, 1, true, "GLD"));
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void testSyncingOverAStoredDayKeepsItsSignal() {
+        // A sync rewrites the last days with Yahoo's final closes and appends new ones
+        marketDataDao.insertAll(Arrays.asList(bar(DAY, 402.5), bar(DAY.plusDays(1), 405)));
+
+        assertEquals(402.5, marketDataDao.getMarketDataForDate(DAY).getQqqClose(), 0.0);
+        assertNotNull(marketDataDao.getMarketDataForDate(DAY.plusDays(1)));
+        SignalHistory signal = database.signalHistoryDao().getSignalForDate(DAY);
+        assertNotNull("Signal deleted by the market data update", signal);
+        assertEquals(1, signal.getSignal().intValue());
+        assertNotNull("Indicators deleted by the market data update",
+                database.technicalIndicatorDao().getIndicatorForDate(DAY));
+    }
+
+    @Test
+    public void testQuoteRefreshKeepsTodaysSignal() {
+        marketDataDao.insert(bar(DAY, 403));
+
+        assertEquals(403, marketDataDao.getMarketDataForDate(DAY).getQqqClose(), 0.0);
+        assertNotNull(database.signalHistoryDao().getSignalForDate(DAY));
+    }
+
+    @Test
+    public void testInsertSeriesKeepsSignals() {
+        marketDataDao.insertSeries(MarketSeries.fromMarketData(Arrays.asList(bar(DAY.minusDays(1), 399), bar(DAY, 404))));
+
+        assertEquals(404, marketDataDao.getMarketDataForDate(DAY).getQqqClose(), 0.0);
+        assertNotNull(database.signalHistoryDao().getSignalForDate(DAY));
+    }
+
+    private static MarketData bar(LocalDate date, double qqqClose) {
+        return new MarketData(date,
+                qqqClose - 1, qqqClose, qqqClose + 2, qqqClose - 2, 1_000_000,
+                16, 17, 18, 15,
+                190, 191,
+                82, 82.1);
+    }
+}
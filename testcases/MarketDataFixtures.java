@@ -0,0 +1,83 @@
+package com.example.qqq3xstrategy;
+
+import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+import com.example.qqq3xstrategy.strategy.BacktestData;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic synthetic market history shared by the unit tests.
+ * <p>
+ * Prices are sums of sine waves with different periods, so the windows of every SMA period
+ * see turns and the same days come out on every run. Bars are one per calendar day from
+ * {@link #START_DATE}.
+ */
+public final class MarketDataFixtures {
+    public static final LocalDate START_DATE = LocalDate.of(2015, 1, 1);
+
+    private MarketDataFixtures() {
+    }
+
+    /**
+     * Rising QQQ with the VIX swinging between 10 and 46
+     */
+    public static List<MarketData> history(int days) {
+        return generate(days, 0.2, 28, 18, 0.05);
+    }
+
+    /**
+     * Sideways QQQ with the VIX swinging between 8 and 52 and wider VIX opening gaps, so every
+     * strategy condition both holds and fails
+     */
+    public static List<MarketData> choppyHistory(int days) {
+        return generate(days, 0.05, 30, 22, 0.08);
+    }
+
+    public static MarketSeries series(int days) {
+        return MarketSeries.fromMarketData(history(days));
+    }
+
+    public static MarketSeries choppySeries(int days) {
+        return MarketSeries.fromMarketData(choppyHistory(days));
+    }
+
+    public static BacktestData backtestData(int days) {
+        return BacktestData.fromMarketData(history(days));
+    }
+
+    /**
+     * Daily strategy returns with a small positive drift and slowly changing volatility
+     */
+    public static double[] returns(int days) {
+        double[] returns = new double[days];
+        for (int i = 0; i < days; i++) {
+            returns[i] = 0.0006 + 0.02 * Math.sin(i / 7.0) * Math.cos(i / 31.0);
+        }
+        return returns;
+    }
+
+    /**
+     * @param drift Daily QQQ trend in points
+     * @param vixGap Amplitude of the VIX open relative to its close
+     */
+    private static List<MarketData> generate(int days, double drift, double vixMean, double vixSwing,
+                                             double vixGap) {
+        List<MarketData> data = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) {
+            double qqq = 300 + 60 * Math.sin(i / 40.0) + i * drift;
+            double vix = vixMean + vixSwing * Math.sin(i / 13.0);
+            double gld = 180 + 10 * Math.sin(i / 50.0);
+            double shy = 80 + i * 0.001;
+
+            data.add(new MarketData(START_DATE.plusDays(i),
+                    qqq * (1 + 0.01 * Math.sin(i / 3.0)), qqq, qqq + 2, qqq - 2, 1000 + i,
+                    vix * (1 + vixGap * Math.cos(i / 2.0)), vix, vix + 1, vix - 1,
+                    gld - 0.5, gld,
+                    shy - 0.01, shy));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.qqq3xstrategy.data.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+import com.example.qqq3xstrategy.data.network.models.ChartSeries;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Unit tests for the multi-symbol merge-join
+ */
+public class MarketDataMergerTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    /**
+     * Daily bars stamped at the 9:30 New York open, closing at base + day index
+     */
+    private static ChartSeries chart(double base, LocalDate... dates) {
+        int n = dates.length;
+        long[] timestamps = new long[n];
+        double[] open = new double[n];
+        double[] close = new double[n];
+        for (int i = 0; i < n; i++) {
+            timestamps[i] = dates[i].atTime(9, 30).atZone(NEW_YORK).toEpochSecond();
+            open[i] = base + i - 0.5;
+            close[i] = base + i;
+        }
+        double[] high = close.clone();
+        double[] low = open.clone();
+        return new ChartSeries(null, null, timestamps, open, high, low, close, close.clone());
+    }
+
+    private static LocalDate day(int dayOfMonth) {
+        return LocalDate.of(2024, 3, dayOfMonth);
+    }
+
+    @Test
+    public void testJoinsAlignedCharts() {
+        LocalDate[] dates = {day(4), day(5), day(6)};
+        MarketDataMerger.JoinResult result = MarketDataMerger.join(
+                chart(400, dates), chart(14, dates), chart(190, dates), chart(81, dates), NEW_YORK);
+
+        assertTrue(result.isAligned());
+        MarketSeries series = result.getSeries();
+        assertEquals(3, series.size());
+        for (int row = 0; row < 3; row++) {
+            assertEquals(dates[row], series.getDate(row));
+            assertEquals(400 + row, series.getQqqClose(row), 0.0);
+            assertEquals(14 + row, series.getVixClose(row), 0.0);
+            assertEquals(13.5 + row, series.getVixOpen(row), 0.0);
+            assertEquals(190 + row, series.getGldClose(row), 0.0);
+            assertEquals(81 + row, series.getShyClose(row), 0.0);
+        }
+    }
+
+    @Test
+    public void testDropsAndReportsMisalignedDates() {
+        // VIX prints on Good Friday, GLD is missing the 28th
+        ChartSeries qqq = chart(400, day(27), day(28), day(1).plusMonths(1));
+        ChartSeries vix = chart(14, day(27), day(28), day(29), day(1).plusMonths(1));
+        ChartSeries gld = chart(190, day(27), day(1).plusMonths(1));
+        ChartSeries shy = chart(81, day(27), day(28), day(1).plusMonths(1));
+
+        MarketDataMerger.JoinResult result = MarketDataMerger.join(qqq, vix, gld, shy, NEW_YORK);
+
+        MarketSeries series = result.getSeries();
+        assertEquals(2, series.size());
+        assertEquals(day(27), series.getDate(0));
+        assertEquals(LocalDate.of(2024, 4, 1), series.getDate(1));
+        assertEquals(402, series.getQqqClose(1), 0.0);
+        assertEquals(17, series.getVixClose(1), 0.0);
+        assertEquals(191, series.getGldClose(1), 0.0);
+
+        assertFalse(result.isAligned());
+        assertEquals(2, result.getDroppedCount());
+        assertEquals(day(28), result.getDroppedDate(0));
+        assertEquals(Collections.singletonList("GLD"), result.getMissingSymbols(0));
+        assertEquals(day(29), result.getDroppedDate(1));
+        assertEquals(Arrays.asList("QQQ", "GLD", "SHY"), result.getMissingSymbols(1));
+        assertEquals(2, result.getMissingCount("GLD"));
+        assertEquals(0, result.getMissingCount("^VIX"));
+        assertTrue(result.toString().contains("GLD missing on 2 dates (first 2024-03-28)"));
+    }
+
+    @Test
+    public void testIgnoresBarsWithoutClose() {
+        LocalDate[] dates = {day(4), day(5), day(6)};
+        ChartSeries vix = chart(14, dates);
+        vix.getClose()[1] = Double.NaN;
+        ChartSeries gld = chart(190, dates);
+        gld.getOpen()[2] = Double.NaN;
+
+        MarketDataMerger.JoinResult result = MarketDataMerger.join(
+                chart(400, dates), vix, gld, chart(81, dates), NEW_YORK);
+
+        assertEquals(2, result.getSeries().size());
+        assertEquals(day(6), result.getSeries().getDate(1));
+        assertEquals(Collections.singletonList("^VIX"), result.getMissingSymbols(0));
+        // Missing opens are stored as 0 because the database columns are NOT NULL
+        assertEquals(0, result.getSeries().get(MarketSeries.Field.GLD_OPEN, 1), 0.0);
+    }
+
+    @Test
+    public void testLastBarWinsForRepeatedDate() {
+        LocalDate[] dates = {day(4), day(5)};
+        ChartSeries qqq = chart(400, day(4), day(5), day(5));
+
+        MarketDataMerger.JoinResult result = MarketDataMerger.join(
+                qqq, chart(14, dates), chart(190, dates), chart(81, dates), NEW_YORK);
+
+        assertTrue(result.isAligned());
+        assertEquals(2, result.getSeries().size());
+        assertEquals(402, result.getSeries().getQqqClose(1), 0.0);
+    }
+
+    @Test
+    public void testDatesFollowZoneAcrossDaylightSavingChange() {
+        // 9:30 New York is 14:30 UTC before 10 March and 13:30 UTC after it
+        LocalDate[] dates = {day(8), day(11)};
+        ChartSeries qqq = chart(400, dates);
+
+        MarketDataMerger.JoinResult newYork = MarketDataMerger.join(
+                qqq, chart(14, dates), chart(190, dates), chart(81, dates), NEW_YORK);
+        assertEquals(day(8), newYork.getSeries().getDate(0));
+        assertEquals(day(11), newYork.getSeries().getDate(1));
+
+        // Nine hours ahead of UTC the bars still land on the same local day
+        MarketDataMerger.JoinResult tokyo = MarketDataMerger.join(
+                qqq, chart(14, dates), chart(190, dates), chart(81, dates), ZoneOffset.ofHours(9));
+        assertEquals(day(8), tokyo.getSeries().getDate(0));
+        assertEquals(day(11), tokyo.getSeries().getDate(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsUnorderedChart() {
+        LocalDate[] dates = {day(4), day(5)};
+        MarketDataMerger.join(chart(400, day(5), day(4)), chart(14, dates), chart(190, dates), chart(81, dates),
+                NEW_YORK);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.qqq3xstrategy.data.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.LocalDate;
+
+/**
+ * Unit tests for the binary market history snapshot
+ */
+public class MarketSeriesFileTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 2);
+
+    private File file;
+    private MarketSeriesFile snapshot;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("market_history", ".bin");
+        file.delete();
+        snapshot = new MarketSeriesFile(file);
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Consecutive days from START + first, with every field derived from the day
+     */
+    private static MarketSeries createSeries(int first, int days) {
+        MarketSeries series = new MarketSeries();
+        for (int i = first; i < first + days; i++) {
+            int row = series.appendRow((int) START.plusDays(i).toEpochDay());
+            for (MarketSeries.Field field : MarketSeries.Field.values()) {
+                series.set(field, row, i * 100 + field.ordinal());
+            }
+        }
+        return series;
+    }
+
+    @Test
+    public void testMissingFileReadsAsNull() {
+        assertNull(snapshot.read(START, START.plusDays(10)));
+        assertFalse(snapshot.write(createSeries(0, 1)));
+    }
+
+    @Test
+    public void testRebuildAndReadRange() {
+        snapshot.rebuild(createSeries(0, 30));
+
+        MarketSeries all = snapshot.read(LocalDate.MIN, LocalDate.MAX);
+        assertEquals(30, all.size());
+        assertEquals(START.plusDays(29), snapshot.getLastDate());
+
+        MarketSeries range = snapshot.read(START.plusDays(5), START.plusDays(9));
+        assertEquals(5, range.size());
+        assertEquals(START.plusDays(5), range.getDate(0));
+        assertEquals(START.plusDays(9), range.getDate(4));
+        for (MarketSeries.Field field : MarketSeries.Field.values()) {
+            assertEquals(700 + field.ordinal(), range.get(field, 2), 0.0);
+        }
+    }
+
+    @Test
+    public void testWriteOverwritesAndAppends() {
+        snapshot.rebuild(createSeries(0, 10));
+
+        // Days 8 and 9 revised, days 10 to 12 new
+        MarketSeries changes = createSeries(8, 5);
+        changes.set(MarketSeries.Field.QQQ_CLOSE, 0, 12345);
+        assertTrue(snapshot.write(changes));
+
+        MarketSeries all = snapshot.read(LocalDate.MIN, LocalDate.MAX);
+        assertEquals(13, all.size());
+        assertEquals(12345, all.getQqqClose(8), 0.0);
+        assertEquals(1201, all.getQqqClose(12), 0.0);
+        assertEquals(START.plusDays(12), snapshot.getLastDate());
+
+        // A fresh instance validates what was written
+        assertEquals(13, new MarketSeriesFile(file).read(LocalDate.MIN, LocalDate.MAX).size());
+    }
+
+    @Test
+    public void testWriteRefusesDayBetweenStoredDays() {
+        MarketSeries gap = new MarketSeries();
+        gap.appendAll(createSeries(0, 3));
+        gap.appendAll(createSeries(5, 3));
+        snapshot.rebuild(gap);
+
+        assertFalse(snapshot.write(createSeries(4, 1)));
+        assertEquals(6, snapshot.read(LocalDate.MIN, LocalDate.MAX).size());
+    }
+
+    @Test
+    public void testUpdateAppendsStoredDaysThatWereNotRevised() {
+        snapshot.rebuild(createSeries(0, 10));
+        // The database holds days 0 to 14, but the sync only rewrote days 8 and 13
+        MarketSeries stored = createSeries(0, 15);
+        MarketSeries revised = new MarketSeries();
+        revised.appendAll(createSeries(8, 1));
+        revised.appendAll(createSeries(13, 1));
+        revised.set(MarketSeries.Field.QQQ_CLOSE, 0, 12345);
+
+        LocalDate[] requested = new LocalDate[1];
+        assertTrue(snapshot.update(revised, last -> {
+            requested[0] = last;
+            return stored.slice(stored.lowerBound((int) last.toEpochDay() + 1), stored.size());
+        }));
+
+        assertEquals(START.plusDays(9), requested[0]);
+        MarketSeries all = snapshot.read(LocalDate.MIN, LocalDate.MAX);
+        assertEquals(15, all.size());
+        assertEquals(12345, all.getQqqClose(8), 0.0);
+        for (int i = 10; i < 15; i++) {
+            assertEquals(START.plusDays(i), all.getDate(i));
+            assertEquals(i * 100 + MarketSeries.Field.QQQ_CLOSE.ordinal(), all.getQqqClose(i), 0.0);
+        }
+    }
+
+    @Test
+    public void testUpdateFillsEmptySnapshot() {
+        snapshot.rebuild(new MarketSeries());
+
+        assertTrue(snapshot.update(new MarketSeries(), last -> {
+            assertEquals(LocalDate.MIN, last);
+            return createSeries(0, 4);
+        }));
+        assertEquals(4, snapshot.read(LocalDate.MIN, LocalDate.MAX).size());
+    }
+
+    @Test
+    public void testUpdateNeedsValidSnapshot() {
+        assertFalse(snapshot.update(createSeries(0, 3), last -> createSeries(0, 3)));
+    }
+
+    @Test
+    public void testCorruptionIsDetected() throws IOException {
+        snapshot.rebuild(createSeries(0, 10));
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() - 3);
+            raf.write(0x7F);
+        }
+
+        assertNull(new MarketSeriesFile(file).read(LocalDate.MIN, LocalDate.MAX));
+    }
+
+    @Test
+    public void testInvalidateDeletesFile() {
+        snapshot.rebuild(createSeries(0, 3));
+        snapshot.invalidate();
+
+        assertFalse(file.exists());
+        assertNull(snapshot.read(LocalDate.MIN, LocalDate.MAX));
+    }
+}
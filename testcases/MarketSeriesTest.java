@@ -0,0 +1,149 @@
+package com.example.qqq3xstrategy.data.models;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.qqq3xstrategy.MarketDataFixtures;
+import com.example.qqq3xstrategy.strategy.QQQ3XStrategy;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for the columnar market series
+ */
+public class MarketSeriesTest {
+
+    @Test
+    public void testAppendGrowsPastInitialCapacity() {
+        List<MarketData> history = MarketDataFixtures.history(1000);
+        MarketSeries series = new MarketSeries(4);
+        for (MarketData bar : history) {
+            series.append(bar);
+        }
+
+        assertEquals(1000, series.size());
+        for (int i = 0; i < history.size(); i++) {
+            assertEquals(history.get(i).getDate(), series.getDate(i));
+            assertEquals(history.get(i).getQqqClose(), series.getQqqClose(i), 0.0);
+            assertEquals(history.get(i).getVixOpen(), series.getVixOpen(i), 0.0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAppendRejectsOutOfOrderDates() {
+        MarketSeries series = new MarketSeries();
+        series.appendRow((int) LocalDate.of(2020, 1, 2).toEpochDay());
+        series.appendRow((int) LocalDate.of(2020, 1, 1).toEpochDay());
+    }
+
+    @Test
+    public void testAppendAllCopiesSliceRows() {
+        MarketSeries source = MarketDataFixtures.series(100);
+        MarketSeries series = new MarketSeries(4);
+        series.appendAll(source.slice(0, 40));
+        series.appendAll(source.slice(40, 100));
+
+        assertEquals(100, series.size());
+        assertArrayEquals(source.toEpochDayArray(), series.toEpochDayArray());
+        assertArrayEquals(source.toArray(MarketSeries.Field.SHY_CLOSE), series.toArray(MarketSeries.Field.SHY_CLOSE), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAppendAllRejectsOverlappingDates() {
+        MarketSeries source = MarketDataFixtures.series(10);
+        MarketSeries series = MarketDataFixtures.series(10);
+        series.appendAll(source.slice(5, 10));
+    }
+
+    @Test
+    public void testRoundTripThroughEntities() {
+        List<MarketData> history = MarketDataFixtures.history(50);
+        List<MarketData> copy = MarketSeries.fromMarketData(history).toMarketDataList();
+
+        assertEquals(history.size(), copy.size());
+        for (int i = 0; i < history.size(); i++) {
+            MarketData expected = history.get(i);
+            MarketData actual = copy.get(i);
+            assertEquals(expected.getDate(), actual.getDate());
+            assertEquals(expected.getQqqOpen(), actual.getQqqOpen(), 0.0);
+            assertEquals(expected.getQqqVolume(), actual.getQqqVolume(), 0.0);
+            assertEquals(expected.getVixLow(), actual.getVixLow(), 0.0);
+            assertEquals(expected.getGldOpen(), actual.getGldOpen(), 0.0);
+            assertEquals(expected.getShyClose(), actual.getShyClose(), 0.0);
+        }
+    }
+
+    @Test
+    public void testSliceSharesStorage() {
+        MarketSeries series = MarketDataFixtures.series(100);
+        MarketSeries slice = series.slice(10, 20);
+
+        assertEquals(10, slice.size());
+        assertEquals(series.getEpochDay(10), slice.getEpochDay(0));
+        assertArrayEquals(
+                Arrays.copyOfRange(series.toArray(MarketSeries.Field.QQQ_CLOSE), 10, 20),
+                slice.toArray(MarketSeries.Field.QQQ_CLOSE), 0.0);
+
+        // Writes through the base series are visible in the view
+        series.set(MarketSeries.Field.QQQ_CLOSE, 15, 1234.5);
+        assertEquals(1234.5, slice.getQqqClose(5), 0.0);
+
+        MarketSeries tail = series.tail(30);
+        assertEquals(30, tail.size());
+        assertEquals(series.getEpochDay(99), tail.getEpochDay(29));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSliceIsReadOnlyForAppends() {
+        MarketSeries series = MarketDataFixtures.series(10);
+        series.slice(0, 5).appendRow(series.getEpochDay(9) + 1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSliceBoundsAreChecked() {
+        MarketSeries series = MarketDataFixtures.series(10);
+        series.slice(0, 5).getQqqClose(5);
+    }
+
+    @Test
+    public void testLowerBound() {
+        MarketSeries series = new MarketSeries();
+        int[] days = {100, 102, 105, 110};
+        for (int day : days) {
+            series.appendRow(day);
+        }
+
+        assertEquals(0, series.lowerBound(50));
+        assertEquals(0, series.lowerBound(100));
+        assertEquals(1, series.lowerBound(101));
+        assertEquals(3, series.lowerBound(110));
+        assertEquals(4, series.lowerBound(111));
+        assertEquals(1, series.slice(2, 4).lowerBound(110));
+    }
+
+    @Test
+    public void testStrategySignalMatchesListPath() {
+        UserSettings settings = new UserSettings();
+        QQQ3XStrategy strategy = new QQQ3XStrategy(settings);
+        List<MarketData> history = MarketDataFixtures.history(600);
+        MarketSeries series = MarketSeries.fromMarketData(history);
+
+        int leveragedDays = 0;
+        for (int i = settings.getSmaYear() + 1; i < history.size(); i++) {
+            MarketData today = history.get(i);
+            int expected = strategy.calculateSignal(history.subList(0, i), today.getVixOpen(), today.getQqqOpen());
+            int actual = strategy.calculateSignal(series.slice(0, i), today.getVixOpen(), today.getQqqOpen());
+
+            assertEquals("Signal mismatch at " + i, expected, actual);
+            if (actual == QQQ3XStrategy.SIGNAL_LEVERAGED) {
+                leveragedDays++;
+            }
+        }
+        assertTrue("Test data should exercise the leveraged position", leveragedDays > 0);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.qqq3xstrategy.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.qqq3xstrategy.MarketDataFixtures;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Unit tests for the Monte Carlo block bootstrap
+ */
+public class MonteCarloBootstrapTest {
+
+    @Test
+    public void testSameSeedGivesSameResultOnAnyPool() {
+        double[] returns = MarketDataFixtures.returns(2000);
+
+        MonteCarloResult parallel = new MonteCarloBootstrap(returns, 0, returns.length, new ForkJoinPool(4))
+                .run(5000, 1000, 20, 7L);
+        MonteCarloResult sequential = new MonteCarloBootstrap(returns, 0, returns.length, new ForkJoinPool(1))
+                .run(5000, 1000, 20, 7L);
+
+        for (double percent : new double[] {0, 5, 50, 95, 100}) {
+            assertEquals(sequential.getMaxDrawdown().percentile(percent), parallel.getMaxDrawdown().percentile(percent), 0.0);
+            assertEquals(sequential.getCagr().percentile(percent), parallel.getCagr().percentile(percent), 0.0);
+            assertEquals(sequential.getRecoveryDays().percentile(percent), parallel.getRecoveryDays().percentile(percent), 0.0);
+        }
+    }
+
+    @Test
+    public void testConstantReturnsGiveSinglePoint() {
+        double[] returns = new double[300];
+        java.util.Arrays.fill(returns, 0.001);
+
+        MonteCarloResult result = new MonteCarloBootstrap(returns, 0, returns.length, ForkJoinPool.commonPool())
+                .run(200, 252, 10, 1L);
+
+        assertEquals(Math.pow(1.001, 252) - 1, result.getCagr().getMin(), 1e-12);
+        assertEquals(Math.pow(1.001, 252) - 1, result.getCagr().getMax(), 1e-12);
+        assertEquals(0, result.getMaxDrawdown().getMin(), 0.0);
+        assertEquals(0, result.getRecoveryDays().getMax(), 0.0);
+    }
+
+    @Test
+    public void testFullLengthBlocksReplayRotationsOfHistory() {
+        // Up 10% then down 50%: every rotation of the two days loses half from its high
+        double[] returns = {0.1, -0.5};
+
+        MonteCarloResult result = new MonteCarloBootstrap(returns, 0, returns.length, ForkJoinPool.commonPool())
+                .run(100, 2, 2, 3L);
+
+        assertEquals(-0.5, result.getMaxDrawdown().getMax(), 1e-12);
+        assertEquals(-0.5, result.getMaxDrawdown().getMin(), 1e-12);
+        assertEquals(Math.pow(1.1 * 0.5, 126) - 1, result.getCagr().getMedian(), 1e-12);
+    }
+
+    @Test
+    public void testRecoveryCountsDaysBelowHigh() {
+        // Down 10%, two flat days, then a new high
+        double[] returns = {-0.1, 0, 0, 0.2};
+
+        MonteCarloResult result = new MonteCarloBootstrap(returns, 0, returns.length, ForkJoinPool.commonPool())
+                .run(200, 4, 4, 0L);
+
+        // Starting on the first day, the path is under water for three days before its new high.
+        // Starting on the flat days, the drop is left open on the last day.
+        assertEquals(3, result.getRecoveryDays().getMax(), 0.0);
+        assertEquals(1, result.getRecoveryDays().getMin(), 0.0);
+    }
+
+    @Test
+    public void testPercentilesAreOrdered() {
+        double[] returns = MarketDataFixtures.returns(2500);
+        MonteCarloResult result = new MonteCarloBootstrap(returns, 0, returns.length, ForkJoinPool.commonPool())
+                .run(2000, 2500, 20, 11L);
+
+        double previous = Double.NEGATIVE_INFINITY;
+        for (int percent = 0; percent <= 100; percent += 5) {
+            double value = result.getMaxDrawdown().percentile(percent);
+            assertTrue(value >= previous);
+            assertTrue(value <= 0);
+            previous = value;
+        }
+        assertTrue(result.getCagr().percentile(5) < result.getCagr().percentile(95));
+    }
+
+    @Test
+    public void testPercentileInterpolatesLikeNumpy() {
+        MonteCarloResult.Distribution distribution = new MonteCarloResult.Distribution(new double[] {4, 1, 3, 2});
+
+        assertEquals(1, distribution.percentile(0), 0.0);
+        assertEquals(2.5, distribution.percentile(50), 1e-12);
+        assertEquals(3.25, distribution.percentile(75), 1e-12);
+        assertEquals(4, distribution.percentile(100), 0.0);
+        assertEquals(2.5, distribution.getMean(), 0.0);
+    }
+
+    @Test
+    public void testResamplesBacktestReportedDays() {
+        BacktestResult backtest = new BacktestResult(new int[5], new int[5],
+                new double[] {0.5, 0.5, 0.01, 0.01, 0.01}, new double[5], 2, null);
+
+        MonteCarloResult result = new MonteCarloBootstrap(backtest).run(50, 3, 3, 5L);
+
+        // The warm-up days' 50% returns are never drawn
+        assertEquals(Math.pow(1.01, 3 * 252 / 3.0) - 1, result.getCagr().getMax(), 1e-9);
+    }
+}
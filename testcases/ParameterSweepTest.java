@@ -0,0 +1,94 @@
+package com.example.qqq3xstrategy.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.qqq3xstrategy.MarketDataFixtures;
+import com.example.qqq3xstrategy.data.models.UserSettings;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Unit tests for the parallel parameter sweep
+ */
+public class ParameterSweepTest {
+
+    private UserSettings base;
+    private BacktestData data;
+    private ParameterGrid grid;
+
+    @Before
+    public void setUp() {
+        base = new UserSettings();
+        data = MarketDataFixtures.backtestData(1200);
+        grid = new ParameterGrid(
+                new int[] {3, 5}, new int[] {10, 15},
+                new int[] {1}, new int[] {3, 5},
+                new int[] {3}, new int[] {9},
+                ParameterGrid.range(100, 200, 50));
+    }
+
+    @Test
+    public void testGridIndexCoversEveryCombination() {
+        assertEquals(24, grid.size());
+
+        Set<String> combinations = new HashSet<>();
+        for (int i = 0; i < grid.size(); i++) {
+            UserSettings settings = grid.get(i, base);
+            assertEquals(base.getTargetLeverage(), settings.getTargetLeverage(), 0.0);
+            combinations.add(settings.getSmaShort() + "/" + settings.getSmaLong() + "/" +
+                    settings.getSmaLong2() + "/" + settings.getSmaYear());
+        }
+        assertEquals(24, combinations.size());
+    }
+
+    @Test
+    public void testGridSearchMatchesSequentialBacktests() {
+        List<SweepResult> results = new ParameterSweep(data, base, new ForkJoinPool(4))
+                .gridSearch(grid, ParameterSweep.Ranking.CAGR);
+
+        assertEquals(grid.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            SweepResult result = results.get(i);
+            BacktestMetrics expected = new BacktestEngine(result.getSettings()).run(data).getMetrics();
+            assertEquals(expected.getCagr(), result.getMetrics().getCagr(), 0.0);
+
+            if (i > 0) {
+                assertTrue("Results should be ranked by CAGR",
+                        results.get(i - 1).getMetrics().getCagr() >= result.getMetrics().getCagr());
+            }
+        }
+    }
+
+    @Test
+    public void testRankingByDrawdownAndSharpe() {
+        ParameterSweep sweep = new ParameterSweep(data, base);
+
+        List<SweepResult> byDrawdown = sweep.gridSearch(grid, ParameterSweep.Ranking.MAX_DRAWDOWN);
+        List<SweepResult> bySharpe = sweep.gridSearch(grid, ParameterSweep.Ranking.SHARPE);
+
+        for (int i = 1; i < byDrawdown.size(); i++) {
+            assertTrue(byDrawdown.get(i - 1).getMetrics().getMaxDrawdown() >= byDrawdown.get(i).getMetrics().getMaxDrawdown());
+            assertTrue(bySharpe.get(i - 1).getMetrics().getSharpe() >= bySharpe.get(i).getMetrics().getSharpe());
+        }
+    }
+
+    @Test
+    public void testRandomSearchIsReproducible() {
+        ParameterSweep sweep = new ParameterSweep(data, base);
+
+        List<SweepResult> first = sweep.randomSearch(grid, 50, 42L, ParameterSweep.Ranking.SHARPE);
+        List<SweepResult> second = sweep.randomSearch(grid, 50, 42L, ParameterSweep.Ranking.SHARPE);
+
+        assertEquals(50, first.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getMetrics().getSharpe(), second.get(i).getMetrics().getSharpe(), 0.0);
+        }
+    }
+}
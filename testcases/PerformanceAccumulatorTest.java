@@ -0,0 +1,161 @@
+package com.example.qqq3xstrategy.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.qqq3xstrategy.MarketDataFixtures;
+import com.example.qqq3xstrategy.data.models.UserSettings;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+/**
+ * Unit tests for the streaming performance statistics
+ */
+public class PerformanceAccumulatorTest {
+    private static final double DAILY_RISK_FREE = 0.04 / 252;
+
+    @Test
+    public void testMatchesTwoPassStatistics() {
+        double[] returns = MarketDataFixtures.returns(3000);
+        PerformanceAccumulator performance = new PerformanceAccumulator();
+        for (double dailyReturn : returns) {
+            performance.add(dailyReturn);
+        }
+
+        // Straightforward versions over the stored series
+        double mean = 0;
+        for (double dailyReturn : returns) {
+            mean += dailyReturn;
+        }
+        mean /= returns.length;
+        double squares = 0;
+        double downside = 0;
+        int wins = 0;
+        for (double dailyReturn : returns) {
+            squares += (dailyReturn - mean) * (dailyReturn - mean);
+            double excess = dailyReturn - DAILY_RISK_FREE;
+            downside += excess < 0 ? excess * excess : 0;
+            wins += dailyReturn > 0 ? 1 : 0;
+        }
+        double std = Math.sqrt(squares / (returns.length - 1));
+
+        double nav = 1;
+        double first = 0;
+        double peak = 0;
+        double maxDrawdown = 0;
+        for (int i = 0; i < returns.length; i++) {
+            nav *= 1 + returns[i];
+            first = i == 0 ? nav : first;
+            peak = Math.max(peak, nav);
+            maxDrawdown = Math.min(maxDrawdown, nav / peak - 1);
+        }
+        double cagr = Math.pow(nav / first, 252.0 / (returns.length - 1)) - 1;
+
+        assertEquals(3000, performance.getCount());
+        assertEquals(nav / first - 1, performance.getTotalReturn(), 1e-9);
+        assertEquals(cagr, performance.getCagr(), 1e-9);
+        assertEquals(std * Math.sqrt(252), performance.getVolatility(), 1e-12);
+        assertEquals((mean - DAILY_RISK_FREE) / std * Math.sqrt(252), performance.getSharpe(), 1e-9);
+        assertEquals((mean - DAILY_RISK_FREE) / Math.sqrt(downside / returns.length) * Math.sqrt(252),
+                performance.getSortino(), 1e-9);
+        assertEquals(maxDrawdown, performance.getMaxDrawdown(), 1e-12);
+        assertEquals(cagr / -maxDrawdown, performance.getCalmar(), 1e-9);
+        assertEquals(wins / 3000.0, performance.getWinRate(), 0.0);
+    }
+
+    @Test
+    public void testBacktestMetricsMatchEngine() {
+        BacktestData data = MarketDataFixtures.backtestData(1500);
+        BacktestEngine engine = new BacktestEngine(new UserSettings());
+        BacktestResult result = engine.run(data);
+
+        PerformanceAccumulator performance = new PerformanceAccumulator();
+        BacktestMetrics metrics = engine.evaluate(data, performance);
+        PerformanceAccumulator replay = new PerformanceAccumulator();
+        for (int i = result.getStartIndex(); i < result.size(); i++) {
+            replay.add(result.getReturns()[i]);
+        }
+
+        assertEquals(result.getMetrics().getCagr(), metrics.getCagr(), 0.0);
+        assertEquals(result.getMetrics().getSharpe(), replay.getSharpe(), 0.0);
+        assertEquals(result.getMetrics().getMaxDrawdown(), replay.getMaxDrawdown(), 0.0);
+        assertEquals(replay.getSortino(), performance.getSortino(), 0.0);
+    }
+
+    @Test
+    public void testDatedDrawdownAndCalendarYears() {
+        PerformanceAccumulator performance = new PerformanceAccumulator();
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        double[] returns = {0.01, 0.10, -0.20, -0.10, 0.05, 0.40};
+        for (int i = 0; i < returns.length; i++) {
+            performance.add(start.plusDays(i * 7), returns[i]);
+        }
+
+        assertEquals(start.plusDays(7), performance.getMaxDrawdownStart());
+        assertEquals(start.plusDays(21), performance.getMaxDrawdownEnd());
+        assertEquals(14, performance.getMaxDrawdownDuration());
+        assertEquals(0.8 * 0.9 - 1, performance.getMaxDrawdown(), 1e-12);
+        assertEquals(35 / 365.25, performance.getYears(), 1e-12);
+    }
+
+    @Test
+    public void testUndatedDrawdownCountsTradingDays() {
+        PerformanceAccumulator performance = new PerformanceAccumulator();
+        for (double dailyReturn : new double[] {0.05, -0.1, -0.1, 0.3}) {
+            performance.add(dailyReturn);
+        }
+
+        assertNull(performance.getMaxDrawdownStart());
+        assertEquals(2, performance.getMaxDrawdownDuration());
+    }
+
+    @Test
+    public void testCapmRegression() {
+        PerformanceAccumulator performance = new PerformanceAccumulator();
+        LocalDate start = LocalDate.of(2015, 1, 2);
+        for (int i = 0; i < 2000; i++) {
+            double market = 0.01 * Math.sin(i / 5.0);
+            double noise = 0.002 * Math.cos(i * 1.7);
+            // Excess return of twice the market's plus a daily alpha of 0.0005
+            double strategy = DAILY_RISK_FREE + 0.0005 + 2 * (market - DAILY_RISK_FREE) + noise;
+            performance.add(start.plusDays(i), strategy, market);
+        }
+
+        assertTrue(performance.hasMarket());
+        assertEquals(2, performance.getBeta(), 0.01);
+        assertEquals(0.0005, performance.getDailyAlpha(), 0.0001);
+        assertTrue(performance.getAlphaPValue() < 0.01);
+    }
+
+    @Test
+    public void testStudentTTail() {
+        assertEquals(0.5, PerformanceAccumulator.studentTUpperTail(0, 5), 1e-12);
+        // Cauchy: P(T > 1) = 1/4
+        assertEquals(0.25, PerformanceAccumulator.studentTUpperTail(1, 1), 1e-9);
+        assertEquals(0.036694, PerformanceAccumulator.studentTUpperTail(2, 10), 1e-6);
+        assertEquals(1 - 0.036694, PerformanceAccumulator.studentTUpperTail(-2, 10), 1e-6);
+    }
+
+    @Test
+    public void testReportSections() {
+        PerformanceAccumulator performance = new PerformanceAccumulator();
+        double[] returns = MarketDataFixtures.returns(500);
+        for (int i = 0; i < returns.length; i++) {
+            performance.add(LocalDate.of(2020, 1, 1).plusDays(i), returns[i]);
+        }
+        String report = performance.report();
+
+        assertTrue(report.contains("Period: 2020-01-01 to " + LocalDate.of(2020, 1, 1).plusDays(499)));
+        assertTrue(report.contains("Trading Days: 500"));
+        assertTrue(report.contains("Sortino Ratio: "));
+        assertFalse("No market returns, so no CAPM section", report.contains("CAPM"));
+
+        performance.reset();
+        assertEquals(0, performance.getCount());
+        assertEquals(0, performance.getMaxDrawdown(), 0.0);
+    }
+}
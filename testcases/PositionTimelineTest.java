@@ -0,0 +1,173 @@
+package com.example.qqq3xstrategy.data.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Unit tests for the run-length encoded position timeline
+ */
+public class PositionTimelineTest {
+    private static final LocalDate START = LocalDate.of(2020, 12, 28);
+
+    @Test
+    public void testConsecutiveDaysWithSameSignalShareARun() {
+        PositionTimeline timeline = createTimeline(new int[]{1, 1, 1, -1, -1, 1});
+
+        assertEquals(3, timeline.size());
+        assertEquals(START, timeline.getRunStart(0));
+        assertEquals(START.plusDays(2), timeline.getRunEnd(0));
+        assertEquals(3, timeline.getRunDays(0));
+        assertEquals(-1, timeline.getRunSignal(1));
+        assertEquals(2, timeline.getRunDays(1));
+        assertEquals(START.plusDays(5), timeline.getRunStart(2));
+    }
+
+    @Test
+    public void testSafeAssetChangeStartsARun() {
+        PositionTimeline timeline = new PositionTimeline();
+        timeline.append(START, -1, "GLD");
+        timeline.append(START.plusDays(1), -1, "SHY");
+
+        assertEquals(2, timeline.size());
+        assertEquals("GLD", timeline.getRunSafeAsset(0));
+        assertEquals("SHY", timeline.getRunSafeAsset(1));
+    }
+
+    @Test
+    public void testFindRunMatchesLinearScan() {
+        Random random = new Random(7);
+        int[] signals = new int[500];
+        for (int i = 0; i < signals.length; i++) {
+            signals[i] = i > 0 && random.nextInt(10) > 0 ? signals[i - 1] : (random.nextBoolean() ? 1 : -1);
+        }
+        PositionTimeline timeline = createTimeline(signals);
+
+        assertEquals(-1, timeline.findRun(START.minusDays(1)));
+        assertEquals(0, timeline.getSignalOn(START.minusDays(1)));
+        for (int i = 0; i < signals.length; i++) {
+            LocalDate date = START.plusDays(i);
+            assertEquals(signals[i], timeline.getSignalOn(date));
+            int run = timeline.findRun(date);
+            assertTrue(!timeline.getRunStart(run).isAfter(date) && !timeline.getRunEnd(run).isBefore(date));
+        }
+        // Days after the last stored one keep the last position
+        assertEquals(timeline.size() - 1, timeline.findRun(LocalDate.MAX));
+    }
+
+    @Test
+    public void testGapsBetweenStoredDaysBelongToThePreviousRun() {
+        PositionTimeline timeline = new PositionTimeline();
+        timeline.append(LocalDate.of(2024, 1, 5), 1, "GLD");
+        timeline.append(LocalDate.of(2024, 1, 8), -1, "GLD");
+
+        assertEquals(1, timeline.getSignalOn(LocalDate.of(2024, 1, 6)));
+        assertEquals(-1, timeline.getSignalOn(LocalDate.of(2024, 1, 8)));
+    }
+
+    @Test
+    public void testHoldingStats() {
+        PositionTimeline timeline = createTimeline(new int[]{1, 1, 1, -1, 1, -1, -1, 1, 1});
+
+        PositionTimeline.HoldingStats leveraged = timeline.getHoldingStats(1);
+        assertEquals(3, leveraged.getPeriods());
+        assertEquals(6, leveraged.getTotalDays());
+        assertEquals(3, leveraged.getLongestDays());
+        assertEquals(2.0, leveraged.getAverageDays(), 1e-12);
+
+        PositionTimeline.HoldingStats safe = timeline.getHoldingStats(-1);
+        assertEquals(2, safe.getPeriods());
+        assertEquals(3, safe.getTotalDays());
+        assertEquals(2, safe.getLongestDays());
+
+        // Only runs starting in the range count
+        PositionTimeline.HoldingStats later = timeline.getHoldingStats(1, START.plusDays(1), START.plusDays(7));
+        assertEquals(2, later.getPeriods());
+        assertEquals(3, later.getTotalDays());
+
+        assertEquals(0, new PositionTimeline().getHoldingStats(1).getPeriods());
+        assertEquals(0, new PositionTimeline().getHoldingStats(1).getAverageDays(), 0);
+    }
+
+    @Test
+    public void testTimeInMarketPerYear() {
+        // Dec 28 to Dec 31 2020, then Jan 1 to Jan 4 2021
+        PositionTimeline timeline = createTimeline(new int[]{1, 1, 1, -1, -1, 1, 1, 1});
+
+        assertEquals(2020, timeline.getFirstYear());
+        assertEquals(2021, timeline.getLastYear());
+        assertEquals(4, timeline.getTradingDays(2020));
+        assertEquals(0.75, timeline.getTimeInMarket(2020), 1e-12);
+        assertEquals(4, timeline.getTradingDays(2021));
+        assertEquals(0.75, timeline.getTimeInMarket(2021), 1e-12);
+        assertEquals(0, timeline.getTimeInMarket(2019), 0);
+        assertEquals(0, timeline.getTradingDays(2030));
+    }
+
+    @Test
+    public void testAppendingTheLastDateReplacesIt() {
+        PositionTimeline timeline = createTimeline(new int[]{1, 1, 1});
+
+        timeline.append(START.plusDays(2), -1, "GLD");
+        assertEquals(2, timeline.size());
+        assertEquals(START.plusDays(1), timeline.getRunEnd(0));
+        assertEquals(2, timeline.getRunDays(0));
+        assertEquals(-1, timeline.getSignalOn(START.plusDays(2)));
+        assertEquals(2.0 / 3, timeline.getTimeInMarket(2020), 1e-12);
+
+        // Replacing it again with the original signal merges the runs back
+        timeline.append(START.plusDays(2), 1, "GLD");
+        assertEquals(1, timeline.size());
+        assertEquals(3, timeline.getRunDays(0));
+        assertEquals(START.plusDays(2), timeline.getRunEnd(0));
+        assertEquals(1.0, timeline.getTimeInMarket(2020), 1e-12);
+    }
+
+    @Test
+    public void testEarlierDateIsRejected() {
+        PositionTimeline timeline = createTimeline(new int[]{1, 1});
+        try {
+            timeline.append(START, -1, "GLD");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        assertEquals(2, timeline.getRunDays(0));
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        PositionTimeline timeline = createTimeline(new int[]{1, -1});
+        PositionTimeline copy = timeline.copy();
+
+        copy.append(START.plusDays(2), 1, "GLD");
+        timeline.append(START.plusDays(2), -1, "GLD");
+
+        assertEquals(3, copy.size());
+        assertEquals(2, timeline.size());
+        assertEquals(1, copy.getSignalOn(START.plusDays(2)));
+        assertEquals(-1, timeline.getSignalOn(START.plusDays(2)));
+    }
+
+    @Test
+    public void testAppendSignalHistory() {
+        PositionTimeline timeline = new PositionTimeline();
+        timeline.append(new SignalHistory(START, 1, 1, true, "SHY"));
+
+        assertEquals(1, timeline.getSignalOn(START));
+        assertEquals("SHY", timeline.getRunSafeAsset(0));
+    }
+
+    private static PositionTimeline createTimeline(int[] signals) {
+        PositionTimeline timeline = new PositionTimeline();
+        for (int i = 0; i < signals.length; i++) {
+            timeline.append(START.plusDays(i), signals[i], "GLD");
+        }
+        return timeline;
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.qqq3xstrategy.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.example.qqq3xstrategy.util.PriorityExecutor.LaneStats;
+import com.example.qqq3xstrategy.util.PriorityExecutor.Overflow;
+import com.example.qqq3xstrategy.util.PriorityExecutor.Priority;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the priority lane executor
+ */
+public class PriorityExecutorTest {
+
+    private PriorityExecutor executor;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testUserTasksStartBeforeQueuedBackgroundTasks() throws InterruptedException {
+        executor = new PriorityExecutor.Builder("test", 1).build();
+        CountDownLatch release = blockThreads(Priority.BACKGROUND, 1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(4);
+
+        executor.lane(Priority.BACKGROUND).execute(record(order, "b1", done));
+        executor.lane(Priority.BACKGROUND).execute(record(order, "b2", done));
+        executor.lane(Priority.USER).execute(record(order, "u1", done));
+        executor.lane(Priority.USER).execute(record(order, "u2", done));
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("u1", "u2", "b1", "b2"), order);
+    }
+
+    @Test
+    public void testUserTaskDoesNotWaitForRunningSerialLane() throws InterruptedException {
+        executor = new PriorityExecutor.Builder("test", 2)
+                .lane(Priority.BACKGROUND, 16, 1, Overflow.REJECT)
+                .build();
+        CountDownLatch release = blockThreads(Priority.BACKGROUND, 1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch backgroundDone = new CountDownLatch(1);
+        CountDownLatch userDone = new CountDownLatch(1);
+
+        // Queued behind the blocked task on its own lane, even though a thread is idle
+        executor.lane(Priority.BACKGROUND).execute(record(order, "b", backgroundDone));
+        executor.lane(Priority.USER).execute(record(order, "u", userDone));
+
+        assertTrue(userDone.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("u"), order);
+        assertEquals(1, executor.getStats(Priority.BACKGROUND).getQueueDepth());
+
+        release.countDown();
+        assertTrue(backgroundDone.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("u", "b"), order);
+    }
+
+    @Test
+    public void testSerialLaneKeepsSubmissionOrder() throws InterruptedException {
+        executor = new PriorityExecutor.Builder("test", 3)
+                .lane(Priority.BACKGROUND, 100, 1, Overflow.BLOCK)
+                .build();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(50);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int task = i;
+            expected.add(task);
+            executor.lane(Priority.BACKGROUND).execute(() -> {
+                order.add(task);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(expected, order);
+    }
+
+    @Test
+    public void testRejectPolicyThrowsWhenFull() throws InterruptedException {
+        executor = new PriorityExecutor.Builder("test", 1)
+                .lane(Priority.USER, 1, 1, Overflow.REJECT)
+                .build();
+        CountDownLatch release = blockThreads(Priority.USER, 1);
+        executor.lane(Priority.USER).execute(() -> { });
+
+        try {
+            executor.lane(Priority.USER).execute(() -> { });
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException expected) {
+            // Expected
+        }
+        LaneStats stats = executor.getStats(Priority.USER);
+        assertEquals(1, stats.getRejected());
+        assertEquals(1, stats.getQueueDepth());
+        release.countDown();
+    }
+
+    @Test
+    public void testCallerRunsPolicyRunsOnSubmittingThread() throws InterruptedException {
+        executor = new PriorityExecutor.Builder("test", 1)
+                .lane(Priority.BACKGROUND, 1, 1, Overflow.CALLER_RUNS)
+                .build();
+        CountDownLatch release = blockThreads(Priority.BACKGROUND, 1);
+        executor.lane(Priority.BACKGROUND).execute(() -> { });
+
+        Thread[] ranOn = new Thread[1];
+        executor.lane(Priority.BACKGROUND).execute(() -> ranOn[0] = Thread.currentThread());
+
+        assertSame(Thread.currentThread(), ranOn[0]);
+        assertEquals(1, executor.getStats(Priority.BACKGROUND).getRejected());
+        release.countDown();
+    }
+
+    @Test
+    public void testDiscardOldestPolicyDropsQueuedTask() throws InterruptedException {
+        executor = new PriorityExecutor.Builder("test", 1)
+                .lane(Priority.BACKGROUND, 2, 1, Overflow.DISCARD_OLDEST)
+                .build();
+        CountDownLatch release = blockThreads(Priority.BACKGROUND, 1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(2);
+
+        executor.lane(Priority.BACKGROUND).execute(record(order, "oldest", done));
+        executor.lane(Priority.BACKGROUND).execute(record(order, "middle", done));
+        executor.lane(Priority.BACKGROUND).execute(record(order, "newest", done));
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("middle", "newest"), order);
+        assertEquals(1, executor.getStats(Priority.BACKGROUND).getRejected());
+    }
+
+    @Test
+    public void testBlockPolicyWaitsForSpace() throws InterruptedException {
+        executor = new PriorityExecutor.Builder("test", 1)
+                .lane(Priority.BACKGROUND, 1, 1, Overflow.BLOCK)
+                .build();
+        CountDownLatch release = blockThreads(Priority.BACKGROUND, 1);
+        executor.lane(Priority.BACKGROUND).execute(() -> { });
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            executor.lane(Priority.BACKGROUND).execute(() -> { });
+            submitted.countDown();
+        });
+        producer.start();
+
+        assertFalse(submitted.await(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        assertEquals(0, executor.getStats(Priority.BACKGROUND).getRejected());
+    }
+
+    @Test
+    public void testStatsRecordWaitAndRunTimes() throws InterruptedException {
+        executor = new PriorityExecutor.Builder("test", 1).build();
+        CountDownLatch release = blockThreads(Priority.BACKGROUND, 1);
+        CountDownLatch done = new CountDownLatch(1);
+        executor.lane(Priority.USER).execute(done::countDown);
+
+        Thread.sleep(20);
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        LaneStats user = executor.getStats(Priority.USER);
+        assertEquals(1, user.getSubmitted());
+        assertEquals(1, user.getCompleted());
+        assertEquals(0, user.getQueueDepth());
+        assertTrue(user.getMaxWaitMillis() >= 20);
+        LaneStats background = executor.getStats(Priority.BACKGROUND);
+        assertEquals(1, background.getCompleted());
+        assertTrue(background.getAverageRunMillis() >= 20);
+    }
+
+    @Test
+    public void testWorkerSurvivesFailingTask() throws InterruptedException {
+        executor = new PriorityExecutor.Builder("test", 1).build();
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.lane(Priority.BACKGROUND).execute(() -> {
+            throw new IllegalStateException("boom");
+        });
+        executor.lane(Priority.BACKGROUND).execute(done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDirectModeRunsInline() {
+        executor = new PriorityExecutor.Builder("test", 0).build();
+        List<String> order = new ArrayList<>();
+
+        executor.lane(Priority.BACKGROUND).execute(() -> order.add("b"));
+        executor.lane(Priority.USER).execute(() -> order.add("u"));
+
+        assertEquals(Arrays.asList("b", "u"), order);
+        assertEquals(1, executor.getStats(Priority.USER).getCompleted());
+        assertEquals(1, executor.getStats(Priority.BACKGROUND).getCompleted());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testShutdownRejectsNewTasks() {
+        executor = new PriorityExecutor.Builder("test", 1).build();
+        executor.shutdown();
+        executor.lane(Priority.USER).execute(() -> { });
+    }
+
+    /**
+     * Occupy {@code count} threads with tasks on one lane until the returned latch is released
+     */
+    private CountDownLatch blockThreads(Priority priority, int count) throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            executor.lane(priority).execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private static Runnable record(List<String> order, String name, CountDownLatch done) {
+        return () -> {
+            order.add(name);
+            done.countDown();
+        };
+    }
+}
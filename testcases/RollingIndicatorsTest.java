@@ -0,0 +1,121 @@
+package com.example.qqq3xstrategy.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.qqq3xstrategy.data.models.MarketData;
+import com.example.qqq3xstrategy.data.models.UserSettings;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for the rolling-window indicators
+ */
+public class RollingIndicatorsTest {
+
+    private UserSettings settings;
+
+    @Before
+    public void setUp() {
+        settings = new UserSettings();
+    }
+
+    @Test
+    public void testRollingSmaMatchesFullRecalculation() {
+        RollingSma sma = new RollingSma(5);
+        double[] prices = new double[3000];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 100 + 50 * Math.sin(i / 7.0) + i * 0.01;
+            sma.add(prices[i]);
+
+            if (i < 4) {
+                assertFalse("SMA should not be ready before a full window", sma.isReady());
+                assertEquals("SMA should be 0 before a full window", 0.0, sma.value(), 0.0);
+            } else {
+                double expected = 0;
+                for (int j = i - 4; j <= i; j++) {
+                    expected += prices[j];
+                }
+                assertEquals("Rolling SMA should match recalculation at " + i, expected / 5, sma.value(), 1e-9);
+            }
+        }
+        assertTrue(sma.isReady());
+    }
+
+    @Test
+    public void testRollingSmaReset() {
+        RollingSma sma = new RollingSma(2);
+        sma.add(10);
+        sma.add(20);
+        sma.reset();
+        sma.add(30);
+
+        assertFalse("SMA should not be ready after reset", sma.isReady());
+        sma.add(40);
+        assertEquals(35.0, sma.value(), 0.0);
+    }
+
+    @Test
+    public void testSignalMatchesListCalculation() {
+        QQQ3XStrategy strategy = new QQQ3XStrategy(settings);
+        List<MarketData> history = createHistory(400);
+        RollingIndicators indicators = strategy.createIndicators();
+
+        // Feed the bars one by one and compare with the list-based calculation each day
+        for (int i = 0; i < history.size(); i++) {
+            indicators.append(history.get(i));
+            List<MarketData> window = history.subList(0, i + 1);
+
+            for (double vixOpen : new double[] {15.0, 24.0, 35.0, 70.0}) {
+                double qqqOpen = history.get(i).getQqqClose() * 1.01;
+                assertEquals("Signal mismatch at bar " + i,
+                        strategy.calculateSignal(window, vixOpen, qqqOpen),
+                        strategy.calculateSignal(indicators, vixOpen, qqqOpen));
+            }
+        }
+    }
+
+    @Test
+    public void testFromHistoryOnlyReplaysRequiredTail() {
+        List<MarketData> history = createHistory(1000);
+        RollingIndicators seeded = RollingIndicators.fromHistory(settings, history);
+        RollingIndicators replayed = new RollingIndicators(settings);
+        for (MarketData bar : history) {
+            replayed.append(bar);
+        }
+
+        assertEquals(history.size(), seeded.size());
+        assertEquals(replayed.getQqqSmaYear(), seeded.getQqqSmaYear(), 1e-9);
+        assertEquals(replayed.getGldSma(), seeded.getGldSma(), 1e-9);
+        assertEquals(replayed.getVixSmaLong3(), seeded.getVixSmaLong3(), 1e-9);
+        assertEquals(replayed.getLastVixClose(), seeded.getLastVixClose(), 0.0);
+    }
+
+    private List<MarketData> createHistory(int days) {
+        List<MarketData> data = new ArrayList<>();
+        LocalDate startDate = LocalDate.of(2020, 1, 1);
+
+        for (int i = 0; i < days; i++) {
+            double qqq = 300 + 40 * Math.sin(i / 30.0) + i * 0.1;
+            double vix = 25 + 15 * Math.sin(i / 11.0);
+
+            MarketData point = new MarketData();
+            point.setDate(startDate.plusDays(i));
+            point.setQqqOpen(qqq * 0.995);
+            point.setQqqClose(qqq);
+            point.setVixOpen(vix * 1.02);
+            point.setVixClose(vix);
+            point.setGldOpen(180);
+            point.setGldClose(180 + i * 0.05);
+            data.add(point);
+        }
+
+        return data;
+    }
+}
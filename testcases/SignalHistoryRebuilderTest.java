@@ -0,0 +1,163 @@
+package com.example.qqq3xstrategy.data.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.qqq3xstrategy.MarketDataFixtures;
+import com.example.qqq3xstrategy.data.models.MarketSeries;
+import com.example.qqq3xstrategy.data.models.SignalHistory;
+import com.example.qqq3xstrategy.data.models.UserSettings;
+import com.example.qqq3xstrategy.strategy.ConditionVector;
+import com.example.qqq3xstrategy.strategy.ConditionVector.Condition;
+import com.example.qqq3xstrategy.strategy.QQQ3XStrategy;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Unit tests for the bulk signal history recomputation
+ */
+public class SignalHistoryRebuilderTest {
+
+    private UserSettings settings;
+    private MarketSeries series;
+
+    @Before
+    public void setUp() {
+        settings = new UserSettings();
+        series = MarketDataFixtures.choppySeries(600);
+    }
+
+    @Test
+    public void testRowsStartOnceHistoryIsLongEnough() {
+        List<SignalHistory> rows = SignalHistoryRebuilder.compute(series, settings);
+
+        int first = settings.getSmaYear() + 1;
+        assertEquals(series.size() - first, rows.size());
+        assertEquals(series.getDate(first), rows.get(0).getDate());
+        assertEquals(series.getDate(series.size() - 1), rows.get(rows.size() - 1).getDate());
+        for (SignalHistory row : rows) {
+            assertEquals(settings.getPreferredSafeAsset(), row.getSafeAsset());
+        }
+    }
+
+    @Test
+    public void testRawSignalsMatchDailyCalculation() {
+        List<SignalHistory> rows = SignalHistoryRebuilder.compute(series, settings);
+        QQQ3XStrategy strategy = new QQQ3XStrategy(settings);
+
+        int first = settings.getSmaYear() + 1;
+        int fired = 0;
+        for (int r = 0; r < rows.size(); r += 7) {
+            int i = first + r;
+            // The daily calculation sees the history up to yesterday and today's opens
+            int daily = strategy.calculateSignal(series.slice(0, i), series.getVixOpen(i), series.getQqqOpen(i));
+            Integer raw = rows.get(r).getRawSignal();
+            if (raw != null) {
+                assertEquals(series.getDate(i).toString(), daily, raw.intValue());
+                fired++;
+            } else {
+                assertEquals(QQQ3XStrategy.SIGNAL_SAFE, daily);
+            }
+        }
+        assertTrue(fired > 0);
+    }
+
+    @Test
+    public void testRowsKeepConditionsAndSmas() {
+        List<SignalHistory> rows = SignalHistoryRebuilder.compute(series, settings);
+        QQQ3XStrategy strategy = new QQQ3XStrategy(settings);
+        ConditionVector conditions = new ConditionVector();
+
+        int first = settings.getSmaYear() + 1;
+        for (int r = 0; r < rows.size(); r += 11) {
+            int i = first + r;
+            strategy.evaluate(series.slice(0, i), series.getVixOpen(i), series.getQqqOpen(i), conditions);
+            SignalHistory row = rows.get(r);
+
+            assertEquals(Integer.valueOf(conditions.getMask()), row.getConditionMask());
+            assertEquals(conditions.getQqqSmaYear(), row.getQqqSmaYear(), 1e-9);
+            assertEquals(conditions.getQqqSmaShort(), row.getQqqSmaShort(), 1e-9);
+            assertEquals(conditions.getVixSmaLong(), row.getVixSmaLong(), 1e-9);
+            assertEquals(conditions.get(Condition.SAFE_COND), row.hasCondition(Condition.SAFE_COND));
+        }
+    }
+
+    @Test
+    public void testSignalIsForwardFilled() {
+        List<SignalHistory> rows = SignalHistoryRebuilder.compute(series, settings);
+
+        int held = 0;
+        int changes = 0;
+        for (int r = 1; r < rows.size(); r++) {
+            SignalHistory row = rows.get(r);
+            int previous = rows.get(r - 1).getSignal();
+            if (row.getRawSignal() == null) {
+                assertEquals(previous, row.getSignal().intValue());
+                held++;
+            } else {
+                assertEquals(row.getRawSignal(), row.getSignal());
+            }
+            assertEquals(row.getSignal() != previous, row.getPositionChanged());
+            if (row.getPositionChanged()) {
+                changes++;
+            }
+        }
+        assertTrue(held > 0);
+        assertTrue(changes > 0);
+    }
+
+    @Test
+    public void testDailyRowMatchesRecomputedRow() {
+        List<SignalHistory> rows = SignalHistoryRebuilder.compute(series, settings);
+
+        int first = settings.getSmaYear() + 1;
+        for (int r = 0; r < rows.size(); r += 5) {
+            int i = first + r;
+            // The service sees the stored days before today and today's opens
+            SignalHistory daily = SignalHistoryRebuilder.computeDay(series.slice(0, i), series.getDate(i),
+                    series.getVixOpen(i), series.getQqqOpen(i), r > 0 ? rows.get(r - 1) : null, settings);
+            SignalHistory row = rows.get(r);
+
+            String date = row.getDate().toString();
+            assertEquals(date, row.getDate(), daily.getDate());
+            assertEquals(date, row.getRawSignal(), daily.getRawSignal());
+            assertEquals(date, row.getSignal(), daily.getSignal());
+            assertEquals(date, row.getPositionChanged(), daily.getPositionChanged());
+            assertEquals(date, row.getSafeAsset(), daily.getSafeAsset());
+            assertEquals(date, row.getConditionMask(), daily.getConditionMask());
+            assertEquals(row.getQqqSmaYear(), daily.getQqqSmaYear(), 1e-9);
+            assertEquals(row.getQqqSmaLong(), daily.getQqqSmaLong(), 1e-9);
+            assertEquals(row.getQqqSmaShort(), daily.getQqqSmaShort(), 1e-9);
+            assertEquals(row.getVixSmaShort(), daily.getVixSmaShort(), 1e-9);
+            assertEquals(row.getVixSmaLong(), daily.getVixSmaLong(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testDailyRowNeedsHistory() {
+        int first = settings.getSmaYear() + 1;
+        assertNull(SignalHistoryRebuilder.computeDay(series.slice(0, first - 1), series.getDate(first - 1),
+                series.getVixOpen(first - 1), series.getQqqOpen(first - 1), null, settings));
+    }
+
+    @Test
+    public void testNotEnoughHistory() {
+        assertTrue(SignalHistoryRebuilder.compute(series.slice(0, settings.getSmaYear() + 1), settings).isEmpty());
+
+        MarketSeries empty = new MarketSeries();
+        assertTrue(SignalHistoryRebuilder.compute(empty, settings).isEmpty());
+    }
+
+    @Test
+    public void testLongHistoryInOnePass() {
+        MarketSeries longSeries = MarketDataFixtures.choppySeries(5000);
+
+        List<SignalHistory> rows = SignalHistoryRebuilder.compute(longSeries, settings);
+
+        assertEquals(5000 - settings.getSmaYear() - 1, rows.size());
+    }
+}
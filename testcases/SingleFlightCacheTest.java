@@ -0,0 +1,121 @@
+package com.example.qqq3xstrategy.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the single-flight request cache
+ */
+public class SingleFlightCacheTest {
+
+    private long now;
+    private SingleFlightCache<String, String> cache;
+    private AtomicInteger loads;
+
+    @Before
+    public void setUp() {
+        now = 0;
+        cache = new SingleFlightCache<>(10, TimeUnit.SECONDS, () -> now);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void testConcurrentRequestsShareOneLoad() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> first = cache.get("quote", () -> load(pending));
+        CompletableFuture<String> second = cache.get("quote", () -> load(pending));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        pending.complete("QQQ");
+        assertEquals("QQQ", second.join());
+        assertEquals(1, cache.getLoadCount());
+        assertEquals(1, cache.getSharedCount());
+    }
+
+    @Test
+    public void testResultIsCachedUntilTtlExpires() {
+        cache.get("quote", () -> load(CompletableFuture.completedFuture("a")));
+
+        now += TimeUnit.SECONDS.toNanos(9);
+        assertEquals("a", cache.get("quote", () -> load(CompletableFuture.completedFuture("b"))).join());
+        assertEquals(1, loads.get());
+
+        now += TimeUnit.SECONDS.toNanos(2);
+        assertEquals("b", cache.get("quote", () -> load(CompletableFuture.completedFuture("b"))).join());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testKeysAreIndependent() {
+        cache.get("QQQ|1d|2y", () -> load(CompletableFuture.completedFuture("qqq")));
+        CompletableFuture<String> vix = cache.get("^VIX|1d|2y", () -> load(CompletableFuture.completedFuture("vix")));
+
+        assertEquals("vix", vix.join());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testFailuresAreNotCached() {
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        CompletableFuture<String> first = cache.get("quote", () -> load(failed));
+        failed.completeExceptionally(new RuntimeException("HTTP 429"));
+
+        assertTrue(first.isCompletedExceptionally());
+        assertEquals("ok", cache.get("quote", () -> load(CompletableFuture.completedFuture("ok"))).join());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testInvalidateForcesReload() {
+        cache.get("quote", () -> load(CompletableFuture.completedFuture("a")));
+        cache.invalidate("quote");
+
+        assertEquals("b", cache.get("quote", () -> load(CompletableFuture.completedFuture("b"))).join());
+    }
+
+    @Test
+    public void testRefreshStormFromManyThreads() throws Exception {
+        SingleFlightCache<String, String> realTime = new SingleFlightCache<>(10, TimeUnit.SECONDS);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<CompletableFuture<String>>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return realTime.get("quote", () -> load(pending));
+            }));
+        }
+        start.countDown();
+        pending.complete("shared");
+
+        for (Future<CompletableFuture<String>> result : results) {
+            assertEquals("shared", result.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+        assertEquals(1, loads.get());
+    }
+
+    private CompletableFuture<String> load(CompletableFuture<String> result) {
+        loads.incrementAndGet();
+        return result;
+    }
+}
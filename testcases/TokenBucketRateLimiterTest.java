@@ -0,0 +1,101 @@
+package com.example.qqq3xstrategy.data.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the token bucket rate limiter
+ */
+public class TokenBucketRateLimiterTest {
+
+    private ScheduledExecutorService scheduler;
+    private long now;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        now = 0;
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testBurstThenRefillRate() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 100, TimeUnit.MILLISECONDS, () -> now, scheduler);
+
+        // The burst is free, after that each permit is reserved one interval later
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), limiter.reserve());
+
+        // Time passing pays the reservations back before new permits accumulate
+        now += TimeUnit.MILLISECONDS.toNanos(250);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), limiter.reserve());
+
+        assertEquals(6, limiter.getAcquiredCount());
+        assertEquals(3, limiter.getDelayedCount());
+        assertEquals(200, limiter.getMaxWaitMillis(), 1e-9);
+        assertEquals((100 + 200 + 50) / 6.0, limiter.getAverageWaitMillis(), 1e-9);
+    }
+
+    @Test
+    public void testIdleBucketRefillsOnlyUpToBurst() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 100, TimeUnit.MILLISECONDS, () -> now, scheduler);
+        limiter.reserve();
+        limiter.reserve();
+
+        now += TimeUnit.SECONDS.toNanos(60);
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertTrue(limiter.reserve() > 0);
+    }
+
+    @Test
+    public void testExecuteDoesNotBlockCaller() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 30, TimeUnit.MILLISECONDS,
+                System::nanoTime, scheduler);
+        int tasks = 6;
+        CountDownLatch done = new CountDownLatch(tasks);
+        List<Long> startTimes = Collections.synchronizedList(new ArrayList<Long>());
+
+        long submitStart = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            limiter.execute(() -> {
+                startTimes.add(System.nanoTime());
+                done.countDown();
+            });
+        }
+        long submitNanos = System.nanoTime() - submitStart;
+
+        assertTrue("Submitting should not wait for permits", submitNanos < TimeUnit.MILLISECONDS.toNanos(30));
+        assertEquals(tasks - 2, limiter.getQueueDepth());
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(0, limiter.getQueueDepth());
+
+        // Four delayed tasks at one per 30 ms: the last one cannot start before ~120 ms
+        long last = Collections.max(startTimes);
+        assertTrue(last - submitStart >= TimeUnit.MILLISECONDS.toNanos(115));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInvalidBurst() {
+        new TokenBucketRateLimiter(0, 100, TimeUnit.MILLISECONDS, () -> now, scheduler);
+    }
+}
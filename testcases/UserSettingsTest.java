@@ -0,0 +1,48 @@
+package com.example.qqq3xstrategy.data.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class UserSettingsTest {
+
+    private UserSettings settings;
+    private String fingerprint;
+    
+    @Before
+    public void setUp() {
+        settings = new UserSettings();
+        fingerprint = settings.getHistoryFingerprint();
+    }
+    
+    @Test
+    public void testFingerprintFollowsSmaPeriods() {
+        settings.setSmaShort(6);
+        assertNotEquals(fingerprint, settings.getHistoryFingerprint());
+        settings.setSmaShort(5);
+        assertEquals(fingerprint, settings.getHistoryFingerprint());
+        
+        settings.setSmaLong3(10);
+        assertNotEquals(fingerprint, settings.getHistoryFingerprint());
+        settings.setSmaLong3(9);
+        
+        settings.setSmaYear(200);
+        assertNotEquals(fingerprint, settings.getHistoryFingerprint());
+    }
+    
+    @Test
+    public void testFingerprintFollowsSafeAsset() {
+        settings.setPreferredSafeAsset("SHY");
+        assertNotEquals(fingerprint, settings.getHistoryFingerprint());
+    }
+    
+    @Test
+    public void testFingerprintIgnoresOtherSettings() {
+        settings.setNotificationsEnabled(false);
+        settings.setTargetLeverage(2.0);
+        settings.setSafeRatio(0.3);
+        assertEquals(fingerprint, settings.getHistoryFingerprint());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.qqq3xstrategy.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.qqq3xstrategy.MarketDataFixtures;
+import com.example.qqq3xstrategy.data.models.UserSettings;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Unit tests for the walk-forward optimizer
+ */
+public class WalkForwardOptimizerTest {
+
+    private UserSettings base;
+    private BacktestData data;
+    private ParameterGrid grid;
+
+    @Before
+    public void setUp() {
+        base = new UserSettings();
+        data = MarketDataFixtures.backtestData(1500);
+        grid = new ParameterGrid(
+                new int[] {3, 5}, new int[] {10, 15},
+                new int[] {1}, new int[] {3, 5},
+                new int[] {3}, new int[] {9},
+                ParameterGrid.range(100, 200, 50));
+    }
+
+    @Test
+    public void testWholeRangeEvaluationMatchesFullBacktest() {
+        BacktestEngine engine = new BacktestEngine(grid.get(5, base));
+
+        BacktestMetrics full = engine.run(data).getMetrics();
+        BacktestMetrics range = engine.evaluate(data, 0, data.size());
+
+        assertEquals(full.getCagr(), range.getCagr(), 0.0);
+        assertEquals(full.getSharpe(), range.getSharpe(), 0.0);
+        assertEquals(full.getMaxDrawdown(), range.getMaxDrawdown(), 0.0);
+        assertEquals(full.getTradingDays(), range.getTradingDays());
+    }
+
+    @Test
+    public void testWindowsTileTheHistory() {
+        WalkForwardResult result = new WalkForwardOptimizer(data, base)
+                .run(grid, 500, 250, ParameterSweep.Ranking.SHARPE);
+
+        List<WalkForwardResult.Window> windows = result.getWindows();
+        assertEquals(4, windows.size());
+        for (int i = 0; i < windows.size(); i++) {
+            WalkForwardResult.Window window = windows.get(i);
+            assertEquals(500 + i * 250, window.getTestFrom());
+            assertEquals(window.getTestFrom() - 500, window.getTrainFrom());
+            assertEquals(Math.min(1500, window.getTestFrom() + 250), window.getTestTo());
+        }
+        assertEquals(1500, windows.get(windows.size() - 1).getTestTo());
+        assertEquals(500, result.getOutOfSample().getStartIndex());
+    }
+
+    @Test
+    public void testWinnersAreTheBestInSample() {
+        WalkForwardResult result = new WalkForwardOptimizer(data, base)
+                .run(grid, 500, 250, ParameterSweep.Ranking.CAGR);
+
+        for (WalkForwardResult.Window window : result.getWindows()) {
+            for (int i = 0; i < grid.size(); i++) {
+                BacktestMetrics candidate = new BacktestEngine(grid.get(i, base))
+                        .evaluate(data, window.getTrainFrom(), window.getTestFrom());
+                assertTrue(window.getBest().getMetrics().getCagr() >= candidate.getCagr());
+            }
+        }
+    }
+
+    @Test
+    public void testOutOfSampleCurveJoinsTestWindows() {
+        WalkForwardResult result = new WalkForwardOptimizer(data, base)
+                .run(grid, 500, 250, ParameterSweep.Ranking.SHARPE);
+        BacktestResult joined = result.getOutOfSample();
+
+        for (WalkForwardResult.Window window : result.getWindows()) {
+            // Trading the winner over its training and test window gives the same test days
+            double[] returns = new double[data.size()];
+            new BacktestEngine(window.getBest().getSettings()).simulateRange(data, window.getTrainFrom(),
+                    window.getTestFrom(), window.getTestTo(), new int[data.size()], new int[data.size()],
+                    returns, new double[data.size()]);
+            for (int i = window.getTestFrom(); i < window.getTestTo(); i++) {
+                assertEquals(returns[i], joined.getReturns()[i], 0.0);
+            }
+        }
+
+        double nav = BacktestEngine.INITIAL_CAPITAL;
+        for (int i = 500; i < data.size(); i++) {
+            nav *= 1 + joined.getReturns()[i];
+        }
+        assertEquals(nav, joined.getFinalEquity(), 1e-6);
+        assertEquals(1000, joined.getMetrics().getTradingDays());
+        assertEquals(nav / joined.getEquity()[500] - 1, joined.getMetrics().getTotalReturn(), 1e-9);
+    }
+
+    @Test
+    public void testParallelMatchesSingleThreaded() {
+        WalkForwardResult parallel = new WalkForwardOptimizer(data, base, new ForkJoinPool(4))
+                .run(grid, 400, 200, ParameterSweep.Ranking.CAGR);
+        WalkForwardResult sequential = new WalkForwardOptimizer(data, base, new ForkJoinPool(1))
+                .run(grid, 400, 200, ParameterSweep.Ranking.CAGR);
+
+        assertEquals(sequential.getOutOfSample().getFinalEquity(), parallel.getOutOfSample().getFinalEquity(), 0.0);
+        for (int i = 0; i < parallel.getWindows().size(); i++) {
+            assertEquals(sequential.getWindows().get(i).getOutOfSample().getCagr(),
+                    parallel.getWindows().get(i).getOutOfSample().getCagr(), 0.0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsHistoryShorterThanTrainingWindow() {
+        new WalkForwardOptimizer(data, base).run(grid, 1500, 250, ParameterSweep.Ranking.CAGR);
+    }
+}
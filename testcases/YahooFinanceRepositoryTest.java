@@ -0,0 +1,49 @@
+package com.example.qqq3xstrategy.data.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+/**
+ * Unit tests for where the history sync starts
+ */
+public class YahooFinanceRepositoryTest {
+    private static final LocalDate SNAPSHOT_END = LocalDate.of(2025, 4, 17);
+
+    @Test
+    public void testEmptyDatabaseStartsAtEarliestDate() {
+        LocalDate twoYearsAgo = LocalDate.of(2024, 6, 3);
+
+        assertEquals(twoYearsAgo, YahooFinanceRepository.getSyncStart(new LocalDate[4], twoYearsAgo));
+    }
+
+    @Test
+    public void testSnapshotEndingBeforeSyncWindowLeavesNoGap() {
+        // Fresh install two years after the bundled snapshot ends
+        LocalDate twoYearsAgo = LocalDate.of(2027, 6, 1);
+        LocalDate[] latest = {SNAPSHOT_END, SNAPSHOT_END, SNAPSHOT_END, SNAPSHOT_END};
+
+        LocalDate start = YahooFinanceRepository.getSyncStart(latest, twoYearsAgo);
+
+        assertEquals(SNAPSHOT_END.minusDays(5), start);
+    }
+
+    @Test
+    public void testStartsBeforeTheSymbolThatIsFurthestBehind() {
+        LocalDate[] latest = {
+                LocalDate.of(2026, 3, 10), LocalDate.of(2026, 3, 10), LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 10)
+        };
+
+        assertEquals(LocalDate.of(2026, 2, 25), YahooFinanceRepository.getSyncStart(latest, LocalDate.of(2024, 3, 10)));
+    }
+
+    @Test
+    public void testSymbolWithoutHistoryStartsAtEarliestDate() {
+        LocalDate twoYearsAgo = LocalDate.of(2024, 3, 10);
+        LocalDate[] latest = {LocalDate.of(2026, 3, 10), null, LocalDate.of(2026, 3, 10), LocalDate.of(2026, 3, 10)};
+
+        assertEquals(twoYearsAgo, YahooFinanceRepository.getSyncStart(latest, twoYearsAgo));
+    }
+}